@@ -23,6 +23,7 @@ import java.util.NoSuchElementException;
 
 import org.apache.brooklyn.api.internal.AbstractBrooklynObjectSpec;
 
+import com.google.common.annotations.Beta;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicate;
 
@@ -56,6 +57,24 @@ public interface BrooklynCatalog {
     /** convenience for filtering items in the catalog; see CatalogPredicates for useful filters */
     <T,SpecT> Iterable<CatalogItem<T,SpecT>> getCatalogItems(Predicate<? super CatalogItem<T,SpecT>> filter);
 
+    /** @return All versions of the given {@link CatalogItem#getSymbolicName() symbolicName}, best version first; 
+     * includes disabled items */
+    @Beta
+    <T,SpecT> Iterable<CatalogItem<T,SpecT>> getCatalogItemVersions(String symbolicName);
+
+    /** @return All items of the given {@link CatalogItem#getCatalogItemType() type}; 
+     * cheaper than {@link #getCatalogItems(Predicate)} with a filter on the type */
+    @Beta
+    <T,SpecT> Iterable<CatalogItem<T,SpecT>> getCatalogItemsOfType(CatalogItem.CatalogItemType type);
+
+    /** @return All items whose {@link CatalogItem#getJavaType() javaType} is the given class name */
+    @Beta
+    <T,SpecT> Iterable<CatalogItem<T,SpecT>> getCatalogItemsWithJavaType(String javaType);
+
+    /** @return All items with the given tag */
+    @Beta
+    <T,SpecT> Iterable<CatalogItem<T,SpecT>> getCatalogItemsWithTag(Object tag);
+
     /** persists the catalog item to the object store, if persistence is enabled */
     public void persist(CatalogItem<?, ?> catalogItem);
 
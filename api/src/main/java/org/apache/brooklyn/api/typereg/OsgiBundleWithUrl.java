@@ -18,6 +18,8 @@
  */
 package org.apache.brooklyn.api.typereg;
 
+import javax.annotation.Nullable;
+
 import com.google.common.annotations.Beta;
 
 @Beta
@@ -29,6 +31,11 @@ public interface OsgiBundleWithUrl {
     /** where this bundle can be downloaded; typically required unless we are guaranteed the bundle will be manually installed */
     public String getUrl();
     
+    /** hex SHA-256 checksum of the bundle's content, against which downloads from {@link #getUrl()} are verified;
+     * or null if not known */
+    @Nullable
+    public String getChecksum();
+    
     /** @return true if we have a name and version for this bundle;
      * false if not, e.g. if we only know the URL and we haven't loaded it yet */
     public boolean isNameResolved();
@@ -21,13 +21,17 @@ package org.apache.brooklyn.camp.spi.collection;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.brooklyn.camp.spi.AbstractResource;
 import org.apache.brooklyn.util.collections.MutableMap;
 
 public class BasicResourceLookup<T extends AbstractResource> extends AbstractResourceLookup<T> {
 
-    Map<String,T> items = new MutableMap<String,T>();
+    /** concurrent, so that {@link #get(String)} can be called (e.g. by threads resolving a blueprint) while items are added, without locking */
+    ConcurrentMap<String,T> items = new ConcurrentHashMap<String,T>();
+    /** guarded by this; ordered, as links are listed in the order added */
     Map<String,ResolvableLink<T>> links = new MutableMap<String,ResolvableLink<T>>();
     
     public T get(String id) {
@@ -39,9 +43,8 @@ public class BasicResourceLookup<T extends AbstractResource> extends AbstractRes
     }
 
     public synchronized void add(T item) {
-        T old = items.put(item.getId(), item);
+        T old = items.putIfAbsent(item.getId(), item);
         if (old!=null) {
-            items.put(old.getId(), old);
             throw new IllegalStateException("Already contains item for "+item.getId()+": "+old+" (adding "+item+")");
         }
         links.put(item.getId(), newLink(item.getId(), item.getName()));
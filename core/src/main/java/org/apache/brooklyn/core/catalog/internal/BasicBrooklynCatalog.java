@@ -21,11 +21,16 @@ package org.apache.brooklyn.core.catalog.internal;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import javax.annotation.Nullable;
 
@@ -37,20 +42,25 @@ import org.apache.brooklyn.api.internal.AbstractBrooklynObjectSpec;
 import org.apache.brooklyn.api.location.Location;
 import org.apache.brooklyn.api.location.LocationSpec;
 import org.apache.brooklyn.api.mgmt.ManagementContext;
+import org.apache.brooklyn.api.mgmt.Task;
 import org.apache.brooklyn.api.mgmt.classloading.BrooklynClassLoadingContext;
-import org.apache.brooklyn.core.catalog.CatalogPredicates;
+import org.apache.brooklyn.config.ConfigKey;
 import org.apache.brooklyn.core.catalog.internal.CatalogClasspathDo.CatalogScanningModes;
+import org.apache.brooklyn.core.config.ConfigKeys;
 import org.apache.brooklyn.core.location.BasicLocationRegistry;
+import org.apache.brooklyn.core.mgmt.BrooklynTaskTags;
 import org.apache.brooklyn.core.mgmt.internal.ManagementContextInternal;
 import org.apache.brooklyn.core.typereg.BrooklynTypePlanTransformer;
 import org.apache.brooklyn.util.collections.MutableList;
 import org.apache.brooklyn.util.collections.MutableMap;
 import org.apache.brooklyn.util.collections.MutableSet;
 import org.apache.brooklyn.util.core.flags.TypeCoercions;
+import org.apache.brooklyn.util.core.task.Tasks;
 import org.apache.brooklyn.util.exceptions.Exceptions;
 import org.apache.brooklyn.util.guava.Maybe;
 import org.apache.brooklyn.util.javalang.AggregateClassLoader;
 import org.apache.brooklyn.util.javalang.LoadedClassLoader;
+import org.apache.brooklyn.util.text.Identifiers;
 import org.apache.brooklyn.util.text.Strings;
 import org.apache.brooklyn.util.time.Duration;
 import org.apache.brooklyn.util.time.Time;
@@ -60,12 +70,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.Yaml;
 
+import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
-import com.google.common.base.Predicates;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Iterables;
 
 /* TODO the complex tree-structured catalogs are only useful when we are relying on those separate catalog classloaders
@@ -75,6 +85,18 @@ public class BasicBrooklynCatalog implements BrooklynCatalog {
     public static final String LOCATIONS_KEY = "brooklyn.locations";
     public static final String NO_VERSION = "0.0.0.SNAPSHOT";
 
+    @Beta
+    public static final ConfigKey<Integer> SPEC_TEMPLATE_CACHE_MAX_SIZE = ConfigKeys.newIntegerConfigKey(
+            "brooklyn.catalog.specTemplateCache.maxSize",
+            "Maximum number of specs created from catalog items to keep for reuse by later deployments; 0 to disable",
+            1000);
+
+    @Beta
+    public static final ConfigKey<Integer> BULK_ADD_MAX_THREADS = ConfigKeys.newIntegerConfigKey(
+            "brooklyn.catalog.bulkAdd.maxThreads",
+            "Maximum number of catalog BOMs to parse at the same time when adding many at once, e.g. on startup",
+            8);
+
     private static final Logger log = LoggerFactory.getLogger(BasicBrooklynCatalog.class);
 
     public static class BrooklynLoaderTracker {
@@ -99,6 +121,9 @@ public class BasicBrooklynCatalog implements BrooklynCatalog {
     private volatile CatalogDo manualAdditionsCatalog;
     private volatile LoadedClassLoader manualAdditionsClasses;
     private final AggregateClassLoader rootClassLoader = AggregateClassLoader.newInstanceWithNoLoaders();
+    private final SpecTemplateCache specTemplateCache;
+    private final String instanceId = Identifiers.makeRandomId(8);
+    private final AtomicLong modificationCount = new AtomicLong();
 
     public BasicBrooklynCatalog(ManagementContext mgmt) {
         this(mgmt, CatalogDto.newNamedInstance("empty catalog", "empty catalog", "empty catalog, expected to be reset later"));
@@ -107,6 +132,8 @@ public class BasicBrooklynCatalog implements BrooklynCatalog {
     public BasicBrooklynCatalog(ManagementContext mgmt, CatalogDto dto) {
         this.mgmt = checkNotNull(mgmt, "managementContext");
         this.catalog = new CatalogDo(mgmt, dto);
+        Integer specTemplateCacheMaxSize = mgmt.getConfig().getConfig(SPEC_TEMPLATE_CACHE_MAX_SIZE);
+        this.specTemplateCache = new SpecTemplateCache(specTemplateCacheMaxSize==null ? 0 : specTemplateCacheMaxSize);
     }
 
     public boolean blockIfNotLoaded(Duration timeout) {
@@ -136,6 +163,7 @@ public class BasicBrooklynCatalog implements BrooklynCatalog {
         this.catalog = catalog;
         resetRootClassLoader();
         this.manualAdditionsCatalog = null;
+        onItemsChanged();
 
         // Inject management context into and persist all the new entries.
         for (CatalogItem<?, ?> entry : getCatalogItems()) {
@@ -175,41 +203,39 @@ public class BasicBrooklynCatalog implements BrooklynCatalog {
         return catalog;
     }
 
-    protected CatalogItemDo<?,?> getCatalogItemDo(String symbolicName, String version) {
-        String fixedVersionId = getFixedVersionId(symbolicName, version);
-        if (fixedVersionId == null) {
-            //no items with symbolicName exist
-            return null;
-        }
+    /** specs created from the items in this catalog, for reuse; invalidated whenever an item is changed */
+    @Beta
+    public SpecTemplateCache getSpecTemplateCache() {
+        return specTemplateCache;
+    }
 
-        return catalog.getIdCache().get( CatalogUtils.getVersionedId(symbolicName, fixedVersionId) );
+    /**
+     * A tag which changes whenever an item is added to, changed in or removed from this catalog,
+     * so callers can tell cheaply whether the catalog has changed since they last looked,
+     * e.g. to answer a REST request with <code>304 Not Modified</code>.
+     * Tags are unique to this catalog instance, so are not repeated after a restart.
+     */
+    @Beta
+    public String getModificationTag() {
+        return instanceId+"-"+modificationCount.get();
     }
-    
-    private String getFixedVersionId(String symbolicName, String version) {
-        if (version!=null && !DEFAULT_VERSION.equals(version)) {
-            return version;
-        } else {
-            return getBestVersion(symbolicName);
-        }
+
+    private void onItemsChanged() {
+        modificationCount.incrementAndGet();
+        specTemplateCache.invalidateAll();
     }
 
-    /** returns best version, as defined by {@link BrooklynCatalog#getCatalogItem(String, String)} */
-    private String getBestVersion(String symbolicName) {
-        Iterable<CatalogItem<Object, Object>> versions = getCatalogItems(Predicates.and(
-                CatalogPredicates.disabled(false),
-                CatalogPredicates.symbolicName(Predicates.equalTo(symbolicName))));
-        Collection<CatalogItem<Object, Object>> orderedVersions = sortVersionsDesc(versions);
-        if (!orderedVersions.isEmpty()) {
-            return orderedVersions.iterator().next().getVersion();
+    protected CatalogItemDo<?,?> getCatalogItemDo(String symbolicName, String version) {
+        // look up the best version and the item in the same snapshot of the index
+        CatalogItemIndex index = catalog.getIndex();
+        if (version!=null && !DEFAULT_VERSION.equals(version)) {
+            return index.getById( CatalogUtils.getVersionedId(symbolicName, version) );
         } else {
-            return null;
+            // best version, as defined by {@link BrooklynCatalog#getCatalogItem(String, String)}; null if no items with symbolicName exist
+            return index.getBestVersion(symbolicName);
         }
     }
 
-    private <T,SpecT> Collection<CatalogItem<T,SpecT>> sortVersionsDesc(Iterable<CatalogItem<T,SpecT>> versions) {
-        return ImmutableSortedSet.orderedBy(CatalogItemComparator.<T,SpecT>getInstance()).addAll(versions).build();
-    }
-
     @Override
     public CatalogItem<?,?> getCatalogItem(String symbolicName, String version) {
         if (symbolicName == null) return null;
@@ -237,6 +263,7 @@ public class BasicBrooklynCatalog implements BrooklynCatalog {
         
         // Ensure the cache is de-populated
         getCatalog().deleteEntry(itemDto);
+        onItemsChanged();
 
         // And indicate to the management context that it should be removed.
         if (log.isTraceEnabled()) {
@@ -265,6 +292,9 @@ public class BasicBrooklynCatalog implements BrooklynCatalog {
     @Override
     public void persist(CatalogItem<?, ?> catalogItem) {
         checkArgument(getCatalogItem(catalogItem.getSymbolicName(), catalogItem.getVersion()) != null, "Unknown catalog item %s", catalogItem);
+        // its tags may have changed
+        getCatalog().reindexEntry(catalogItem.getId());
+        onItemsChanged();
         mgmt.getRebindManager().getChangeListener().onChanged(catalogItem);
     }
     
@@ -286,6 +316,7 @@ public class BasicBrooklynCatalog implements BrooklynCatalog {
     public void load() {
         log.debug("Loading catalog for " + mgmt);
         getCatalog().load(mgmt, null);
+        onItemsChanged();
         if (log.isDebugEnabled()) {
             log.debug("Loaded catalog for " + mgmt + ": " + catalog + "; search classpath is " + catalog.getRootClassLoader());
         }
@@ -299,8 +330,16 @@ public class BasicBrooklynCatalog implements BrooklynCatalog {
         if (loadedItem == null) throw new RuntimeException(item+" not in catalog; cannot create spec");
         if (loadedItem.getSpecType()==null) return null;
 
-        SpecT spec = internalCreateSpecLegacy(mgmt, loadedItem, MutableSet.<String>of(), true);
+        List<Object> templateKey = Arrays.<Object>asList("legacy", loadedItem.getId(), loadedItem.getVersion(), loadedItem.getPlanYaml(),
+            BrooklynLoaderTracker.getLoader());
+        SpecT spec = specTemplateCache.get(templateKey);
+        if (spec != null) {
+            return spec;
+        }
+        long generation = specTemplateCache.getGeneration();
+        spec = internalCreateSpecLegacy(mgmt, loadedItem, MutableSet.<String>of(), true);
         if (spec != null) {
+            specTemplateCache.put(templateKey, generation, spec);
             return spec;
         }
 
@@ -861,38 +900,197 @@ public class BasicBrooklynCatalog implements BrooklynCatalog {
         List<CatalogItemDtoAbstract<?, ?>> result = collectCatalogItems(yaml);
 
         // do this at the end for atomic updates; if there are intra-yaml references, we handle them specially
-        for (CatalogItemDtoAbstract<?, ?> item: result) {
-            addItemDto(item, forceUpdate);
+        Map<String, Exception> errors = MutableMap.of();
+        addItemDtos(MutableMap.<String, List<CatalogItemDtoAbstract<?, ?>>>of("yaml", result), forceUpdate, errors);
+        if (!errors.isEmpty()) throw Exceptions.propagate(Iterables.getOnlyElement(errors.values()));
+        return result;
+    }
+
+    /**
+     * Adds the items from many catalog BOMs at once, as when initializing a large catalog.
+     * <p>
+     * The BOMs are parsed in parallel (up to {@link #BULK_ADD_MAX_THREADS} at a time).
+     * Items from the BOMs which could be parsed are then validated together and added to the catalog
+     * in one go, so the catalog index is rebuilt once rather than for every item.
+     * A BOM which could not be parsed, e.g. because it refers to items in another BOM in the batch,
+     * is retried after that, for as long as each round adds something, 
+     * so BOMs can be supplied in any order with respect to their dependencies.
+     * <p>
+     * As with {@link #addItems(String, boolean)}, the items in a BOM are added all or none,
+     * but a BOM which fails does not prevent others being added; failures are given in the result
+     * (and only logged at debug, so callers should report them).
+     * 
+     * @param bomsBySource the YAML of each BOM, keyed by a description of where it came from, e.g. its URL, for reporting
+     */
+    @Beta
+    public CatalogBulkAddReport addItemsInBulk(Map<String, String> bomsBySource, boolean forceUpdate) {
+        checkNotNull(bomsBySource, "bomsBySource");
+        log.debug("Adding "+bomsBySource.size()+" catalog BOMs to "+mgmt);
+        Stopwatch timer = Stopwatch.createStarted();
+        Duration parseTime = Duration.ZERO;
+        Duration commitTime = Duration.ZERO;
+        List<CatalogItem<?,?>> items = MutableList.of();
+        Map<String, Exception> errors = MutableMap.of();
+        Map<String, String> pending = MutableMap.copyOf(bomsBySource);
+        int rounds = 0;
+        
+        while (!pending.isEmpty()) {
+            rounds++;
+            Stopwatch stageTimer = Stopwatch.createStarted();
+            Map<String, List<CatalogItemDtoAbstract<?, ?>>> parsed = MutableMap.of();
+            Map<String, Exception> parseErrors = MutableMap.of();
+            collectCatalogItemsInParallel(pending, parsed, parseErrors);
+            parseTime = parseTime.add(Duration.of(stageTimer));
+            
+            if (parsed.isEmpty()) {
+                // nothing more can be resolved
+                errors.putAll(parseErrors);
+                break;
+            }
+            stageTimer = Stopwatch.createStarted();
+            items.addAll(addItemDtos(parsed, forceUpdate, errors));
+            commitTime = commitTime.add(Duration.of(stageTimer));
+            
+            Map<String, String> retry = MutableMap.of();
+            for (String source: parseErrors.keySet()) {
+                retry.put(source, pending.get(source));
+            }
+            pending = retry;
+            log.debug("Catalog bulk add round "+rounds+": added "+parsed.size()+" BOMs, "+pending.size()+" remaining; "
+                + items.size()+" items so far in "+Time.makeTimeStringRounded(timer));
+        }
+        
+        CatalogBulkAddReport result = new CatalogBulkAddReport(bomsBySource.size(), items, errors, rounds, 
+            parseTime, commitTime, Duration.of(timer));
+        if (errors.isEmpty()) {
+            log.debug("Added to catalog: "+result);
+        } else {
+            // not warned here, as the caller may have other ways to load the BOMs which failed (e.g. as XML);
+            // it is up to the caller to report the errors if they are not otherwise dealt with
+            log.debug("Added to catalog, with errors: "+result);
+            for (Map.Entry<String, Exception> error: errors.entrySet()) {
+                log.debug("Error adding catalog BOM "+error.getKey()+": "+error.getValue(), error.getValue());
+            }
         }
         return result;
     }
-    
-    private CatalogItem<?,?> addItemDto(CatalogItemDtoAbstract<?, ?> itemDto, boolean forceUpdate) {
-        CatalogItem<?, ?> existingDto = checkItemAllowedAndIfSoReturnAnyDuplicate(itemDto, true, forceUpdate);
-        if (existingDto!=null) {
-            // it's a duplicate, and not forced, just return it
-            log.trace("Using existing duplicate for catalog item {}", itemDto.getId());
-            return existingDto;
+
+    /** parses each of the given BOMs, putting the result or the failure in the given maps, in the order of the given BOMs */
+    private void collectCatalogItemsInParallel(Map<String, String> bomsBySource, 
+            Map<String, List<CatalogItemDtoAbstract<?, ?>>> parsed, Map<String, Exception> errors) {
+        final List<Map.Entry<String, String>> boms = MutableList.copyOf(bomsBySource.entrySet());
+        final AtomicReferenceArray<Object> results = new AtomicReferenceArray<Object>(boms.size());
+        final AtomicInteger nextIndex = new AtomicInteger();
+        Callable<Void> worker = new Callable<Void>() {
+            @Override
+            public Void call() {
+                int i;
+                while ((i = nextIndex.getAndIncrement()) < boms.size()) {
+                    try {
+                        results.set(i, collectCatalogItems(boms.get(i).getValue()));
+                    } catch (Exception e) {
+                        Exceptions.propagateIfFatal(e);
+                        results.set(i, e);
+                    }
+                }
+                return null;
+            }
+        };
+        
+        Integer maxThreads = mgmt.getConfig().getConfig(BULK_ADD_MAX_THREADS);
+        int threads = Math.min(boms.size(), maxThreads==null ? 1 : maxThreads);
+        if (threads <= 1) {
+            try {
+                worker.call();
+            } catch (Exception e) {
+                throw Exceptions.propagate(e);
+            }
+        } else {
+            List<Task<Void>> tasks = MutableList.of();
+            for (int t=0; t<threads; t++) {
+                tasks.add(mgmt.getExecutionManager().submit(Tasks.<Void>builder().displayName("parsing catalog BOMs").body(worker)
+                    .tag(BrooklynTaskTags.TRANSIENT_TASK_TAG).build()));
+            }
+            for (Task<Void> task: tasks) {
+                task.blockUntilEnded();
+            }
+        }
+        
+        for (int i=0; i<boms.size(); i++) {
+            Object result = results.get(i);
+            if (result instanceof Exception) {
+                errors.put(boms.get(i).getKey(), (Exception) result);
+            } else if (result==null) {
+                // worker task was cancelled
+                errors.put(boms.get(i).getKey(), new IllegalStateException("Catalog BOM "+boms.get(i).getKey()+" was not parsed"));
+            } else {
+                @SuppressWarnings("unchecked")
+                List<CatalogItemDtoAbstract<?, ?>> items = (List<CatalogItemDtoAbstract<?, ?>>) result;
+                parsed.put(boms.get(i).getKey(), items);
+            }
         }
+    }
+
+    /**
+     * Validates the items from each source, then adds all the valid ones to the catalog at once.
+     * Sources are all or nothing: if any item in a source is not allowed, the error is put in the given map
+     * and none of the items from that source are added. 
+     * @return the items added, or the identical items already present which they duplicate
+     */
+    private List<CatalogItem<?,?>> addItemDtos(Map<String, List<CatalogItemDtoAbstract<?, ?>>> itemsBySource, boolean forceUpdate, Map<String, Exception> errors) {
+        List<CatalogItem<?,?>> result = MutableList.of();
+        Map<String, CatalogItemDtoAbstract<?, ?>> toAdd = MutableMap.of();
+        for (Map.Entry<String, List<CatalogItemDtoAbstract<?, ?>>> source: itemsBySource.entrySet()) {
+            List<CatalogItem<?,?>> sourceResult = MutableList.of();
+            Map<String, CatalogItemDtoAbstract<?, ?>> sourceToAdd = MutableMap.of();
+            try {
+                for (CatalogItemDtoAbstract<?, ?> itemDto: source.getValue()) {
+                    // items earlier in the batch are treated as if already in the catalog
+                    CatalogItemDtoAbstract<?, ?> earlierDto = sourceToAdd.get(itemDto.getId());
+                    if (earlierDto==null) earlierDto = toAdd.get(itemDto.getId());
+                    CatalogItem<?, ?> existingDto = (earlierDto!=null) 
+                        ? checkItemAllowedAndIfSoReturnAnyDuplicate(itemDto, earlierDto, true, forceUpdate)
+                        : checkItemAllowedAndIfSoReturnAnyDuplicate(itemDto, true, forceUpdate);
+                    if (existingDto!=null) {
+                        // it's a duplicate, and not forced, just return it
+                        log.trace("Using existing duplicate for catalog item {}", itemDto.getId());
+                        sourceResult.add(existingDto);
+                    } else {
+                        sourceToAdd.put(itemDto.getId(), itemDto);
+                        sourceResult.add(itemDto);
+                    }
+                }
+            } catch (Exception e) {
+                Exceptions.propagateIfFatal(e);
+                errors.put(source.getKey(), e);
+                continue;
+            }
+            toAdd.putAll(sourceToAdd);
+            result.addAll(sourceResult);
+        }
+        if (toAdd.isEmpty()) return result;
 
         if (manualAdditionsCatalog==null) loadManualAdditionsCatalog();
-        manualAdditionsCatalog.addEntry(itemDto);
+        List<CatalogItemDtoAbstract<?, ?>> itemDtos = MutableList.copyOf(toAdd.values());
+        manualAdditionsCatalog.addEntries(itemDtos);
 
         // Ensure the cache is populated and it is persisted by the management context
-        getCatalog().addEntry(itemDto);
+        getCatalog().addEntries(itemDtos);
+        onItemsChanged();
 
-        // Request that the management context persist the item.
-        if (log.isTraceEnabled()) {
-            log.trace("Scheduling item for persistence addition: {}", itemDto.getId());
-        }
-        if (itemDto.getCatalogItemType() == CatalogItemType.LOCATION) {
-            @SuppressWarnings("unchecked")
-            CatalogItem<Location,LocationSpec<?>> locationItem = (CatalogItem<Location, LocationSpec<?>>) itemDto;
-            ((BasicLocationRegistry)mgmt.getLocationRegistry()).updateDefinedLocation(locationItem);
+        // Request that the management context persist the items.
+        for (CatalogItemDtoAbstract<?, ?> itemDto: itemDtos) {
+            if (log.isTraceEnabled()) {
+                log.trace("Scheduling item for persistence addition: {}", itemDto.getId());
+            }
+            if (itemDto.getCatalogItemType() == CatalogItemType.LOCATION) {
+                @SuppressWarnings("unchecked")
+                CatalogItem<Location,LocationSpec<?>> locationItem = (CatalogItem<Location, LocationSpec<?>>) itemDto;
+                ((BasicLocationRegistry)mgmt.getLocationRegistry()).updateDefinedLocation(locationItem);
+            }
+            mgmt.getRebindManager().getChangeListener().onManaged(itemDto);
         }
-        mgmt.getRebindManager().getChangeListener().onManaged(itemDto);
-
-        return itemDto;
+        return result;
     }
 
     /** returns item DTO if item is an allowed duplicate, or null if it should be added (there is no duplicate), 
@@ -901,10 +1099,15 @@ public class BasicBrooklynCatalog implements BrooklynCatalog {
         if (forceUpdate) return null;
         CatalogItemDo<?, ?> existingItem = getCatalogItemDo(itemDto.getSymbolicName(), itemDto.getVersion());
         if (existingItem == null) return null;
+        return checkItemAllowedAndIfSoReturnAnyDuplicate(itemDto, existingItem.getDto(), allowDuplicates, forceUpdate)!=null ? existingItem : null;
+    }
+
+    /** as {@link #checkItemAllowedAndIfSoReturnAnyDuplicate(CatalogItem, boolean, boolean)}, given the existing item with the same id */
+    private CatalogItem<?, ?> checkItemAllowedAndIfSoReturnAnyDuplicate(CatalogItem<?,?> itemDto, CatalogItem<?,?> existingDto, boolean allowDuplicates, boolean forceUpdate) {
+        if (forceUpdate) return null;
         // check if they are equal
-        CatalogItem<?, ?> existingDto = existingItem.getDto();
         if (existingDto.equals(itemDto)) {
-            if (allowDuplicates) return existingItem;
+            if (allowDuplicates) return existingDto;
             throw new IllegalStateException("Updating existing catalog entries, even with the same content, is forbidden: " +
                     itemDto.getSymbolicName() + ":" + itemDto.getVersion() + ". Use forceUpdate argument to override.");
         } else {
@@ -921,6 +1124,7 @@ public class BasicBrooklynCatalog implements BrooklynCatalog {
         CatalogUtils.installLibraries(mgmt, item.getLibraries());
         if (manualAdditionsCatalog==null) loadManualAdditionsCatalog();
         manualAdditionsCatalog.addEntry(getAbstractCatalogItem(item));
+        onItemsChanged();
     }
 
     @Override @Deprecated /** @deprecated see super */
@@ -930,6 +1134,7 @@ public class BasicBrooklynCatalog implements BrooklynCatalog {
         checkNotNull(type, "type");
         if (manualAdditionsCatalog==null) loadManualAdditionsCatalog();
         manualAdditionsClasses.addClass(type);
+        onItemsChanged();
         return manualAdditionsCatalog.classpath.addCatalogEntry(type);
     }
 
@@ -969,16 +1174,41 @@ public class BasicBrooklynCatalog implements BrooklynCatalog {
             log.debug("Forcing catalog load on access of catalog items");
             load();
         }
-        return ImmutableList.copyOf((Iterable)catalog.getIdCache().values());
+        return ImmutableList.copyOf((Iterable)catalog.getIndex().getAll());
     }
     
     @SuppressWarnings({ "unchecked", "rawtypes" })
     @Override
     public <T,SpecT> Iterable<CatalogItem<T,SpecT>> getCatalogItems(Predicate<? super CatalogItem<T,SpecT>> filter) {
-        Iterable<CatalogItemDo<T,SpecT>> filtered = Iterables.filter((Iterable)catalog.getIdCache().values(), (Predicate<CatalogItem<T,SpecT>>)(Predicate) filter);
+        Iterable<CatalogItemDo<T,SpecT>> filtered = Iterables.filter((Iterable)catalog.getIndex().getAll(), (Predicate<CatalogItem<T,SpecT>>)(Predicate) filter);
         return Iterables.transform(filtered, BasicBrooklynCatalog.<T,SpecT>itemDoToDto());
     }
 
+    @Override
+    public <T,SpecT> Iterable<CatalogItem<T,SpecT>> getCatalogItemVersions(String symbolicName) {
+        return itemDosToDtos(catalog.getIndex().getVersions(symbolicName));
+    }
+
+    @Override
+    public <T,SpecT> Iterable<CatalogItem<T,SpecT>> getCatalogItemsOfType(CatalogItemType type) {
+        return itemDosToDtos(catalog.getIndex().getByItemType(type));
+    }
+
+    @Override
+    public <T,SpecT> Iterable<CatalogItem<T,SpecT>> getCatalogItemsWithJavaType(String javaType) {
+        return itemDosToDtos(catalog.getIndex().getByJavaType(javaType));
+    }
+
+    @Override
+    public <T,SpecT> Iterable<CatalogItem<T,SpecT>> getCatalogItemsWithTag(Object tag) {
+        return itemDosToDtos(catalog.getIndex().getByTag(tag));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <T,SpecT> Iterable<CatalogItem<T,SpecT>> itemDosToDtos(Iterable<CatalogItemDo<?,?>> items) {
+        return Iterables.transform((Iterable<CatalogItemDo<T,SpecT>>)(Iterable)items, BasicBrooklynCatalog.<T,SpecT>itemDoToDto());
+    }
+
     private static <T,SpecT> Function<CatalogItemDo<T,SpecT>, CatalogItem<T,SpecT>> itemDoToDto() {
         return new Function<CatalogItemDo<T,SpecT>, CatalogItem<T,SpecT>>() {
             @Override
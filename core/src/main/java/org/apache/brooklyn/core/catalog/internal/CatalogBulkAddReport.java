@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.catalog.internal;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.brooklyn.api.catalog.CatalogItem;
+import org.apache.brooklyn.util.time.Duration;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * The outcome of {@link BasicBrooklynCatalog#addItemsInBulk(Map, boolean)}:
+ * the items added, the BOMs which could not be added (with the reason), and how long each stage took.
+ */
+@Beta
+public class CatalogBulkAddReport {
+
+    private final int bomCount;
+    private final List<CatalogItem<?,?>> items;
+    private final Map<String, Exception> errors;
+    private final int rounds;
+    private final Duration parseTime;
+    private final Duration commitTime;
+    private final Duration totalTime;
+
+    CatalogBulkAddReport(int bomCount, List<? extends CatalogItem<?,?>> items, Map<String, Exception> errors, int rounds,
+            Duration parseTime, Duration commitTime, Duration totalTime) {
+        this.bomCount = bomCount;
+        this.items = ImmutableList.<CatalogItem<?,?>>copyOf(items);
+        this.errors = ImmutableMap.copyOf(errors);
+        this.rounds = rounds;
+        this.parseTime = parseTime;
+        this.commitTime = commitTime;
+        this.totalTime = totalTime;
+    }
+
+    /** the number of BOMs supplied */
+    public int getBomCount() {
+        return bomCount;
+    }
+
+    /** the items in the BOMs which were added, including any identical items which were already in the catalog */
+    public List<CatalogItem<?,?>> getItems() {
+        return items;
+    }
+
+    /** the error for each BOM which could not be added, keyed by its source */
+    public Map<String, Exception> getErrors() {
+        return errors;
+    }
+
+    /** the number of parse-and-commit rounds needed, more than one if some BOMs refer to items in others */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /** time spent parsing and resolving the BOMs (in parallel), over all rounds */
+    public Duration getParseTime() {
+        return parseTime;
+    }
+
+    /** time spent validating the parsed items and adding them to the catalog, over all rounds */
+    public Duration getCommitTime() {
+        return commitTime;
+    }
+
+    public Duration getTotalTime() {
+        return totalTime;
+    }
+
+    @Override
+    public String toString() {
+        return items.size()+" items from "+(bomCount-errors.size())+" of "+bomCount+" BOMs"
+            +(errors.isEmpty() ? "" : " ("+errors.size()+" failed: "+errors.keySet()+")")
+            +" in "+totalTime.toStringRounded()+" (parse "+parseTime.toStringRounded()+", commit "+commitTime.toStringRounded()+", "+rounds+" round"+(rounds==1 ? "" : "s")+")";
+    }
+
+}
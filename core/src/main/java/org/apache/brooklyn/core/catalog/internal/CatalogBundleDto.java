@@ -18,6 +18,8 @@
  */
 package org.apache.brooklyn.core.catalog.internal;
 
+import javax.annotation.Nullable;
+
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 
@@ -27,10 +29,16 @@ public class CatalogBundleDto implements CatalogBundle {
     private String symbolicName;
     private String version;
     private String url;
+    private String checksum;
 
     public CatalogBundleDto() {}
 
     public CatalogBundleDto(String name, String version, String url) {
+        this(name, version, url, null);
+    }
+
+    /** @param checksum hex SHA-256 checksum of the bundle's content, if known, to verify downloads from the url */
+    public CatalogBundleDto(String name, String version, String url, @Nullable String checksum) {
         if (name == null && version == null) {
             Preconditions.checkNotNull(url, "url to an OSGi bundle is required");
         } else {
@@ -41,6 +49,7 @@ public class CatalogBundleDto implements CatalogBundle {
         this.symbolicName = name;
         this.version = version;
         this.url = url;
+        this.checksum = checksum;
     }
 
     @Override
@@ -66,12 +75,18 @@ public class CatalogBundleDto implements CatalogBundle {
         return url;
     }
 
+    @Override
+    public String getChecksum() {
+        return checksum;
+    }
+
     @Override
     public String toString() {
         return Objects.toStringHelper(this)
                 .add("symbolicName", symbolicName)
                 .add("version", version)
                 .add("url", url)
+                .add("checksum", checksum)
                 .toString();
     }
 
@@ -19,16 +19,20 @@
 package org.apache.brooklyn.core.catalog.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.brooklyn.api.catalog.CatalogItem.CatalogBundle;
 import org.apache.brooklyn.api.mgmt.ManagementContext;
 import org.apache.brooklyn.core.catalog.internal.CatalogClasspathDo.CatalogScanningModes;
+import org.apache.brooklyn.core.mgmt.ha.OsgiManager;
 import org.apache.brooklyn.core.mgmt.internal.ManagementContextInternal;
 import org.apache.brooklyn.util.collections.MutableList;
 import org.apache.brooklyn.util.exceptions.Exceptions;
+import org.apache.brooklyn.util.guava.Maybe;
 import org.apache.brooklyn.util.javalang.AggregateClassLoader;
 import org.apache.brooklyn.util.net.Urls;
 import org.apache.brooklyn.util.time.CountdownTimer;
@@ -51,6 +55,10 @@ public class CatalogDo {
     List<CatalogDo> childrenCatalogs = new ArrayList<CatalogDo>();
     CatalogClasspathDo classpath;
     private Map<String, CatalogItemDo<?,?>> cacheById;
+    /** index over {@link #cacheById}, built on demand and then updated in place with it (under this lock); null if not yet built */
+    private CatalogItemIndex.Builder indexBuilder;
+    /** immutable snapshot of {@link #indexBuilder}, taken on demand (under this lock) and read without locking; null if changed since */
+    private volatile CatalogItemIndex index;
 
     AggregateClassLoader childrenClassLoader = AggregateClassLoader.newInstanceWithNoLoaders();
     ClassLoader recursiveClassLoader;
@@ -133,6 +141,7 @@ public class CatalogDo {
     private void loadCatalogItems(boolean failOnLoadError) {
         Iterable<CatalogItemDtoAbstract<?, ?>> entries = dto.getUniqueEntries();
         if (entries!=null) {
+            prefetchLibraries(entries);
             for (CatalogItemDtoAbstract<?,?> entry : entries) {
                 try {
                     CatalogUtils.installLibraries(mgmt, entry.getLibraries());
@@ -148,6 +157,20 @@ public class CatalogDo {
         }
     }
 
+    /** downloads the bundles for all the given items in parallel, so they need not be fetched one at a time as each item is loaded */
+    private void prefetchLibraries(Iterable<CatalogItemDtoAbstract<?, ?>> entries) {
+        if (!(mgmt instanceof ManagementContextInternal)) return;
+        Maybe<OsgiManager> osgi = ((ManagementContextInternal)mgmt).getOsgiManager();
+        if (osgi.isAbsent()) return;
+        List<CatalogBundle> libraries = MutableList.of();
+        for (CatalogItemDtoAbstract<?,?> entry : entries) {
+            if (entry.getLibraries()!=null) libraries.addAll(entry.getLibraries());
+        }
+        if (libraries.size() > 1) {
+            osgi.get().prefetchBundles(libraries);
+        }
+    }
+
     public boolean blockIfNotLoaded(Duration timeout) throws InterruptedException {
         if (isLoaded()) return true;
         synchronized (this) {
@@ -183,6 +206,35 @@ public class CatalogDo {
         return cache;
     }
 
+    /** an immutable snapshot of the items, indexed for lookup; safe to use without synchronization */
+    protected CatalogItemIndex getIndex() {
+        CatalogItemIndex result = this.index;
+        if (result==null) result = buildIndex();
+        return result;
+    }
+
+    private synchronized CatalogItemIndex buildIndex() {
+        if (index==null) {
+            if (indexBuilder==null) indexBuilder = CatalogItemIndex.builder(getIdCache());
+            index = indexBuilder.build();
+        }
+        return index;
+    }
+
+    private void addToIndex(CatalogItemDo<?,?> cdo) {
+        if (indexBuilder != null) {
+            indexBuilder.add(cdo);
+            index = null;
+        }
+    }
+
+    private void removeFromIndex(String id) {
+        if (indexBuilder != null) {
+            indexBuilder.remove(id);
+            index = null;
+        }
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     protected synchronized Map<String, CatalogItemDo<?,?>> buildCaches() {
         if (cacheById != null) return cacheById;
@@ -216,6 +268,8 @@ public class CatalogDo {
     
     protected synchronized void clearCache(boolean deep) {
         this.cacheById = null;
+        this.indexBuilder = null;
+        this.index = null;
         if (deep) {
             for (CatalogDo child : childrenCatalogs) {
                 child.clearCache(true);
@@ -240,14 +294,47 @@ public class CatalogDo {
             @SuppressWarnings({ "unchecked", "rawtypes" })
             CatalogItemDo<?, ?> cdo = new CatalogItemDo(this, entry);
             cacheById.put(entry.getId(), cdo);
-        }        
-        clearParentCache();
+            addToIndex(cdo);
+            if (parent != null) parent.onChildEntryAdded(cdo);
+        } else {
+            clearParentCache();
+        }
         
         if (mgmt != null) {
             mgmt.getRebindManager().getChangeListener().onManaged(entry);
         }
    }
-    
+
+    /**
+     * Adds the given entries to the catalog, as {@link #addEntry(CatalogItemDtoAbstract)},
+     * but updating the caches of ancestors once for all the entries rather than for each one.
+     */
+    public synchronized void addEntries(Collection<? extends CatalogItemDtoAbstract<?,?>> entries) {
+        if (entries.isEmpty()) return;
+        List<CatalogItemDo<?,?>> added = MutableList.of();
+        for (CatalogItemDtoAbstract<?,?> entry : entries) {
+            dto.addEntry(entry);
+            if (cacheById != null) {
+                @SuppressWarnings({ "unchecked", "rawtypes" })
+                CatalogItemDo<?, ?> cdo = new CatalogItemDo(this, entry);
+                cacheById.put(entry.getId(), cdo);
+                addToIndex(cdo);
+                added.add(cdo);
+            }
+        }
+        if (cacheById != null) {
+            if (parent != null) parent.onChildEntriesAdded(added);
+        } else {
+            clearParentCache();
+        }
+
+        if (mgmt != null) {
+            for (CatalogItemDtoAbstract<?,?> entry : entries) {
+                mgmt.getRebindManager().getChangeListener().onManaged(entry);
+            }
+        }
+    }
+
     /**
      * Removes the given entry from the catalog.
      */
@@ -257,6 +344,7 @@ public class CatalogDo {
         // could do clearCache(false); but this is slightly more efficient...
         if (cacheById != null) {
             cacheById.remove(entry.getId());
+            removeFromIndex(entry.getId());
         }
         clearParentCache();
         
@@ -270,6 +358,49 @@ public class CatalogDo {
         }
     }
 
+    /**
+     * Updates the cache for an item added to a child catalog; 
+     * if another item has the same id, just clears the cache, as precedence is determined when it is rebuilt.
+     */
+    protected synchronized void onChildEntryAdded(CatalogItemDo<?, ?> cdo) {
+        if (cacheById == null) {
+            clearParentCache();
+        } else if (cacheById.containsKey(cdo.getId())) {
+            clearCache(false);
+        } else {
+            cacheById.put(cdo.getId(), cdo);
+            addToIndex(cdo);
+            if (parent != null) parent.onChildEntryAdded(cdo);
+        }
+    }
+
+    /** as {@link #onChildEntryAdded(CatalogItemDo)}, for many items, passing them to the parent together */
+    protected synchronized void onChildEntriesAdded(List<CatalogItemDo<?, ?>> cdos) {
+        if (cacheById == null) {
+            clearParentCache();
+            return;
+        }
+        for (CatalogItemDo<?, ?> cdo : cdos) {
+            if (cacheById.containsKey(cdo.getId())) {
+                clearCache(false);
+                return;
+            }
+        }
+        for (CatalogItemDo<?, ?> cdo : cdos) {
+            cacheById.put(cdo.getId(), cdo);
+            addToIndex(cdo);
+        }
+        if (parent != null) parent.onChildEntriesAdded(cdos);
+    }
+
+    /** updates the index for an item whose indexed attributes (e.g. tags) may have changed */
+    protected synchronized void reindexEntry(String id) {
+        if (cacheById != null && cacheById.containsKey(id)) {
+            addToIndex(cacheById.get(id));
+        }
+        if (parent != null) parent.reindexEntry(id);
+    }
+
     /** returns loaded catalog, if this has been loaded */
     CatalogDo addCatalog(CatalogDto child) {
         if (dto.catalogs == null)
@@ -21,6 +21,7 @@ package org.apache.brooklyn.core.catalog.internal;
 import java.io.File;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +33,7 @@ import org.apache.brooklyn.core.mgmt.ManagementContextInjectable;
 import org.apache.brooklyn.core.mgmt.internal.ManagementContextInternal;
 import org.apache.brooklyn.core.server.BrooklynServerConfig;
 import org.apache.brooklyn.util.collections.MutableList;
+import org.apache.brooklyn.util.collections.MutableMap;
 import org.apache.brooklyn.util.core.ResourceUtils;
 import org.apache.brooklyn.util.core.flags.TypeCoercions;
 import org.apache.brooklyn.util.exceptions.Exceptions;
@@ -75,7 +77,7 @@ public class CatalogInitialization implements ManagementContextInjectable {
     
     private String initialUri;
     private boolean reset;
-    private String additionsUri;
+    private final List<String> additionsUris = MutableList.of();
     private boolean force;
 
     private boolean disallowLocal = false;
@@ -99,7 +101,7 @@ public class CatalogInitialization implements ManagementContextInjectable {
     public CatalogInitialization(String initialUri, boolean reset, String additionUri, boolean force) {
         this.initialUri = initialUri;
         this.reset = reset;
-        this.additionsUri = additionUri;
+        if (Strings.isNonBlank(additionUri)) additionsUris.add(additionUri);
         this.force = force;
     }
     
@@ -107,6 +109,17 @@ public class CatalogInitialization implements ManagementContextInjectable {
         this(null, false, null, false);
     }
 
+    /**
+     * Adds a catalog BOM to be added to the catalog, as for the additions URI passed to the constructor.
+     * If several are given they are added together (see {@link BasicBrooklynCatalog#addItemsInBulk(Map, boolean)}),
+     * so can refer to each other in any order.
+     */
+    @Beta
+    public CatalogInitialization addAdditionsUri(String uri) {
+        if (Strings.isNonBlank(uri)) additionsUris.add(uri);
+        return this;
+    }
+
     @Override
     public void setManagementContext(ManagementContext managementContext) {
         Preconditions.checkNotNull(managementContext, "management context");
@@ -310,7 +323,9 @@ public class CatalogInitialization implements ManagementContextInjectable {
             // try YAML first
             try {
                 catalog.reset(MutableList.<CatalogItem<?,?>>of());
-                result = catalog.addItems(contents);
+                CatalogBulkAddReport report = catalog.addItemsInBulk(MutableMap.of(catalogUrl, contents), false);
+                if (!report.getErrors().isEmpty()) throw Iterables.getOnlyElement(report.getErrors().values());
+                result = report;
             } catch (Exception e) {
                 Exceptions.propagateIfFatal(e);
                 if (problem==null) problem = e;
@@ -350,7 +365,7 @@ public class CatalogInitialization implements ManagementContextInjectable {
 
     boolean hasRunAdditions = false;
     protected void populateAdditions(BasicBrooklynCatalog catalog) {
-        if (Strings.isNonBlank(additionsUri)) {
+        if (!additionsUris.isEmpty()) {
             if (disallowLocal) {
                 if (!hasRunAdditions) {
                     log.warn("CLI additions supplied but not supported when catalog load mode disallows local loads; ignoring.");
@@ -358,15 +373,24 @@ public class CatalogInitialization implements ManagementContextInjectable {
                 return;
             }   
             if (!hasRunAdditions) {
-                log.debug("Adding to catalog from CLI: "+additionsUri+" (force: "+force+")");
+                log.debug("Adding to catalog from CLI: "+additionsUris+" (force: "+force+")");
+            }
+            // several BOMs can be given; they are parsed in parallel and can refer to each other in any order
+            Map<String, String> boms = MutableMap.of();
+            for (String uri: additionsUris) {
+                boms.put(uri, new ResourceUtils(this).getResourceAsString(uri));
+            }
+            CatalogBulkAddReport report = catalog.addItemsInBulk(boms, force);
+            if (!report.getErrors().isEmpty()) {
+                // as when adding a single BOM, fail if any cannot be added (though the others will have been)
+                throw Exceptions.propagate("Unable to add "+report.getErrors().size()+" of "+boms.size()+" catalog BOMs from CLI: "+report,
+                    report.getErrors().values());
             }
-            Iterable<? extends CatalogItem<?, ?>> items = catalog.addItems(
-                new ResourceUtils(this).getResourceAsString(additionsUri), force);
             
             if (!hasRunAdditions)
-                log.debug("Added to catalog from CLI: "+items);
+                log.debug("Added to catalog from CLI: "+report.getItems()+" ("+report+")");
             else
-                log.debug("Added to catalog from CLI: count "+Iterables.size(items));
+                log.debug("Added to catalog from CLI: "+report);
             
             hasRunAdditions = true;
         }
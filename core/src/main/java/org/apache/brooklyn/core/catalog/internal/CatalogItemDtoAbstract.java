@@ -388,7 +388,8 @@ public abstract class CatalogItemDtoAbstract<T, SpecT> extends AbstractBrooklynO
 
     /**
      * Parses an instance of CatalogLibrariesDto from the given List. Expects the list entries
-     * to be either Strings or Maps of String -> String. Will skip items that are not.
+     * to be either Strings or Maps of String -> String (with keys name, version, url and optionally checksum).
+     * Will skip items that are not.
      */
     public static Collection<CatalogBundle> parseLibraries(Collection<?> possibleLibraries) {
         Collection<CatalogBundle> dto = MutableList.of();
@@ -398,7 +399,8 @@ public abstract class CatalogItemDtoAbstract<T, SpecT> extends AbstractBrooklynO
                 String name = stringValOrNull(entry, "name");
                 String version = stringValOrNull(entry, "version");
                 String url = stringValOrNull(entry, "url");
-                dto.add(new CatalogBundleDto(name, version, url));
+                String checksum = stringValOrNull(entry, "checksum");
+                dto.add(new CatalogBundleDto(name, version, url, checksum));
             } else if (object instanceof String) {
                 String inlineRef = (String) object;
 
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.catalog.internal;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.apache.brooklyn.api.catalog.CatalogItem;
+import org.apache.brooklyn.api.catalog.CatalogItem.CatalogItemType;
+import org.apache.brooklyn.util.collections.MutableList;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Immutable index over the items in a {@link CatalogDo}, by id, symbolic name (with versions sorted best first,
+ * as per {@link CatalogItemComparator}), item type, java type and tag.
+ * <p>
+ * Each instance is a consistent snapshot, so can be read without locking, and lookups for different keys 
+ * agree with each other. The owning {@link CatalogDo} keeps a {@link Builder} up to date in place, under its lock,
+ * so adding or removing an item costs about the same however big the catalog is; it takes a new snapshot 
+ * only when the index is next read after a change, so a batch of changes costs one snapshot.
+ * Items are kept in the order they were indexed; an item replaced by one with the same id keeps its position.
+ * Whether an item is deprecated or disabled is not indexed, as that can be changed on the item itself;
+ * it is cheap to check against the (few) versions of a symbolic name.
+ */
+@Beta
+public class CatalogItemIndex {
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static final Comparator<CatalogItem<?,?>> BEST_VERSION_FIRST = (Comparator) CatalogItemComparator.getInstance();
+
+    private final Map<String, CatalogItemDo<?,?>> byId;
+    private final List<CatalogItemDo<?,?>> all;
+    private final Map<String, List<CatalogItemDo<?,?>>> bySymbolicName;
+    private final Map<CatalogItemType, List<CatalogItemDo<?,?>>> byItemType;
+    private final Map<String, List<CatalogItemDo<?,?>>> byJavaType;
+    private final Map<Object, List<CatalogItemDo<?,?>>> byTag;
+
+    private CatalogItemIndex(Builder builder) {
+        ImmutableMap.Builder<String, CatalogItemDo<?,?>> byIdB = ImmutableMap.builder();
+        for (Map.Entry<String, Entry> e : builder.byId.entrySet()) {
+            byIdB.put(e.getKey(), e.getValue().item);
+        }
+        this.byId = byIdB.build();
+        this.all = ImmutableList.copyOf(builder.all.values());
+        ImmutableMap.Builder<String, List<CatalogItemDo<?,?>>> bySymbolicNameB = ImmutableMap.builder();
+        for (Map.Entry<String, List<CatalogItemDo<?,?>>> e : builder.bySymbolicName.entrySet()) {
+            bySymbolicNameB.put(e.getKey(), ImmutableList.copyOf(e.getValue()));
+        }
+        this.bySymbolicName = bySymbolicNameB.build();
+        this.byItemType = snapshot(builder.byItemType);
+        this.byJavaType = snapshot(builder.byJavaType);
+        this.byTag = snapshot(builder.byTag);
+    }
+
+    private static <K> Map<K, List<CatalogItemDo<?,?>>> snapshot(Map<K, NavigableMap<Long, CatalogItemDo<?,?>>> map) {
+        ImmutableMap.Builder<K, List<CatalogItemDo<?,?>>> result = ImmutableMap.builder();
+        for (Map.Entry<K, NavigableMap<Long, CatalogItemDo<?,?>>> e : map.entrySet()) {
+            result.put(e.getKey(), ImmutableList.copyOf(e.getValue().values()));
+        }
+        return result.build();
+    }
+
+    /** builds an index of the given items, keyed by id, in the order of the map */
+    public static CatalogItemIndex of(Map<String, ? extends CatalogItemDo<?,?>> itemsById) {
+        return builder(itemsById).build();
+    }
+
+    /** a builder initially containing the given items, keyed by id, in the order of the map */
+    static Builder builder(Map<String, ? extends CatalogItemDo<?,?>> itemsById) {
+        Builder result = new Builder();
+        for (CatalogItemDo<?,?> item : itemsById.values()) {
+            result.add(item);
+        }
+        return result;
+    }
+
+    public CatalogItemDo<?,?> getById(String id) {
+        return id==null ? null : byId.get(id);
+    }
+
+    /** all items, in the order they were indexed */
+    public Collection<CatalogItemDo<?,?>> getAll() {
+        return all;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /** all versions of the given symbolic name, best first */
+    public List<CatalogItemDo<?,?>> getVersions(String symbolicName) {
+        return get(bySymbolicName, symbolicName);
+    }
+
+    /** the best version of the given symbolic name which is not disabled, or null */
+    public CatalogItemDo<?,?> getBestVersion(String symbolicName) {
+        for (CatalogItemDo<?,?> item : getVersions(symbolicName)) {
+            if (!item.isDisabled()) return item;
+        }
+        return null;
+    }
+
+    public List<CatalogItemDo<?,?>> getByItemType(CatalogItemType type) {
+        return get(byItemType, type);
+    }
+
+    /** items whose {@link CatalogItem#getJavaType()} is the given class name */
+    public List<CatalogItemDo<?,?>> getByJavaType(String javaType) {
+        return get(byJavaType, javaType);
+    }
+
+    /** items which had the given tag when they were last indexed */
+    public List<CatalogItemDo<?,?>> getByTag(Object tag) {
+        return get(byTag, tag);
+    }
+
+    private static <K> List<CatalogItemDo<?,?>> get(Map<K, List<CatalogItemDo<?,?>>> map, K key) {
+        List<CatalogItemDo<?,?>> result = key==null ? null : map.get(key);
+        return result==null ? ImmutableList.<CatalogItemDo<?,?>>of() : result;
+    }
+
+    /** an item, with its position in the index */
+    private static class Entry {
+        final long position;
+        final CatalogItemDo<?,?> item;
+        final Collection<Object> tags;
+
+        Entry(long position, CatalogItemDo<?,?> item) {
+            this.position = position;
+            this.item = item;
+            // as indexed, so it can be removed from the right keys if the item's tags change
+            this.tags = ImmutableList.copyOf(item.tags().getTags());
+        }
+    }
+
+    /**
+     * The mutable form of the index, updated in place; not thread-safe, so callers must synchronize 
+     * all use of it (including {@link #build()}).
+     */
+    static class Builder {
+        private long nextPosition;
+        private final Map<String, Entry> byId = new LinkedHashMap<String, Entry>();
+        private final NavigableMap<Long, CatalogItemDo<?,?>> all = new TreeMap<Long, CatalogItemDo<?,?>>();
+        private final Map<String, List<CatalogItemDo<?,?>>> bySymbolicName = new LinkedHashMap<String, List<CatalogItemDo<?,?>>>();
+        private final Map<CatalogItemType, NavigableMap<Long, CatalogItemDo<?,?>>> byItemType = new LinkedHashMap<CatalogItemType, NavigableMap<Long, CatalogItemDo<?,?>>>();
+        private final Map<String, NavigableMap<Long, CatalogItemDo<?,?>>> byJavaType = new LinkedHashMap<String, NavigableMap<Long, CatalogItemDo<?,?>>>();
+        private final Map<Object, NavigableMap<Long, CatalogItemDo<?,?>>> byTag = new LinkedHashMap<Object, NavigableMap<Long, CatalogItemDo<?,?>>>();
+
+        /** adds the given item, replacing any item with the same id */
+        void add(CatalogItemDo<?,?> item) {
+            Entry old = byId.get(item.getId());
+            Entry entry = new Entry(old != null ? old.position : nextPosition++, item);
+            byId.put(item.getId(), entry);
+            all.put(entry.position, item);
+
+            if (old != null) {
+                if (!Objects.equal(old.item.getSymbolicName(), item.getSymbolicName())) removeVersion(old.item);
+                removeFrom(byItemType, old.item.getCatalogItemType(), old);
+                removeFrom(byJavaType, old.item.getJavaType(), old);
+                for (Object tag : old.tags) {
+                    removeFrom(byTag, tag, old);
+                }
+            }
+            addVersion(item, old != null ? old.item : null);
+            addTo(byItemType, item.getCatalogItemType(), entry);
+            addTo(byJavaType, item.getJavaType(), entry);
+            for (Object tag : entry.tags) {
+                addTo(byTag, tag, entry);
+            }
+        }
+
+        /** removes the item with the given id, if present */
+        void remove(String id) {
+            Entry old = byId.remove(id);
+            if (old == null) return;
+            all.remove(old.position);
+            removeVersion(old.item);
+            removeFrom(byItemType, old.item.getCatalogItemType(), old);
+            removeFrom(byJavaType, old.item.getJavaType(), old);
+            for (Object tag : old.tags) {
+                removeFrom(byTag, tag, old);
+            }
+        }
+
+        /** an immutable snapshot of the index as it is now */
+        CatalogItemIndex build() {
+            return new CatalogItemIndex(this);
+        }
+
+        private void addVersion(CatalogItemDo<?,?> item, CatalogItemDo<?,?> replacing) {
+            if (item.getSymbolicName() == null) return;
+            List<CatalogItemDo<?,?>> versions = bySymbolicName.get(item.getSymbolicName());
+            if (versions == null) {
+                versions = MutableList.of();
+                bySymbolicName.put(item.getSymbolicName(), versions);
+            }
+            if (replacing != null) versions.remove(replacing);
+            versions.add(item);
+            Collections.sort(versions, BEST_VERSION_FIRST);
+        }
+
+        private void removeVersion(CatalogItemDo<?,?> item) {
+            if (item.getSymbolicName() == null) return;
+            List<CatalogItemDo<?,?>> versions = bySymbolicName.get(item.getSymbolicName());
+            if (versions == null) return;
+            versions.remove(item);
+            if (versions.isEmpty()) bySymbolicName.remove(item.getSymbolicName());
+        }
+
+        private static <K> void addTo(Map<K, NavigableMap<Long, CatalogItemDo<?,?>>> map, K key, Entry entry) {
+            if (key==null) return;
+            NavigableMap<Long, CatalogItemDo<?,?>> items = map.get(key);
+            if (items==null) {
+                items = new TreeMap<Long, CatalogItemDo<?,?>>();
+                map.put(key, items);
+            }
+            items.put(entry.position, entry.item);
+        }
+
+        private static <K> void removeFrom(Map<K, NavigableMap<Long, CatalogItemDo<?,?>>> map, K key, Entry entry) {
+            if (key==null) return;
+            NavigableMap<Long, CatalogItemDo<?,?>> items = map.get(key);
+            if (items==null) return;
+            items.remove(entry.position);
+            if (items.isEmpty()) map.remove(key);
+        }
+    }
+
+}
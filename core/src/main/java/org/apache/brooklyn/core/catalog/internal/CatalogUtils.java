@@ -155,9 +155,7 @@ public class CatalogUtils {
                     "Loading bundles in {}: {}", 
                     new Object[] {managementContext, Joiner.on(", ").join(libraries)});
             Stopwatch timer = Stopwatch.createStarted();
-            for (CatalogBundle bundleUrl : libraries) {
-                osgi.get().registerBundle(bundleUrl);
-            }
+            osgi.get().registerBundles(libraries);
             if (log.isDebugEnabled()) 
                 logDebugOrTraceIfRebinding(log, 
                     "Registered {} bundles in {}",
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.catalog.internal;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.brooklyn.api.internal.AbstractBrooklynObjectSpec;
+import org.apache.brooklyn.core.objs.BrooklynObjectSpecs;
+import org.apache.brooklyn.util.collections.MutableMap;
+import org.apache.brooklyn.util.guava.Maybe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.Beta;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Specs previously created from catalog items, so that deploying the same item many times
+ * does not reparse its plan and reload its classes every time.
+ * <p>
+ * Callers build a key from everything the spec depends on (the item's id, version and plan,
+ * and the loading context), take a {@link #getGeneration() generation} before creating the spec,
+ * and {@link #put(List, long, AbstractBrooklynObjectSpec) put} it with that generation;
+ * it is only stored if the cache has not been {@link #invalidateAll() invalidated} in the meantime,
+ * so a spec created from a stale item or bundle is never cached.
+ * <p>
+ * The cache holds its own deep copy of each spec (see {@link BrooklynObjectSpecs#deepCopy(AbstractBrooklynObjectSpec)})
+ * and returns a new deep copy on every {@link #get(List)}, so callers are free to customise the result,
+ * including its config values, nested specs and initializers, without affecting other callers.
+ * Specs which cannot be deep copied are not cached.
+ */
+@Beta
+public class SpecTemplateCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SpecTemplateCache.class);
+
+    private final Cache<List<Object>, AbstractBrooklynObjectSpec<?,?>> templates;
+    private volatile long generation = 0;
+
+    /** @param maxSize maximum number of specs to keep; 0 to disable caching */
+    public SpecTemplateCache(int maxSize) {
+        templates = CacheBuilder.newBuilder()
+            .maximumSize(Math.max(0, maxSize))
+            .recordStats()
+            .<List<Object>, AbstractBrooklynObjectSpec<?,?>>build();
+    }
+
+    /** the generation to pass to {@link #put(List, long, AbstractBrooklynObjectSpec)}, taken before creating the spec */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /** returns a deep copy of the spec cached for the given key, or null */
+    @SuppressWarnings("unchecked")
+    public <SpecT extends AbstractBrooklynObjectSpec<?,?>> SpecT get(List<Object> key) {
+        AbstractBrooklynObjectSpec<?,?> result = templates.getIfPresent(key);
+        return result==null ? null : (SpecT) BrooklynObjectSpecs.deepCopy(result).orNull();
+    }
+
+    /** caches a deep copy of the given spec, unless the cache has been invalidated since the given generation or the spec cannot be deep copied */
+    public synchronized void put(List<Object> key, long generationWhenCreated, AbstractBrooklynObjectSpec<?,?> spec) {
+        if (generationWhenCreated!=generation) return;
+        Maybe<AbstractBrooklynObjectSpec<?,?>> copy = BrooklynObjectSpecs.deepCopy(spec);
+        if (copy.isPresent()) {
+            templates.put(key, copy.get());
+        } else {
+            log.trace("Not caching spec {}, as it cannot be copied", spec);
+        }
+    }
+
+    /** discards all cached specs; to be called whenever a catalog item or a bundle changes */
+    public synchronized void invalidateAll() {
+        generation++;
+        templates.invalidateAll();
+    }
+
+    public long size() {
+        return templates.size();
+    }
+
+    public CacheStats getStats() {
+        return templates.stats();
+    }
+
+    public Map<String,Object> asMap() {
+        CacheStats stats = getStats();
+        return MutableMap.<String,Object>of("size", size(), "hits", stats.hitCount(), "misses", stats.missCount(),
+            "evictions", stats.evictionCount(), "generation", generation);
+    }
+
+}
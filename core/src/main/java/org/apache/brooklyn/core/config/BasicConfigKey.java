@@ -79,7 +79,8 @@ public class BasicConfigKey<T> implements ConfigKeySelfExtracting<T>, Serializab
             .defaultValue(key.getDefaultValue())
             .reconfigurable(key.isReconfigurable())
             .inheritance(key.getInheritance())
-            .constraint(key.getConstraint());
+            .constraint(key.getConstraint())
+            .resolvedValueCacheable(key instanceof BasicConfigKey && ((BasicConfigKey<?>)key).isResolvedValueCacheable());
     }
 
     public static class Builder<T> {
@@ -90,6 +91,7 @@ public class BasicConfigKey<T> implements ConfigKeySelfExtracting<T>, Serializab
         private boolean reconfigurable;
         private Predicate<? super T> constraint = Predicates.alwaysTrue();
         private ConfigInheritance inheritance;
+        private boolean resolvedValueCacheable;
         
         public Builder<T> name(String val) {
             this.name = val; return this;
@@ -116,6 +118,11 @@ public class BasicConfigKey<T> implements ConfigKeySelfExtracting<T>, Serializab
         public Builder<T> constraint(Predicate<? super T> constraint) {
             this.constraint = checkNotNull(constraint, "constraint"); return this;
         }
+        /** @see BasicConfigKey#isResolvedValueCacheable() */
+        @Beta
+        public Builder<T> resolvedValueCacheable(boolean val) {
+            this.resolvedValueCacheable = val; return this;
+        }
         public BasicConfigKey<T> build() {
             return new BasicConfigKey<T>(this);
         }
@@ -129,6 +136,11 @@ public class BasicConfigKey<T> implements ConfigKeySelfExtracting<T>, Serializab
     private boolean reconfigurable;
     private ConfigInheritance inheritance;
     private Predicate<? super T> constraint;
+    private boolean resolvedValueCacheable;
+    /** cached {@link #hashCode()}, as keys are widely used as map keys; 0 if not yet computed */
+    private transient int hashCode;
+    /** cached result of {@link #getTypeToken()}, only one of type and typeToken being persisted */
+    private transient TypeToken<T> resolvedTypeToken;
 
     // FIXME In groovy, fields were `public final` with a default constructor; do we need the gson?
     public BasicConfigKey() { /* for gson */ }
@@ -177,6 +189,7 @@ public class BasicConfigKey<T> implements ConfigKeySelfExtracting<T>, Serializab
         // per the configured constraint. If validity were checked here any class that
         // contained a weirdly-defined config key would fail to initialise.
         this.constraint = checkNotNull(builder.constraint, "constraint");
+        this.resolvedValueCacheable = builder.resolvedValueCacheable;
     }
 
     /** @see ConfigKey#getName() */
@@ -189,7 +202,14 @@ public class BasicConfigKey<T> implements ConfigKeySelfExtracting<T>, Serializab
     @Override public Class<? super T> getType() { return TypeTokens.getRawType(typeToken, type); }
 
     /** @see ConfigKey#getTypeToken() */
-    @Override public TypeToken<T> getTypeToken() { return TypeTokens.getTypeToken(typeToken, type); }
+    @Override public TypeToken<T> getTypeToken() {
+        TypeToken<T> result = resolvedTypeToken;
+        if (result==null) {
+            result = TypeTokens.getTypeToken(typeToken, type);
+            resolvedTypeToken = result;
+        }
+        return result;
+    }
     
     /** @see ConfigKey#getDescription() */
     @Override public String getDescription() { return description; }
@@ -208,6 +228,16 @@ public class BasicConfigKey<T> implements ConfigKeySelfExtracting<T>, Serializab
         return reconfigurable;
     }
     
+    /**
+     * Whether the value of this key, once resolved (including any deferred supplier or task), can be cached
+     * by the entity or adjunct and returned on subsequent reads until the config is changed there or in an ancestor.
+     * Only appropriate where the resolved value does not otherwise change, e.g. not for values which track sensors.
+     */
+    @Beta
+    public boolean isResolvedValueCacheable() {
+        return resolvedValueCacheable;
+    }
+
     /** @see ConfigKey#getInheritance() */
     @Override @Nullable
     public ConfigInheritance getInheritance() {
@@ -248,7 +278,12 @@ public class BasicConfigKey<T> implements ConfigKeySelfExtracting<T>, Serializab
     
     @Override
     public int hashCode() {
-        return Objects.hashCode(name);
+        int result = hashCode;
+        if (result==0) {
+            result = Objects.hashCode(name);
+            hashCode = result;
+        }
+        return result;
     }
     
     @Override
@@ -18,6 +18,8 @@
  */
 package org.apache.brooklyn.core.config;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import javax.annotation.Nonnull;
@@ -34,8 +36,11 @@ import org.apache.brooklyn.util.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.Beta;
 import com.google.common.base.CaseFormat;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.reflect.TypeToken;
 
 
@@ -46,6 +51,29 @@ public class ConfigKeys {
 
     private static final Logger log = LoggerFactory.getLogger(ConfigKeys.class);
     
+    /** canonical {@link BasicConfigKey} instances, keyed by all their fields; held weakly so unused keys are discarded */
+    private static final Cache<List<Object>, BasicConfigKey<?>> INTERNED_KEYS = CacheBuilder.newBuilder().weakValues().build();
+
+    /**
+     * Returns a canonical instance identical in all fields to the given key, so that the many equal keys 
+     * created dynamically (e.g. from YAML parameters, once per spec) can share one instance.
+     * <p>
+     * Only plain {@link BasicConfigKey} instances are interned, and they are matched on all of their fields
+     * (not just the name, as used by {@link BasicConfigKey#equals(Object)}), so keys differing in
+     * default value, constraint, etc are never conflated. Other keys are returned unchanged.
+     */
+    @Beta
+    @SuppressWarnings("unchecked")
+    public static <T> ConfigKey<T> intern(ConfigKey<T> key) {
+        if (key==null || key.getClass()!=BasicConfigKey.class) return key;
+        BasicConfigKey<T> basicKey = (BasicConfigKey<T>) key;
+        List<Object> fields = Arrays.<Object>asList(basicKey.getName(), basicKey.getTypeToken(), basicKey.getDescription(), 
+            basicKey.getDefaultValue(), basicKey.isReconfigurable(), basicKey.getInheritance(), basicKey.getConstraint(), 
+            basicKey.isResolvedValueCacheable());
+        BasicConfigKey<?> result = INTERNED_KEYS.asMap().putIfAbsent(fields, basicKey);
+        return (result==null) ? key : (ConfigKey<T>) result;
+    }
+
     public static <T> ConfigKey<T> newConfigKey(Class<T> type, String name) {
         return new BasicConfigKey<T>(type, name);
     }
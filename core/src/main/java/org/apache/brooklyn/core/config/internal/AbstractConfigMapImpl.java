@@ -21,18 +21,29 @@ package org.apache.brooklyn.core.config.internal;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.annotation.Nullable;
+
+import org.apache.brooklyn.config.ConfigInheritance;
 import org.apache.brooklyn.config.ConfigKey;
 import org.apache.brooklyn.config.ConfigMap;
 import org.apache.brooklyn.config.ConfigKey.HasConfigKey;
+import org.apache.brooklyn.core.config.BasicConfigKey;
 import org.apache.brooklyn.core.config.StructuredConfigKey;
 import org.apache.brooklyn.core.entity.internal.ConfigMapViewWithStringKeys;
 import org.apache.brooklyn.util.core.flags.TypeCoercions;
 import org.apache.brooklyn.util.core.task.DeferredSupplier;
+import org.apache.brooklyn.util.guava.Maybe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Objects;
+import com.google.common.reflect.TypeToken;
+
 public abstract class AbstractConfigMapImpl implements ConfigMap {
 
     private static final Logger LOG = LoggerFactory.getLogger(AbstractConfigMapImpl.class);
@@ -46,6 +57,48 @@ public abstract class AbstractConfigMapImpl implements ConfigMap {
      */
     protected Map<ConfigKey<?>,Object> ownConfig = Collections.synchronizedMap(new LinkedHashMap<ConfigKey<?>, Object>());
 
+    /**
+     * Resolved values of keys marked {@link BasicConfigKey#isResolvedValueCacheable()}, tagged with the
+     * {@link #resolvedValueCacheGeneration} at which resolution started; entries from an earlier generation are ignored,
+     * so a value resolved concurrently with a change to the config is never used after that change.
+     * <p>
+     * Keyed by {@link ResolvedValueKey} rather than {@link ConfigKey}, as config keys are equal by name only, 
+     * whereas the resolved value also depends on the type and inheritance of the key asked for.
+     */
+    private final ConcurrentMap<ResolvedValueKey, CachedValue> resolvedValueCache = new ConcurrentHashMap<ResolvedValueKey, CachedValue>();
+    private final AtomicLong resolvedValueCacheGeneration = new AtomicLong();
+
+    private static class ResolvedValueKey {
+        final String name;
+        final TypeToken<?> type;
+        final ConfigInheritance inheritance;
+        ResolvedValueKey(ConfigKey<?> key, @Nullable ConfigInheritance inheritance) {
+            this.name = key.getName();
+            this.type = key.getTypeToken();
+            this.inheritance = inheritance;
+        }
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(name, type, inheritance);
+        }
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof ResolvedValueKey)) return false;
+            ResolvedValueKey o = (ResolvedValueKey) obj;
+            return name.equals(o.name) && Objects.equal(type, o.type) && Objects.equal(inheritance, o.inheritance);
+        }
+    }
+
+    private static class CachedValue {
+        final long generation;
+        final Object value;
+        CachedValue(long generation, Object value) {
+            this.generation = generation;
+            this.value = value;
+        }
+    }
+
     public <T> T getConfig(ConfigKey<T> key) {
         return getConfig(key, null);
     }
@@ -92,7 +145,35 @@ public abstract class AbstractConfigMapImpl implements ConfigMap {
         return val;
     }
 
-    
+    /** whether values for the given key (as declared on the entity or adjunct) can be cached once resolved */
+    protected boolean isResolvedValueCacheable(ConfigKey<?> key) {
+        return (key instanceof BasicConfigKey) && ((BasicConfigKey<?>)key).isResolvedValueCacheable();
+    }
+
+    /** the generation to pass to {@link #putResolvedValue(ConfigKey, ConfigInheritance, long, Object)}; must be read before resolving the value */
+    protected long getResolvedValueCacheGeneration() {
+        return resolvedValueCacheGeneration.get();
+    }
+
+    /** the cached value resolved for the given key (as asked for by the caller) and the inheritance used to resolve it */
+    @SuppressWarnings("unchecked")
+    protected <T> Maybe<T> getResolvedValue(ConfigKey<T> key, @Nullable ConfigInheritance inheritance) {
+        CachedValue result = resolvedValueCache.get(new ResolvedValueKey(key, inheritance));
+        if (result==null || result.generation != resolvedValueCacheGeneration.get()) return Maybe.absent();
+        return Maybe.of((T) result.value);
+    }
+
+    protected void putResolvedValue(ConfigKey<?> key, @Nullable ConfigInheritance inheritance, long generation, Object value) {
+        if (generation != resolvedValueCacheGeneration.get()) return;
+        resolvedValueCache.put(new ResolvedValueKey(key, inheritance), new CachedValue(generation, value));
+    }
+
+    /** to be called whenever any local or inherited config changes */
+    protected void clearResolvedValueCache() {
+        resolvedValueCacheGeneration.incrementAndGet();
+        resolvedValueCache.clear();
+    }
+
     @Override
     public Map<String,Object> asMapWithStringKeys() {
         return mapViewWithStringKeys;
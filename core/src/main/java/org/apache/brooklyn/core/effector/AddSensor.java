@@ -75,7 +75,7 @@ public class AddSensor<T> implements EntityInitializer {
     private AttributeSensor<T> newSensor() {
         String className = getFullClassName(type);
         Class<T> clazz = getType(className);
-        return Sensors.newSensor(clazz, name);
+        return Sensors.intern(Sensors.newSensor(clazz, name));
     }
 
     @SuppressWarnings("unchecked")
@@ -24,6 +24,7 @@ import static org.apache.brooklyn.core.config.ConfigKeys.newConfigKeyWithPrefix;
 import static org.apache.brooklyn.core.config.ConfigKeys.newStringConfigKey;
 
 import org.apache.brooklyn.api.location.Location;
+import org.apache.brooklyn.config.ConfigInheritance;
 import org.apache.brooklyn.config.ConfigKey;
 import org.apache.brooklyn.core.config.ConfigKeys;
 import org.apache.brooklyn.core.config.MapConfigKey;
@@ -50,6 +51,14 @@ public class BrooklynConfigKeys {
     @Deprecated /** @deprecated since 0.7.0 use BrooklynServerConfig routines */
     public static final ConfigKey<String> BROOKLYN_DATA_DIR = BrooklynServerConfig.BROOKLYN_DATA_DIR;
 
+    /** Identifier of the component in the deployment plan from which the entity was created;
+     * entity managers index entities by this so it can be looked up cheaply, e.g. by the camp DSL. */
+    public static final ConfigKey<String> PLAN_ID = ConfigKeys.builder(String.class, "camp.plan.id")
+            .description("Identifier supplied in the deployment plan for component to which this entity corresponds "
+                        + "(human-readable, for correlating across plan, template, and instance)")
+            .inheritance(ConfigInheritance.NONE)
+            .build();
+
     public static final ConfigKey<String> ONBOX_BASE_DIR = newStringConfigKey("onbox.base.dir",
             "Default base directory on target machines where Brooklyn config data is stored; " +
             "default depends on the location, either ~/brooklyn-managed-processes or /tmp/brooklyn-${username} on localhost");
@@ -60,14 +60,36 @@ public class EntityDynamicType extends BrooklynDynamicType<Entity, AbstractEntit
 
     /** 
      * Effectors on this entity, by name.
+     * Initially the unmodifiable map shared by all instances of the class, copied on write.
      */
     // TODO support overloading; requires not using a map keyed off method name.
-    private final Map<String, Effector<?>> effectors = new ConcurrentHashMap<String, Effector<?>>();
+    private volatile Map<String, Effector<?>> effectors;
 
     /** 
      * Map of sensors on this entity, by name.
+     * Initially the unmodifiable map shared by all instances of the class, copied on write.
      */
-    private final ConcurrentMap<String,Sensor<?>> sensors = new ConcurrentHashMap<String, Sensor<?>>();
+    private volatile Map<String,Sensor<?>> sensors;
+    
+    /** Effectors, sensors and type snapshots declared on a class, shared by all its instances which have not been changed dynamically */
+    private static class ClassMetadata {
+        final Map<String, Effector<?>> effectors;
+        final Map<String, Sensor<?>> sensors;
+        /** snapshots for unmodified instances, by type name (which is normally the same for all instances) */
+        final ConcurrentMap<String, EntityTypeSnapshot> snapshots = new ConcurrentHashMap<String, EntityTypeSnapshot>();
+        
+        ClassMetadata(Class<? extends Entity> clazz) {
+            effectors = Collections.unmodifiableMap(findEffectors(clazz, null));
+            sensors = Collections.unmodifiableMap(findSensors(clazz, null));
+        }
+    }
+    
+    private static final ClassValue<ClassMetadata> CLASS_METADATA = new ClassValue<ClassMetadata>() {
+        @SuppressWarnings("unchecked")
+        @Override protected ClassMetadata computeValue(Class<?> type) {
+            return new ClassMetadata((Class<? extends Entity>) type);
+        }
+    };
 
     public EntityDynamicType(AbstractEntity entity) {
         this(entity.getClass(), entity);
@@ -79,11 +101,12 @@ public class EntityDynamicType extends BrooklynDynamicType<Entity, AbstractEntit
         super(clazz, entity);
         String id = entity==null ? clazz.getName() : entity.getId();
         
-        effectors.putAll(findEffectors(clazz, null));
+        ClassMetadata classMetadata = CLASS_METADATA.get(clazz);
+        effectors = classMetadata.effectors;
         if (LOG.isTraceEnabled())
             LOG.trace("Entity {} effectors: {}", id, Joiner.on(", ").join(effectors.keySet()));
         
-        sensors.putAll(findSensors(clazz, null));
+        sensors = classMetadata.sensors;
         if (LOG.isTraceEnabled())
             LOG.trace("Entity {} sensors: {}", id, Joiner.on(", ").join(sensors.keySet()));
         
@@ -124,8 +147,13 @@ public class EntityDynamicType extends BrooklynDynamicType<Entity, AbstractEntit
      */
     @Beta
     public void addEffector(Effector<?> newEffector) {
-        Effector<?> oldEffector = effectors.put(newEffector.getName(), newEffector);
-        invalidateSnapshot();
+        Effector<?> oldEffector;
+        synchronized (this) {
+            Map<String, Effector<?>> newEffectors = Maps.newLinkedHashMap(effectors);
+            oldEffector = newEffectors.put(newEffector.getName(), newEffector);
+            effectors = Collections.unmodifiableMap(newEffectors);
+            invalidateSnapshot();
+        }
         if (oldEffector!=null)
             instance.sensors().emit(AbstractEntity.EFFECTOR_CHANGED, newEffector.getName());
         else
@@ -157,8 +185,14 @@ public class EntityDynamicType extends BrooklynDynamicType<Entity, AbstractEntit
      */
     @Beta
     public void removeEffector(Effector<?> effector) {
-        Effector<?> removed = effectors.remove(effector.getName());
-        invalidateSnapshot();
+        Effector<?> removed;
+        synchronized (this) {
+            if (!effectors.containsKey(effector.getName())) return;
+            Map<String, Effector<?>> newEffectors = Maps.newLinkedHashMap(effectors);
+            removed = newEffectors.remove(effector.getName());
+            effectors = Collections.unmodifiableMap(newEffectors);
+            invalidateSnapshot();
+        }
         if (removed != null) {
             instance.sensors().emit(AbstractEntity.EFFECTOR_REMOVED, removed.getName());
         }
@@ -184,8 +218,12 @@ public class EntityDynamicType extends BrooklynDynamicType<Entity, AbstractEntit
      * Adds the given {@link Sensor} to this entity.
      */
     public void addSensor(Sensor<?> newSensor) {
-        sensors.put(newSensor.getName(), newSensor);
-        invalidateSnapshot();
+        synchronized (this) {
+            Map<String, Sensor<?>> newSensors = Maps.newLinkedHashMap(sensors);
+            newSensors.put(newSensor.getName(), newSensor);
+            sensors = Collections.unmodifiableMap(newSensors);
+            invalidateSnapshot();
+        }
         instance.sensors().emit(AbstractEntity.SENSOR_ADDED, newSensor);
     }
     
@@ -206,9 +244,16 @@ public class EntityDynamicType extends BrooklynDynamicType<Entity, AbstractEntit
     }
     
     public Sensor<?> addSensorIfAbsentWithoutPublishing(Sensor<?> newSensor) {
-        Sensor<?> prev = sensors.putIfAbsent(newSensor.getName(), newSensor);
-        if (prev == null) {
-            invalidateSnapshot();
+        Sensor<?> prev = sensors.get(newSensor.getName());
+        if (prev != null) return prev;
+        synchronized (this) {
+            prev = sensors.get(newSensor.getName());
+            if (prev == null) {
+                Map<String, Sensor<?>> newSensors = Maps.newLinkedHashMap(sensors);
+                newSensors.put(newSensor.getName(), newSensor);
+                sensors = Collections.unmodifiableMap(newSensors);
+                invalidateSnapshot();
+            }
         }
         return prev;
     }
@@ -217,9 +262,15 @@ public class EntityDynamicType extends BrooklynDynamicType<Entity, AbstractEntit
      * Removes the named {@link Sensor} from this entity.
      */
     public Sensor<?> removeSensor(String sensorName) {
-        Sensor<?> result = sensors.remove(sensorName);
-        if (result != null) {
+        Sensor<?> result;
+        synchronized (this) {
+            if (!sensors.containsKey(sensorName)) return null;
+            Map<String, Sensor<?>> newSensors = Maps.newLinkedHashMap(sensors);
+            result = newSensors.remove(sensorName);
+            sensors = Collections.unmodifiableMap(newSensors);
             invalidateSnapshot();
+        }
+        if (result != null) {
             instance.sensors().emit(AbstractEntity.SENSOR_REMOVED, result);
         }
         return result;
@@ -238,8 +289,7 @@ public class EntityDynamicType extends BrooklynDynamicType<Entity, AbstractEntit
      * Adds the given {@link ConfigKey} to this entity.
      */
     public void addConfigKey(ConfigKey<?> newKey) {
-        configKeys.put(newKey.getName(), new FieldAndValue<ConfigKey<?>>(null, newKey));
-        invalidateSnapshot();
+        putConfigKey(newKey);
         instance.sensors().emit(AbstractEntity.CONFIG_KEY_ADDED, newKey);
     }
     
@@ -256,9 +306,8 @@ public class EntityDynamicType extends BrooklynDynamicType<Entity, AbstractEntit
      * Removes the named {@link ConfigKey} from this entity.
      */
     public boolean removeConfigKey(ConfigKey<?> key) {
-        FieldAndValue<ConfigKey<?>> result = configKeys.remove(key.getName());
+        FieldAndValue<ConfigKey<?>> result = removeConfigKeyNamed(key.getName());
         if (result != null) {
-            invalidateSnapshot();
             ConfigKey<?> removedKey = result.value;
             instance.sensors().emit(AbstractEntity.CONFIG_KEY_REMOVED, removedKey);
             return true;
@@ -271,6 +320,17 @@ public class EntityDynamicType extends BrooklynDynamicType<Entity, AbstractEntit
     
     @Override
     protected EntityTypeSnapshot newSnapshot() {
+        String name = this.name;
+        ClassMetadata classMetadata = CLASS_METADATA.get(brooklynClass);
+        if (effectors == classMetadata.effectors && sensors == classMetadata.sensors && hasClassConfigKeys()) {
+            // unmodified instance; share the snapshot with other such instances
+            EntityTypeSnapshot result = classMetadata.snapshots.get(name);
+            if (result == null) {
+                classMetadata.snapshots.putIfAbsent(name, new EntityTypeSnapshot(name, value(configKeys), sensors, effectors.values()));
+                result = classMetadata.snapshots.get(name);
+            }
+            return result;
+        }
         return new EntityTypeSnapshot(name, value(configKeys), sensors, effectors.values());
     }
     
@@ -97,6 +97,14 @@ public class EntityConfigMap extends AbstractConfigMapImpl {
             inheritance = getDefaultInheritance(); 
         }
         
+        boolean cacheable = isResolvedValueCacheable(ownKey);
+        long cacheGeneration = 0;
+        if (cacheable) {
+            Maybe<T> cached = getResolvedValue(key, inheritance);
+            if (cached.isPresent()) return cached.get();
+            cacheGeneration = getResolvedValueCacheGeneration();
+        }
+        
         // TODO We're notifying of config-changed because currently persistence needs to know when the
         // attributeWhenReady is complete (so it can persist the result).
         // Long term, we'll just persist tasks properly so the call to onConfigChanged will go!
@@ -129,6 +137,7 @@ public class EntityConfigMap extends AbstractConfigMapImpl {
                 entity.getManagementSupport().getEntityChangeListener().onConfigChanged(key);
             }
             if (complete) {
+                if (cacheable) putResolvedValue(key, inheritance, cacheGeneration, result);
                 return result;
             }
         } else {
@@ -179,7 +188,9 @@ public class EntityConfigMap extends AbstractConfigMapImpl {
                 .seal();
     }
 
-    /** Creates an immutable copy of the config defined at this entity, ie not inherited, including those that did not match config keys */
+    /** Creates an immutable copy of the config defined at this entity, ie not inherited, including those that did not match config keys;
+     * changes must be made through {@link #setConfig(ConfigKey, Object)}, {@link #addToLocalBag(Map)} and the like, 
+     * so that the resolved values cached here are invalidated */
     public ConfigBag getLocalConfigBag() {
         return ConfigBag.newInstanceCopying(localConfigBag)
                 .putAll(ownConfig)
@@ -200,6 +211,7 @@ public class EntityConfigMap extends AbstractConfigMapImpl {
             oldVal = ownConfig.put(key, val);
             localConfigBag.put((ConfigKey<Object>)key, v);
         }
+        clearResolvedValueCache();
         entity.config().refreshInheritedConfigOfChildren();
         return oldVal;
     }
@@ -209,6 +221,7 @@ public class EntityConfigMap extends AbstractConfigMapImpl {
         localConfigBag.clear();
         ownConfig.putAll(vals);
         localConfigBag.putAll(vals);
+        clearResolvedValueCache();
     }
     
     public void setInheritedConfig(Map<ConfigKey<?>, ?> valsO, ConfigBag configBagVals) {
@@ -258,6 +271,7 @@ public class EntityConfigMap extends AbstractConfigMapImpl {
                 inheritedConfigBag.putStringKey(name, value);
             }
         }
+        clearResolvedValueCache();
     }
     
     private Map<ConfigKey<?>, ?> filterUninheritable(Map<ConfigKey<?>, ?> vals) {
@@ -274,16 +288,19 @@ public class EntityConfigMap extends AbstractConfigMapImpl {
         localConfigBag.putAll(vals);
         // quick fix for problem that ownConfig can get out of synch
         ownConfig.putAll(localConfigBag.getAllConfigAsConfigKeyMap());
+        clearResolvedValueCache();
     }
 
     public void removeFromLocalBag(String key) {
         localConfigBag.remove(key);
         ownConfig.remove(key);
+        clearResolvedValueCache();
     }
 
     public void clearInheritedConfig() {
         inheritedConfig.clear();
         inheritedConfigBag.clear();
+        clearResolvedValueCache();
     }
 
     @Override
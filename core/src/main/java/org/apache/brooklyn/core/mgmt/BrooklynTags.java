@@ -19,7 +19,9 @@
 package org.apache.brooklyn.core.mgmt;
 
 import java.io.Serializable;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.codehaus.jackson.annotate.JsonIgnore;
 import org.codehaus.jackson.annotate.JsonProperty;
@@ -27,6 +29,7 @@ import org.codehaus.jackson.annotate.JsonProperty;
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 
 /** @since 0.7.0 some strongly typed tags for reference; note these may migrate elsewhere! */
@@ -35,6 +38,11 @@ public class BrooklynTags {
 
     public static final String YAML_SPEC_KIND = "yaml_spec";
     public static final String NOTES_KIND = "notes";
+    public static final String DEPLOYMENT_TIMINGS_KIND = "deployment_timings";
+    
+    /** tag which can be set on an application so that it is kept dormant on rebind, instantiated only on first access,
+     * when {@link org.apache.brooklyn.core.mgmt.rebind.RebindManagerImpl#LAZY_REBIND_DORMANT_APPLICATIONS} is enabled */
+    public static final String DORMANT_APPLICATION = "brooklyn:dormant";
     
     public static class NamedStringTag implements Serializable {
         private static final long serialVersionUID = 7932098757009051348L;
@@ -57,6 +65,32 @@ public class BrooklynTags {
         }
     }
 
+    /** records the time in milliseconds taken by each of several named stages, e.g. in creating an application from a plan;
+     * times added for the same stage are summed */
+    public static class StageTimingsTag implements Serializable {
+        private static final long serialVersionUID = -2863184216329418306L;
+        @JsonProperty final String kind;
+        @JsonProperty final Map<String,Long> stageMillis = new LinkedHashMap<String,Long>();
+        public StageTimingsTag(@JsonProperty("kind") String kind) {
+            this.kind = kind;
+        }
+        public synchronized void addStageMillis(String stage, long millis) {
+            Long old = stageMillis.get(stage);
+            stageMillis.put(stage, old==null ? millis : old+millis);
+        }
+        @Override
+        public synchronized String toString() {
+            return kind+stageMillis;
+        }
+        
+        public String getKind() {
+            return kind;
+        }
+        public synchronized Map<String,Long> getStageMillis() {
+            return ImmutableMap.copyOf(stageMillis);
+        }
+    }
+
     public static class ListTag<T> {
         @JsonIgnore
         final List<T> list;
@@ -106,6 +140,10 @@ public class BrooklynTags {
         return new NamedStringTag(NOTES_KIND, contents);
     }
 
+    public static StageTimingsTag newDeploymentTimingsTag() {
+        return new StageTimingsTag(DEPLOYMENT_TIMINGS_KIND);
+    }
+
     public static TraitsTag newTraitsTag(List<Class<?>> interfaces) {
         return new TraitsTag(interfaces);
     }
@@ -118,4 +156,12 @@ public class BrooklynTags {
         return null;
     }
     
+    public static StageTimingsTag findFirstStageTimings(String kind, Iterable<Object> tags) {
+        for (Object object: tags) {
+            if (object instanceof StageTimingsTag && kind.equals(((StageTimingsTag)object).kind))
+                return (StageTimingsTag) object;
+        }
+        return null;
+    }
+    
 }
@@ -39,6 +39,7 @@ import org.apache.brooklyn.core.effector.Effectors;
 import org.apache.brooklyn.core.entity.Entities;
 import org.apache.brooklyn.core.entity.EntityFunctions;
 import org.apache.brooklyn.core.entity.trait.Startable;
+import org.apache.brooklyn.core.mgmt.BrooklynTags.StageTimingsTag;
 import org.apache.brooklyn.core.typereg.RegisteredTypeLoadingContexts;
 import org.apache.brooklyn.entity.stock.BasicApplication;
 import org.apache.brooklyn.util.collections.MutableList;
@@ -52,6 +53,8 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Predicates;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -75,9 +78,33 @@ public class EntityManagementUtils {
      */
     public static final ConfigKey<Boolean> WRAPPER_APP_MARKER = ConfigKeys.newBooleanConfigKey("brooklyn.wrapper_app");
 
+    /**
+     * Timings of the stages of deploying an app, recorded against its spec (by whatever resolved it),
+     * then against the app when created from that spec, until the app is {@link #start(Application) started}.
+     * Held here rather than as a tag, as they are only of interest while deploying and should not be persisted.
+     */
+    private static final Cache<Object, StageTimingsTag> DEPLOYMENT_TIMINGS = CacheBuilder.newBuilder().weakKeys().build();
+
+    /**
+     * Records the time taken by the stages of resolving the given app spec, so that the time to create the app
+     * can be added to it, and the whole made visible on the task starting the app
+     * (when deployed by {@link #createUnstarted(ManagementContext, EntitySpec)} and {@link #start(Application)}).
+     */
+    @Beta
+    public static void recordDeploymentTimings(EntitySpec<?> spec, StageTimingsTag timings) {
+        DEPLOYMENT_TIMINGS.put(spec, timings);
+    }
+
     /** creates an application from the given app spec, managed by the given management context */
     public static <T extends Application> T createUnstarted(ManagementContext mgmt, EntitySpec<T> spec) {
+        long startTime = System.nanoTime();
         T app = mgmt.getEntityManager().createEntity(spec);
+        StageTimingsTag timings = DEPLOYMENT_TIMINGS.getIfPresent(spec);
+        if (timings!=null) {
+            DEPLOYMENT_TIMINGS.invalidate(spec);
+            timings.addStageMillis("create", (System.nanoTime() - startTime) / 1000 / 1000);
+            DEPLOYMENT_TIMINGS.put(app, timings);
+        }
         return app;
     }
 
@@ -140,6 +167,12 @@ public class EntityManagementUtils {
             // locations already set in the entities themselves;
             // TODO make it so that this arg does not have to be supplied to START !
             MutableMap.of("locations", MutableList.of()));
+        // make the time taken to create the app (if recorded) visible on the task deploying it
+        StageTimingsTag timings = DEPLOYMENT_TIMINGS.getIfPresent(app);
+        if (timings!=null) {
+            DEPLOYMENT_TIMINGS.invalidate(app);
+            BrooklynTaskTags.addTagDynamically(task, timings);
+        }
         return CreationResult.of(app, task);
     }
     
@@ -230,6 +263,8 @@ public class EntityManagementUtils {
             // if promoted, apply the transformations done to the app
             // (transformations will be done by the resolveSpec call above, but we are collapsing oldApp so transfer to app=newApp)
             EntityManagementUtils.mergeWrapperParentSpecToChildEntity(wrapperApplication, wrappedApplication);
+            StageTimingsTag timings = DEPLOYMENT_TIMINGS.getIfPresent(wrapperApplication);
+            if (timings!=null) recordDeploymentTimings(wrappedApplication, timings);
             return wrappedApplication;
         }
         return wrapperApplication;
@@ -19,11 +19,18 @@
 package org.apache.brooklyn.core.mgmt.classloading;
 
 import java.net.URL;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.brooklyn.api.mgmt.ManagementContext;
 import org.apache.brooklyn.api.mgmt.classloading.BrooklynClassLoadingContext;
+import org.apache.brooklyn.api.mgmt.entitlement.EntitlementContext;
+import org.apache.brooklyn.core.mgmt.entitlement.Entitlements;
+import org.apache.brooklyn.core.mgmt.ha.OsgiManager;
+import org.apache.brooklyn.core.mgmt.internal.ManagementContextInternal;
 import org.apache.brooklyn.util.collections.MutableList;
 import org.apache.brooklyn.util.collections.MutableSet;
 import org.apache.brooklyn.util.exceptions.Exceptions;
@@ -31,9 +38,11 @@ import org.apache.brooklyn.util.guava.Maybe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.Beta;
 import com.google.common.base.Objects;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 public final class BrooklynClassLoadingContextSequential extends AbstractBrooklynClassLoadingContext {
 
@@ -43,6 +52,23 @@ public final class BrooklynClassLoadingContextSequential extends AbstractBrookly
     // secondaries used to put java classloader last
     private final Set<BrooklynClassLoadingContext> secondaries = MutableSet.<BrooklynClassLoadingContext>of();
 
+    /** max number of lookups to remember per context; the cache is cleared when it is reached */
+    private static final int MAX_CACHED_LOOKUPS = 1000;
+    private static final AtomicLong cacheHits = new AtomicLong();
+    private static final AtomicLong cacheMisses = new AtomicLong();
+    
+    /** results of {@link #tryLoadClass(String)}, including failures, keyed by class name and user (as entitlements can restrict bundles);
+     * discarded when loaders are added here or when OSGi bundles change */
+    private volatile Lookups lookups;
+    
+    private static class Lookups {
+        final long bundleGeneration;
+        final Map<List<String>, Maybe<Class<?>>> results = Maps.newConcurrentMap();
+        Lookups(long bundleGeneration) {
+            this.bundleGeneration = bundleGeneration;
+        }
+    }
+
     public BrooklynClassLoadingContextSequential(ManagementContext mgmt, BrooklynClassLoadingContext ...targets) {
         super(mgmt);
         for (BrooklynClassLoadingContext target: targets)
@@ -50,6 +76,7 @@ public final class BrooklynClassLoadingContextSequential extends AbstractBrookly
     }
     
     public void add(BrooklynClassLoadingContext target) {
+        lookups = null;
         if (target instanceof BrooklynClassLoadingContextSequential) {
             for (BrooklynClassLoadingContext targetN: ((BrooklynClassLoadingContextSequential)target).primaries )
                 add(targetN);
@@ -66,9 +93,31 @@ public final class BrooklynClassLoadingContextSequential extends AbstractBrookly
             log.warn("Only Java classloaders should be secondary");
         }
         this.secondaries.add( target );
+        lookups = null;
     }
     
     public Maybe<Class<?>> tryLoadClass(String className) {
+        long generation = getBundleGeneration();
+        Lookups cache = lookups;
+        if (cache==null || cache.bundleGeneration!=generation || cache.results.size() >= MAX_CACHED_LOOKUPS) {
+            cache = new Lookups(generation);
+            lookups = cache;
+        }
+        EntitlementContext entitlementContext = Entitlements.getEntitlementContext();
+        List<String> key = Arrays.asList(className, entitlementContext==null ? null : entitlementContext.user());
+        Maybe<Class<?>> result = cache.results.get(key);
+        if (result!=null) {
+            cacheHits.incrementAndGet();
+            return result;
+        }
+        cacheMisses.incrementAndGet();
+        result = tryLoadClassUncached(className);
+        // if bundles changed in the meantime, this goes in the old cache, which is discarded on the next lookup
+        cache.results.put(key, result);
+        return result;
+    }
+    
+    private Maybe<Class<?>> tryLoadClassUncached(String className) {
         List<Throwable> errors = MutableList.of();
         for (BrooklynClassLoadingContext target: primaries) {
             Maybe<Class<?>> clazz = target.tryLoadClass(className);
@@ -88,6 +137,26 @@ public final class BrooklynClassLoadingContextSequential extends AbstractBrookly
         return Maybe.absent(Exceptions.create("Unable to load "+className+" from "+primaries, errors));
     }
 
+    /** number of lookups answered from the per-context caches, across all contexts */
+    @Beta
+    public static long getCacheHitCount() {
+        return cacheHits.get();
+    }
+    
+    /** number of lookups which had to go to the underlying loaders, across all contexts */
+    @Beta
+    public static long getCacheMissCount() {
+        return cacheMisses.get();
+    }
+    
+    private long getBundleGeneration() {
+        if (mgmt instanceof ManagementContextInternal) {
+            Maybe<OsgiManager> osgi = ((ManagementContextInternal)mgmt).getOsgiManager();
+            if (osgi.isPresent()) return osgi.get().getBundleGeneration();
+        }
+        return 0;
+    }
+
     @Override
     public URL getResource(String resourceInThatDir) {
         for (BrooklynClassLoadingContext target: primaries) {
@@ -86,6 +86,11 @@ public abstract class EntitlementManagerAdapter implements EntitlementManager {
             return isEntitledToDeployApplication(context, app);
         }
 
+        @Override
+        public Boolean handleWakeApplication(String applicationId) {
+            return isEntitledToWakeApplication(context, applicationId);
+        }
+
         @Override
         public Boolean handleSeeAllServerInfo() {
             return isEntitledToSeeAllServerInfo(context);
@@ -126,6 +131,7 @@ public abstract class EntitlementManagerAdapter implements EntitlementManager {
     protected abstract boolean isEntitledToInvokeEffector(EntitlementContext context, Entity entity, String effectorName, Object arguments);
     protected abstract boolean isEntitledToModifyEntity(EntitlementContext context, Entity entity);
     protected abstract boolean isEntitledToDeployApplication(EntitlementContext context, Object app);
+    protected abstract boolean isEntitledToWakeApplication(EntitlementContext context, String applicationId);
     protected abstract boolean isEntitledToSeeAllServerInfo(EntitlementContext context);
     protected abstract boolean isEntitledToSeeServerStatus(EntitlementContext context);
     protected abstract boolean isEntitledToRoot(EntitlementContext context);
@@ -72,6 +72,9 @@ public class Entitlements {
     
     /** the permission to deploy an application, where parameter is some representation of the app to be deployed (spec instance or yaml plan) */
     public static EntitlementClass<Object> DEPLOY_APPLICATION = new BasicEntitlementClassDefinition<Object>("app.deploy", Object.class);
+    
+    /** the permission to wake an application kept dormant on rebind, instantiating and managing it, where parameter is the application id */
+    public static EntitlementClass<String> WAKE_APPLICATION = new BasicEntitlementClassDefinition<String>("app.wake", String.class);
 
     /** catch-all for catalog, locations, scripting, usage, etc - exporting persistence, shutting down, etc;
      * this is significantly more powerful than {@link #SERVER_STATUS}.
@@ -97,6 +100,7 @@ public class Entitlements {
         ENTITLEMENT_MODIFY_ENTITY(MODIFY_ENTITY) { public <T> T handle(EntitlementClassesHandler<T> handler, Object argument) { return handler.handleModifyEntity((Entity)argument); } },
         
         ENTITLEMENT_DEPLOY_APPLICATION(DEPLOY_APPLICATION) { public <T> T handle(EntitlementClassesHandler<T> handler, Object argument) { return handler.handleDeployApplication(argument); } },
+        ENTITLEMENT_WAKE_APPLICATION(WAKE_APPLICATION) { public <T> T handle(EntitlementClassesHandler<T> handler, Object argument) { return handler.handleWakeApplication((String)argument); } },
         
         ENTITLEMENT_SEE_ALL_SERVER_INFO(SEE_ALL_SERVER_INFO) { public <T> T handle(EntitlementClassesHandler<T> handler, Object argument) { return handler.handleSeeAllServerInfo(); } },
         ENTITLEMENT_SERVER_STATUS(SERVER_STATUS) { public <T> T handle(EntitlementClassesHandler<T> handler, Object argument) { return handler.handleSeeServerStatus(); } },
@@ -132,6 +136,7 @@ public class Entitlements {
         public T handleInvokeEffector(EntityAndItem<StringAndArgument> effectorInfo);
         public T handleModifyEntity(Entity entity);
         public T handleDeployApplication(Object app);
+        public T handleWakeApplication(String applicationId);
         public T handleSeeAllServerInfo();
         public T handleRoot();
     }
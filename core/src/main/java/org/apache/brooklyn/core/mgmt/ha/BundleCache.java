@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.mgmt.ha;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+
+import org.apache.brooklyn.util.core.ResourceUtils;
+import org.apache.brooklyn.util.core.osgi.Osgis;
+import org.apache.brooklyn.util.exceptions.Exceptions;
+import org.apache.brooklyn.util.os.Os;
+import org.apache.brooklyn.util.stream.Streams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+/**
+ * Local copies of bundles downloaded from remote URLs, stored by the SHA-256 checksum of their content
+ * (in <code>content/</code>) with an index from the URL to that checksum (in <code>urls/</code>).
+ * <p>
+ * If a checksum is known for a bundle, the copy with that checksum is used regardless of URL,
+ * and a download is verified against it. Otherwise the copy last downloaded from the URL is used.
+ * Once a bundle is in the cache it can be installed without network access, so a persistent cache directory
+ * also allows a server (or a test) to run offline.
+ * <p>
+ * Local URLs (file, classpath, jar) are never copied.
+ */
+@Beta
+public class BundleCache {
+
+    private static final Logger log = LoggerFactory.getLogger(BundleCache.class);
+
+    private final File contentDir;
+    private final File urlsDir;
+    private final ConcurrentMap<String, Object> urlLocks = Maps.newConcurrentMap();
+
+    public BundleCache(File dir) {
+        this.contentDir = new File(dir, "content");
+        this.urlsDir = new File(dir, "urls");
+        contentDir.mkdirs();
+        urlsDir.mkdirs();
+    }
+
+    /**
+     * Returns a local URL from which the bundle at the given URL can be read, downloading it if needed.
+     * @param checksum hex SHA-256 checksum the content must have, or null if unknown
+     */
+    public String getLocalUrl(String url, @Nullable String checksum) {
+        if (Osgis.isLocalUrl(url)) return url;
+        return getLocalCopy(url, checksum).toURI().toString();
+    }
+
+    /** as {@link #getLocalUrl(String, String)}, returning the file (and so only for non-local URLs) */
+    public File getLocalCopy(String url, @Nullable String checksum) {
+        if (checksum!=null) {
+            File existing = contentFile(checksum);
+            if (existing.exists()) return existing;
+        }
+        Object lock = urlLocks.putIfAbsent(url, new Object());
+        if (lock==null) lock = urlLocks.get(url);
+        synchronized (lock) {
+            String indexedChecksum = readIndex(url);
+            if (indexedChecksum!=null && (checksum==null || checksum.equalsIgnoreCase(indexedChecksum))) {
+                File existing = contentFile(indexedChecksum);
+                if (existing.exists()) {
+                    log.trace("Using cached copy of bundle {}: {}", url, existing);
+                    return existing;
+                }
+            }
+            return download(url, checksum);
+        }
+    }
+
+    private File download(String url, @Nullable String expectedChecksum) {
+        File tmp = null;
+        try {
+            tmp = File.createTempFile("download-", ".tmp", contentDir);
+            InputStream in = ResourceUtils.create(this).getResourceFromUrl(url);
+            try {
+                Files.asByteSink(tmp).writeFrom(in);
+            } finally {
+                Streams.closeQuietly(in);
+            }
+            String checksum = Files.hash(tmp, Hashing.sha256()).toString();
+            if (expectedChecksum!=null && !expectedChecksum.equalsIgnoreCase(checksum)) {
+                throw new IllegalStateException("Bundle from "+url+" has checksum "+checksum+" but expected "+expectedChecksum);
+            }
+            File result = contentFile(checksum);
+            if (result.exists()) {
+                // same content as another URL, or as an earlier download
+                tmp.delete();
+            } else if (!tmp.renameTo(result)) {
+                throw new IOException("Unable to move "+tmp+" to "+result);
+            }
+            tmp = null;
+            writeIndex(url, checksum);
+            log.debug("Downloaded bundle {} to {}", url, result);
+            return result;
+        } catch (Exception e) {
+            throw Exceptions.propagate(e);
+        } finally {
+            if (tmp!=null) tmp.delete();
+        }
+    }
+
+    private File contentFile(String checksum) {
+        return new File(contentDir, checksum.toLowerCase()+".jar");
+    }
+
+    private File indexFile(String url) {
+        return new File(urlsDir, Hashing.sha256().hashString(url, Charsets.UTF_8).toString());
+    }
+
+    @Nullable
+    private String readIndex(String url) {
+        File index = indexFile(url);
+        if (!index.exists()) return null;
+        try {
+            String[] lines = Files.toString(index, Charsets.UTF_8).split("\n");
+            // guard against hash collisions, however unlikely, by recording the URL too
+            if (lines.length<2 || !lines[0].equals(url)) return null;
+            return lines[1].trim();
+        } catch (IOException e) {
+            log.debug("Unable to read bundle cache index "+index+" for "+url+" (ignoring): "+e);
+            return null;
+        }
+    }
+
+    private void writeIndex(String url, String checksum) throws IOException {
+        File index = indexFile(url);
+        File tmp = new File(index.getPath()+".tmp");
+        Files.write(url+"\n"+checksum+"\n", tmp, Charsets.UTF_8);
+        if (!tmp.renameTo(index)) {
+            // some platforms don't support rename over an existing file
+            index.delete();
+            if (!tmp.renameTo(index)) throw new IOException("Unable to move "+tmp+" to "+index);
+        }
+    }
+
+    /** deletes everything in the cache */
+    public void clear() {
+        Os.deleteRecursively(contentDir);
+        Os.deleteRecursively(urlsDir);
+        contentDir.mkdirs();
+        urlsDir.mkdirs();
+    }
+
+}
@@ -27,20 +27,27 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.brooklyn.api.catalog.CatalogItem.CatalogBundle;
 import org.apache.brooklyn.api.mgmt.ManagementContext;
+import org.apache.brooklyn.api.mgmt.Task;
 import org.apache.brooklyn.api.typereg.OsgiBundleWithUrl;
 import org.apache.brooklyn.config.ConfigKey;
 import org.apache.brooklyn.core.BrooklynVersion;
+import org.apache.brooklyn.core.catalog.internal.BasicBrooklynCatalog;
+import org.apache.brooklyn.core.mgmt.BrooklynTaskTags;
 import org.apache.brooklyn.core.server.BrooklynServerConfig;
 import org.apache.brooklyn.core.server.BrooklynServerPaths;
 import org.apache.brooklyn.rt.felix.EmbeddedFelixFramework;
+import org.apache.brooklyn.util.collections.MutableList;
 import org.apache.brooklyn.util.collections.MutableMap;
 import org.apache.brooklyn.util.collections.MutableSet;
 import org.apache.brooklyn.util.core.osgi.Osgis;
 import org.apache.brooklyn.util.core.osgi.Osgis.BundleFinder;
+import org.apache.brooklyn.util.core.task.Tasks;
 import org.apache.brooklyn.util.exceptions.Exceptions;
 import org.apache.brooklyn.util.guava.Maybe;
 import org.apache.brooklyn.util.os.Os;
@@ -48,11 +55,20 @@ import org.apache.brooklyn.util.os.Os.DeletionResult;
 import org.apache.brooklyn.util.repeat.Repeater;
 import org.apache.brooklyn.util.text.Strings;
 import org.apache.brooklyn.util.time.Duration;
+import org.apache.brooklyn.util.time.Time;
 import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
+import org.osgi.framework.SynchronousBundleListener;
 import org.osgi.framework.launch.Framework;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.Beta;
+import com.google.common.base.Stopwatch;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 
@@ -67,6 +83,39 @@ public class OsgiManager {
     protected ManagementContext mgmt;
     protected Framework framework;
     protected File osgiCacheDir;
+    protected volatile BundleCache bundleCache;
+    /** dir of the bundle cache if it is just for this run, so should be deleted on stop; otherwise null */
+    protected File bundleCacheTempDir;
+    
+    /** results of {@link #tryResolveClass(String, Iterable)}, including failures, keyed by class name and bundles */
+    private final Cache<List<Object>, Maybe<Class<?>>> resolvedClasses = CacheBuilder.newBuilder()
+        .maximumSize(10000)
+        .recordStats()
+        .<List<Object>, Maybe<Class<?>>>build();
+    private final AtomicLong bundleGeneration = new AtomicLong();
+    
+    /** discards anything derived from bundles (such as resolved classes, and specs created from catalog items) when bundles change */
+    private final BundleListener bundleChangeListener = new SynchronousBundleListener() {
+        @Override
+        public void bundleChanged(BundleEvent event) {
+            switch (event.getType()) {
+            case BundleEvent.INSTALLED:
+            case BundleEvent.UPDATED:
+            case BundleEvent.UNRESOLVED:
+            case BundleEvent.UNINSTALLED:
+                synchronized (resolvedClasses) {
+                    bundleGeneration.incrementAndGet();
+                    resolvedClasses.invalidateAll();
+                }
+                if (mgmt.getCatalog() instanceof BasicBrooklynCatalog) {
+                    ((BasicBrooklynCatalog)mgmt.getCatalog()).getSpecTemplateCache().invalidateAll();
+                }
+                break;
+            default:
+                // no change to the classes available
+            }
+        }
+    };
 
     public OsgiManager(ManagementContext mgmt) {
         this.mgmt = mgmt;
@@ -78,12 +127,26 @@ public class OsgiManager {
             
             // any extra OSGi startup args could go here
             framework = Osgis.getFramework(osgiCacheDir.getAbsolutePath(), false);
+            framework.getBundleContext().addBundleListener(bundleChangeListener);
+            
+            File bundleCacheDir = BrooklynServerPaths.getOsgiBundleCacheDir(mgmt);
+            if (bundleCacheDir==null) {
+                bundleCacheTempDir = Os.newTempDir("brooklyn-bundle-cache");
+                bundleCacheDir = bundleCacheTempDir;
+            }
+            bundleCache = new BundleCache(bundleCacheDir);
         } catch (Exception e) {
             throw Exceptions.propagate(e);
         }
     }
 
     public void stop() {
+        try {
+            if (framework.getBundleContext()!=null) framework.getBundleContext().removeBundleListener(bundleChangeListener);
+        } catch (Exception e) {
+            Exceptions.propagateIfFatal(e);
+            log.debug("Unable to remove bundle listener from "+framework+" (ignoring): "+e);
+        }
         Osgis.ungetFramework(framework);
         if (BrooklynServerPaths.isOsgiCacheForCleaning(mgmt, osgiCacheDir)) {
             // See exception reported in https://issues.apache.org/jira/browse/BROOKLYN-72
@@ -106,23 +169,110 @@ public class OsgiManager {
         }
         osgiCacheDir = null;
         framework = null;
+        if (bundleCacheTempDir!=null) {
+            Os.deleteRecursively(bundleCacheTempDir);
+            bundleCacheTempDir = null;
+        }
+        bundleCache = null;
+    }
+
+    /** the cache of downloaded bundles; fails if this manager is not {@link #start() started} (or has been stopped) */
+    protected BundleCache getBundleCache() {
+        BundleCache result = bundleCache;
+        if (result==null) throw new IllegalStateException("OSGi manager for "+mgmt+" is not running; cannot fetch bundles");
+        return result;
     }
 
-    public synchronized void registerBundle(CatalogBundle bundle) {
+    public void registerBundle(CatalogBundle bundle) {
         try {
-            if (checkBundleInstalledThrowIfInconsistent(bundle)) {
-                return;
+            synchronized (this) {
+                if (checkBundleInstalledThrowIfInconsistent(bundle)) {
+                    return;
+                }
             }
+            
+            // download outside the lock, so that other bundles can be installed (or downloaded) meanwhile
+            String localUrl = getBundleCache().getLocalUrl(bundle.getUrl(), bundle.getChecksum());
 
-            Bundle b = Osgis.install(framework, bundle.getUrl());
-
-            checkCorrectlyInstalled(bundle, b);
+            synchronized (this) {
+                if (checkBundleInstalledThrowIfInconsistent(bundle)) {
+                    return;
+                }
+                Bundle b = Osgis.install(framework, bundle.getUrl(), localUrl);
+                checkCorrectlyInstalled(bundle, b);
+            }
         } catch (Exception e) {
             Exceptions.propagateIfFatal(e);
             throw new IllegalStateException("Bundle from "+bundle.getUrl()+" failed to install: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Registers the given bundles, in order, after downloading them in parallel.
+     * Installing bundles does not resolve them, so the order does not need to respect dependencies between them;
+     * OSGi resolves those when classes are first loaded from the bundles.
+     */
+    @Beta
+    public void registerBundles(Iterable<? extends CatalogBundle> bundles) {
+        prefetchBundles(bundles);
+        for (CatalogBundle bundle: bundles) {
+            registerBundle(bundle);
+        }
+    }
+
+    /**
+     * Downloads the given bundles to the local {@link BundleCache}, in parallel, 
+     * unless they are already installed or cached; blocks until all are done.
+     * Failures are not reported here, but will recur (and be reported) when the bundle is registered.
+     */
+    @Beta
+    public void prefetchBundles(Iterable<? extends OsgiBundleWithUrl> bundles) {
+        final List<String> urls = MutableList.of();
+        final List<String> checksums = MutableList.of();
+        for (OsgiBundleWithUrl bundle: bundles) {
+            String url = bundle.getUrl();
+            if (url!=null && !Osgis.isLocalUrl(url) && !urls.contains(url)
+                    && Osgis.bundleFinder(framework).requiringFromUrl(url).find().isAbsent()) {
+                urls.add(url);
+                checksums.add(bundle.getChecksum());
+            }
+        }
+        Integer maxThreads = mgmt.getConfig().getConfig(BrooklynServerConfig.OSGI_BUNDLE_FETCH_MAX_THREADS);
+        int threads = Math.min(urls.size(), maxThreads==null ? 1 : maxThreads);
+        if (threads <= 1) {
+            // will be fetched when registered
+            return;
+        }
+        
+        final AtomicInteger nextIndex = new AtomicInteger();
+        final BundleCache cache = getBundleCache();
+        Callable<Void> worker = new Callable<Void>() {
+            @Override
+            public Void call() {
+                int i;
+                while ((i = nextIndex.getAndIncrement()) < urls.size()) {
+                    try {
+                        cache.getLocalUrl(urls.get(i), checksums.get(i));
+                    } catch (Exception e) {
+                        Exceptions.propagateIfFatal(e);
+                        log.debug("Unable to prefetch bundle "+urls.get(i)+" (will retry when installing): "+e);
+                    }
+                }
+                return null;
+            }
+        };
+        Stopwatch timer = Stopwatch.createStarted();
+        List<Task<Void>> tasks = MutableList.of();
+        for (int t=0; t<threads; t++) {
+            tasks.add(mgmt.getExecutionManager().submit(Tasks.<Void>builder().displayName("fetching bundles").body(worker)
+                .tag(BrooklynTaskTags.TRANSIENT_TASK_TAG).build()));
+        }
+        for (Task<Void> task: tasks) {
+            task.blockUntilEnded();
+        }
+        log.debug("Fetched "+urls.size()+" bundles using "+threads+" threads in "+Time.makeTimeStringRounded(timer));
+    }
+
     private void checkCorrectlyInstalled(CatalogBundle bundle, Bundle b) {
         String nv = b.getSymbolicName()+":"+b.getVersion().toString();
 
@@ -181,7 +331,37 @@ public class OsgiManager {
     public <T> Maybe<Class<T>> tryResolveClass(String type, OsgiBundleWithUrl... osgiBundles) {
         return tryResolveClass(type, Arrays.asList(osgiBundles));
     }
+    @SuppressWarnings({ "unchecked", "rawtypes" })
     public <T> Maybe<Class<T>> tryResolveClass(String type, Iterable<? extends OsgiBundleWithUrl> osgiBundles) {
+        List<Object> key = MutableList.<Object>of(type);
+        for (OsgiBundleWithUrl osgiBundle: osgiBundles) {
+            key.add(Arrays.asList(osgiBundle.getSymbolicName(), osgiBundle.getVersion(), osgiBundle.getUrl()));
+        }
+        Maybe<Class<?>> result = resolvedClasses.getIfPresent(key);
+        if (result!=null) return (Maybe) result;
+        
+        long generation = bundleGeneration.get();
+        result = (Maybe) tryResolveClassUncached(type, osgiBundles);
+        // don't cache if bundles changed while resolving, as the result may already be stale
+        synchronized (resolvedClasses) {
+            if (generation==bundleGeneration.get()) resolvedClasses.put(key, result);
+        }
+        return (Maybe) result;
+    }
+    
+    /** incremented whenever bundles are installed, updated or removed, changing the classes which might be loaded */
+    @Beta
+    public long getBundleGeneration() {
+        return bundleGeneration.get();
+    }
+    
+    /** stats for the cache of classes (and failures) from {@link #tryResolveClass(String, Iterable)} */
+    @Beta
+    public CacheStats getResolvedClassesCacheStats() {
+        return resolvedClasses.stats();
+    }
+    
+    private <T> Maybe<Class<T>> tryResolveClassUncached(String type, Iterable<? extends OsgiBundleWithUrl> osgiBundles) {
         Map<OsgiBundleWithUrl,Throwable> bundleProblems = MutableMap.of();
         Set<String> extraMessages = MutableSet.of();
         for (OsgiBundleWithUrl osgiBundle: osgiBundles) {
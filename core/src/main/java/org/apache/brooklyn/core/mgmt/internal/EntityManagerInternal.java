@@ -18,9 +18,14 @@
  */
 package org.apache.brooklyn.core.mgmt.internal;
 
+import java.util.Collection;
+
 import org.apache.brooklyn.api.entity.Application;
 import org.apache.brooklyn.api.entity.Entity;
 import org.apache.brooklyn.api.mgmt.EntityManager;
+import org.apache.brooklyn.core.entity.BrooklynConfigKeys;
+
+import com.google.common.annotations.Beta;
 
 public interface EntityManagerInternal extends EntityManager, BrooklynObjectManagerInternal<Entity> {
 
@@ -29,4 +34,10 @@ public interface EntityManagerInternal extends EntityManager, BrooklynObjectMana
 
     public Iterable<String> getEntityIds();
     
+    /** gets the managed entities in the given application whose {@link BrooklynConfigKeys#PLAN_ID} was set to the given value 
+     * when they became managed, in the order they became managed; this is indexed so is much cheaper than searching the application.
+     * entities which are not yet managed, or whose plan id was changed after management, are not included. */
+    @Beta
+    Collection<Entity> getEntitiesInApplicationWithPlanId(String applicationId, String planId);
+    
 }
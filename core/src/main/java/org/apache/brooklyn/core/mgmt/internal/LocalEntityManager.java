@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import javax.annotation.Nullable;
 
@@ -39,18 +40,21 @@ import org.apache.brooklyn.api.entity.EntityTypeRegistry;
 import org.apache.brooklyn.api.entity.Group;
 import org.apache.brooklyn.api.mgmt.AccessController;
 import org.apache.brooklyn.api.mgmt.Task;
+import org.apache.brooklyn.api.mgmt.rebind.RebindManager;
 import org.apache.brooklyn.api.policy.Policy;
 import org.apache.brooklyn.api.policy.PolicySpec;
 import org.apache.brooklyn.api.sensor.Enricher;
 import org.apache.brooklyn.api.sensor.EnricherSpec;
 import org.apache.brooklyn.core.BrooklynLogging;
 import org.apache.brooklyn.core.entity.AbstractEntity;
+import org.apache.brooklyn.core.entity.BrooklynConfigKeys;
 import org.apache.brooklyn.core.entity.Entities;
 import org.apache.brooklyn.core.entity.EntityInternal;
 import org.apache.brooklyn.core.entity.EntityPredicates;
 import org.apache.brooklyn.core.entity.trait.Startable;
 import org.apache.brooklyn.core.internal.storage.BrooklynStorage;
 import org.apache.brooklyn.core.mgmt.BrooklynTaskTags;
+import org.apache.brooklyn.core.mgmt.rebind.DormantApplicationSupport;
 import org.apache.brooklyn.core.objs.BasicEntityTypeRegistry;
 import org.apache.brooklyn.core.objs.proxy.EntityProxy;
 import org.apache.brooklyn.core.objs.proxy.EntityProxyImpl;
@@ -101,6 +105,12 @@ public class LocalEntityManager implements EntityManagerInternal {
     /** Management mode for each entity */
     protected final Map<String,ManagementTransitionMode> entityModesById = Collections.synchronizedMap(Maps.<String,ManagementTransitionMode>newLinkedHashMap());
 
+    /** Ids of managed entities, keyed by {@link #planIdIndexKey(String, String)} of their application and {@link BrooklynConfigKeys#PLAN_ID} */
+    protected final ConcurrentMap<String,Set<String>> entityIdsByPlanIdIndexKey = Maps.newConcurrentMap();
+    
+    /** The {@link #planIdIndexKey(String, String)} under which each entity was indexed, so it can be removed on unmanage */
+    protected final ConcurrentMap<String,String> planIdIndexKeysByEntityId = Maps.newConcurrentMap();
+    
     /** Proxies of the managed entities */
     protected final ObservableList entities = new ObservableList();
     
@@ -218,9 +228,66 @@ public class LocalEntityManager implements EntityManagerInternal {
             }}));
     }
 
+    @Override
+    public Collection<Entity> getEntitiesInApplicationWithPlanId(String applicationId, String planId) {
+        if (applicationId==null || planId==null) return ImmutableList.of();
+        Set<String> ids = entityIdsByPlanIdIndexKey.get(planIdIndexKey(applicationId, planId));
+        if (ids==null) return ImmutableList.of();
+        List<Entity> result = Lists.newArrayListWithCapacity(ids.size());
+        for (String id: ids) {
+            Entity e = entityProxiesById.get(id);
+            if (e!=null) result.add(e);
+        }
+        return result;
+    }
+    
+    private static String planIdIndexKey(String applicationId, String planId) {
+        return applicationId+"/"+planId;
+    }
+    
+    private void addToPlanIdIndex(Entity realE) {
+        Object planId = ((EntityInternal)realE).config().getLocalRaw(BrooklynConfigKeys.PLAN_ID).orNull();
+        if (!(planId instanceof String) || realE.getApplicationId()==null) return;
+        String key = planIdIndexKey(realE.getApplicationId(), (String)planId);
+        synchronized (entityIdsByPlanIdIndexKey) {
+            String oldKey = planIdIndexKeysByEntityId.put(realE.getId(), key);
+            if (oldKey!=null && !oldKey.equals(key)) removeFromPlanIdIndex(oldKey, realE.getId());
+            Set<String> ids = entityIdsByPlanIdIndexKey.get(key);
+            if (ids==null) {
+                ids = new CopyOnWriteArraySet<String>();
+                entityIdsByPlanIdIndexKey.put(key, ids);
+            }
+            ids.add(realE.getId());
+        }
+    }
+    
+    private void removeFromPlanIdIndex(String entityId) {
+        synchronized (entityIdsByPlanIdIndexKey) {
+            String key = planIdIndexKeysByEntityId.remove(entityId);
+            if (key!=null) removeFromPlanIdIndex(key, entityId);
+        }
+    }
+    
+    // caller must synchronize on entityIdsByPlanIdIndexKey (reads need not)
+    private void removeFromPlanIdIndex(String key, String entityId) {
+        Set<String> ids = entityIdsByPlanIdIndexKey.get(key);
+        if (ids!=null) {
+            ids.remove(entityId);
+            if (ids.isEmpty()) entityIdsByPlanIdIndexKey.remove(key);
+        }
+    }
+    
     @Override
     public Entity getEntity(String id) {
-        return entityProxiesById.get(id);
+        Entity result = entityProxiesById.get(id);
+        if (result==null && id!=null) {
+            // applications may have been left dormant on rebind; if so, the first lookup wakes them
+            RebindManager rebindManager = managementContext.getRebindManager();
+            if (rebindManager instanceof DormantApplicationSupport && ((DormantApplicationSupport)rebindManager).isDormant(id)) {
+                result = ((DormantApplicationSupport)rebindManager).wakeDormantApplicationContaining(id);
+            }
+        }
+        return result;
     }
     
     Collection<Application> getApplications() {
@@ -473,6 +540,7 @@ public class LocalEntityManager implements EntityManagerInternal {
         entityProxiesById.remove(e.getId());
         entitiesById.remove(e.getId());
         entityModesById.remove(e.getId());
+        removeFromPlanIdIndex(e.getId());
     }
     
     private void stopTasks(Entity entity) {
@@ -663,6 +731,7 @@ public class LocalEntityManager implements EntityManagerInternal {
         entityProxiesById.put(e.getId(), proxyE);
         entityTypes.put(e.getId(), realE.getClass().getName());
         entitiesById.put(e.getId(), realE);
+        addToPlanIdIndex(realE);
 
         preManagedEntitiesById.remove(e.getId());
         if ((e instanceof Application) && (e.getParent()==null)) {
@@ -728,6 +797,7 @@ public class LocalEntityManager implements EntityManagerInternal {
             entityProxiesById.remove(e.getId());
             entityModesById.remove(e.getId());
             Object old = entitiesById.remove(e.getId());
+            removeFromPlanIdIndex(e.getId());
 
             entityTypes.remove(e.getId());
             if (old==null) {
@@ -53,6 +53,7 @@ import org.apache.brooklyn.core.mgmt.ha.OsgiManager;
 import org.apache.brooklyn.core.objs.proxy.InternalEntityFactory;
 import org.apache.brooklyn.core.objs.proxy.InternalLocationFactory;
 import org.apache.brooklyn.core.objs.proxy.InternalPolicyFactory;
+import org.apache.brooklyn.feed.http.HttpPollingEngine;
 import org.apache.brooklyn.util.core.task.BasicExecutionContext;
 import org.apache.brooklyn.util.core.task.BasicExecutionManager;
 import org.apache.brooklyn.util.core.task.DynamicTasks;
@@ -125,6 +126,7 @@ public class LocalManagementContext extends AbstractManagementContext {
     private final LocalAccessManager accessManager;
     private final LocalUsageManager usageManager;
     private OsgiManager osgiManager;
+    private HttpPollingEngine httpPollingEngine;
     
     public final Throwable constructionStackTrace = new Throwable("for construction stacktrace").fillInStackTrace();
     
@@ -288,6 +290,13 @@ public class LocalManagementContext extends AbstractManagementContext {
         return Maybe.of(osgiManager);
     }
 
+    @Override
+    public synchronized HttpPollingEngine getHttpPollingEngine() {
+        if (!isRunning()) throw new IllegalStateException("Management context no longer running");
+        if (httpPollingEngine==null) httpPollingEngine = new HttpPollingEngine(this);
+        return httpPollingEngine;
+    }
+
     @Override
     public synchronized AccessController getAccessController() {
         return getAccessManager().getAccessController();
@@ -323,6 +332,9 @@ public class LocalManagementContext extends AbstractManagementContext {
             osgiManager = null;
         }
         if (usageManager != null) usageManager.terminate();
+        synchronized (this) {
+            if (httpPollingEngine != null) httpPollingEngine.shutdown();
+        }
         if (execution != null) execution.shutdownNow();
         if (gc != null) gc.shutdownNow();
     }
@@ -38,6 +38,7 @@ import org.apache.brooklyn.core.mgmt.usage.UsageManager;
 import org.apache.brooklyn.core.objs.proxy.InternalEntityFactory;
 import org.apache.brooklyn.core.objs.proxy.InternalLocationFactory;
 import org.apache.brooklyn.core.objs.proxy.InternalPolicyFactory;
+import org.apache.brooklyn.feed.http.HttpPollingEngine;
 import org.apache.brooklyn.util.core.task.TaskTags;
 import org.apache.brooklyn.util.guava.Maybe;
 
@@ -122,4 +123,8 @@ public interface ManagementContextInternal extends ManagementContext {
     @Beta
     ExternalConfigSupplierRegistry getExternalConfigProviderRegistry();
 
+    /** The engine shared by the HTTP feeds of this context, created when first needed and shut down when the context terminates. */
+    @Beta
+    HttpPollingEngine getHttpPollingEngine();
+
 }
@@ -193,4 +193,13 @@ public class NonDeploymentEntityManager implements EntityManagerInternal {
         }
     }
     
+    @Override
+    public Collection<Entity> getEntitiesInApplicationWithPlanId(String applicationId, String planId) {
+        if (isInitialManagementContextReal()) {
+            return ((EntityManagerInternal)initialManagementContext.getEntityManager()).getEntitiesInApplicationWithPlanId(applicationId, planId);
+        } else {
+            throw new IllegalStateException("Non-deployment context "+this+" (with no initial management context supplied) is not valid for this operation.");
+        }
+    }
+    
 }
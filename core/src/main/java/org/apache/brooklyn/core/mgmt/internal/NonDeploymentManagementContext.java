@@ -68,6 +68,7 @@ import org.apache.brooklyn.core.mgmt.usage.UsageManager;
 import org.apache.brooklyn.core.objs.proxy.InternalEntityFactory;
 import org.apache.brooklyn.core.objs.proxy.InternalLocationFactory;
 import org.apache.brooklyn.core.objs.proxy.InternalPolicyFactory;
+import org.apache.brooklyn.feed.http.HttpPollingEngine;
 import org.apache.brooklyn.util.guava.Maybe;
 import org.apache.brooklyn.util.time.Duration;
 import org.slf4j.Logger;
@@ -475,6 +476,12 @@ public class NonDeploymentManagementContext implements ManagementContextInternal
         checkInitialManagementContextReal();
         return initialManagementContext.getCatalogInitialization();
     }
+
+    @Override
+    public HttpPollingEngine getHttpPollingEngine() {
+        checkInitialManagementContextReal();
+        return initialManagementContext.getHttpPollingEngine();
+    }
     
     @Override
     public void setCatalogInitialization(CatalogInitialization catalogInitialization) {
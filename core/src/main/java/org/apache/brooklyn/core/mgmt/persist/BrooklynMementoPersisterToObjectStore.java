@@ -20,7 +20,10 @@ package org.apache.brooklyn.core.mgmt.persist;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -51,7 +54,6 @@ import org.apache.brooklyn.config.StringConfigMap;
 import org.apache.brooklyn.core.catalog.internal.CatalogUtils;
 import org.apache.brooklyn.core.config.ConfigKeys;
 import org.apache.brooklyn.core.mgmt.classloading.ClassLoaderFromBrooklynClassLoadingContext;
-import org.apache.brooklyn.core.mgmt.persist.PersistenceObjectStore.StoreObjectAccessor;
 import org.apache.brooklyn.core.mgmt.persist.PersistenceObjectStore.StoreObjectAccessorWithLock;
 import org.apache.brooklyn.core.mgmt.rebind.PeriodicDeltaChangeListener;
 import org.apache.brooklyn.core.mgmt.rebind.dto.BrooklynMementoImpl;
@@ -67,10 +69,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.Beta;
+import com.google.common.base.Charsets;
 import com.google.common.base.Objects;
 import com.google.common.base.Stopwatch;
+import com.google.common.base.Utf8;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.io.ByteSource;
+import com.google.common.io.CharStreams;
+import com.google.common.io.CountingInputStream;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
@@ -97,6 +104,16 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
             "Maximum number of attempts to serialize a memento (e.g. if first attempts fail because of concurrent modifications of an entity)", 
             5);
 
+    public static final ConfigKey<Duration> PERSISTER_SLOW_OBJECT_THRESHOLD = ConfigKeys.newConfigKey(Duration.class,
+            "persister.slowObjectThreshold",
+            "Time to serialize and write a single memento, above which the object is logged as slow", 
+            Duration.ONE_SECOND);
+
+    public static final ConfigKey<Long> PERSISTER_LARGE_OBJECT_THRESHOLD = ConfigKeys.newLongConfigKey(
+            "persister.largeObjectThreshold",
+            "Size in bytes of a single persisted memento, above which the object is logged as large", 
+            1024L*1024L);
+
     private final PersistenceObjectStore objectStore;
     private final MementoSerializer<Object> serializerWithStandardClassLoader;
 
@@ -108,6 +125,10 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
     private volatile boolean writesShuttingDown = false;
     private StringConfigMap brooklynProperties;
     
+    private final PersistenceObjectMetrics objectMetrics = new PersistenceObjectMetrics();
+    private final long slowObjectThresholdNanos;
+    private final long largeObjectThreshold;
+    
     private List<Delta> queuedDeltas = new CopyOnWriteArrayList<BrooklynMementoPersister.Delta>();
     
     /**
@@ -122,7 +143,10 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
         
         int maxSerializationAttempts = brooklynProperties.getConfig(PERSISTER_MAX_SERIALIZATION_ATTEMPTS);
         MementoSerializer<Object> rawSerializer = new XmlMementoSerializer<Object>(classLoader);
-        this.serializerWithStandardClassLoader = new RetryingMementoSerializer<Object>(rawSerializer, maxSerializationAttempts);
+        this.serializerWithStandardClassLoader = new RetryingMementoSerializer<Object>(rawSerializer, maxSerializationAttempts, objectMetrics);
+        
+        this.slowObjectThresholdNanos = brooklynProperties.getConfig(PERSISTER_SLOW_OBJECT_THRESHOLD).toNanoseconds();
+        this.largeObjectThreshold = brooklynProperties.getConfig(PERSISTER_LARGE_OBJECT_THRESHOLD);
 
         int maxThreadPoolSize = brooklynProperties.getConfig(PERSISTER_MAX_THREAD_POOL_SIZE);
 
@@ -143,6 +167,11 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
             }}));
     }
 
+    /** per-type metrics on the reads and writes of individual objects */
+    public PersistenceObjectMetrics getObjectMetrics() {
+        return objectMetrics;
+    }
+    
     public MementoSerializer<Object> getMementoSerializer() {
         return getSerializerWithStandardClassLoader();
     }
@@ -157,10 +186,18 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
         return getSerializerWithCustomClassLoader(lookupContext, cl);
     }
     
+    /** deserializes, telling the serializer the type expected where it can use it (to record retries against it) */
+    private Object deserialize(MementoSerializer<Object> serializer, BrooklynObjectType type, String contents) {
+        if (serializer instanceof RetryingMementoSerializer) {
+            return ((RetryingMementoSerializer<Object>)serializer).fromString(contents, type);
+        }
+        return serializer.fromString(contents);
+    }
+    
     protected MementoSerializer<Object> getSerializerWithCustomClassLoader(LookupContext lookupContext, ClassLoader classLoader) {
         int maxSerializationAttempts = brooklynProperties.getConfig(PERSISTER_MAX_SERIALIZATION_ATTEMPTS);
         MementoSerializer<Object> rawSerializer = new XmlMementoSerializer<Object>(classLoader);
-        MementoSerializer<Object> result = new RetryingMementoSerializer<Object>(rawSerializer, maxSerializationAttempts);
+        MementoSerializer<Object> result = new RetryingMementoSerializer<Object>(rawSerializer, maxSerializationAttempts, objectMetrics);
         result.setLookupContext(lookupContext);
         return result;
     }
@@ -286,7 +323,16 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
             public void visit(BrooklynObjectType type, String id, String contentsSubpath) throws Exception {
                 String contents = null;
                 try {
-                    contents = read(contentsSubpath);
+                    long start = System.nanoTime();
+                    CountingInputStream in = readStream(contentsSubpath);
+                    if (in!=null) {
+                        try {
+                            contents = CharStreams.toString(new InputStreamReader(in, Charsets.UTF_8));
+                        } finally {
+                            in.close();
+                        }
+                    }
+                    objectMetrics.noteRead(type, id, System.nanoTime() - start, in==null ? 0 : in.getCount());
                 } catch (Exception e) {
                     Exceptions.propagateIfFatal(e);
                     exceptionHandler.onLoadMementoFailed(type, "memento "+id+" read error", e);
@@ -350,7 +396,7 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
                         break;
                     case CATALOG_ITEM:
                         try {
-                            CatalogItemMemento memento = (CatalogItemMemento) getSerializerWithStandardClassLoader().fromString(contents);
+                            CatalogItemMemento memento = (CatalogItemMemento) deserialize(getSerializerWithStandardClassLoader(), type, contents);
                             if (memento == null) {
                                 LOG.warn("No "+type.toCamelCase()+"-memento deserialized from " + objectId + "; ignoring and continuing");
                             } else {
@@ -397,7 +443,9 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
             @Override
             public void visit(BrooklynObjectType type, String objectId, String contents) throws Exception {
                 try {
-                    Memento memento = (Memento) getSerializerWithCustomClassLoader(lookupContext, type, objectId).fromString(contents);
+                    long start = System.nanoTime();
+                    Memento memento = (Memento) deserialize(getSerializerWithCustomClassLoader(lookupContext, type, objectId), type, contents);
+                    objectMetrics.noteDeserialize(type, objectId, System.nanoTime() - start);
                     if (memento == null) {
                         LOG.warn("No "+type.toCamelCase()+"-memento deserialized from " + objectId + "; ignoring and continuing");
                     } else {
@@ -627,14 +675,23 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
         }
     }
 
-    private String read(String subPath) {
-        StoreObjectAccessor objectAccessor = objectStore.newAccessor(subPath);
-        return objectAccessor.get();
+    /** opens a stream on the object, or returns null if not found; the caller must close the stream.
+     * Opened through the object's writer, so that it is not written until the stream is closed. */
+    @Nullable
+    private CountingInputStream readStream(String subPath) {
+        InputStream in = getWriter(subPath).getInputStream();
+        return in==null ? null : new CountingInputStream(in);
     }
 
     private void persist(String subPath, Memento memento, PersistenceExceptionHandler exceptionHandler) {
         try {
-            getWriter(getPath(subPath, memento.getId())).put(getSerializerWithStandardClassLoader().toString(memento));
+            long start = System.nanoTime();
+            // serialize straight to UTF-8 bytes, rather than via a String which would then be encoded again on write
+            ExposedByteArrayOutputStream content = new ExposedByteArrayOutputStream();
+            getSerializerWithStandardClassLoader().toStream(memento, content);
+            long serialized = System.nanoTime();
+            getWriter(getPath(subPath, memento.getId())).put(content.asByteSource());
+            noteWrite(PersistenceObjectMetrics.typeOfMemento(memento), memento.getId(), serialized - start, System.nanoTime() - serialized, content.size());
         } catch (Exception e) {
             exceptionHandler.onPersistMementoFailed(memento, e);
         }
@@ -645,12 +702,31 @@ public class BrooklynMementoPersisterToObjectStore implements BrooklynMementoPer
             if (content==null) {
                 LOG.warn("Null content for "+type+" "+id);
             }
+            long start = System.nanoTime();
             getWriter(getPath(subPath, id)).put(content);
+            noteWrite(type, id, 0, System.nanoTime() - start, content==null ? 0 : Utf8.encodedLength(content));
         } catch (Exception e) {
             exceptionHandler.onPersistRawMementoFailed(type, id, e);
         }
     }
     
+    private void noteWrite(BrooklynObjectType type, String id, long serializeNanos, long writeNanos, long size) {
+        objectMetrics.noteWrite(type, id, serializeNanos, writeNanos, size);
+        if (serializeNanos + writeNanos > slowObjectThresholdNanos || size > largeObjectThreshold) {
+            LOG.info("Slow or large persistence of "+type.toCamelCase()+" "+id+": "
+                + "serialization "+Time.makeTimeStringRounded(serializeNanos, TimeUnit.NANOSECONDS)+", "
+                + "write "+Time.makeTimeStringRounded(writeNanos, TimeUnit.NANOSECONDS)+", "
+                + "size "+Strings.makeSizeString(size));
+        }
+    }
+    
+    /** gives access to the buffer without copying it */
+    private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+        ByteSource asByteSource() {
+            return ByteSource.wrap(buf).slice(0, count);
+        }
+    }
+    
     private void delete(String subPath, String id, PersistenceExceptionHandler exceptionHandler) {
         try {
             StoreObjectAccessorWithLock w = getWriter(getPath(subPath, id));
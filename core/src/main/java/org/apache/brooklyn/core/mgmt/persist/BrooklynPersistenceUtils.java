@@ -19,6 +19,7 @@
 package org.apache.brooklyn.core.mgmt.persist;
 
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +45,7 @@ import org.apache.brooklyn.core.entity.EntityInternal;
 import org.apache.brooklyn.core.mgmt.ha.ManagementPlaneSyncRecordPersisterToObjectStore;
 import org.apache.brooklyn.core.mgmt.internal.LocalLocationManager;
 import org.apache.brooklyn.core.mgmt.internal.ManagementContextInternal;
+import org.apache.brooklyn.core.mgmt.rebind.DormantApplicationSupport;
 import org.apache.brooklyn.core.mgmt.rebind.PersistenceExceptionHandlerImpl;
 import org.apache.brooklyn.core.mgmt.rebind.transformer.CompoundTransformer;
 import org.apache.brooklyn.core.mgmt.rebind.transformer.CompoundTransformerLoader;
@@ -179,6 +181,18 @@ public class BrooklynPersistenceUtils {
         for (CatalogItem<?,?> instance: mgmt.getCatalog().getCatalogItems())
             result.catalogItem(instance.getId(), serializer.toString(newObjectMemento(instance)));
         
+        // applications kept dormant on rebind are not managed, but their persisted state is part of this node's state
+        if (mgmt.getRebindManager() instanceof DormantApplicationSupport) {
+            BrooklynMementoRawData dormant = ((DormantApplicationSupport)mgmt.getRebindManager()).getDormantApplicationsRawData();
+            BrooklynMementoRawData live = result.build();
+            for (BrooklynObjectType type: STANDARD_BROOKLYN_OBJECT_TYPE_PERSISTENCE_ORDER) {
+                for (Map.Entry<String, String> entry: dormant.getObjectsOfType(type).entrySet()) {
+                    // anything managed meanwhile (e.g. while being woken) is as current as the dormant state
+                    if (!live.getObjectsOfType(type).containsKey(entry.getKey())) result.put(type, entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        
         return result.build();
     }
 
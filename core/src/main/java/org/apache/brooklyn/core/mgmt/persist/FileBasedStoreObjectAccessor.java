@@ -18,8 +18,11 @@
  */
 package org.apache.brooklyn.core.mgmt.persist;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Date;
 
 import org.apache.brooklyn.util.exceptions.Exceptions;
@@ -30,6 +33,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Charsets;
 import com.google.common.base.Objects;
+import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 
 /**
@@ -69,6 +73,17 @@ public class FileBasedStoreObjectAccessor implements PersistenceObjectStore.Stor
         }
     }
 
+    /** returns a buffered stream on the file, which the caller must close */
+    @Override
+    public InputStream getInputStream() {
+        try {
+            if (!exists()) return null;
+            return new BufferedInputStream(new FileInputStream(file));
+        } catch (IOException e) {
+            throw Exceptions.propagate("Problem reading contents of file "+file, e);
+        }
+    }
+
     @Override
     public boolean exists() {
         return file.exists();
@@ -88,6 +103,20 @@ public class FileBasedStoreObjectAccessor implements PersistenceObjectStore.Stor
         }
     }
 
+    @Override
+    public void put(ByteSource val) {
+        try {
+            if (val==null) val = ByteSource.empty();
+            FileUtil.setFilePermissionsTo600(tmpFile);
+            val.copyTo(Files.asByteSink(tmpFile));
+            FileBasedObjectStore.moveFile(tmpFile, file);
+        } catch (IOException e) {
+            throw Exceptions.propagate("Problem writing data to file "+file+" (via temporary file "+tmpFile+")", e);
+        } catch (InterruptedException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
     // TODO Should this write to the temporary file? Otherwise we'll risk getting a partial view of the write.
     @Override
     public void append(String val) {
@@ -18,9 +18,16 @@
  */
 package org.apache.brooklyn.core.mgmt.persist;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 import org.apache.brooklyn.api.mgmt.ha.ManagementNodeSyncRecord;
 import org.apache.brooklyn.api.mgmt.rebind.mementos.BrooklynMemento;
 import org.apache.brooklyn.api.mgmt.rebind.mementos.BrooklynMementoPersister.LookupContext;
+import org.apache.brooklyn.util.exceptions.Exceptions;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Charsets;
 
 /** Serializes the given object; it is often used with {@link BrooklynMemento} for persisting and restoring,
  * though it can be used for any object (and is also used for the {@link ManagementNodeSyncRecord} instances) */
@@ -36,6 +43,14 @@ public interface MementoSerializer<T> {
             return string;
         }
         @Override
+        public void toStream(String memento, OutputStream out) {
+            try {
+                out.write(memento.getBytes(Charsets.UTF_8));
+            } catch (IOException e) {
+                throw Exceptions.propagate(e);
+            }
+        }
+        @Override
         public void setLookupContext(LookupContext lookupContext) {
             // no-op
         }
@@ -47,6 +62,10 @@ public interface MementoSerializer<T> {
     
     String toString(T memento);
     T fromString(String string);
+    /** writes the serialized memento to the given stream, UTF-8 encoded; the stream is not closed.
+     * This avoids holding the serialized form in memory as a {@link String}. */
+    @Beta
+    void toStream(T memento, OutputStream out);
     void setLookupContext(LookupContext lookupContext);
     void unsetLookupContext();
 }
\ No newline at end of file
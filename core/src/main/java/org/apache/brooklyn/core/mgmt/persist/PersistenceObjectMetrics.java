@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.mgmt.persist;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.brooklyn.api.mgmt.rebind.mementos.CatalogItemMemento;
+import org.apache.brooklyn.api.mgmt.rebind.mementos.EnricherMemento;
+import org.apache.brooklyn.api.mgmt.rebind.mementos.EntityMemento;
+import org.apache.brooklyn.api.mgmt.rebind.mementos.FeedMemento;
+import org.apache.brooklyn.api.mgmt.rebind.mementos.LocationMemento;
+import org.apache.brooklyn.api.mgmt.rebind.mementos.PolicyMemento;
+import org.apache.brooklyn.api.objs.BrooklynObjectType;
+import org.apache.brooklyn.util.collections.MutableList;
+import org.apache.brooklyn.util.collections.MutableMap;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Per-{@link BrooklynObjectType} metrics for the reads and writes of individual mementos,
+ * complementing the whole-cycle {@link PersistenceActivityMetrics}.
+ * <p>
+ * For each type this records histograms of serialization time, write time and size,
+ * read time and size (on rebind), deserialization time, and counts of serialization retries;
+ * and it keeps the ids of the largest and slowest objects seen, so that it is possible to tell
+ * which items are making persistence slow.
+ */
+@Beta
+public class PersistenceObjectMetrics {
+
+    /** number of objects reported by {@link #getLargestObjects(BrooklynObjectType)} and {@link #getSlowestObjects(BrooklynObjectType)} */
+    public static final int MAX_OBJECTS_TRACKED = 10;
+
+    private final Map<BrooklynObjectType, TypeMetrics> metricsByType;
+
+    public PersistenceObjectMetrics() {
+        ImmutableMap.Builder<BrooklynObjectType, TypeMetrics> builder = ImmutableMap.builder();
+        for (BrooklynObjectType type: BrooklynObjectType.values()) {
+            builder.put(type, new TypeMetrics());
+        }
+        metricsByType = builder.build();
+    }
+
+    public static BrooklynObjectType typeOfMemento(Object memento) {
+        if (memento instanceof EntityMemento) return BrooklynObjectType.ENTITY;
+        if (memento instanceof LocationMemento) return BrooklynObjectType.LOCATION;
+        if (memento instanceof PolicyMemento) return BrooklynObjectType.POLICY;
+        if (memento instanceof EnricherMemento) return BrooklynObjectType.ENRICHER;
+        if (memento instanceof FeedMemento) return BrooklynObjectType.FEED;
+        if (memento instanceof CatalogItemMemento) return BrooklynObjectType.CATALOG_ITEM;
+        return BrooklynObjectType.UNKNOWN;
+    }
+
+    /** records a write; serializeNanos should be 0 if the object was written from already serialized data */
+    public void noteWrite(BrooklynObjectType type, String id, long serializeNanos, long writeNanos, long size) {
+        TypeMetrics m = metricsByType.get(type);
+        if (serializeNanos>0) m.serializeNanos.add(serializeNanos);
+        m.writeNanos.add(writeNanos);
+        m.writeSize.add(size);
+        m.largest.offer(id, size);
+        m.slowest.offer(id, serializeNanos + writeNanos);
+    }
+
+    public void noteRead(BrooklynObjectType type, String id, long readNanos, long size) {
+        TypeMetrics m = metricsByType.get(type);
+        m.readNanos.add(readNanos);
+        m.readSize.add(size);
+        m.largest.offer(id, size);
+    }
+
+    public void noteDeserialize(BrooklynObjectType type, String id, long deserializeNanos) {
+        metricsByType.get(type).deserializeNanos.add(deserializeNanos);
+    }
+
+    public void noteSerializationRetry(BrooklynObjectType type) {
+        metricsByType.get(type).serializationRetries.incrementAndGet();
+    }
+
+    public void noteDeserializationRetry(BrooklynObjectType type) {
+        metricsByType.get(type).deserializationRetries.incrementAndGet();
+    }
+
+    /** ids and sizes (in bytes) of the largest objects of the given type read or written */
+    public List<Map<String,Object>> getLargestObjects(BrooklynObjectType type) {
+        return metricsByType.get(type).largest.asList("size");
+    }
+
+    /** ids and times (in nanoseconds, serialization plus write) of the slowest objects of the given type written */
+    public List<Map<String,Object>> getSlowestObjects(BrooklynObjectType type) {
+        return metricsByType.get(type).slowest.asList("nanos");
+    }
+
+    public Map<String,Object> asMap() {
+        Map<String,Object> result = MutableMap.of();
+        for (Map.Entry<BrooklynObjectType, TypeMetrics> entry: metricsByType.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                result.put(entry.getKey().toCamelCase(), entry.getValue().asMap());
+            }
+        }
+        return result;
+    }
+
+    private static class TypeMetrics {
+        final Histogram serializeNanos = new Histogram();
+        final Histogram writeNanos = new Histogram();
+        final Histogram writeSize = new Histogram();
+        final Histogram readNanos = new Histogram();
+        final Histogram readSize = new Histogram();
+        final Histogram deserializeNanos = new Histogram();
+        final AtomicLong serializationRetries = new AtomicLong();
+        final AtomicLong deserializationRetries = new AtomicLong();
+        final TopObjects largest = new TopObjects();
+        final TopObjects slowest = new TopObjects();
+
+        boolean isEmpty() {
+            return writeNanos.getCount()==0 && readNanos.getCount()==0 && deserializeNanos.getCount()==0
+                && serializationRetries.get()==0 && deserializationRetries.get()==0;
+        }
+
+        Map<String,Object> asMap() {
+            Map<String,Object> result = MutableMap.of();
+            result.put("serializeNanos", serializeNanos.asMap());
+            result.put("writeNanos", writeNanos.asMap());
+            result.put("writeBytes", writeSize.asMap());
+            result.put("readNanos", readNanos.asMap());
+            result.put("readBytes", readSize.asMap());
+            result.put("deserializeNanos", deserializeNanos.asMap());
+            result.put("serializationRetries", serializationRetries.get());
+            result.put("deserializationRetries", deserializationRetries.get());
+            result.put("largest", largest.asList("size"));
+            result.put("slowest", slowest.asList("nanos"));
+            return result;
+        }
+    }
+
+    /**
+     * Lock-free histogram with buckets increasing in size in powers of two;
+     * bucket <code>i</code> counts values <code>v</code> with <code>2^(i-1) <= v < 2^i</code>.
+     */
+    @Beta
+    public static class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(65);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        public void add(long val) {
+            if (val < 0) val = 0;
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(val));
+            count.incrementAndGet();
+            sum.addAndGet(val);
+            long oldMax;
+            while (val > (oldMax = max.get())) {
+                if (max.compareAndSet(oldMax, val)) break;
+            }
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        /** upper bound of the bucket containing the given percentile (between 0 and 1), capped at the max value seen */
+        public long getPercentileUpperBound(double percentile) {
+            long total = count.get();
+            if (total==0) return 0;
+            long threshold = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i=0; i<buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= threshold) {
+                    long upper = (i >= 63) ? Long.MAX_VALUE : (1L << i);
+                    return Math.min(upper, max.get());
+                }
+            }
+            return max.get();
+        }
+
+        public Map<String,Object> asMap() {
+            Map<String,Object> result = MutableMap.of();
+            long total = count.get();
+            result.put("count", total);
+            result.put("mean", total==0 ? 0 : sum.get() / total);
+            result.put("max", max.get());
+            result.put("p50", getPercentileUpperBound(0.5));
+            result.put("p90", getPercentileUpperBound(0.9));
+            result.put("p99", getPercentileUpperBound(0.99));
+            Map<String,Long> counts = MutableMap.of();
+            for (int i=0; i<buckets.length(); i++) {
+                long c = buckets.get(i);
+                if (c>0) counts.put("<"+(i >= 63 ? "max" : ""+(1L << i)), c);
+            }
+            result.put("buckets", counts);
+            return result;
+        }
+    }
+
+    /** records the ids with the largest values, keeping at most {@link PersistenceObjectMetrics#MAX_OBJECTS_TRACKED} */
+    private static class TopObjects {
+        private final Map<String,Long> values = MutableMap.of();
+        private volatile long minTracked = -1;
+
+        void offer(String id, long value) {
+            // unsynchronized check avoids contention in the common case where the value is not one of the largest
+            if (id==null || value <= minTracked) return;
+            synchronized (this) {
+                Long old = values.get(id);
+                if (old!=null && old >= value) return;
+                values.put(id, value);
+                if (values.size() > MAX_OBJECTS_TRACKED) {
+                    String minId = null;
+                    for (Map.Entry<String,Long> entry: values.entrySet()) {
+                        if (minId==null || entry.getValue() < values.get(minId)) minId = entry.getKey();
+                    }
+                    values.remove(minId);
+                    minTracked = Collections.min(values.values());
+                }
+            }
+        }
+
+        synchronized List<Map<String,Object>> asList(String valueName) {
+            List<Map.Entry<String,Long>> entries = MutableList.copyOf(values.entrySet());
+            Collections.sort(entries, new Comparator<Map.Entry<String,Long>>() {
+                @Override public int compare(Map.Entry<String,Long> o1, Map.Entry<String,Long> o2) {
+                    return o2.getValue().compareTo(o1.getValue());
+                }
+            });
+            List<Map<String,Object>> result = MutableList.of();
+            for (Map.Entry<String,Long> entry: entries) {
+                result.add(MutableMap.<String,Object>of("id", entry.getKey(), valueName, entry.getValue()));
+            }
+            return result;
+        }
+    }
+
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.brooklyn.core.mgmt.persist;
 
+import java.io.InputStream;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.TimeoutException;
@@ -28,6 +29,7 @@ import org.apache.brooklyn.api.mgmt.ha.HighAvailabilityMode;
 import org.apache.brooklyn.util.time.Duration;
 
 import com.google.common.annotations.Beta;
+import com.google.common.io.ByteSource;
 
 /**
  * Interface for working with persistence targets, including file system and jclouds object stores.
@@ -40,8 +42,16 @@ public interface PersistenceObjectStore {
         /** gets the object, or null if not found */
         String get();
         byte[] getBytes();
+        /** opens a stream on the object's (UTF-8) contents, or returns null if not found;
+         * the caller must close the stream. Implementations should avoid reading the whole object onto the heap. */
+        @Beta
+        InputStream getInputStream();
         boolean exists();
         void put(String contentsToReplaceOrCreate);
+        /** as {@link #put(String)}, but streaming the (UTF-8) contents from the given source, 
+         * so that callers need not hold the contents as a {@link String} */
+        @Beta
+        void put(ByteSource contentsToReplaceOrCreate);
         void append(String contentsToAppendOrCreate);
         void delete();
         // NB: creation date is available for many blobstores but 
@@ -20,7 +20,15 @@ package org.apache.brooklyn.core.mgmt.persist;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.annotation.Nullable;
+
 import org.apache.brooklyn.api.mgmt.rebind.mementos.BrooklynMementoPersister.LookupContext;
+import org.apache.brooklyn.api.objs.BrooklynObjectType;
+import org.apache.brooklyn.util.exceptions.Exceptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,10 +38,17 @@ public class RetryingMementoSerializer<T> implements MementoSerializer<T> {
     
     private final MementoSerializer<T> delegate;
     private final int maxAttempts;
+    @Nullable private final PersistenceObjectMetrics metrics;
     
     public RetryingMementoSerializer(MementoSerializer<T> delegate, int maxAttempts) {
+        this(delegate, maxAttempts, null);
+    }
+    
+    /** @param metrics if supplied, retries are recorded there */
+    public RetryingMementoSerializer(MementoSerializer<T> delegate, int maxAttempts, @Nullable PersistenceObjectMetrics metrics) {
         this.delegate = checkNotNull(delegate, "delegate");
         this.maxAttempts = maxAttempts;
+        this.metrics = metrics;
         if (maxAttempts < 1) throw new IllegalArgumentException("Max attempts must be at least 1, but was "+maxAttempts);
     }
     
@@ -43,6 +58,7 @@ public class RetryingMementoSerializer<T> implements MementoSerializer<T> {
         int attempt = 0;
         do {
             attempt++;
+            if (attempt>1 && metrics!=null) metrics.noteSerializationRetry(PersistenceObjectMetrics.typeOfMemento(memento));
             try {
                 String result = delegate.toString(memento);
                 if (attempt>1) 
@@ -58,8 +74,49 @@ public class RetryingMementoSerializer<T> implements MementoSerializer<T> {
         throw lastException;
     }
     
+    /** a failed attempt must not leave partial output, so if the stream is an empty {@link ByteArrayOutputStream}
+     * (as when persisting) each attempt is written straight to it, and it is reset if the attempt fails;
+     * otherwise each attempt is serialized to a buffer, which is written to the stream only on success */
+    @Override
+    public void toStream(T memento, OutputStream out) {
+        boolean resettable = (out instanceof ByteArrayOutputStream) && ((ByteArrayOutputStream)out).size()==0;
+        RuntimeException lastException = null;
+        int attempt = 0;
+        do {
+            attempt++;
+            if (attempt>1 && metrics!=null) metrics.noteSerializationRetry(PersistenceObjectMetrics.typeOfMemento(memento));
+            ByteArrayOutputStream buffer = resettable ? (ByteArrayOutputStream)out : new ByteArrayOutputStream();
+            try {
+                delegate.toStream(memento, buffer);
+            } catch (RuntimeException e) {
+                LOG.warn("Error serializing memento (attempt "+attempt+" of "+maxAttempts+") for "+memento+
+                        "; expected sometimes if attribute value modified", e);
+                lastException = e;
+                buffer.reset();
+                continue;
+            }
+            if (attempt>1) 
+                LOG.info("Success following previous serialization error");
+            if (buffer==out) return;
+            try {
+                buffer.writeTo(out);
+            } catch (IOException e) {
+                throw Exceptions.propagate(e);
+            }
+            return;
+        } while (attempt < maxAttempts);
+        
+        throw lastException;
+    }
+    
     @Override
     public T fromString(String string) {
+        return fromString(string, null);
+    }
+    
+    /** as {@link #fromString(String)}, with the type of object expected, so that any retries are recorded against it;
+     * if null, retries are recorded against the type deserialized (or {@link BrooklynObjectType#UNKNOWN} if none) */
+    public T fromString(String string, @Nullable BrooklynObjectType type) {
         if (string==null)
             return null;
         
@@ -69,8 +126,10 @@ public class RetryingMementoSerializer<T> implements MementoSerializer<T> {
             attempt++;
             try {
                 T result = delegate.fromString(string);
-                if (attempt>1)
+                if (attempt>1) {
                     LOG.info("Success following previous deserialization error, got: "+result);
+                    noteDeserializationRetries(type!=null ? type : PersistenceObjectMetrics.typeOfMemento(result), attempt-1);
+                }
                 return result;
             } catch (RuntimeException e) {
                 // trying multiple times only makes sense for a few errors (namely ConcModExceptions); perhaps deprecate that strategy?
@@ -80,8 +139,16 @@ public class RetryingMementoSerializer<T> implements MementoSerializer<T> {
             }
         } while (attempt < maxAttempts);
         
+        noteDeserializationRetries(type!=null ? type : BrooklynObjectType.UNKNOWN, attempt-1);
         throw lastException;
     }
+    
+    private void noteDeserializationRetries(BrooklynObjectType type, int count) {
+        if (metrics==null) return;
+        for (int i=0; i<count; i++) {
+            metrics.noteDeserializationRetry(type);
+        }
+    }
 
     @Override
     public void setLookupContext(LookupContext lookupContext) {
@@ -18,12 +18,16 @@
  */
 package org.apache.brooklyn.core.mgmt.persist;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -32,6 +36,8 @@ import org.apache.brooklyn.util.exceptions.Exceptions;
 import org.apache.brooklyn.util.javalang.JavaClassNames;
 import org.apache.brooklyn.util.time.Duration;
 
+import com.google.common.io.ByteSource;
+
 /** Wraps access to an object (the delegate {@link StoreObjectAccessor} 
  * in a guarded read-write context such that callers will be blocked if another thread
  * is accessing the object in an incompatible way (e.g. trying to read when someone is writing).
@@ -100,6 +106,47 @@ public class StoreObjectAccessorLocking implements PersistenceObjectStore.StoreO
         }
     }
 
+    /** the read lock is held until the returned stream is closed, so that a write cannot change the object
+     * while it is being read; the stream must therefore be closed, by the thread which opened it */
+    @Override
+    public InputStream getInputStream() {
+        try {
+            queuedReaders.add(Thread.currentThread());
+            lock.readLock().lockInterruptibly();
+            InputStream result = null;
+            try {
+                result = delegate.getInputStream();
+                return result==null ? null : new UnlockingInputStream(result);
+                
+            } finally {
+                if (result==null) lock.readLock().unlock();
+            }
+        } catch (InterruptedException e) {
+            throw Exceptions.propagate(e);
+        } finally {
+            queuedReaders.remove(Thread.currentThread());
+        }
+    }
+
+    /** releases the read lock when closed (once only, however often closed) */
+    private class UnlockingInputStream extends FilterInputStream {
+        private final AtomicBoolean closed = new AtomicBoolean();
+        
+        UnlockingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (closed.getAndSet(true)) return;
+            try {
+                super.close();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
     @Override
     public boolean exists() {
         try {
@@ -145,6 +192,28 @@ public class StoreObjectAccessorLocking implements PersistenceObjectStore.StoreO
         }
     }
     
+    @Override
+    public void put(ByteSource val) {
+        try {
+            queuedWriters.add(Thread.currentThread());
+            lock.writeLock().lockInterruptibly();
+            try {
+                queuedWriters.remove(Thread.currentThread());
+                if (hasScheduledPutOrDeleteWithNoRead()) 
+                    // don't bother writing if someone will write after us and no one is reading
+                    return;
+                delegate.put(val);
+                
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (InterruptedException e) {
+            throw Exceptions.propagate(e);
+        } finally {
+            queuedWriters.remove(Thread.currentThread());
+        }
+    }
+    
     @Override
     public void append(String val) {
         try {
@@ -21,6 +21,8 @@ package org.apache.brooklyn.core.mgmt.persist;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -66,6 +68,7 @@ import org.apache.brooklyn.util.text.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Charsets;
 import com.thoughtworks.xstream.converters.Converter;
 import com.thoughtworks.xstream.converters.MarshallingContext;
 import com.thoughtworks.xstream.converters.SingleValueConverter;
@@ -156,6 +159,17 @@ public class XmlMementoSerializer<T> extends XmlSerializer<T> implements Memento
         }
     }
 
+    @Override
+    public void toStream(T memento, OutputStream out) {
+        Writer writer = new OutputStreamWriter(out, Charsets.UTF_8);
+        serialize(memento, writer);
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
     @Override
     public void setLookupContext(LookupContext lookupContext) {
         this.lookupContext = checkNotNull(lookupContext, "lookupContext");
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.mgmt.rebind;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.brooklyn.api.mgmt.ha.ManagementNodeState;
+import org.apache.brooklyn.api.mgmt.rebind.RebindExceptionHandler;
+import org.apache.brooklyn.api.mgmt.rebind.mementos.BrooklynMementoPersister;
+import org.apache.brooklyn.api.mgmt.rebind.mementos.BrooklynMementoRawData;
+import org.apache.brooklyn.core.mgmt.persist.PersistenceActivityMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Rebinds a single application which was kept dormant by an {@link InitialFullRebindIteration}
+ * (see {@link RebindManagerImpl#LAZY_REBIND_DORMANT_APPLICATIONS}), from the raw persisted state
+ * set aside at that time. Locations and catalog items are not included in that state;
+ * references to them are resolved against those already managed.
+ */
+public class DormantApplicationRebindIteration extends RebindIteration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DormantApplicationRebindIteration.class);
+    
+    protected final String applicationId;
+    protected final BrooklynMementoRawData dormantRawData;
+    
+    public DormantApplicationRebindIteration(RebindManagerImpl rebindManager, 
+            ManagementNodeState mode,
+            ClassLoader classLoader, RebindExceptionHandler exceptionHandler,
+            Semaphore rebindActive, AtomicInteger readOnlyRebindCount, PersistenceActivityMetrics rebindMetrics, BrooklynMementoPersister persistenceStoreAccess,
+            String applicationId, BrooklynMementoRawData dormantRawData
+            ) {
+        super(rebindManager, mode, classLoader, exceptionHandler, rebindActive, readOnlyRebindCount, rebindMetrics, persistenceStoreAccess);
+        this.applicationId = Preconditions.checkNotNull(applicationId, "applicationId");
+        this.dormantRawData = Preconditions.checkNotNull(dormantRawData, "dormantRawData");
+    }
+
+    @Override
+    protected boolean isRebindingActiveAgain() {
+        // the objects have never been managed on this node
+        return false;
+    }
+    
+    @Override
+    protected void doRun() throws Exception {
+        Preconditions.checkState(mode==ManagementNodeState.MASTER, "Dormant applications can only be woken in master mode, not "+mode);
+        
+        LOG.debug("Rebinding dormant application "+applicationId+" ("+dormantRawData.getEntities().size()+" entities)");
+
+        super.doRun();
+    }
+    
+    @Override
+    protected void loadManifestFiles() throws Exception {
+        checkEnteringPhase(1);
+        Preconditions.checkState(mementoRawData==null, "Memento raw data should not yet be set when calling this");
+        mementoRawData = dormantRawData;
+        
+        preprocessManifestFiles();
+    }
+
+    @Override
+    protected void rebuildCatalog() {
+        checkEnteringPhase(2);
+        
+        // skip; catalog was rebinded when the application was set aside
+    }
+    
+    @Override
+    protected Collection<String> getMementoRootEntities() {
+        return ImmutableList.of(applicationId);
+    }
+    
+    @Override
+    protected void cleanupOldLocations(Set<String> oldLocations) {
+        // not applicable here; other locations are unaffected
+    }
+    @Override
+    protected void cleanupOldEntities(Set<String> oldEntities) {
+        // not applicable here; other entities are unaffected
+    }
+
+}
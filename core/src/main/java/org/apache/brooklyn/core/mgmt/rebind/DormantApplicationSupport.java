@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.mgmt.rebind;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.apache.brooklyn.api.entity.Application;
+import org.apache.brooklyn.api.entity.Entity;
+import org.apache.brooklyn.api.mgmt.rebind.mementos.BrooklynMementoRawData;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+
+/**
+ * Access to applications which were kept dormant on rebind (see {@link RebindManagerImpl#LAZY_REBIND_DORMANT_APPLICATIONS}):
+ * their persisted state is held, but they have not been instantiated or managed,
+ * so they are not returned by the entity manager until woken.
+ * Implemented by rebind managers which support this.
+ */
+@Beta
+public interface DormantApplicationSupport {
+
+    /** Ids of applications which are being held dormant. */
+    Set<String> getDormantApplicationIds();
+
+    /** Summaries of the applications being held dormant, read from their persisted state without instantiating them. */
+    List<DormantApplication> getDormantApplications();
+
+    /** Whether the given entity belongs to an application which is being held dormant. */
+    boolean isDormant(String entityId);
+
+    /**
+     * If the given entity id belongs to a dormant application, that application is rebinded and managed,
+     * and the (now managed) entity is returned; otherwise returns null.
+     */
+    @Nullable
+    Entity wakeDormantApplicationContaining(String entityId);
+
+    /**
+     * Instantiates and manages a dormant application (and its descendants and adjuncts), returning the application;
+     * or returns null if the application is not dormant (e.g. has already been woken).
+     */
+    @Nullable
+    Application wakeDormantApplication(String appId);
+
+    /**
+     * The persisted state of all the dormant applications (entities and their adjuncts),
+     * to be included when the state of this node is written out in full.
+     */
+    BrooklynMementoRawData getDormantApplicationsRawData();
+
+    /** Summary of a dormant application, as read from its persisted state. */
+    public static class DormantApplication {
+        private final String id;
+        private final String displayName;
+        private final String type;
+        private final String catalogItemId;
+
+        public DormantApplication(String id, @Nullable String displayName, @Nullable String type, @Nullable String catalogItemId) {
+            this.id = id;
+            this.displayName = displayName;
+            this.type = type;
+            this.catalogItemId = catalogItemId;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        @Nullable
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /** the type of the application, as persisted (normally the implementation class) */
+        @Nullable
+        public String getType() {
+            return type;
+        }
+
+        @Nullable
+        public String getCatalogItemId() {
+            return catalogItemId;
+        }
+
+        @Override
+        public String toString() {
+            return Objects.toStringHelper(this).add("id", id).add("displayName", displayName).add("type", type).toString();
+        }
+    }
+
+}
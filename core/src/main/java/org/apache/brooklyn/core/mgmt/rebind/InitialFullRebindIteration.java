@@ -18,26 +18,39 @@
  */
 package org.apache.brooklyn.core.mgmt.rebind;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.brooklyn.api.entity.Entity;
 import org.apache.brooklyn.api.mgmt.ha.ManagementNodeState;
 import org.apache.brooklyn.api.mgmt.rebind.RebindExceptionHandler;
+import org.apache.brooklyn.api.mgmt.rebind.mementos.BrooklynMementoManifest.EntityMementoManifest;
 import org.apache.brooklyn.api.mgmt.rebind.mementos.BrooklynMementoPersister;
+import org.apache.brooklyn.api.mgmt.rebind.mementos.BrooklynMementoRawData;
+import org.apache.brooklyn.api.objs.BrooklynObjectType;
 import org.apache.brooklyn.core.BrooklynLogging;
 import org.apache.brooklyn.core.entity.EntityInternal;
+import org.apache.brooklyn.core.mgmt.BrooklynTags;
 import org.apache.brooklyn.core.mgmt.internal.BrooklynObjectManagementMode;
 import org.apache.brooklyn.core.mgmt.internal.EntityManagerInternal;
 import org.apache.brooklyn.core.mgmt.internal.LocationManagerInternal;
 import org.apache.brooklyn.core.mgmt.internal.ManagementTransitionMode;
+import org.apache.brooklyn.core.mgmt.persist.BrooklynPersistenceUtils;
 import org.apache.brooklyn.core.mgmt.persist.PersistenceActivityMetrics;
+import org.apache.brooklyn.core.mgmt.rebind.dto.BrooklynMementoManifestImpl;
+import org.apache.brooklyn.util.collections.MutableMap;
+import org.apache.brooklyn.util.collections.MutableSet;
+import org.apache.brooklyn.util.core.xstream.XmlUtil;
 import org.apache.brooklyn.util.text.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
 /**
@@ -45,6 +58,8 @@ import com.google.common.collect.Iterables;
  */
 public class InitialFullRebindIteration extends RebindIteration {
 
+    private static final Pattern XML_TEXT = Pattern.compile(">([^<>\\s]+)<");
+    
     private static final Logger LOG = LoggerFactory.getLogger(InitialFullRebindIteration.class);
     
     public InitialFullRebindIteration(RebindManagerImpl rebindManager, 
@@ -77,6 +92,11 @@ public class InitialFullRebindIteration extends RebindIteration {
         
         preprocessManifestFiles();
         
+        rebindManager.clearDormantApplications();
+        if (rebindManager.lazyRebindDormantApplications && mode==ManagementNodeState.MASTER) {
+            setAsideDormantApplications();
+        }
+        
         if (!isEmpty) {
             if (!ManagementNodeState.isHotProxy(mode) || readOnlyRebindCount.get()==1) {
                 LOG.info("Rebinding from "+getPersister().getBackingStoreDescription()+" for "+Strings.toLowerCase(Strings.toString(mode))+" "+managementContext.getManagementNodeId()+"...");
@@ -108,6 +128,119 @@ public class InitialFullRebindIteration extends RebindIteration {
         }
     }
 
+    /** Removes applications tagged {@link BrooklynTags#DORMANT_APPLICATION} -- with all their descendants and adjuncts --
+     * from the raw data and manifest, handing their raw data to the rebind manager so they can be rebinded on demand.
+     * Locations and catalog items are always rebinded, as they may be shared; and so are applications
+     * whose entities are referred to by anything else which is rebinded, as those references could not otherwise be resolved. */
+    protected void setAsideDormantApplications() {
+        checkContinuingPhase(1);
+        
+        Map<String, EntityMementoManifest> entityManifests = mementoManifest.getEntityIdToManifest();
+        Set<String> dormantAppIds = MutableSet.of();
+        for (EntityMementoManifest entityManifest: entityManifests.values()) {
+            if (entityManifest.getParent()==null && isTaggedDormant(mementoRawData.getEntities().get(entityManifest.getId()))) {
+                dormantAppIds.add(entityManifest.getId());
+            }
+        }
+        if (dormantAppIds.isEmpty()) return;
+        
+        // the dormant application of each entity and adjunct which would be set aside
+        Map<String, String> dormantAppIdsByObjectId = MutableMap.of();
+        for (EntityMementoManifest entityManifest: entityManifests.values()) {
+            EntityMementoManifest root = entityManifest;
+            while (root.getParent()!=null && entityManifests.containsKey(root.getParent())) {
+                root = entityManifests.get(root.getParent());
+            }
+            if (!dormantAppIds.contains(root.getId())) continue;
+            
+            dormantAppIdsByObjectId.put(entityManifest.getId(), root.getId());
+            String entityXml = mementoRawData.getEntities().get(entityManifest.getId());
+            for (String adjunctId: XmlUtil.xpathNodeValues(entityXml, "/entity/policies/string|/entity/enrichers/string|/entity/feeds/string")) {
+                dormantAppIdsByObjectId.put(adjunctId, root.getId());
+            }
+        }
+        
+        keepReferencedApplicationsActive(dormantAppIds, dormantAppIdsByObjectId);
+        if (dormantAppIds.isEmpty()) return;
+        
+        Map<String, BrooklynMementoRawData.Builder> dormantData = MutableMap.of();
+        for (String appId: dormantAppIds) {
+            dormantData.put(appId, BrooklynMementoRawData.builder());
+        }
+        Set<String> dormantObjectIds = MutableSet.of();
+        for (BrooklynObjectType type: ImmutableList.of(BrooklynObjectType.ENTITY, BrooklynObjectType.POLICY, BrooklynObjectType.ENRICHER, BrooklynObjectType.FEED)) {
+            for (Map.Entry<String, String> entry: mementoRawData.getObjectsOfType(type).entrySet()) {
+                String appId = dormantAppIdsByObjectId.get(entry.getKey());
+                if (appId!=null && dormantAppIds.contains(appId)) {
+                    dormantData.get(appId).put(type, entry.getKey(), entry.getValue());
+                    dormantObjectIds.add(entry.getKey());
+                }
+            }
+        }
+        
+        BrooklynMementoRawData.Builder activeData = BrooklynMementoRawData.builder();
+        BrooklynMementoManifestImpl.Builder activeManifest = BrooklynMementoManifestImpl.builder();
+        for (BrooklynObjectType type: BrooklynPersistenceUtils.STANDARD_BROOKLYN_OBJECT_TYPE_PERSISTENCE_ORDER) {
+            for (Map.Entry<String, String> entry: mementoRawData.getObjectsOfType(type).entrySet()) {
+                if (!dormantObjectIds.contains(entry.getKey())) activeData.put(type, entry.getKey(), entry.getValue());
+            }
+        }
+        for (EntityMementoManifest entityManifest: entityManifests.values()) {
+            if (!dormantObjectIds.contains(entityManifest.getId())) {
+                activeManifest.entity(entityManifest.getId(), entityManifest.getType(), entityManifest.getParent(), entityManifest.getCatalogItemId());
+            }
+        }
+        activeManifest.locations(mementoManifest.getLocationIdToType());
+        for (BrooklynObjectType type: ImmutableList.of(BrooklynObjectType.POLICY, BrooklynObjectType.ENRICHER, BrooklynObjectType.FEED)) {
+            Map<String, String> idToType = (type==BrooklynObjectType.POLICY) ? mementoManifest.getPolicyIdToType() 
+                : (type==BrooklynObjectType.ENRICHER) ? mementoManifest.getEnricherIdToType() : mementoManifest.getFeedIdToType();
+            for (Map.Entry<String, String> entry: idToType.entrySet()) {
+                if (!dormantObjectIds.contains(entry.getKey())) activeManifest.putType(type, entry.getKey(), entry.getValue());
+            }
+        }
+        activeManifest.catalogItems(mementoManifest.getCatalogItemMementos());
+        
+        for (Map.Entry<String, BrooklynMementoRawData.Builder> entry: dormantData.entrySet()) {
+            rebindManager.setAsideDormantApplication(entry.getKey(), entry.getValue().build());
+        }
+        mementoRawData = activeData.build();
+        mementoManifest = activeManifest.build();
+        
+        LOG.info("Rebind keeping "+dormantAppIds.size()+" application"+Strings.s(dormantAppIds)+" dormant "
+            + "("+dormantObjectIds.size()+" item"+Strings.s(dormantObjectIds)+" not instantiated): "+dormantAppIds);
+    }
+    
+    /** Removes from the given dormant applications any whose entities are referred to by objects which will be rebinded
+     * (including by other applications removed here), as the references would otherwise be left dangling. */
+    protected void keepReferencedApplicationsActive(Set<String> dormantAppIds, Map<String, String> dormantAppIdsByObjectId) {
+        boolean changed = true;
+        while (changed && !dormantAppIds.isEmpty()) {
+            changed = false;
+            for (BrooklynObjectType type: BrooklynPersistenceUtils.STANDARD_BROOKLYN_OBJECT_TYPE_PERSISTENCE_ORDER) {
+                for (Map.Entry<String, String> entry: mementoRawData.getObjectsOfType(type).entrySet()) {
+                    String ownAppId = dormantAppIdsByObjectId.get(entry.getKey());
+                    if (ownAppId!=null && dormantAppIds.contains(ownAppId)) continue;
+                    
+                    // references are persisted as the id alone, as the text of an element
+                    Matcher text = XML_TEXT.matcher(entry.getValue());
+                    while (text.find()) {
+                        String appId = dormantAppIdsByObjectId.get(text.group(1));
+                        if (appId!=null && dormantAppIds.remove(appId)) {
+                            LOG.info("Rebind not keeping application "+appId+" dormant, as "+entry.getKey()+" refers to "+text.group(1)+" in it");
+                            changed = true;
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    protected boolean isTaggedDormant(String entityXml) {
+        // cheap check first, as most apps will not be dormant
+        if (entityXml==null || !entityXml.contains(BrooklynTags.DORMANT_APPLICATION)) return false;
+        return !XmlUtil.xpathNodeValues(entityXml, "/entity/tags/string[text()='"+BrooklynTags.DORMANT_APPLICATION+"']").isEmpty();
+    }
+
     @Override
     protected void cleanupOldLocations(Set<String> oldLocations) {
         LocationManagerInternal locationManager = (LocationManagerInternal)managementContext.getLocationManager();
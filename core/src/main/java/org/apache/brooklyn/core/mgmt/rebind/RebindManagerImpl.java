@@ -23,7 +23,9 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -43,11 +45,13 @@ import org.apache.brooklyn.api.mgmt.rebind.mementos.BrooklynMementoPersister;
 import org.apache.brooklyn.api.mgmt.rebind.mementos.BrooklynMementoRawData;
 import org.apache.brooklyn.api.mgmt.rebind.mementos.TreeNode;
 import org.apache.brooklyn.api.objs.BrooklynObject;
+import org.apache.brooklyn.api.objs.BrooklynObjectType;
 import org.apache.brooklyn.config.ConfigKey;
 import org.apache.brooklyn.core.BrooklynFeatureEnablement;
 import org.apache.brooklyn.core.config.ConfigKeys;
 import org.apache.brooklyn.core.enricher.AbstractEnricher;
 import org.apache.brooklyn.core.entity.Entities;
+import org.apache.brooklyn.core.mgmt.BrooklynTags;
 import org.apache.brooklyn.core.mgmt.ha.HighAvailabilityManagerImpl;
 import org.apache.brooklyn.core.mgmt.internal.ManagementContextInternal;
 import org.apache.brooklyn.core.mgmt.persist.BrooklynMementoPersisterToObjectStore;
@@ -63,8 +67,10 @@ import org.apache.brooklyn.util.collections.QuorumCheck.QuorumChecks;
 import org.apache.brooklyn.util.core.task.BasicExecutionContext;
 import org.apache.brooklyn.util.core.task.ScheduledTask;
 import org.apache.brooklyn.util.core.task.Tasks;
+import org.apache.brooklyn.util.core.xstream.XmlUtil;
 import org.apache.brooklyn.util.exceptions.Exceptions;
 import org.apache.brooklyn.util.exceptions.RuntimeInterruptedException;
+import org.apache.brooklyn.util.text.Strings;
 import org.apache.brooklyn.util.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -72,6 +78,9 @@ import org.slf4j.LoggerFactory;
 import com.google.common.annotations.Beta;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -82,7 +91,7 @@ import com.google.common.collect.Maps;
  * {@link #setPersister(BrooklynMementoPersister)}; however noting that persist period must be set before the persister).
  * <p>
  * Usually done for you by the conveniences (such as the launcher). */
-public class RebindManagerImpl implements RebindManager {
+public class RebindManagerImpl implements RebindManager, DormantApplicationSupport {
 
     // TODO Use ImmediateDeltaChangeListener if the period is set to 0?
     
@@ -110,6 +119,13 @@ public class RebindManagerImpl implements RebindManager {
                 + "then linear regression to allow max 5% at 100 items and above", 
                 QuorumChecks.newLinearRange("[[0,-2],[10,8],[100,95],[200,190]]"));
 
+    @Beta
+    public static final ConfigKey<Boolean> LAZY_REBIND_DORMANT_APPLICATIONS =
+        ConfigKeys.newBooleanConfigKey("rebind.lazy.dormantApplications",
+                "Whether applications tagged with "+BrooklynTags.DORMANT_APPLICATION+" should be kept as raw mementos when promoted to master, "
+                + "and only instantiated and managed when first looked up (or explicitly woken)", 
+                false);
+
     public static final Logger LOG = LoggerFactory.getLogger(RebindManagerImpl.class);
 
     private final ManagementContextInternal managementContext;
@@ -141,6 +157,17 @@ public class RebindManagerImpl implements RebindManager {
     
     private boolean isAwaitingInitialRebind;
     
+    final boolean lazyRebindDormantApplications;
+    /** raw persisted state of dormant applications (including all descendants and their adjuncts), keyed by application id */
+    private final Map<String, BrooklynMementoRawData> dormantApplications = Maps.newConcurrentMap();
+    /** summary of each application in {@link #dormantApplications}, read when it was set aside */
+    private final Map<String, DormantApplication> dormantApplicationSummaries = Maps.newConcurrentMap();
+    /** the dormant application id for each entity held in {@link #dormantApplications} */
+    private final Map<String, String> dormantEntityToApplicationId = Maps.newConcurrentMap();
+    /** held while waking each dormant application, so that an application is woken once,
+     * without holding up lookups of anything else while it is */
+    private final ConcurrentMap<String, Object> dormantApplicationWakeLocks = Maps.newConcurrentMap();
+    
     private PersistenceActivityMetrics rebindMetrics = new PersistenceActivityMetrics();
     private PersistenceActivityMetrics persistMetrics = new PersistenceActivityMetrics();
 
@@ -186,9 +213,11 @@ public class RebindManagerImpl implements RebindManager {
         loadPolicyFailureMode = managementContext.getConfig().getConfig(LOAD_POLICY_FAILURE_MODE);
         
         danglingRefsQuorumRequiredHealthy = managementContext.getConfig().getConfig(DANGLING_REFERENCES_MIN_REQUIRED_HEALTHY);
+        
+        lazyRebindDormantApplications = Boolean.TRUE.equals(managementContext.getConfig().getConfig(LAZY_REBIND_DORMANT_APPLICATIONS));
 
-        LOG.debug("{} initialized, settings: policies={}, enrichers={}, feeds={}, catalog={}",
-                new Object[]{this, persistPoliciesEnabled, persistEnrichersEnabled, persistFeedsEnabled, persistCatalogItemsEnabled});
+        LOG.debug("{} initialized, settings: policies={}, enrichers={}, feeds={}, catalog={}, lazyDormant={}",
+                new Object[]{this, persistPoliciesEnabled, persistEnrichersEnabled, persistFeedsEnabled, persistCatalogItemsEnabled, lazyRebindDormantApplications});
     }
 
     public ManagementContextInternal getManagementContext() {
@@ -420,6 +449,137 @@ public class RebindManagerImpl implements RebindManager {
         rebindPartialActive(transformer, objectsToRebind.iterator());
     }
     
+    /** Ids of applications which were left dormant by the last rebind, i.e. whose persisted state is held
+     * but which have not been instantiated or managed; see {@link #LAZY_REBIND_DORMANT_APPLICATIONS}. */
+    @Override
+    public Set<String> getDormantApplicationIds() {
+        return ImmutableSet.copyOf(dormantApplicationSummaries.keySet());
+    }
+    
+    @Override
+    public List<DormantApplication> getDormantApplications() {
+        return ImmutableList.copyOf(dormantApplicationSummaries.values());
+    }
+    
+    @Override
+    public boolean isDormant(String entityId) {
+        return !dormantEntityToApplicationId.isEmpty() && dormantEntityToApplicationId.containsKey(entityId);
+    }
+    
+    /** {@inheritDoc}
+     * <p>
+     * Does nothing if called from within a rebind, as that would block on the rebind already in progress. */
+    @Override
+    public Entity wakeDormantApplicationContaining(String entityId) {
+        if (!isDormant(entityId)) return null;
+        if (RebindTracker.isRebinding()) {
+            LOG.debug("Not waking dormant application containing "+entityId+" as rebind is in progress");
+            return null;
+        }
+        String appId = dormantEntityToApplicationId.get(entityId);
+        if (appId==null) return null;
+        wakeDormantApplication(appId);
+        return managementContext.getEntityManager().getEntity(entityId);
+    }
+    
+    /** {@inheritDoc}
+     * <p>
+     * Uses the persisted state held at the last rebind. */
+    @Override
+    public Application wakeDormantApplication(final String appId) {
+        Object wakeLock = dormantApplicationWakeLocks.get(appId);
+        if (wakeLock==null) {
+            Object newLock = new Object();
+            wakeLock = dormantApplicationWakeLocks.putIfAbsent(appId, newLock);
+            if (wakeLock==null) wakeLock = newLock;
+        }
+        synchronized (wakeLock) {
+            final BrooklynMementoRawData rawData = dormantApplications.get(appId);
+            if (rawData==null) {
+                dormantApplicationWakeLocks.remove(appId, wakeLock);
+                return null;
+            }
+            
+            // no longer dormant for lookups, so that lookups made while managing do not try to wake it again;
+            // but the state is kept until it is managed, so that it is still included if persisted in full meanwhile
+            dormantApplicationSummaries.remove(appId);
+            dormantEntityToApplicationId.keySet().removeAll(rawData.getEntities().keySet());
+            
+            LOG.info("Waking dormant application "+appId+" ("+rawData.getEntities().size()+" entit"+Strings.ies(rawData.getEntities().size())+")");
+            final ClassLoader classLoader = managementContext.getCatalogClassLoader();
+            final RebindExceptionHandler exceptionHandler = 
+                RebindExceptionHandlerImpl.builder()
+                    .danglingRefFailureMode(danglingRefFailureMode)
+                    .danglingRefQuorumRequiredHealthy(danglingRefsQuorumRequiredHealthy)
+                    .rebindFailureMode(rebindFailureMode)
+                    .addConfigFailureMode(addConfigFailureMode)
+                    .addPolicyFailureMode(addPolicyFailureMode)
+                    .loadPolicyFailureMode(loadPolicyFailureMode)
+                    .build();
+            Callable<List<Application>> job = new Callable<List<Application>>() {
+                @Override public List<Application> call() throws Exception {
+                    DormantApplicationRebindIteration iteration = new DormantApplicationRebindIteration(RebindManagerImpl.this, 
+                        ManagementNodeState.MASTER, classLoader, exceptionHandler,
+                        rebindActive, readOnlyRebindCount, rebindMetrics, persistenceStoreAccess, appId, rawData);
+                    iteration.run();
+                    return iteration.getApplications();
+                }
+            };
+            
+            try {
+                List<Application> apps;
+                ExecutionContext ec = BasicExecutionContext.getCurrentExecutionContext();
+                if (ec == null) {
+                    apps = managementContext.getServerExecutionContext().submit(job).get();
+                } else {
+                    apps = job.call();
+                }
+                dormantApplications.remove(appId);
+                dormantApplicationWakeLocks.remove(appId, wakeLock);
+                return Iterables.getFirst(apps, null);
+            } catch (Exception e) {
+                // put it back, so state is not lost and a subsequent access can retry
+                setAsideDormantApplication(appId, rawData);
+                throw Exceptions.propagate(e);
+            }
+        }
+    }
+    
+    @Override
+    public BrooklynMementoRawData getDormantApplicationsRawData() {
+        BrooklynMementoRawData.Builder result = BrooklynMementoRawData.builder();
+        for (BrooklynMementoRawData appData: dormantApplications.values()) {
+            for (BrooklynObjectType type: BrooklynPersistenceUtils.STANDARD_BROOKLYN_OBJECT_TYPE_PERSISTENCE_ORDER) {
+                result.putAll(type, appData.getObjectsOfType(type));
+            }
+        }
+        return result.build();
+    }
+    
+    /** Records the persisted state for an application which should be kept dormant, rather than rebinded. */
+    void setAsideDormantApplication(String appId, BrooklynMementoRawData rawData) {
+        dormantApplications.put(appId, rawData);
+        dormantApplicationSummaries.put(appId, summarizeDormantApplication(appId, rawData.getEntities().get(appId)));
+        for (String entityId: rawData.getEntities().keySet()) {
+            dormantEntityToApplicationId.put(entityId, appId);
+        }
+    }
+    
+    private static DormantApplication summarizeDormantApplication(String appId, String entityXml) {
+        if (entityXml==null) return new DormantApplication(appId, null, null, null);
+        return new DormantApplication(appId, 
+            Strings.emptyToNull((String) XmlUtil.xpath(entityXml, "/entity/displayName")),
+            Strings.emptyToNull((String) XmlUtil.xpath(entityXml, "/entity/type")),
+            Strings.emptyToNull((String) XmlUtil.xpath(entityXml, "/entity/catalogItemId")));
+    }
+    
+    void clearDormantApplications() {
+        dormantApplications.clear();
+        dormantApplicationSummaries.clear();
+        dormantEntityToApplicationId.clear();
+        dormantApplicationWakeLocks.clear();
+    }
+    
     protected ManagementNodeState getRebindMode() {
         if (managementContext==null) throw new IllegalStateException("Invalid "+this+": no management context");
         if (!(managementContext.getHighAvailabilityManager() instanceof HighAvailabilityManagerImpl))
@@ -651,10 +811,17 @@ public class RebindManagerImpl implements RebindManager {
 
         result.put("rebind", rebindMetrics.asMap());
         result.put("persist", persistMetrics.asMap());
+        if (persistenceStoreAccess instanceof BrooklynMementoPersisterToObjectStore) {
+            // per-type read/write timings and sizes, and the largest and slowest objects
+            result.put("persistObjects", ((BrooklynMementoPersisterToObjectStore)persistenceStoreAccess).getObjectMetrics().asMap());
+        }
         
         if (readOnlyRebindCount.get()>=0)
             result.put("rebindReadOnlyCount", readOnlyRebindCount);
         
+        if (lazyRebindDormantApplications)
+            result.put("dormantApplications", dormantApplications.size());
+        
         // include first rebind counts, so we know whether we rebinded or not
         result.put("firstRebindCounts", MutableMap.of(
             "applications", firstRebindAppCount,
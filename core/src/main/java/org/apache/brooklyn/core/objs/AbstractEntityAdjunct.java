@@ -322,7 +322,8 @@ public abstract class AbstractEntityAdjunct extends AbstractBrooklynObject imple
 
         @Override
         public ConfigBag getLocalBag() {
-            return ConfigBag.newInstance(configsInternal.getAllConfig());
+            // sealed, as changes to the copy would not reach the config (nor invalidate its cached resolved values)
+            return ConfigBag.newInstance(configsInternal.getAllConfig()).seal();
         }
 
         @Override
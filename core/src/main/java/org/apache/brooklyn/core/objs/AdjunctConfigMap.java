@@ -76,13 +76,23 @@ public class AdjunctConfigMap extends AbstractConfigMapImpl {
         //           but that example doesn't have a default...
         ConfigKey<T> ownKey = adjunct!=null ? (ConfigKey<T>)elvis(adjunct.getAdjunctType().getConfigKey(key.getName()), key) : key;
         
+        boolean cacheable = isResolvedValueCacheable(ownKey);
+        long cacheGeneration = 0;
+        if (cacheable) {
+            Maybe<T> cached = getResolvedValue(key, null);
+            if (cached.isPresent()) return cached.get();
+            cacheGeneration = getResolvedValueCacheGeneration();
+        }
+        
         // Don't use groovy truth: if the set value is e.g. 0, then would ignore set value and return default!
         if (ownKey instanceof ConfigKeySelfExtracting) {
             if (((ConfigKeySelfExtracting<T>)ownKey).isSet(ownConfig)) {
                 // FIXME Should we support config from futures? How to get execution context before setEntity?
                 EntityLocal entity = adjunct.entity;
                 ExecutionContext exec = (entity != null) ? ((EntityInternal)entity).getExecutionContext() : null;
-                return ((ConfigKeySelfExtracting<T>)ownKey).extractValue(ownConfig, exec);
+                T result = ((ConfigKeySelfExtracting<T>)ownKey).extractValue(ownConfig, exec);
+                if (cacheable) putResolvedValue(key, null, cacheGeneration, result);
+                return result;
             }
         } else {
             LOG.warn("Config key {} of {} is not a ConfigKeySelfExtracting; cannot retrieve value; returning default", ownKey, this);
@@ -105,11 +115,14 @@ public class AdjunctConfigMap extends AbstractConfigMapImpl {
 
     public Object setConfig(ConfigKey<?> key, Object v) {
         Object val = coerceConfigVal(key, v);
+        Object oldVal;
         if (key instanceof StructuredConfigKey) {
-            return ((StructuredConfigKey)key).applyValueToMap(val, ownConfig);
+            oldVal = ((StructuredConfigKey)key).applyValueToMap(val, ownConfig);
         } else {
-            return ownConfig.put(key, val);
+            oldVal = ownConfig.put(key, val);
         }
+        clearResolvedValueCache();
+        return oldVal;
     }
     
     public void addToLocalBag(Map<String, ?> vals) {
@@ -120,6 +133,7 @@ public class AdjunctConfigMap extends AbstractConfigMapImpl {
 
     public void removeFromLocalBag(String key) {
         ownConfig.remove(key);
+        clearResolvedValueCache();
     }
 
     @Override
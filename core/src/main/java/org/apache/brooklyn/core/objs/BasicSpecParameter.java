@@ -38,6 +38,7 @@ import org.apache.brooklyn.api.objs.BrooklynType;
 import org.apache.brooklyn.api.objs.SpecParameter;
 import org.apache.brooklyn.config.ConfigKey;
 import org.apache.brooklyn.core.config.BasicConfigKey;
+import org.apache.brooklyn.core.config.ConfigKeys;
 import org.apache.brooklyn.util.collections.MutableList;
 import org.apache.brooklyn.util.guava.Maybe;
 import org.apache.brooklyn.util.text.StringPredicates;
@@ -197,6 +198,7 @@ public class BasicSpecParameter<T> implements SpecParameter<T>{
                     .defaultValue(defaultValue)
                     .constraint(constraints)
                     .build();
+            inputType = ConfigKeys.intern(inputType);
             return new BasicSpecParameter(Objects.firstNonNull(label, name), true, inputType);
         }
 
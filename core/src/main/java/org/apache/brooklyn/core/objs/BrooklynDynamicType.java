@@ -29,8 +29,7 @@ import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.brooklyn.api.objs.BrooklynObject;
 import org.apache.brooklyn.api.objs.BrooklynType;
@@ -65,11 +64,18 @@ public abstract class BrooklynDynamicType<T extends BrooklynObject, AbstractT ex
     
     /** 
      * Map of config keys (and their fields) on this instance, by name.
+     * <p>
+     * Initially the unmodifiable map shared by all instances of the class (see {@link #getClassConfigKeys(Class)});
+     * copied on write if keys are added or removed on this instance, so should only be changed by
+     * {@link #putConfigKey(ConfigKey)} and {@link #removeConfigKeyNamed(String)}.
      */
-    protected final Map<String,FieldAndValue<ConfigKey<?>>> configKeys = new ConcurrentHashMap<String, FieldAndValue<ConfigKey<?>>>();
+    protected volatile Map<String,FieldAndValue<ConfigKey<?>>> configKeys;
 
     private volatile BrooklynTypeSnapshot snapshot;
-    private final AtomicBoolean snapshotValid = new AtomicBoolean(false);
+    /** the value of {@link #snapshotGeneration} when {@link #snapshot} was created */
+    private volatile int snapshotCreatedAtGeneration;
+    /** incremented whenever the type changes, after the change */
+    private final AtomicInteger snapshotGeneration = new AtomicInteger();
 
     @SuppressWarnings("unchecked")
     public BrooklynDynamicType(AbstractT instance) {
@@ -84,7 +90,7 @@ public abstract class BrooklynDynamicType<T extends BrooklynObject, AbstractT ex
         // NB: official name is usually injected later, e.g. from AbstractEntity.setManagementContext
         this.name = (clazz.getCanonicalName() == null) ? clazz.getName() : clazz.getCanonicalName();
         
-        buildConfigKeys(clazz, null, configKeys);
+        configKeys = getClassConfigKeys(clazz);
         if (LOG.isTraceEnabled())
             LOG.trace("Entity {} config keys: {}", (instance==null ? clazz.getName() : instance.getId()), Joiner.on(", ").join(configKeys.keySet()));
     }
@@ -92,7 +98,7 @@ public abstract class BrooklynDynamicType<T extends BrooklynObject, AbstractT ex
     protected abstract BrooklynTypeSnapshot newSnapshot();
 
     protected void invalidateSnapshot() {
-        snapshotValid.set(false);
+        snapshotGeneration.incrementAndGet();
     }
 
     public void setName(String name) {
@@ -103,8 +109,15 @@ public abstract class BrooklynDynamicType<T extends BrooklynObject, AbstractT ex
         invalidateSnapshot();
     }
     
-    public synchronized BrooklynType getSnapshot() {
-        return refreshSnapshot();
+    public BrooklynType getSnapshot() {
+        // avoid locking in the common case where the type has not changed (e.g. REST calls to getEntityType())
+        // (read the generation before the snapshot, as they are written in the opposite order)
+        int createdAtGeneration = snapshotCreatedAtGeneration;
+        BrooklynTypeSnapshot result = snapshot;
+        if (result!=null && createdAtGeneration==snapshotGeneration.get()) return result;
+        synchronized (this) {
+            return refreshSnapshot();
+        }
     }
     
     public Class<? extends T> getBrooklynClass() {
@@ -132,11 +145,56 @@ public abstract class BrooklynDynamicType<T extends BrooklynObject, AbstractT ex
         return field(configKeys.get(keyName)); 
     }
 
+    /** adds the given key to this instance, copying the map of keys rather than modifying one which may be shared */
+    protected synchronized void putConfigKey(ConfigKey<?> newKey) {
+        FieldAndValue<ConfigKey<?>> existing = configKeys.get(newKey.getName());
+        // e.g. spec parameters repeating keys declared on the class; keep sharing (and the field where the key is declared)
+        if (existing!=null && existing.value==newKey) return;
+        Map<String,FieldAndValue<ConfigKey<?>>> newConfigKeys = new LinkedHashMap<String, FieldAndValue<ConfigKey<?>>>(configKeys);
+        newConfigKeys.put(newKey.getName(), new FieldAndValue<ConfigKey<?>>(null, newKey));
+        configKeys = Collections.unmodifiableMap(newConfigKeys);
+        invalidateSnapshot();
+    }
+
+    /** removes the key with the given name from this instance, as for {@link #putConfigKey(ConfigKey)}, returning the removed key if any */
+    protected synchronized FieldAndValue<ConfigKey<?>> removeConfigKeyNamed(String keyName) {
+        if (!configKeys.containsKey(keyName)) return null;
+        Map<String,FieldAndValue<ConfigKey<?>>> newConfigKeys = new LinkedHashMap<String, FieldAndValue<ConfigKey<?>>>(configKeys);
+        FieldAndValue<ConfigKey<?>> result = newConfigKeys.remove(keyName);
+        configKeys = Collections.unmodifiableMap(newConfigKeys);
+        invalidateSnapshot();
+        return result;
+    }
+
+    /** whether this instance has the same config keys as all (unmodified) instances of its class */
+    protected boolean hasClassConfigKeys() {
+        return configKeys == getClassConfigKeys(brooklynClass);
+    }
+
+    /** config keys declared on the given class, shared by all instances of it; see {@link #buildConfigKeys(Class, AbstractBrooklynObject, Map)} */
+    protected static Map<String,FieldAndValue<ConfigKey<?>>> getClassConfigKeys(Class<?> clazz) {
+        return CLASS_CONFIG_KEYS.get(clazz);
+    }
+
+    private static final ClassValue<Map<String,FieldAndValue<ConfigKey<?>>>> CLASS_CONFIG_KEYS = new ClassValue<Map<String,FieldAndValue<ConfigKey<?>>>>() {
+        @SuppressWarnings("unchecked")
+        @Override protected Map<String, FieldAndValue<ConfigKey<?>>> computeValue(Class<?> type) {
+            Map<String,FieldAndValue<ConfigKey<?>>> result = new LinkedHashMap<String, FieldAndValue<ConfigKey<?>>>();
+            buildConfigKeys((Class<? extends BrooklynObject>)type, null, result);
+            return Collections.unmodifiableMap(result);
+        }
+    };
+
     protected BrooklynTypeSnapshot refreshSnapshot() {
-        if (snapshotValid.compareAndSet(false, true)) {
-            snapshot = newSnapshot();
+        int generation = snapshotGeneration.get();
+        BrooklynTypeSnapshot result = snapshot;
+        if (result==null || snapshotCreatedAtGeneration!=generation) {
+            result = newSnapshot();
+            // set snapshot before generation, so that a concurrent getSnapshot never pairs an old snapshot with a new generation
+            snapshot = result;
+            snapshotCreatedAtGeneration = generation;
         }
-        return snapshot;
+        return result;
     }
 
     /**
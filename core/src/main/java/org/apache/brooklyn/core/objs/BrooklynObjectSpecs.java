@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.objs;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+import org.apache.brooklyn.api.entity.EntityInitializer;
+import org.apache.brooklyn.api.entity.EntitySpec;
+import org.apache.brooklyn.api.internal.AbstractBrooklynObjectSpec;
+import org.apache.brooklyn.api.location.LocationSpec;
+import org.apache.brooklyn.api.objs.BrooklynObject;
+import org.apache.brooklyn.api.policy.PolicySpec;
+import org.apache.brooklyn.api.sensor.EnricherSpec;
+import org.apache.brooklyn.api.sensor.Sensor;
+import org.apache.brooklyn.config.ConfigKey;
+import org.apache.brooklyn.core.mgmt.BrooklynTags.ListTag;
+import org.apache.brooklyn.core.mgmt.BrooklynTags.NamedStringTag;
+import org.apache.brooklyn.util.collections.MutableList;
+import org.apache.brooklyn.util.collections.MutableMap;
+import org.apache.brooklyn.util.collections.MutableSet;
+import org.apache.brooklyn.util.exceptions.Exceptions;
+import org.apache.brooklyn.util.guava.Maybe;
+import org.apache.brooklyn.util.javalang.Serializers;
+import org.apache.brooklyn.util.time.Duration;
+
+import com.google.common.annotations.Beta;
+import com.google.common.reflect.TypeToken;
+
+/**
+ * Utilities for working with {@link AbstractBrooklynObjectSpec specs}.
+ */
+@Beta
+public class BrooklynObjectSpecs {
+
+    private BrooklynObjectSpecs() {}
+
+    /**
+     * Returns a copy of the given spec which shares no mutable state with it, so that
+     * the original can be kept as a template while the copy is customised and used to create an object
+     * (or vice versa); or absent if the spec holds something which cannot be copied.
+     * <p>
+     * Unlike {@link EntitySpec#create(EntitySpec)}, which copies only the list of children,
+     * this copies nested specs (children, policy and enricher specs, and specs in config),
+     * collections in config, flags and tags, and any other serializable values
+     * (such as DSL expressions and initializers) by serializing them.
+     * Values which are immutable, and references to other objects (entities, locations, etc),
+     * are shared. Specs holding policy or enricher instances, or any other values which are
+     * neither immutable nor serializable, cannot be copied.
+     */
+    @SuppressWarnings("unchecked")
+    public static <SpecT extends AbstractBrooklynObjectSpec<?,?>> Maybe<SpecT> deepCopy(SpecT spec) {
+        try {
+            return Maybe.of((SpecT) copySpec(spec));
+        } catch (NotCopyableException e) {
+            return Maybe.absent(e);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static AbstractBrooklynObjectSpec<?,?> copySpec(AbstractBrooklynObjectSpec<?,?> spec) {
+        AbstractBrooklynObjectSpec result;
+        if (spec instanceof EntitySpec) {
+            result = copyEntitySpecFields((EntitySpec<?>) spec);
+        } else if (spec instanceof LocationSpec) {
+            result = copyLocationSpecFields((LocationSpec<?>) spec);
+        } else if (spec instanceof PolicySpec) {
+            result = PolicySpec.create((Class)spec.getType());
+        } else if (spec instanceof EnricherSpec) {
+            result = EnricherSpec.create((Class)spec.getType());
+        } else {
+            throw new NotCopyableException("Cannot copy spec "+spec+" of type "+spec.getClass().getName());
+        }
+        result.displayName(spec.getDisplayName());
+        result.catalogItemId(spec.getCatalogItemId());
+        result.parameters(spec.getParameters());
+        for (Object tag : spec.getTags()) {
+            result.tag(copyValue(tag));
+        }
+        for (Map.Entry<String, ?> flag : spec.getFlags().entrySet()) {
+            result.configure(flag.getKey(), copyValue(flag.getValue()));
+        }
+        for (Map.Entry<ConfigKey<?>, Object> config : spec.getConfig().entrySet()) {
+            result.configure((ConfigKey)config.getKey(), copyValue(config.getValue()));
+        }
+        return result;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static EntitySpec<?> copyEntitySpecFields(EntitySpec<?> spec) {
+        if (!spec.getPolicies().isEmpty() || !spec.getEnrichers().isEmpty()) {
+            // instances can only be added to one entity
+            throw new NotCopyableException("Cannot copy spec "+spec+" holding policy or enricher instances");
+        }
+        EntitySpec result = EntitySpec.create((Class)spec.getType());
+        if (spec.getImplementation()!=null) result.impl(spec.getImplementation());
+        if (spec.getParent()!=null) result.parent(spec.getParent());
+        result.additionalInterfaces(spec.getAdditionalInterfaces());
+        for (EntityInitializer initializer : spec.getInitializers()) {
+            result.addInitializer((EntityInitializer) copyValue(initializer));
+        }
+        for (EntitySpec<?> child : spec.getChildren()) {
+            result.child((EntitySpec<?>) copySpec(child));
+        }
+        for (PolicySpec<?> policySpec : spec.getPolicySpecs()) {
+            result.policy((PolicySpec<?>) copySpec(policySpec));
+        }
+        for (EnricherSpec<?> enricherSpec : spec.getEnricherSpecs()) {
+            result.enricher((EnricherSpec<?>) copySpec(enricherSpec));
+        }
+        result.members(spec.getMembers());
+        result.groups(spec.getGroups());
+        result.locations(spec.getLocations());
+        return result;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes", "deprecation" })
+    private static LocationSpec<?> copyLocationSpecFields(LocationSpec<?> spec) {
+        LocationSpec result = LocationSpec.create((Class)spec.getType());
+        if (spec.getId()!=null) result.id(spec.getId());
+        if (spec.getParent()!=null) result.parent(spec.getParent());
+        for (Map.Entry<Class<?>, Object> extension : spec.getExtensions().entrySet()) {
+            result.extension((Class)extension.getKey(), copyValue(extension.getValue()));
+        }
+        return result;
+    }
+
+    private static Object copyValue(Object value) {
+        if (value==null || isShared(value)) {
+            return value;
+        }
+        if (value instanceof AbstractBrooklynObjectSpec) {
+            return copySpec((AbstractBrooklynObjectSpec<?,?>) value);
+        }
+        // sorted collections are copied by serialization below, to keep their comparator
+        if (value instanceof Map && !(value instanceof SortedMap)) {
+            Map<Object, Object> result = MutableMap.of();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                result.put(copyValue(entry.getKey()), copyValue(entry.getValue()));
+            }
+            return result;
+        }
+        if (value instanceof List) {
+            List<Object> result = MutableList.of();
+            for (Object item : (List<?>) value) {
+                result.add(copyValue(item));
+            }
+            return result;
+        }
+        if (value instanceof Set && !(value instanceof SortedSet)) {
+            Set<Object> result = MutableSet.of();
+            for (Object item : (Set<?>) value) {
+                result.add(copyValue(item));
+            }
+            return result;
+        }
+        if (value instanceof Serializable) {
+            try {
+                return Serializers.reconstitute(value);
+            } catch (Exception e) {
+                Exceptions.propagateIfFatal(e);
+                throw new NotCopyableException("Cannot copy "+value+" of type "+value.getClass().getName(), e);
+            }
+        }
+        throw new NotCopyableException("Cannot copy "+value+" of type "+value.getClass().getName()+"; not serializable");
+    }
+
+    /** whether the value is immutable, or is a reference to an object which is not owned by the spec */
+    private static boolean isShared(Object value) {
+        return value instanceof String || value instanceof Boolean || value instanceof Character
+            || value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+            || value instanceof Double || value instanceof Float || value instanceof BigInteger || value instanceof BigDecimal
+            || value instanceof Enum || value instanceof Class || value instanceof TypeToken
+            || value instanceof ConfigKey || value instanceof Sensor || value instanceof Duration
+            || value instanceof NamedStringTag || value instanceof ListTag
+            || value instanceof BrooklynObject;
+    }
+
+    private static class NotCopyableException extends RuntimeException {
+        private static final long serialVersionUID = -2862155435478224389L;
+
+        NotCopyableException(String message) {
+            super(message);
+        }
+
+        NotCopyableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+}
@@ -50,6 +50,9 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Sets;
 
 /**
@@ -107,6 +110,38 @@ public class EntityProxyImpl implements java.lang.reflect.InvocationHandler {
         }
     }
     
+    /** how a call to a method on the proxy is dispatched; computed once per method, see {@link #METHOD_KINDS} */
+    private enum MethodKind {
+        /** methods on {@link Object} and those permitted on read-only entities; always invoked directly */
+        ALWAYS_PERMITTED,
+        /** entity methods which are never effectors; invoked directly on the master */
+        NON_EFFECTOR,
+        /** methods which may correspond to an effector, declared on the entity's interface */
+        POSSIBLE_EFFECTOR
+    }
+    
+    /**
+     * Dispatch kind for each method invoked on a proxy, so that repeated calls (e.g. getters called
+     * by enrichers and policies) do not need to build a {@link MethodSignature} and look it up in several sets.
+     * <p>
+     * Keyed weakly by identity: the {@link Proxy} machinery passes the same {@link Method} instance
+     * each time for a given method on a given proxy class, and weak keys let classes from bundles be unloaded.
+     */
+    private static final LoadingCache<Method, MethodKind> METHOD_KINDS = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<Method, MethodKind>() {
+                @Override public MethodKind load(Method m) {
+                    MethodSignature sig = new MethodSignature(m);
+                    if (OBJECT_METHODS.contains(sig) || ENTITY_PERMITTED_READ_ONLY_METHODS.contains(sig)) {
+                        return MethodKind.ALWAYS_PERMITTED;
+                    } else if (ENTITY_NON_EFFECTOR_METHODS.contains(sig)) {
+                        return MethodKind.NON_EFFECTOR;
+                    } else {
+                        return MethodKind.POSSIBLE_EFFECTOR;
+                    }
+                }
+            });
+    
     public EntityProxyImpl(Entity entity) {
         this.delegate = checkNotNull(entity, "entity");
     }
@@ -179,12 +214,10 @@ public class EntityProxyImpl implements java.lang.reflect.InvocationHandler {
             throw new IllegalArgumentException("Static methods not supported via proxy on entity "+delegate);
         }
         
-        MethodSignature sig = new MethodSignature(m);
+        MethodKind kind = METHOD_KINDS.getUnchecked(m);
 
         Object result;
-        if (OBJECT_METHODS.contains(sig)) {
-            result = m.invoke(delegate, args);
-        } else if (ENTITY_PERMITTED_READ_ONLY_METHODS.contains(sig)) {
+        if (kind == MethodKind.ALWAYS_PERMITTED) {
             result = m.invoke(delegate, args);
         } else {
             if (!isMaster()) {
@@ -194,9 +227,9 @@ public class EntityProxyImpl implements java.lang.reflect.InvocationHandler {
                     // but including in it may allow us to tighten the methods in EntityTransientCopyInternal) 
                     result = m.invoke(delegate, args);
                 } else {
-                    throw new UnsupportedOperationException("Call to '"+sig+"' not permitted on read-only entity "+delegate);
+                    throw new UnsupportedOperationException("Call to '"+new MethodSignature(m)+"' not permitted on read-only entity "+delegate);
                 }
-            } else if (ENTITY_NON_EFFECTOR_METHODS.contains(sig)) {
+            } else if (kind == MethodKind.NON_EFFECTOR) {
                 result = m.invoke(delegate, args);
             } else {
                 Object[] nonNullArgs = (args == null) ? new Object[0] : args;
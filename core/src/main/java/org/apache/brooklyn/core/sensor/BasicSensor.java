@@ -45,6 +45,10 @@ public class BasicSensor<T> implements Sensor<T> {
     private String name;
     private String description;
     private transient List<String> nameParts;
+    /** cached {@link #hashCode()}, as sensors are widely used as map keys; 0 if not yet computed */
+    private transient int hashCode;
+    /** cached result of {@link #getTypeToken()}, only one of type and typeToken being persisted */
+    private transient TypeToken<T> resolvedTypeToken;
     
     // FIXME In groovy, fields were `public final` with a default constructor; do we need the gson?
     public BasicSensor() { /* for gson */ }
@@ -66,7 +70,14 @@ public class BasicSensor<T> implements Sensor<T> {
     }
 
     /** @see Sensor#getTypeToken() */
-    public TypeToken<T> getTypeToken() { return TypeTokens.getTypeToken(typeToken, type); }
+    public TypeToken<T> getTypeToken() {
+        TypeToken<T> result = resolvedTypeToken;
+        if (result==null) {
+            result = TypeTokens.getTypeToken(typeToken, type);
+            resolvedTypeToken = result;
+        }
+        return result;
+    }
     
     /** @see Sensor#getType() */
     public Class<? super T> getType() { return TypeTokens.getRawType(typeToken, type); }
@@ -95,7 +106,12 @@ public class BasicSensor<T> implements Sensor<T> {
     
     @Override
     public int hashCode() {
-        return Objects.hashCode(getTypeName(), name, description);
+        int result = hashCode;
+        if (result==0) {
+            result = Objects.hashCode(getTypeName(), name, description);
+            hashCode = result;
+        }
+        return result;
     }
  
     @Override
@@ -28,6 +28,7 @@ import javax.annotation.Nullable;
 
 import org.apache.brooklyn.api.sensor.AttributeSensor;
 import org.apache.brooklyn.api.sensor.AttributeSensor.SensorPersistenceMode;
+import org.apache.brooklyn.api.sensor.Sensor;
 import org.apache.brooklyn.core.config.render.RendererHints;
 import org.apache.brooklyn.util.net.UserAndHostAndPort;
 import org.apache.brooklyn.util.text.StringFunctions;
@@ -36,6 +37,8 @@ import org.apache.brooklyn.util.time.Time;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.net.HostAndPort;
 import com.google.common.reflect.TypeToken;
 
@@ -80,6 +83,23 @@ public class Sensors {
         }
     }
 
+    private static final Interner<Sensor<?>> SENSOR_INTERNER = Interners.newWeakInterner();
+
+    /**
+     * Returns a canonical instance equal to the given sensor (of the same class and persistence mode), 
+     * so that the many equal sensors created dynamically (e.g. from YAML, once per entity) can share one instance.
+     * Instances are held weakly, so are discarded when no longer used.
+     */
+    @Beta
+    @SuppressWarnings("unchecked")
+    public static <S extends Sensor<?>> S intern(S sensor) {
+        Sensor<?> result = SENSOR_INTERNER.intern(sensor);
+        if (result==sensor) return sensor;
+        if (result.getClass()!=sensor.getClass()) return sensor;
+        if (sensor instanceof AttributeSensor && ((AttributeSensor<?>)sensor).getPersistenceMode()!=((AttributeSensor<?>)result).getPersistenceMode()) return sensor;
+        return (S) result;
+    }
+
     public static <T> AttributeSensor<T> newSensor(Class<T> type, String name) {
         return new BasicAttributeSensor<T>(type, name);
     }
@@ -120,6 +120,13 @@ public class BrooklynServerConfig {
         "osgi/cache/${"+MANAGEMENT_NODE_ID_PROPERTY+"}/");
     public static final ConfigKey<Boolean> OSGI_CACHE_CLEAN = ConfigKeys.newBooleanConfigKey("brooklyn.osgi.cache.clean",
         "Whether to delete the OSGi directory before and after use; if unset, it will delete if the node ID forms part of the cache dir path (which by default it does) to avoid file leaks");
+    public static final ConfigKey<String> OSGI_BUNDLE_CACHE_DIR = ConfigKeys.newStringConfigKey("brooklyn.osgi.bundleCache.dir",
+        "Directory in which to keep bundles downloaded from remote URLs, so that they are not downloaded again on restart "
+        + "and can be installed offline; supports the same template variables as "+OSGI_CACHE_DIR.getName()+". "
+        + "Content is reused for the same URL, so this should not be set if bundle URLs may change content (e.g. snapshots). "
+        + "If unset, downloads are kept only while the server is running.");
+    public static final ConfigKey<Integer> OSGI_BUNDLE_FETCH_MAX_THREADS = ConfigKeys.newIntegerConfigKey("brooklyn.osgi.bundleFetch.maxThreads",
+        "Maximum number of bundles to download concurrently when many are needed (e.g. loading the catalog on startup)", 8);
 
     /** @see BrooklynServerPaths#getMgmtBaseDir(ManagementContext) */
     public static String getMgmtBaseDir(ManagementContext mgmt) {
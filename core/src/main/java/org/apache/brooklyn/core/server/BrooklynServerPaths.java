@@ -244,13 +244,23 @@ public class BrooklynServerPaths {
         // note dir should be different for each instance if starting multiple instances
         // hence default including management node ID
         
-        cacheDir = TemplateProcessor.processTemplateContents(cacheDir, (ManagementContextInternal)mgmt, 
+        return new File(resolveOsgiDir(mgmt, cacheDir));
+    }
+
+    /** the dir configured by {@link BrooklynServerConfig#OSGI_BUNDLE_CACHE_DIR}, or null if not set */
+    @Nullable
+    public static File getOsgiBundleCacheDir(ManagementContext mgmt) {
+        String cacheDir = mgmt.getConfig().getConfig(BrooklynServerConfig.OSGI_BUNDLE_CACHE_DIR);
+        if (Strings.isBlank(cacheDir)) return null;
+        return new File(resolveOsgiDir(mgmt, cacheDir));
+    }
+
+    private static String resolveOsgiDir(ManagementContext mgmt, String dir) {
+        dir = TemplateProcessor.processTemplateContents(dir, (ManagementContextInternal)mgmt, 
             MutableMap.of(BrooklynServerConfig.MGMT_BASE_DIR.getName(), getMgmtBaseDir(mgmt),
                 BrooklynServerConfig.MANAGEMENT_NODE_ID_PROPERTY, mgmt.getManagementNodeId(),
                 Os.TmpDirFinder.BROOKLYN_OS_TMPDIR_PROPERTY, Os.tmp()));
-        cacheDir = resolveAgainstBaseDir(mgmt.getConfig(), cacheDir);
-        
-        return new File(cacheDir);
+        return resolveAgainstBaseDir(mgmt.getConfig(), dir);
     }
 
     public static boolean isOsgiCacheForCleaning(ManagementContext mgmt, File cacheDir) {
@@ -18,6 +18,9 @@
  */
 package org.apache.brooklyn.core.typereg;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.Nullable;
@@ -25,15 +28,21 @@ import javax.annotation.Nullable;
 import org.apache.brooklyn.api.catalog.BrooklynCatalog;
 import org.apache.brooklyn.api.catalog.CatalogItem;
 import org.apache.brooklyn.api.catalog.CatalogItem.CatalogItemType;
+import org.apache.brooklyn.api.entity.Application;
+import org.apache.brooklyn.api.entity.Entity;
 import org.apache.brooklyn.api.internal.AbstractBrooklynObjectSpec;
+import org.apache.brooklyn.api.location.Location;
 import org.apache.brooklyn.api.mgmt.ManagementContext;
+import org.apache.brooklyn.api.policy.Policy;
 import org.apache.brooklyn.api.typereg.BrooklynTypeRegistry;
 import org.apache.brooklyn.api.typereg.RegisteredType;
 import org.apache.brooklyn.api.typereg.RegisteredType.TypeImplementationPlan;
 import org.apache.brooklyn.api.typereg.RegisteredTypeLoadingContext;
 import org.apache.brooklyn.core.catalog.internal.BasicBrooklynCatalog;
+import org.apache.brooklyn.core.catalog.internal.BasicBrooklynCatalog.BrooklynLoaderTracker;
 import org.apache.brooklyn.core.catalog.internal.CatalogItemBuilder;
 import org.apache.brooklyn.core.catalog.internal.CatalogUtils;
+import org.apache.brooklyn.core.catalog.internal.SpecTemplateCache;
 import org.apache.brooklyn.util.collections.MutableList;
 import org.apache.brooklyn.util.collections.MutableSet;
 import org.apache.brooklyn.util.exceptions.Exceptions;
@@ -45,6 +54,8 @@ import org.slf4j.LoggerFactory;
 import com.google.api.client.util.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 
 public class BasicBrooklynTypeRegistry implements BrooklynTypeRegistry {
@@ -52,6 +63,13 @@ public class BasicBrooklynTypeRegistry implements BrooklynTypeRegistry {
     @SuppressWarnings("unused")
     private static final Logger log = LoggerFactory.getLogger(BasicBrooklynTypeRegistry.class);
     
+    /** the java type of the items of each {@link CatalogItemType}, as per {@link CatalogItem#getCatalogItemJavaType()} */
+    private static final Map<CatalogItemType, Class<?>> CATALOG_ITEM_JAVA_TYPES = ImmutableMap.<CatalogItemType, Class<?>>of(
+            CatalogItemType.TEMPLATE, Application.class,
+            CatalogItemType.ENTITY, Entity.class,
+            CatalogItemType.POLICY, Policy.class,
+            CatalogItemType.LOCATION, Location.class);
+    
     private ManagementContext mgmt;
 
     public BasicBrooklynTypeRegistry(ManagementContext mgmt) {
@@ -65,7 +83,22 @@ public class BasicBrooklynTypeRegistry implements BrooklynTypeRegistry {
     @SuppressWarnings("deprecation")
     @Override
     public Iterable<RegisteredType> getAll(Predicate<? super RegisteredType> filter) {
-        return Iterables.filter(Iterables.transform(mgmt.getCatalog().getCatalogItems(), RegisteredTypes.CI_TO_RT), filter);
+        Iterable<CatalogItem<Object,Object>> candidates;
+        if (filter instanceof RegisteredTypePredicates.SubtypeOf) {
+            // the super type of a type from the catalog is the java type of its catalog item type, 
+            // so look up only the items of matching types in the catalog's index, rather than converting and testing them all
+            Class<?> type = ((RegisteredTypePredicates.SubtypeOf)filter).getType();
+            List<Iterable<CatalogItem<Object,Object>>> candidatesByItemType = MutableList.of();
+            for (Map.Entry<CatalogItemType, Class<?>> entry : CATALOG_ITEM_JAVA_TYPES.entrySet()) {
+                if (type.isAssignableFrom(entry.getValue())) {
+                    candidatesByItemType.add(mgmt.getCatalog().<Object,Object>getCatalogItemsOfType(entry.getKey()));
+                }
+            }
+            candidates = Iterables.concat(candidatesByItemType);
+        } else {
+            candidates = mgmt.getCatalog().getCatalogItems();
+        }
+        return Iterables.filter(Iterables.transform(candidates, RegisteredTypes.CI_TO_RT), filter);
     }
 
     @SuppressWarnings("deprecation")
@@ -109,7 +142,33 @@ public class BasicBrooklynTypeRegistry implements BrooklynTypeRegistry {
         if (type.getKind()!=RegisteredTypeKind.SPEC) { 
             throw new IllegalStateException("Cannot create spec from type "+type+" (kind "+type.getKind()+")");
         }
-        return createSpec(type, type.getPlan(), type.getSymbolicName(), type.getVersion(), type.getSuperTypes(), constraint, specSuperType);
+        SpecTemplateCache cache = getSpecTemplateCache();
+        if (cache==null || type.getId()==null || type.getPlan()==null) {
+            return createSpec(type, type.getPlan(), type.getSymbolicName(), type.getVersion(), type.getSuperTypes(), constraint, specSuperType);
+        }
+        
+        // the spec depends on the plan (not just the id, as an item being force-updated is created before it replaces the old one)
+        // and on everything used to load it
+        List<Object> templateKey = Arrays.<Object>asList(type.getId(), type.getVersion(), 
+            type.getPlan().getPlanFormat(), type.getPlan().getPlanData(), specSuperType,
+            constraint==null ? null : constraint.getExpectedKind(),
+            constraint==null ? null : constraint.getExpectedJavaSuperType(),
+            constraint==null ? null : ImmutableSet.copyOf(constraint.getAlreadyEncounteredTypes()),
+            constraint==null ? null : constraint.getLoader(),
+            BrooklynLoaderTracker.getLoader());
+        SpecT result = cache.get(templateKey);
+        if (result!=null) return result;
+        long generation = cache.getGeneration();
+        result = createSpec(type, type.getPlan(), type.getSymbolicName(), type.getVersion(), type.getSuperTypes(), constraint, specSuperType);
+        if (result!=null) cache.put(templateKey, generation, result);
+        return result;
+    }
+    
+    /** the cache of specs created from catalog items, or null if the catalog does not have one */
+    @Nullable
+    private SpecTemplateCache getSpecTemplateCache() {
+        BrooklynCatalog catalog = mgmt.getCatalog();
+        return (catalog instanceof BasicBrooklynCatalog) ? ((BasicBrooklynCatalog)catalog).getSpecTemplateCache() : null;
     }
     
     @SuppressWarnings({ "deprecation", "unchecked", "rawtypes" })
@@ -18,6 +18,8 @@
  */
 package org.apache.brooklyn.core.typereg;
 
+import javax.annotation.Nullable;
+
 import org.apache.brooklyn.api.catalog.CatalogItem.CatalogBundle;
 import org.apache.brooklyn.api.typereg.OsgiBundleWithUrl;
 
@@ -28,12 +30,18 @@ public class BasicOsgiBundleWithUrl implements CatalogBundle, OsgiBundleWithUrl
     private String symbolicName;
     private String version;
     private String url;
+    private String checksum;
 
     // for deserializing (not sure if needed?)
     @SuppressWarnings("unused")
     private BasicOsgiBundleWithUrl() {}
 
     public BasicOsgiBundleWithUrl(String name, String version, String url) {
+        this(name, version, url, null);
+    }
+
+    /** @param checksum hex SHA-256 checksum of the bundle's content, if known, to verify downloads from the url */
+    public BasicOsgiBundleWithUrl(String name, String version, String url, @Nullable String checksum) {
         if (name == null && version == null) {
             Preconditions.checkNotNull(url, "url to an OSGi bundle is required");
         } else {
@@ -44,6 +52,7 @@ public class BasicOsgiBundleWithUrl implements CatalogBundle, OsgiBundleWithUrl
         this.symbolicName = name;
         this.version = version;
         this.url = url;
+        this.checksum = checksum;
     }
 
     @Override
@@ -72,12 +81,18 @@ public class BasicOsgiBundleWithUrl implements CatalogBundle, OsgiBundleWithUrl
         return url;
     }
 
+    @Override
+    public String getChecksum() {
+        return checksum;
+    }
+
     @Override
     public String toString() {
         return Objects.toStringHelper(this)
                 .add("symbolicName", symbolicName)
                 .add("version", version)
                 .add("url", url)
+                .add("checksum", checksum)
                 .toString();
     }
 
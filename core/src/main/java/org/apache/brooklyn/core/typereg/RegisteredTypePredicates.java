@@ -112,11 +112,8 @@ public class RegisteredTypePredicates {
     public static <T> Predicate<RegisteredType> anySuperType(final Predicate<Class<T>> filter) {
         return new AnySuperTypeMatches(filter);
     }
-    @SuppressWarnings({ "unchecked", "rawtypes" })
     public static Predicate<RegisteredType> subtypeOf(final Class<?> filter) {
-        // the assignableFrom predicate checks if this class is assignable from the subsequent *input*.
-        // in other words, we're checking if any input is a subtype of this class
-        return anySuperType((Predicate)Predicates.assignableFrom(filter));
+        return new SubtypeOf(filter);
     }
     
     private static class AnySuperTypeMatches implements Predicate<RegisteredType> {
@@ -133,6 +130,22 @@ public class RegisteredTypePredicates {
         }
     }
     
+    /** as {@link #anySuperType(Predicate)}, but remembering the type, so that a registry can look up candidates by it */
+    static class SubtypeOf extends AnySuperTypeMatches {
+        private final Class<?> type;
+        
+        @SuppressWarnings("unchecked")
+        private SubtypeOf(Class<?> type) {
+            // the assignableFrom predicate checks if this class is assignable from the subsequent *input*.
+            // in other words, we're checking if any input is a subtype of this class
+            super(Predicates.assignableFrom(type));
+            this.type = type;
+        }
+        Class<?> getType() {
+            return type;
+        }
+    }
+    
     public static final Predicate<RegisteredType> IS_APPLICATION = subtypeOf(Application.class);
     public static final Predicate<RegisteredType> IS_ENTITY = subtypeOf(Entity.class);
     public static final Predicate<RegisteredType> IS_LOCATION = subtypeOf(Location.class);
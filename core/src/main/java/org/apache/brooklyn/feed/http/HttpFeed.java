@@ -27,18 +27,20 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.brooklyn.api.entity.EntityLocal;
 import org.apache.brooklyn.config.ConfigKey;
 import org.apache.brooklyn.core.config.ConfigKeys;
 import org.apache.brooklyn.core.entity.Entities;
+import org.apache.brooklyn.core.entity.EntityInternal;
 import org.apache.brooklyn.core.feed.AbstractFeed;
 import org.apache.brooklyn.core.feed.AttributePollHandler;
 import org.apache.brooklyn.core.feed.DelegatingPollHandler;
+import org.apache.brooklyn.core.feed.PollHandler;
 import org.apache.brooklyn.core.feed.Poller;
 import org.apache.brooklyn.util.http.HttpTool;
 import org.apache.brooklyn.util.http.HttpToolResponse;
-import org.apache.brooklyn.util.http.HttpTool.HttpClientBuilder;
 import org.apache.brooklyn.util.time.Duration;
 import org.apache.http.auth.Credentials;
 import org.apache.http.auth.UsernamePasswordCredentials;
@@ -111,6 +113,9 @@ public class HttpFeed extends AbstractFeed {
             new TypeToken<SetMultimap<HttpPollIdentifier, HttpPollConfig<?>>>() {},
             "polls");
 
+    /** how many times in a row a poll can be skipped (see {@link HttpPollConfig#maxConcurrentPerHost(Integer)}) before that is reported as a failure */
+    static final int MAX_CONSECUTIVE_SKIPS = 3;
+
     public static Builder builder() {
         return new Builder();
     }
@@ -229,8 +234,10 @@ public class HttpFeed extends AbstractFeed {
         final Optional<Credentials> credentials;
         final Duration connectionTimeout;
         final Duration socketTimeout;
+        final Integer maxConcurrentPerHost;
         private HttpPollIdentifier(String method, Supplier<URI> uriProvider, Map<String, String> headers, byte[] body,
-                                   Optional<Credentials> credentials, Duration connectionTimeout, Duration socketTimeout) {
+                                   Optional<Credentials> credentials, Duration connectionTimeout, Duration socketTimeout,
+                                   Integer maxConcurrentPerHost) {
             this.method = checkNotNull(method, "method").toLowerCase();
             this.uriProvider = checkNotNull(uriProvider, "uriProvider");
             this.headers = checkNotNull(headers, "headers");
@@ -238,6 +245,7 @@ public class HttpFeed extends AbstractFeed {
             this.credentials = checkNotNull(credentials, "credentials");
             this.connectionTimeout = connectionTimeout;
             this.socketTimeout = socketTimeout;
+            this.maxConcurrentPerHost = maxConcurrentPerHost;
             
             if (!(this.method.equals("get") || this.method.equals("post"))) {
                 throw new IllegalArgumentException("Unsupported HTTP method (only supports GET and POST): "+method);
@@ -249,7 +257,7 @@ public class HttpFeed extends AbstractFeed {
 
         @Override
         public int hashCode() {
-            return Objects.hashCode(method, uriProvider, headers, body, credentials);
+            return Objects.hashCode(method, uriProvider, headers, body, credentials, maxConcurrentPerHost);
         }
         
         @Override
@@ -262,7 +270,8 @@ public class HttpFeed extends AbstractFeed {
                     Objects.equal(uriProvider, o.uriProvider) &&
                     Objects.equal(headers, o.headers) &&
                     Objects.equal(body, o.body) &&
-                    Objects.equal(credentials, o.credentials);
+                    Objects.equal(credentials, o.credentials) &&
+                    Objects.equal(maxConcurrentPerHost, o.maxConcurrentPerHost);
         }
     }
     
@@ -287,6 +296,7 @@ public class HttpFeed extends AbstractFeed {
             byte[] body = config.getBody();
             Duration connectionTimeout = config.getConnectionTimeout();
             Duration socketTimeout = config.getSocketTimeout();
+            Integer maxConcurrentPerHost = config.getMaxConcurrentPerHost();
             
             Optional<Credentials> credentials = Optional.fromNullable(builder.credentials);
             
@@ -302,7 +312,7 @@ public class HttpFeed extends AbstractFeed {
             }
             checkNotNull(baseUriProvider);
 
-            polls.put(new HttpPollIdentifier(method, baseUriProvider, headers, body, credentials, connectionTimeout, socketTimeout), configCopy);
+            polls.put(new HttpPollIdentifier(method, baseUriProvider, headers, body, credentials, connectionTimeout, socketTimeout, maxConcurrentPerHost), configCopy);
         }
         setConfig(POLLS, polls);
         initUniqueTag(builder.uniqueTag, polls.values());
@@ -311,15 +321,17 @@ public class HttpFeed extends AbstractFeed {
     @Override
     protected void preStart() {
         SetMultimap<HttpPollIdentifier, HttpPollConfig<?>> polls = getConfig(POLLS);
+        HttpPollingEngine engine = HttpPollingEngine.get(((EntityInternal)entity).getManagementContext());
         
         for (final HttpPollIdentifier pollInfo : polls.keySet()) {
-            // Though HttpClients are thread safe and can take advantage of connection pooling
-            // and authentication caching, the httpcomponents documentation says:
+            // Clients from the engine share its pool of connections, so are cheap to create. Though HttpClients
+            // are thread safe, the httpcomponents documentation says:
             //    "While HttpClient instances are thread safe and can be shared between multiple
             //     threads of execution, it is highly recommended that each thread maintains its
             //     own dedicated instance of HttpContext.
             //  http://hc.apache.org/httpcomponents-client-ga/tutorial/html/connmgmt.html
-            final HttpClient httpClient = createHttpClient(pollInfo);
+            final HttpClient httpClient = engine.newClient(pollInfo.uriProvider.get(), pollInfo.credentials,
+                    pollInfo.connectionTimeout, pollInfo.socketTimeout);
 
             Set<HttpPollConfig<?>> configs = polls.get(pollInfo);
             long minPeriod = Integer.MAX_VALUE;
@@ -330,49 +342,93 @@ public class HttpFeed extends AbstractFeed {
                 if (config.getPeriod() > 0) minPeriod = Math.min(minPeriod, config.getPeriod());
             }
 
-            Callable<HttpToolResponse> pollJob;
-            
-            if (pollInfo.method.equals("get")) {
-                pollJob = new Callable<HttpToolResponse>() {
-                    public HttpToolResponse call() throws Exception {
-                        if (log.isTraceEnabled()) log.trace("http polling for {} sensors at {}", entity, pollInfo);
-                        return HttpTool.httpGet(httpClient, pollInfo.uriProvider.get(), pollInfo.headers);
-                    }};
-            } else if (pollInfo.method.equals("post")) {
-                pollJob = new Callable<HttpToolResponse>() {
-                    public HttpToolResponse call() throws Exception {
-                        if (log.isTraceEnabled()) log.trace("http polling for {} sensors at {}", entity, pollInfo);
-                        return HttpTool.httpPost(httpClient, pollInfo.uriProvider.get(), pollInfo.headers, pollInfo.body);
-                    }};
-            } else if (pollInfo.method.equals("head")) {
-                pollJob = new Callable<HttpToolResponse>() {
-                    public HttpToolResponse call() throws Exception {
-                        if (log.isTraceEnabled()) log.trace("http polling for {} sensors at {}", entity, pollInfo);
-                        return HttpTool.httpHead(httpClient, pollInfo.uriProvider.get(), pollInfo.headers);
-                    }};
-            } else {
+            if (!(pollInfo.method.equals("get") || pollInfo.method.equals("post") || pollInfo.method.equals("head"))) {
                 throw new IllegalStateException("Unexpected http method: "+pollInfo.method);
             }
+            Callable<HttpToolResponse> pollJob = new HttpPollJob(engine, httpClient, pollInfo);
             
-            getPoller().scheduleAtFixedRate(pollJob, new DelegatingPollHandler<HttpToolResponse>(handlers), minPeriod);
+            getPoller().scheduleAtFixedRate(pollJob, new SkippedPollIgnoringHandler(new DelegatingPollHandler<HttpToolResponse>(handlers)), minPeriod);
+        }
+    }
+
+    /**
+     * Makes a poll; or, if the poll asks to be skipped when its host already has a given number of polls in flight
+     * (see {@link HttpPollConfig#maxConcurrentPerHost(Integer)}) and that is the case, returns null.
+     * If it is skipped {@link #MAX_CONSECUTIVE_SKIPS} times in a row, that is reported as a failure,
+     * so that a poll which never gets its turn is not mistaken for one which succeeds.
+     */
+    private class HttpPollJob implements Callable<HttpToolResponse> {
+        private final HttpPollingEngine engine;
+        private final HttpClient httpClient;
+        private final HttpPollIdentifier pollInfo;
+        private final AtomicInteger consecutiveSkips = new AtomicInteger();
+
+        HttpPollJob(HttpPollingEngine engine, HttpClient httpClient, HttpPollIdentifier pollInfo) {
+            this.engine = engine;
+            this.httpClient = httpClient;
+            this.pollInfo = pollInfo;
+        }
+
+        @Override
+        public HttpToolResponse call() throws Exception {
+            URI uri = checkNotNull(pollInfo.uriProvider.get(), "uri");
+            boolean limited = pollInfo.maxConcurrentPerHost != null;
+            if (limited && !engine.tryAcquire(uri, pollInfo.maxConcurrentPerHost)) {
+                int skips = consecutiveSkips.incrementAndGet();
+                if (skips >= MAX_CONSECUTIVE_SKIPS) {
+                    throw new IllegalStateException("HTTP poll for "+entity+" at "+uri+" skipped "+skips+" times in a row, "
+                            + "as too many polls in flight to "+uri.getHost());
+                }
+                if (log.isDebugEnabled()) log.debug("http polling for {} sensors at {} skipped, as too many polls in flight to {}", new Object[] {entity, pollInfo, uri.getHost()});
+                return null;
+            }
+            consecutiveSkips.set(0);
+            try {
+                if (log.isTraceEnabled()) log.trace("http polling for {} sensors at {}", entity, pollInfo);
+                if (pollInfo.method.equals("get")) {
+                    return HttpTool.httpGet(httpClient, uri, pollInfo.headers);
+                } else if (pollInfo.method.equals("post")) {
+                    return HttpTool.httpPost(httpClient, uri, pollInfo.headers, pollInfo.body);
+                } else {
+                    return HttpTool.httpHead(httpClient, uri, pollInfo.headers);
+                }
+            } finally {
+                if (limited) {
+                    engine.release(uri);
+                } else {
+                    engine.closeIdleConnectionsIfDue();
+                }
+            }
         }
     }
 
-    // TODO Should we really trustAll for https? Make configurable?
-    private HttpClient createHttpClient(HttpPollIdentifier pollIdentifier) {
-        URI uri = pollIdentifier.uriProvider.get();
-        HttpClientBuilder builder = HttpTool.httpClientBuilder()
-                .trustAll()
-                .laxRedirect(true);
-        if (uri != null) builder.uri(uri);
-        if (uri != null) builder.credential(pollIdentifier.credentials);
-        if (pollIdentifier.connectionTimeout != null) {
-            builder.connectionTimeout(pollIdentifier.connectionTimeout);
-        }
-        if (pollIdentifier.socketTimeout != null) {
-            builder.socketTimeout(pollIdentifier.socketTimeout);
-        }
-        return builder.build();
+    /** Passes results to the delegate, except for the null of a skipped poll, leaving the sensors as they were. */
+    private static class SkippedPollIgnoringHandler implements PollHandler<HttpToolResponse> {
+        private final PollHandler<HttpToolResponse> delegate;
+
+        SkippedPollIgnoringHandler(PollHandler<HttpToolResponse> delegate) {
+            this.delegate = delegate;
+        }
+        @Override
+        public boolean checkSuccess(HttpToolResponse val) {
+            return val == null || delegate.checkSuccess(val);
+        }
+        @Override
+        public void onSuccess(HttpToolResponse val) {
+            if (val != null) delegate.onSuccess(val);
+        }
+        @Override
+        public void onFailure(HttpToolResponse val) {
+            delegate.onFailure(val);
+        }
+        @Override
+        public void onException(Exception exception) {
+            delegate.onException(exception);
+        }
+        @Override
+        public String getDescription() {
+            return delegate.getDescription();
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -43,6 +43,7 @@ public class HttpPollConfig<T> extends PollConfig<HttpToolResponse, T, HttpPollC
     private byte[] body;
     private Duration connectionTimeout;
     private Duration socketTimeout;
+    private Integer maxConcurrentPerHost;
     
     public static final Predicate<HttpToolResponse> DEFAULT_SUCCESS = new Predicate<HttpToolResponse>() {
         @Override
@@ -69,6 +70,7 @@ public class HttpPollConfig<T> extends PollConfig<HttpToolResponse, T, HttpPollC
         vars = other.vars;
         method = other.method;
         headers = other.headers;
+        maxConcurrentPerHost = other.maxConcurrentPerHost;
     }
     
     public String getSuburl() {
@@ -87,6 +89,10 @@ public class HttpPollConfig<T> extends PollConfig<HttpToolResponse, T, HttpPollC
         return socketTimeout;
     }
     
+    public Integer getMaxConcurrentPerHost() {
+        return maxConcurrentPerHost;
+    }
+    
     public String getMethod() {
         return method;
     }
@@ -122,6 +128,17 @@ public class HttpPollConfig<T> extends PollConfig<HttpToolResponse, T, HttpPollC
         this.socketTimeout = val;
         return this;
     }
+    /**
+     * Asks for this poll to be skipped until its next period, leaving its sensors unchanged,
+     * if the host already has this many polls (from all feeds) in flight, rather than waiting for a connection.
+     * If it is skipped several times in a row, that is reported as a failure.
+     * The limit cannot be more than the management context's {@link HttpPollingEngine#MAX_CONNECTIONS_PER_HOST}, if that is set.
+     * By default (null) polls are never skipped.
+     */
+    public HttpPollConfig<T> maxConcurrentPerHost(Integer val) {
+        this.maxConcurrentPerHost = val;
+        return this;
+    }
     public URI buildUri(URI baseUri, Map<String,String> baseUriVars) {
         String uri = (baseUri != null ? baseUri.toString() : "") + (suburl != null ? suburl : "");
         Map<String,String> allvars = concat(baseUriVars, vars);
@@ -154,7 +171,7 @@ public class HttpPollConfig<T> extends PollConfig<HttpToolResponse, T, HttpPollC
     @Override
     protected MutableList<Object> equalsFields() {
         return super.equalsFields().appendIfNotNull(method).appendIfNotNull(vars).appendIfNotNull(headers)
-            .appendIfNotNull(body).appendIfNotNull(connectionTimeout).appendIfNotNull(socketTimeout);
+            .appendIfNotNull(body).appendIfNotNull(connectionTimeout).appendIfNotNull(socketTimeout).appendIfNotNull(maxConcurrentPerHost);
     }
 
 }
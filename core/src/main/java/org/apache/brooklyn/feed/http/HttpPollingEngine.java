@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.feed.http;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import org.apache.brooklyn.api.mgmt.ManagementContext;
+import org.apache.brooklyn.config.ConfigKey;
+import org.apache.brooklyn.core.config.ConfigKeys;
+import org.apache.brooklyn.core.mgmt.internal.ManagementContextInternal;
+import org.apache.brooklyn.util.exceptions.Exceptions;
+import org.apache.brooklyn.util.http.HttpTool;
+import org.apache.brooklyn.util.http.HttpTool.TrustAllStrategy;
+import org.apache.brooklyn.util.time.Duration;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.Credentials;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.params.HttpClientParams;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+
+/**
+ * Shares HTTP connections between all the {@link HttpFeed}s of a management context,
+ * and limits how many of their polls are in flight to each host.
+ * <p>
+ * The clients given out all use one pool of connections, bounded overall (and per host, if
+ * {@link #MAX_CONNECTIONS_PER_HOST} is set), so connections to a host are kept alive and reused by the polls of every entity there,
+ * rather than each feed having its own client and connections. Clients are therefore cheap to create.
+ * <p>
+ * Polls which ask for it (with {@link HttpPollConfig#maxConcurrentPerHost(Integer)}) are skipped
+ * when their host already has that many polls in flight (see {@link #tryAcquire(URI, Integer)}),
+ * rather than holding a thread while they wait for a connection; the next scheduled poll tries again.
+ * This stops a slow or unresponsive host from taking a thread for every entity polling it.
+ * Polls are still blocking: each one that goes ahead holds its thread until its response is read or times out.
+ * <p>
+ * There is one engine per management context (see {@link ManagementContextInternal#getHttpPollingEngine()}),
+ * which shuts it down when it terminates.
+ */
+@Beta
+public class HttpPollingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpPollingEngine.class);
+
+    public static final ConfigKey<Integer> MAX_CONNECTIONS_PER_HOST = ConfigKeys.newIntegerConfigKey(
+            "brooklyn.feed.http.maxConnectionsPerHost",
+            "Maximum number of pooled connections for HTTP feed polls to each host, further polls waiting for a connection; "
+            + "if not set, only brooklyn.feed.http.maxConnections applies; "
+            + "individual polls may instead ask to be skipped when a given number are in flight, with HttpPollConfig.maxConcurrentPerHost");
+
+    public static final ConfigKey<Integer> MAX_CONNECTIONS = ConfigKeys.newIntegerConfigKey(
+            "brooklyn.feed.http.maxConnections",
+            "Maximum number of pooled connections for HTTP feed polls, across all hosts",
+            500);
+
+    /** how long a pooled connection can be unused before it is closed */
+    private static final Duration IDLE_CONNECTION_TIMEOUT = Duration.seconds(30);
+
+    /** how long to wait for a pooled connection, when no connect timeout is given */
+    private static final Duration DEFAULT_CONNECTION_POOL_TIMEOUT = Duration.seconds(30);
+
+    /** the engine of the given management context */
+    public static HttpPollingEngine get(ManagementContext mgmt) {
+        return ((ManagementContextInternal)mgmt).getHttpPollingEngine();
+    }
+
+    private final PoolingClientConnectionManager connections;
+    /** null if there is no limit per host */
+    private final Integer maxPerHost;
+    private final ConcurrentMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<String, AtomicInteger>();
+    private final AtomicLong lastIdleCheck = new AtomicLong(System.currentTimeMillis());
+
+    /** creates an engine with the settings of the given management context, which is responsible for {@link #shutdown() shutting it down} */
+    public HttpPollingEngine(ManagementContext mgmt) {
+        this(mgmt.getConfig().getConfig(MAX_CONNECTIONS), mgmt.getConfig().getConfig(MAX_CONNECTIONS_PER_HOST));
+    }
+
+    @VisibleForTesting
+    HttpPollingEngine(int maxConnections, @Nullable Integer maxPerHost) {
+        this.maxPerHost = maxPerHost;
+        SchemeRegistry schemes = SchemeRegistryFactory.createDefault();
+        try {
+            // as feeds have always done, trusting all certificates for https
+            schemes.register(new Scheme("https", 443, new SSLSocketFactory(new TrustAllStrategy(), SSLSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER)));
+        } catch (Exception e) {
+            throw Exceptions.propagate(e);
+        }
+        connections = new PoolingClientConnectionManager(schemes);
+        connections.setMaxTotal(maxConnections);
+        connections.setDefaultMaxPerRoute(maxPerHost != null ? maxPerHost : maxConnections);
+    }
+
+    /**
+     * Returns a client using the shared connections.
+     * Credentials are only used if the URI is known, to know which host they are for.
+     */
+    public HttpClient newClient(@Nullable URI uri, Optional<Credentials> credentials,
+            @Nullable Duration connectionTimeout, @Nullable Duration socketTimeout) {
+        DefaultHttpClient client = (DefaultHttpClient) HttpTool.httpClientBuilder()
+                .clientConnectionManager(connections)
+                .laxRedirect(true)
+                // https is set up for the shared connections, rather than per client
+                .https(false)
+                .build();
+        HttpParams params = client.getParams();
+        if (connectionTimeout != null) HttpConnectionParams.setConnectionTimeout(params, toIntMillis(connectionTimeout));
+        if (socketTimeout != null) HttpConnectionParams.setSoTimeout(params, toIntMillis(socketTimeout));
+        // do not wait indefinitely for a connection if the pool is exhausted
+        HttpClientParams.setConnectionManagerTimeout(params,
+                (connectionTimeout != null ? connectionTimeout : DEFAULT_CONNECTION_POOL_TIMEOUT).toMilliseconds());
+        if (uri != null && credentials.isPresent()) {
+            client.getCredentialsProvider().setCredentials(new AuthScope(uri.getHost(), uri.getPort()), credentials.get());
+        }
+        return client;
+    }
+
+    /**
+     * Reserves a place for a poll to the host of the given URI,
+     * returning false if the host already has the given number of polls in flight
+     * (or the engine's maximum per host, if one is set and that is less or none is given).
+     * If true is returned, {@link #release(URI)} must be called when the poll is done.
+     */
+    public boolean tryAcquire(URI uri, @Nullable Integer maxForHost) {
+        int max;
+        if (maxPerHost == null) max = maxForHost == null ? Integer.MAX_VALUE : maxForHost;
+        else max = maxForHost == null ? maxPerHost : Math.min(maxPerHost, maxForHost);
+        AtomicInteger count = inFlightTo(uri);
+        while (true) {
+            int current = count.get();
+            if (current >= max) return false;
+            if (count.compareAndSet(current, current+1)) return true;
+        }
+    }
+
+    public void release(URI uri) {
+        inFlightTo(uri).decrementAndGet();
+        closeIdleConnectionsIfDue();
+    }
+
+    @VisibleForTesting
+    int getInFlight(URI uri) {
+        return inFlightTo(uri).get();
+    }
+
+    private AtomicInteger inFlightTo(URI uri) {
+        String host = uri.getScheme()+"://"+uri.getHost()+":"+uri.getPort();
+        AtomicInteger result = inFlight.get(host);
+        if (result == null) {
+            inFlight.putIfAbsent(host, new AtomicInteger());
+            result = inFlight.get(host);
+        }
+        return result;
+    }
+
+    /**
+     * Closes connections which have been idle for a while, if not done recently; called by polls when they are done
+     * (including by {@link #release(URI)}), so the engine needs no thread of its own.
+     */
+    public void closeIdleConnectionsIfDue() {
+        long last = lastIdleCheck.get();
+        long now = System.currentTimeMillis();
+        if (now - last > IDLE_CONNECTION_TIMEOUT.toMilliseconds() && lastIdleCheck.compareAndSet(last, now)) {
+            connections.closeExpiredConnections();
+            connections.closeIdleConnections(IDLE_CONNECTION_TIMEOUT.toMilliseconds(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** closes all the connections; the engine cannot be used afterwards */
+    public void shutdown() {
+        if (log.isDebugEnabled()) log.debug("Shutting down HTTP polling engine {}", this);
+        connections.shutdown();
+    }
+
+    private static int toIntMillis(Duration val) {
+        long millis = val.toMilliseconds();
+        if (millis > Integer.MAX_VALUE) throw new IllegalStateException("HttpClient only accepts up to max-int millis for timeouts, but given "+val);
+        return (int) millis;
+    }
+
+}
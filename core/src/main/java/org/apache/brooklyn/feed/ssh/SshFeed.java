@@ -20,7 +20,6 @@ package org.apache.brooklyn.feed.ssh;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
@@ -41,15 +40,12 @@ import org.apache.brooklyn.core.location.Machines;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.apache.brooklyn.location.ssh.SshMachineLocation;
-import org.apache.brooklyn.util.core.config.ConfigBag;
-import org.apache.brooklyn.util.core.internal.ssh.SshTool;
 import org.apache.brooklyn.util.time.Duration;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.HashMultimap;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
@@ -87,6 +83,11 @@ import com.google.common.reflect.TypeToken;
  * }
  * </pre>
  * 
+ * Use {@link Builder#multiplex(boolean)} to run polls together with those of other multiplexed feeds on the same machine
+ * that are due at the same time, in one ssh exec, by the machine's {@link SshPollAggregator}. Each command is then
+ * limited to the {@link Builder#multiplexTimeout(Duration) multiplex timeout}, so that one slow command cannot hold up
+ * the polls of every entity on the machine.
+ * 
  * @author aled
  */
 public class SshFeed extends AbstractFeed {
@@ -100,6 +101,13 @@ public class SshFeed extends AbstractFeed {
     
     public static final ConfigKey<Boolean> EXEC_AS_COMMAND = ConfigKeys.newBooleanConfigKey("execAsCommand");
     
+    /** absent for feeds persisted before this was added, which are then not multiplexed */
+    public static final ConfigKey<Boolean> MULTIPLEX = ConfigKeys.newBooleanConfigKey("multiplex");
+    
+    /** how long each command may run when multiplexed, before it is killed and its poll fails */
+    public static final ConfigKey<Duration> MULTIPLEX_TIMEOUT = ConfigKeys.newConfigKey(Duration.class, "multiplexTimeout",
+            "Time each command may run when multiplexed, before it is killed and its poll fails", SshPollAggregator.DEFAULT_TIMEOUT);
+    
     @SuppressWarnings("serial")
     public static final ConfigKey<SetMultimap<SshPollIdentifier, SshPollConfig<?>>> POLLS = ConfigKeys.newConfigKey(
             new TypeToken<SetMultimap<SshPollIdentifier, SshPollConfig<?>>>() {},
@@ -116,6 +124,8 @@ public class SshFeed extends AbstractFeed {
         private Duration period = Duration.of(500, TimeUnit.MILLISECONDS);
         private List<SshPollConfig<?>> polls = Lists.newArrayList();
         private boolean execAsCommand = false;
+        private boolean multiplex = false;
+        private Duration multiplexTimeout = SshPollAggregator.DEFAULT_TIMEOUT;
         private String uniqueTag;
         private volatile boolean built;
         
@@ -157,6 +167,22 @@ public class SshFeed extends AbstractFeed {
             execAsCommand = false;
             return this;
         }
+        /**
+         * whether to run polls in the same ssh exec as others due on the machine at the same time
+         * (see {@link SshPollAggregator}); default false
+         */
+        public Builder multiplex(boolean val) {
+            multiplex = val;
+            return this;
+        }
+        /**
+         * how long each command may run when {@link #multiplex(boolean) multiplexed}, before it is killed
+         * and its poll fails; default {@link SshPollAggregator#DEFAULT_TIMEOUT}
+         */
+        public Builder multiplexTimeout(Duration val) {
+            multiplexTimeout = val;
+            return this;
+        }
         public Builder uniqueTag(String uniqueTag) {
             this.uniqueTag = uniqueTag;
             return this;
@@ -215,6 +241,8 @@ public class SshFeed extends AbstractFeed {
         setConfig(ONLY_IF_SERVICE_UP, builder.onlyIfServiceUp);
         setConfig(MACHINE, builder.machine != null ? builder.machine : null);
         setConfig(EXEC_AS_COMMAND, builder.execAsCommand);
+        setConfig(MULTIPLEX, builder.multiplex);
+        setConfig(MULTIPLEX_TIMEOUT, builder.multiplexTimeout);
         
         SetMultimap<SshPollIdentifier, SshPollConfig<?>> polls = HashMultimap.<SshPollIdentifier,SshPollConfig<?>>create();
         for (SshPollConfig<?> config : builder.polls) {
@@ -267,24 +295,10 @@ public class SshFeed extends AbstractFeed {
     
     private SshPollValue exec(String command, Map<String,String> env) throws IOException {
         SshMachineLocation machine = getMachine();
-        Boolean execAsCommand = getConfig(EXEC_AS_COMMAND);
-        if (log.isTraceEnabled()) log.trace("Ssh polling for {}, executing {} with env {}", new Object[] {machine, command, env});
-        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
-        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
-
-        int exitStatus;
-        ConfigBag flags = ConfigBag.newInstance()
-            .configure(SshTool.PROP_NO_EXTRA_OUTPUT, true)
-            .configure(SshTool.PROP_OUT_STREAM, stdout)
-            .configure(SshTool.PROP_ERR_STREAM, stderr);
-        if (Boolean.TRUE.equals(execAsCommand)) {
-            exitStatus = machine.execCommands(flags.getAllConfig(),
-                    "ssh-feed", ImmutableList.of(command), env);
-        } else {
-            exitStatus = machine.execScript(flags.getAllConfig(),
-                    "ssh-feed", ImmutableList.of(command), env);
+        boolean execAsCommand = Boolean.TRUE.equals(getConfig(EXEC_AS_COMMAND));
+        if (!Boolean.TRUE.equals(getConfig(MULTIPLEX))) {
+            return SshPollAggregator.execDirect(machine, command, env, execAsCommand);
         }
-
-        return new SshPollValue(machine, exitStatus, new String(stdout.toByteArray()), new String(stderr.toByteArray()));
+        return SshPollAggregator.get(machine).exec(command, env, execAsCommand, getConfig(MULTIPLEX_TIMEOUT));
     }
 }
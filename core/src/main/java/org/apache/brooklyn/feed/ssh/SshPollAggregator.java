@@ -0,0 +1,476 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.feed.ssh;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import org.apache.brooklyn.config.ConfigKey;
+import org.apache.brooklyn.core.config.ConfigKeys;
+import org.apache.brooklyn.location.ssh.SshMachineLocation;
+import org.apache.brooklyn.util.collections.MutableList;
+import org.apache.brooklyn.util.core.config.ConfigBag;
+import org.apache.brooklyn.util.core.internal.ssh.SshTool;
+import org.apache.brooklyn.util.exceptions.Exceptions;
+import org.apache.brooklyn.util.text.Identifiers;
+import org.apache.brooklyn.util.text.StringEscapes.BashStringEscapes;
+import org.apache.brooklyn.util.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs the polls of all the {@link SshFeed}s of a machine together, so that polls due at the same time
+ * share one ssh exec rather than each opening its own channel.
+ * <p>
+ * Up to {@link #MAX_CONCURRENT_EXECS} execs run on a machine at once. A poll which finds fewer running starts one
+ * straight away, taking with it any other polls waiting; polls arriving when that many are running wait for one
+ * of them to finish, then go together in the next. There is no fixed window to wait for other polls:
+ * polls only share an exec when they would otherwise have been queued for the machine.
+ * Execs are run by a shared pool of threads, while each poll waits only for its own result.
+ * <p>
+ * Commands sharing an exec run in parallel, in one generated script, each in its own subshell with its own environment,
+ * and each is killed if it runs for longer than its timeout. As each command finishes (or is killed) its result is
+ * printed as a frame: a header line with a marker (random for each exec), the command's index, its exit status
+ * (or {@code timeout}), and the lengths of its stdout and stderr, followed by exactly that many bytes of each.
+ * Frames are split out of the output as it arrives, so each poll returns as soon as its own command has finished;
+ * a slow command fails only its own poll, when it times out, rather than holding up the others.
+ */
+@Beta
+public class SshPollAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(SshPollAggregator.class);
+
+    /** how long each command may run, by default, before it is killed */
+    public static final Duration DEFAULT_TIMEOUT = Duration.THIRTY_SECONDS;
+
+    public static final ConfigKey<Integer> MAX_CONCURRENT_EXECS = ConfigKeys.newIntegerConfigKey(
+            "brooklyn.feed.ssh.maxConcurrentExecs",
+            "Maximum number of execs of multiplexed ssh feed polls running on a machine at once, further polls waiting to go together in the next",
+            4);
+
+    /** names which can be exported to a command's environment as they are, without quoting */
+    private static final Pattern ENV_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("brooklyn-ssh-feed-exec-%d")
+            .setDaemon(true)
+            .build());
+
+    private static final LoadingCache<SshMachineLocation, SshPollAggregator> AGGREGATORS = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<SshMachineLocation, SshPollAggregator>() {
+                @Override
+                public SshPollAggregator load(SshMachineLocation machine) {
+                    return new SshPollAggregator(machine);
+                }
+            });
+
+    /** the aggregator for polls of the given machine */
+    public static SshPollAggregator get(SshMachineLocation machine) {
+        return AGGREGATORS.getUnchecked(machine);
+    }
+
+    private final SshMachineLocation machine;
+    private final int maxConcurrentExecs;
+    // kept separate, as the two are run differently on the machine; guarded by this
+    private final Batcher commands = new Batcher(true);
+    private final Batcher scripts = new Batcher(false);
+    private int runningExecs = 0;
+    /** the batcher to start first when both have polls waiting, so that neither is starved */
+    private Batcher nextFirst = commands;
+
+    protected SshPollAggregator(SshMachineLocation machine) {
+        this(machine, machine.getConfig(MAX_CONCURRENT_EXECS));
+    }
+
+    @VisibleForTesting
+    protected SshPollAggregator(SshMachineLocation machine, int maxConcurrentExecs) {
+        Preconditions.checkArgument(maxConcurrentExecs > 0, "maxConcurrentExecs must be positive, but was %s", maxConcurrentExecs);
+        this.machine = machine;
+        this.maxConcurrentExecs = maxConcurrentExecs;
+    }
+
+    /** As {@link #exec(String, Map, boolean, Duration)}, with the {@link #DEFAULT_TIMEOUT default timeout}. */
+    public SshPollValue exec(String command, Map<String, String> env, boolean execAsCommand) throws IOException {
+        return exec(command, env, execAsCommand, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Runs the given command, along with any others waiting for the machine, returning its result.
+     *
+     * @param execAsCommand whether to exec as a command (as opposed to copying a script to the machine)
+     * @param timeout how long the command may run before it is killed, failing the poll
+     */
+    public SshPollValue exec(String command, Map<String, String> env, boolean execAsCommand, Duration timeout) throws IOException {
+        Request request = new Request(command, env, timeout);
+        Batcher batcher = execAsCommand ? commands : scripts;
+        synchronized (this) {
+            batcher.queued.add(request);
+        }
+        startExecs();
+        try {
+            return request.result.get();
+        } catch (InterruptedException e) {
+            synchronized (this) {
+                batcher.queued.remove(request);
+            }
+            throw Exceptions.propagate(e);
+        } catch (ExecutionException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+            throw Exceptions.propagate(e.getCause());
+        }
+    }
+
+    /** Starts an exec for the polls waiting, as long as fewer than the maximum are running. */
+    private void startExecs() {
+        while (true) {
+            final Batcher batcher;
+            final List<Request> batch;
+            synchronized (this) {
+                if (runningExecs >= maxConcurrentExecs) return;
+                Batcher other = nextFirst == commands ? scripts : commands;
+                batcher = !nextFirst.queued.isEmpty() ? nextFirst : !other.queued.isEmpty() ? other : null;
+                if (batcher == null) return;
+                nextFirst = batcher == commands ? scripts : commands;
+                batch = ImmutableList.copyOf(batcher.queued);
+                batcher.queued.clear();
+                runningExecs++;
+            }
+            try {
+                EXECUTOR.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            batcher.run(batch);
+                        } finally {
+                            synchronized (SshPollAggregator.this) {
+                                runningExecs--;
+                            }
+                            startExecs();
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    runningExecs--;
+                }
+                for (Request request : batch) {
+                    request.result.setException(e);
+                }
+                return;
+            }
+        }
+    }
+
+    /** Runs a single command on the machine, as {@link SshFeed} does for each poll when not multiplexed. */
+    public static SshPollValue execDirect(SshMachineLocation machine, String command, Map<String, String> env, boolean execAsCommand) {
+        if (log.isTraceEnabled()) log.trace("Ssh polling for {}, executing {} with env {}", new Object[] {machine, command, env});
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        int exitStatus = exec(machine, ImmutableList.of(command), env, execAsCommand, stdout, stderr);
+        return new SshPollValue(machine, exitStatus, new String(stdout.toByteArray(), Charsets.UTF_8), new String(stderr.toByteArray(), Charsets.UTF_8));
+    }
+
+    /** Runs the given commands on the machine, in one exec, writing their output to the given streams as it arrives. */
+    @VisibleForTesting
+    protected int execOnMachine(List<String> commands, boolean execAsCommand, OutputStream stdout, OutputStream stderr) {
+        return exec(machine, commands, ImmutableMap.<String, String>of(), execAsCommand, stdout, stderr);
+    }
+
+    private static int exec(SshMachineLocation machine, List<String> commands, Map<String, String> env, boolean execAsCommand,
+            OutputStream stdout, OutputStream stderr) {
+        ConfigBag flags = ConfigBag.newInstance()
+            .configure(SshTool.PROP_NO_EXTRA_OUTPUT, true)
+            .configure(SshTool.PROP_OUT_STREAM, stdout)
+            .configure(SshTool.PROP_ERR_STREAM, stderr);
+        if (execAsCommand) {
+            return machine.execCommands(flags.getAllConfig(), "ssh-feed", commands, env);
+        } else {
+            return machine.execScript(flags.getAllConfig(), "ssh-feed", commands, env);
+        }
+    }
+
+    /** the number of polls waiting for an exec to start */
+    @VisibleForTesting
+    synchronized int getQueuedCount(boolean execAsCommand) {
+        return (execAsCommand ? commands : scripts).queued.size();
+    }
+
+    private static class Request {
+        final String command;
+        final Map<String, String> env;
+        final Duration timeout;
+        final SettableFuture<SshPollValue> result = SettableFuture.create();
+
+        Request(String command, @Nullable Map<String, String> env, @Nullable Duration timeout) {
+            this.command = command;
+            this.env = env != null ? env : ImmutableMap.<String, String>of();
+            // checked here too, so that a bad name fails only its own poll, not those it would go with
+            for (String name : this.env.keySet()) {
+                checkEnvName(name);
+            }
+            this.timeout = timeout != null ? timeout : DEFAULT_TIMEOUT;
+        }
+    }
+
+    private class Batcher {
+        private final boolean execAsCommand;
+        /** guarded by the aggregator */
+        private final List<Request> queued = MutableList.of();
+
+        Batcher(boolean execAsCommand) {
+            this.execAsCommand = execAsCommand;
+        }
+
+        private void run(final List<Request> batch) {
+            try {
+                // even a poll alone is run by the script, so that it is subject to its timeout
+                String marker = "brooklyn-ssh-feed-"+Identifiers.makeRandomId(8);
+                List<String> script = toScript(marker, batch);
+                if (log.isTraceEnabled()) log.trace("Ssh polling for {}, executing {} commands together: {}", new Object[] {machine, batch.size(), script});
+                FrameParser stdout = new FrameParser(marker, batch.size()) {
+                    @Override
+                    protected void onFrame(int index, @Nullable Integer exitStatus, byte[] out, byte[] err) {
+                        Request request = batch.get(index);
+                        if (exitStatus != null) {
+                            request.result.set(new SshPollValue(machine, exitStatus, new String(out, Charsets.UTF_8), new String(err, Charsets.UTF_8)));
+                        } else {
+                            request.result.setException(new IOException("Command "+index+" of "+batch.size()
+                                    +" polled together on "+machine+" timed out after "+request.timeout));
+                        }
+                    }
+                };
+                ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+                List<String> commands = execAsCommand
+                        // a command is run by the login shell, so run the script by bash, as a single command
+                        ? ImmutableList.of("bash -c "+BashStringEscapes.wrapBash(joinLines(script)))
+                        : script;
+                int exitStatus = execOnMachine(commands, execAsCommand, stdout, stderr);
+
+                for (int i = 0; i < batch.size(); i++) {
+                    // does nothing if its frame has already set it
+                    batch.get(i).result.setException(new IOException("No output for command "+i+" of "+batch.size()
+                            +" polled together on "+machine+" (exit status "+exitStatus+"): "+new String(stderr.toByteArray(), Charsets.UTF_8)));
+                }
+            } catch (Exception e) {
+                for (Request request : batch) {
+                    request.result.setException(e);
+                }
+            } finally {
+                for (Request request : batch) {
+                    request.result.setException(new IllegalStateException("No result from ssh feed poll of "+machine));
+                }
+            }
+        }
+    }
+
+    /**
+     * The script to run the given commands in parallel, printing the result of each as a frame as soon as it finishes.
+     * <p>
+     * Each command runs in the background of its own subshell, beside a watchdog which kills it (and its children)
+     * once its timeout has passed, marking it as timed out. Frames are printed under a lock (a directory,
+     * as {@code mkdir} is atomic), so that those of commands finishing together are not interleaved.
+     * Written to run under {@code bash -e}, as scripts are.
+     *
+     * @throws IllegalArgumentException if the name of an environment variable is not a valid shell variable name
+     */
+    private static List<String> toScript(String marker, List<Request> batch) {
+        List<String> result = MutableList.of();
+        result.add("D=$(mktemp -d \"${TMPDIR:-/tmp}/brooklyn-ssh-feed-XXXXXX\") || exit 1");
+        result.add("frame() {");
+        result.add("until mkdir \"$D/lock\" 2>/dev/null ; do sleep 0.01 ; done");
+        result.add("printf '%s %s %s %s %s\\n' "+marker+" \"$1\" \"$2\" $(wc -c <\"$D/o$1\") $(wc -c <\"$D/e$1\")");
+        result.add("cat \"$D/o$1\" \"$D/e$1\"");
+        result.add("rmdir \"$D/lock\"");
+        result.add("}");
+        for (int i = 0; i < batch.size(); i++) {
+            Request request = batch.get(i);
+            long seconds = Math.max(1, (request.timeout.toMillisecondsRoundingUp() + 999) / 1000);
+            result.add("(");
+            result.add("(");
+            for (Map.Entry<String, String> var : request.env.entrySet()) {
+                // the name is not quoted, so must not be able to change the script
+                checkEnvName(var.getKey());
+                result.add("export "+var.getKey()+"="+BashStringEscapes.wrapBash(var.getValue()));
+            }
+            result.add(request.command);
+            result.add(") >\"$D/o"+i+"\" 2>\"$D/e"+i+"\" </dev/null &");
+            result.add("p=$!");
+            result.add("( sleep "+seconds+" && { touch \"$D/t"+i+"\" ; pkill -KILL -P $p || true ; kill -KILL $p || true ; } ) >/dev/null 2>&1 </dev/null &");
+            result.add("w=$!");
+            result.add("wait $p && r=0 || r=$?");
+            result.add("pkill -P $w >/dev/null 2>&1 || true ; kill $w >/dev/null 2>&1 || true");
+            result.add("[ -e \"$D/t"+i+"\" ] && r=timeout");
+            result.add("frame "+i+" $r");
+            result.add(") &");
+        }
+        result.add("wait");
+        result.add("rm -rf \"$D\"");
+        return result;
+    }
+
+    private static void checkEnvName(String name) {
+        if (name == null || !ENV_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid environment variable name for ssh feed poll: "+name);
+        }
+    }
+
+    @VisibleForTesting
+    static List<String> toScript(String marker, List<String> commands, List<Map<String, String>> envs, Duration timeout) {
+        List<Request> batch = MutableList.of();
+        for (int i = 0; i < commands.size(); i++) {
+            batch.add(new Request(commands.get(i), envs.get(i), timeout));
+        }
+        return toScript(marker, batch);
+    }
+
+    /**
+     * Splits the output of the script into the results of each command,
+     * with null for any command whose frame is missing, incomplete, or which timed out.
+     */
+    @VisibleForTesting
+    static List<SshPollValue> parse(final SshMachineLocation machine, String marker, byte[] stdout, int count) {
+        final List<SshPollValue> result = Arrays.asList(new SshPollValue[count]);
+        FrameParser parser = new FrameParser(marker, count) {
+            @Override
+            protected void onFrame(int index, @Nullable Integer exitStatus, byte[] out, byte[] err) {
+                if (exitStatus != null) {
+                    result.set(index, new SshPollValue(machine, exitStatus, new String(out, Charsets.UTF_8), new String(err, Charsets.UTF_8)));
+                }
+            }
+        };
+        parser.write(stdout, 0, stdout.length);
+        return result;
+    }
+
+    /**
+     * Collects the output of the script as it is written, passing each frame to {@link #onFrame} as soon as it is complete.
+     * Frames may come in any order; anything else in the output, such as a login banner, is skipped.
+     */
+    @VisibleForTesting
+    abstract static class FrameParser extends ByteArrayOutputStream {
+        private final byte[] header;
+        private final boolean[] done;
+        private int pos = 0;
+
+        FrameParser(String marker, int count) {
+            this.header = (marker+" ").getBytes(Charsets.ISO_8859_1);
+            this.done = new boolean[count];
+        }
+
+        /**
+         * Called with the result of each command, once, as soon as its frame is complete.
+         *
+         * @param exitStatus null if the command timed out
+         */
+        protected abstract void onFrame(int index, @Nullable Integer exitStatus, byte[] out, byte[] err);
+
+        @Override
+        public synchronized void write(int b) {
+            super.write(b);
+            parseFrames();
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            super.write(b, off, len);
+            parseFrames();
+        }
+
+        private void parseFrames() {
+            while (true) {
+                int start = indexOf(header, pos);
+                int headerEnd = start < 0 ? -1 : indexOf(new byte[] {'\n'}, start);
+                if (headerEnd < 0) {
+                    // wait for the rest of the header
+                    return;
+                }
+                String line = new String(buf, start, headerEnd - start, Charsets.ISO_8859_1);
+                int index;
+                Integer exitStatus;
+                int outStart = headerEnd + 1;
+                int errStart;
+                int end;
+                try {
+                    String[] fields = line.trim().split("\\s+");
+                    index = Integer.parseInt(fields[1]);
+                    exitStatus = "timeout".equals(fields[2]) ? null : Integer.valueOf(fields[2]);
+                    errStart = outStart + Integer.parseInt(fields[3]);
+                    end = errStart + Integer.parseInt(fields[4]);
+                    if (index < 0 || index >= done.length || done[index] || errStart < outStart || end < errStart) {
+                        throw new IllegalArgumentException("unexpected frame");
+                    }
+                } catch (RuntimeException e) {
+                    // e.g. no exit status, if the command's subshell was killed; treat as missing
+                    if (log.isDebugEnabled()) log.debug("Invalid header in output of ssh feed polls: "+line);
+                    pos = outStart;
+                    continue;
+                }
+                if (end > count) {
+                    // wait for the rest of the frame
+                    return;
+                }
+                done[index] = true;
+                pos = end;
+                onFrame(index, exitStatus, Arrays.copyOfRange(buf, outStart, errStart), Arrays.copyOfRange(buf, errStart, end));
+            }
+        }
+
+        private int indexOf(byte[] target, int from) {
+            for (int i = from; i <= count - target.length; i++) {
+                int j = 0;
+                while (j < target.length && buf[i + j] == target[j]) j++;
+                if (j == target.length) return i;
+            }
+            return -1;
+        }
+    }
+
+    private static String joinLines(List<String> lines) {
+        StringBuilder result = new StringBuilder();
+        for (String line : lines) {
+            result.append(line).append("\n");
+        }
+        return result.toString();
+    }
+
+}
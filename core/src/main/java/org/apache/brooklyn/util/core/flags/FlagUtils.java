@@ -27,6 +27,7 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -47,6 +48,8 @@ import com.google.common.base.Objects;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -70,7 +73,7 @@ public class FlagUtils {
 
     /** see {@link #setFieldsFromFlags(Object, ConfigBag)} */
     public static Map<?, ?> setFieldsFromFlags(Map<?, ?> flags, Object o) {
-        return setFieldsFromFlagsInternal(o, getAllFields(o.getClass()), flags, null, true);
+        return setFieldsFromFlagsInternal(o, flags, null, true);
     }
     
     /** sets all fields (including private and static, local and inherited) annotated {@link SetFromFlag} on the given object, 
@@ -80,17 +83,17 @@ public class FlagUtils {
      * default values are also applied unless that is specified false on one of the variants of this method which takes such an argument
      */
     public static void setFieldsFromFlags(Object o, ConfigBag configBag) {
-        setFieldsFromFlagsInternal(o, getAllFields(o.getClass()), configBag.getAllConfig(), configBag, true);
+        setFieldsFromFlagsInternal(o, configBag.getAllConfig(), configBag, true);
     }
 
     /** as {@link #setFieldsFromFlags(Object, ConfigBag)}, but allowing control over whether default values should be set */
     public static void setFieldsFromFlags(Object o, ConfigBag configBag, boolean setDefaultVals) {
-        setFieldsFromFlagsInternal(o, getAllFields(o.getClass()), configBag.getAllConfig(), configBag, setDefaultVals);
+        setFieldsFromFlagsInternal(o, configBag.getAllConfig(), configBag, setDefaultVals);
     }
 
     /** as {@link #setFieldsFromFlags(Object, ConfigBag)}, but specifying a subset of flags to use */
     public static void setFieldsFromFlagsWithBag(Object o, Map<?,?> flags, ConfigBag configBag, boolean setDefaultVals) {
-        setFieldsFromFlagsInternal(o, getAllFields(o.getClass()), flags, configBag, setDefaultVals);
+        setFieldsFromFlagsInternal(o, flags, configBag, setDefaultVals);
     }
 
     /**
@@ -101,21 +104,21 @@ public class FlagUtils {
      * @throws IllegalArgumentException If fieldVal is null and the SetFromFlag annotation set nullable=false
      */
     public static boolean setFieldFromFlag(Object o, String flagName, Object fieldVal) {
-        return setFieldFromFlagInternal(checkNotNull(flagName, "flagName"), fieldVal, o, getAllFields(o.getClass()));
+        return setFieldFromFlagInternal(checkNotNull(flagName, "flagName"), fieldVal, o, getAllFieldsCached(o.getClass()));
     }
     
     /** get all fields (including private and static) on the given object and all supertypes, 
      * that are annotated with SetFromFlags. 
      */
     public static Map<String, ?> getFieldsWithFlags(Object o) {
-        return getFieldsWithFlagsInternal(o, getAllFields(o.getClass()));
+        return getFieldsWithFlagsInternal(o, getAllFieldsCached(o.getClass()));
     }
     
     /**
      * Finds the {@link Field} on the given object annotated with the given name flag.
      */
     public static Field findFieldForFlag(String flagName, Object o) {
-        return findFieldForFlagInternal(flagName, o, getAllFields(o.getClass()));
+        return findFieldForFlagInternal(flagName, o, getAllFieldsCached(o.getClass()));
     }
 
     /** get all fields (including private and static) and their values on the given object and all supertypes, 
@@ -123,7 +126,7 @@ public class FlagUtils {
      */
     public static Map<String, Object> getFieldsWithFlagsExcludingModifiers(Object o, int excludingModifiers) {
         List<Field> filteredFields = Lists.newArrayList();
-        for (Field contender : getAllFields(o.getClass())) {
+        for (Field contender : getAllFieldsCached(o.getClass())) {
             if ((contender.getModifiers() & excludingModifiers) == 0) {
                 filteredFields.add(contender);
             }
@@ -136,7 +139,7 @@ public class FlagUtils {
      */
     public static Map<String, Object> getFieldsWithFlagsWithModifiers(Object o, int requiredModifiers) {
         List<Field> filteredFields = Lists.newArrayList();
-        for (Field contender : getAllFields(o.getClass())) {
+        for (Field contender : getAllFieldsCached(o.getClass())) {
             if ((contender.getModifiers() & requiredModifiers) == requiredModifiers) {
                 filteredFields.add(contender);
             }
@@ -167,7 +170,7 @@ public class FlagUtils {
     /** sets _all_ accessible _{@link ConfigKey}_ and {@link HasConfigKey} fields on the given object, 
      * using the indicated flags/config-bag */
     public static void setAllConfigKeys(Configurable o, ConfigBag bag, boolean includeFlags) {
-        for (Field f: getAllFields(o.getClass())) {
+        for (Field f: getAllFieldsCached(o.getClass())) {
             ConfigKey<?> key = getFieldAsConfigKey(o, f);
             if (key!=null) {
                 FlagConfigKeyAndValueRecord record = getFlagConfigKeyRecord(f, key, bag);
@@ -221,7 +224,7 @@ public class FlagUtils {
     /** gets all the flags/keys in the given config bag which are applicable to the given type's config keys and flags */
     public static <T> List<FlagConfigKeyAndValueRecord> findAllFlagsAndConfigKeys(T optionalInstance, Class<? extends T> type, ConfigBag input) {
         List<FlagConfigKeyAndValueRecord> output = new ArrayList<FlagUtils.FlagConfigKeyAndValueRecord>();
-        for (Field f: getAllFields(type)) {
+        for (Field f: getAllFieldsCached(type)) {
             ConfigKey<?> key = getFieldAsConfigKey(optionalInstance, f);
             FlagConfigKeyAndValueRecord record = getFlagConfigKeyRecord(f, key, input);
             if (record.isValuePresent())
@@ -264,11 +267,46 @@ public class FlagUtils {
         return getAllFields(base, GroovyJavaMethods.<Field>predicateFromClosure(filter));
     }
     public static List<Field> getAllFields(Class<?> base) {
-        return getAllFields(base, Predicates.<Field>alwaysTrue());
+        return Lists.newArrayList(getAllFieldsCached(base));
     }
     public static List<Field> getAllFields(Class<?> base, Predicate<Field> filter) {
-        return getLocalFields(getAllAssignableTypes(base), filter);
+        return Lists.newArrayList(Iterables.filter(getAllFieldsCached(base), filter));
     }
+    
+    /** as {@link #getAllFields(Class)}, but returning the shared (immutable) list from {@link #FIELDS} */
+    private static List<Field> getAllFieldsCached(Class<?> base) {
+        return FIELDS.get(base).allFields;
+    }
+    
+    /** fields of a class, computed once as scanning the hierarchy (and reading annotations from the new {@link Field} 
+     * instances that {@link Class#getDeclaredFields()} returns each time) is expensive, and done whenever an entity,
+     * location, policy etc is configured; made accessible here so that setting and getting need not do so */
+    private static class ClassFields {
+        final List<Field> allFields;
+        final Map<Field, SetFromFlag> annotatedFields;
+        
+        ClassFields(Class<?> type) {
+            allFields = ImmutableList.copyOf(getLocalFields(getAllAssignableTypes(type)));
+            Map<Field, SetFromFlag> annotated = Maps.newLinkedHashMap();
+            for (Field f: allFields) {
+                SetFromFlag cf = f.getAnnotation(SetFromFlag.class);
+                if (cf!=null) annotated.put(f, cf);
+                try {
+                    f.setAccessible(true);
+                } catch (SecurityException e) {
+                    // will be tried again (and fail) if the field is used
+                }
+            }
+            annotatedFields = Collections.unmodifiableMap(annotated);
+        }
+    }
+    
+    /** per-class field info; a {@link ClassValue} so that it does not prevent classes (e.g. from bundles) being unloaded */
+    private static final ClassValue<ClassFields> FIELDS = new ClassValue<ClassFields>() {
+        @Override protected ClassFields computeValue(Class<?> type) {
+            return new ClassFields(type);
+        }
+    };
     /** returns all fields explicitly declared on the given classes */
     public static List<Field> getLocalFields(List<Class<?>> classes) {
         return getLocalFields(classes, Predicates.<Field>alwaysTrue());
@@ -359,6 +397,14 @@ public class FlagUtils {
         return bag.getUnusedConfigMutable();
     }
 
+    private static Map<String, ?> setFieldsFromFlagsInternal(Object o, Map<?,?> flagsOrConfig, ConfigBag bag, boolean setDefaultVals) {
+        if (bag==null) bag = new ConfigBag().putAll(flagsOrConfig);
+        for (Map.Entry<Field, SetFromFlag> entry: FIELDS.get(o.getClass()).annotatedFields.entrySet()) {
+            setFieldFromConfig(o, entry.getKey(), bag, entry.getValue(), setDefaultVals);
+        }
+        return bag.getUnusedConfigMutable();
+    }
+
     private static void setFieldFromConfig(Object o, Field f, ConfigBag bag, SetFromFlag optionalAnnotation, boolean setDefaultVals) {
         String flagName = optionalAnnotation==null ? null : (String)elvis(optionalAnnotation.value(), f.getName());
         // prefer flag name, if present
@@ -494,12 +540,7 @@ public class FlagUtils {
 
     /** returns a map of all fields which are annotated 'SetFromFlag', along with the annotation */
     public static Map<Field,SetFromFlag> getAnnotatedFields(Class<?> type) {
-        Map<Field, SetFromFlag> result = Maps.newLinkedHashMap();
-        for (Field f: getAllFields(type)) {
-            SetFromFlag cf = f.getAnnotation(SetFromFlag.class);
-            if (truth(cf)) result.put(f, cf);
-        }
-        return result;
+        return Maps.newLinkedHashMap(FIELDS.get(type).annotatedFields);
     }
 
     /** returns a map of all {@link ConfigKey} fields which are annotated 'SetFromFlag', along with the annotation */
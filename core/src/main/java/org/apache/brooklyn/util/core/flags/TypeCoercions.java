@@ -22,10 +22,12 @@ import groovy.lang.Closure;
 import groovy.time.TimeDuration;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.InetAddress;
@@ -40,7 +42,6 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Nullable;
-import javax.annotation.concurrent.GuardedBy;
 
 import org.apache.brooklyn.api.entity.Entity;
 import org.apache.brooklyn.api.sensor.AttributeSensor;
@@ -70,11 +71,14 @@ import org.apache.brooklyn.util.yaml.Yamls;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.Beta;
 import com.google.common.base.CaseFormat;
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -94,9 +98,27 @@ public class TypeCoercions {
     
     private TypeCoercions() {}
 
-    /** Store the coercion {@link Function functions} in a {@link Table table}. */
-    @GuardedBy("TypeCoercions.class")
-    private static Table<Class, Class, Function> registry = HashBasedTable.create();
+    /** Store the coercion {@link Function functions} in a {@link Table table}.
+     * Copy-on-write, so that it can be read without locking; only written by {@link #registerAdapter(Class, Class, Function)}. */
+    private static volatile Table<Class, Class, Function> registry = HashBasedTable.create();
+
+    private static final int MAX_CACHED_COERCION_PLANS = 10*1000;
+    
+    /** Cache of how to coerce a given class to a given type, so that the strategies need not be re-derived on every call.
+     * Replaced (rather than cleared) when the {@link #registry} changes, so a plan resolved concurrently 
+     * against the old registry cannot end up in the new cache.
+     * <p>
+     * Plans refer to the classes they coerce between, so only types visible to this class's loader are cached
+     * (see {@link #isCacheable(Type)}); a plan for a type from e.g. another OSGi bundle would otherwise keep that 
+     * bundle's class loader reachable after it is uninstalled. */
+    private static volatile Cache<CoercionKey, CoercionPlan> planCache = newPlanCache();
+
+    /** Whether each class seen is one whose plans can be cached; weak keys, and the values do not refer to the classes. */
+    private static final Cache<Class<?>, Boolean> cacheableClasses = CacheBuilder.newBuilder().weakKeys().<Class<?>, Boolean>build();
+
+    private static Cache<CoercionKey, CoercionPlan> newPlanCache() {
+        return CacheBuilder.newBuilder().maximumSize(MAX_CACHED_COERCION_PLANS).<CoercionKey, CoercionPlan>build();
+    }
 
     /**
      * Attempts to coerce {@code value} to {@code targetType}.
@@ -136,74 +158,134 @@ public class TypeCoercions {
     @SuppressWarnings({ "unchecked" })
     public static <T> T coerce(Object value, TypeToken<T> targetTypeToken) {
         if (value==null) return null;
-        Class<? super T> targetType = targetTypeToken.getRawType();
+        return (T) getCoercionPlan(value.getClass(), targetTypeToken).apply(value, targetTypeToken);
+    }
+
+    /** Returns the cached plan for coercing instances of the given class to the given type, resolving it if necessary. */
+    private static CoercionPlan getCoercionPlan(Class<?> sourceType, TypeToken<?> targetTypeToken) {
+        if (!isCacheable(sourceType) || !isCacheable(targetTypeToken.getType())) {
+            return resolveCoercionPlan(sourceType, targetTypeToken);
+        }
+        // must read the cache before the registry; see registerAdapter
+        Cache<CoercionKey, CoercionPlan> cache = planCache;
+        CoercionKey key = new CoercionKey(sourceType, targetTypeToken);
+        CoercionPlan result = cache.getIfPresent(key);
+        if (result==null) {
+            result = resolveCoercionPlan(sourceType, targetTypeToken);
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Whether plans involving the given type can be held in the {@link #planCache}: true if every class it refers to
+     * is visible to the loader of this class, so that the cache cannot keep alive any class loader which 
+     * this class is not already keeping alive.
+     */
+    private static boolean isCacheable(Type type) {
+        if (type instanceof Class) {
+            Class<?> clazz = (Class<?>) type;
+            Boolean result = cacheableClasses.getIfPresent(clazz);
+            if (result==null) {
+                result = isVisibleToTypeCoercions(clazz);
+                cacheableClasses.put(clazz, result);
+            }
+            return result;
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            if (!isCacheable(parameterizedType.getRawType())) return false;
+            if (parameterizedType.getOwnerType()!=null && !isCacheable(parameterizedType.getOwnerType())) return false;
+            for (Type argument : parameterizedType.getActualTypeArguments()) {
+                if (!isCacheable(argument)) return false;
+            }
+            return true;
+        } else if (type instanceof WildcardType) {
+            for (Type bound : ((WildcardType) type).getUpperBounds()) {
+                if (!isCacheable(bound)) return false;
+            }
+            for (Type bound : ((WildcardType) type).getLowerBounds()) {
+                if (!isCacheable(bound)) return false;
+            }
+            return true;
+        } else if (type instanceof GenericArrayType) {
+            return isCacheable(((GenericArrayType) type).getGenericComponentType());
+        } else {
+            // type variables (and anything else) are not worth the effort
+            return false;
+        }
+    }
+
+    private static boolean isVisibleToTypeCoercions(Class<?> clazz) {
+        while (clazz.isArray()) {
+            clazz = clazz.getComponentType();
+        }
+        if (clazz.isPrimitive() || clazz.getClassLoader()==null) return true;
+        ClassLoader loader = TypeCoercions.class.getClassLoader();
+        if (loader==null) return false;
+        try {
+            return Class.forName(clazz.getName(), false, loader) == clazz;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Works out how to coerce instances of the given class to the given type, following the strategies
+     * described at {@link #coerce(Object, Class)}. Everything here depends only on the types, 
+     * so the result can be cached; anything depending on the value is done when the plan is applied.
+     */
+    private static CoercionPlan resolveCoercionPlan(Class<?> sourceType, TypeToken<?> targetTypeToken) {
+        Class<?> targetType = targetTypeToken.getRawType();
 
         //recursive coercion of parameterized collections and map entries
         if (targetTypeToken.getType() instanceof ParameterizedType) {
-            if (value instanceof Collection && Collection.class.isAssignableFrom(targetType)) {
+            if (Collection.class.isAssignableFrom(sourceType) && Collection.class.isAssignableFrom(targetType)) {
                 Type[] arguments = ((ParameterizedType) targetTypeToken.getType()).getActualTypeArguments();
                 if (arguments.length != 1) {
                     throw new IllegalStateException("Unexpected number of parameters in collection type: " + arguments);
                 }
-                Collection coerced = Lists.newLinkedList();
-                TypeToken<?> listEntryType = TypeToken.of(arguments[0]);
-                for (Object entry : (Iterable<?>) value) {
-                    coerced.add(coerce(entry, listEntryType));
-                }
-                if (Set.class.isAssignableFrom(targetType)) {
-                    return (T) Sets.newLinkedHashSet(coerced);
-                } else {
-                    return (T) Lists.newArrayList(coerced);
-                }
-            } else if (value instanceof Map && Map.class.isAssignableFrom(targetType)) {
+                return new CollectionCoercion(TypeToken.of(arguments[0]), Set.class.isAssignableFrom(targetType));
+            } else if (Map.class.isAssignableFrom(sourceType) && Map.class.isAssignableFrom(targetType)) {
                 Type[] arguments = ((ParameterizedType) targetTypeToken.getType()).getActualTypeArguments();
                 if (arguments.length != 2) {
                     throw new IllegalStateException("Unexpected number of parameters in map type: " + arguments);
                 }
-                Map coerced = Maps.newLinkedHashMap();
-                TypeToken<?> mapKeyType = TypeToken.of(arguments[0]);
-                TypeToken<?> mapValueType = TypeToken.of(arguments[1]);
-                for (Map.Entry entry : ((Map<?,?>) value).entrySet()) {
-                    coerced.put(coerce(entry.getKey(), mapKeyType),  coerce(entry.getValue(), mapValueType));
-                }
-                return (T) Maps.newLinkedHashMap(coerced);
+                return new MapCoercion(TypeToken.of(arguments[0]), TypeToken.of(arguments[1]));
             }
         }
 
-        if (targetType.isInstance(value)) return (T) value;
+        if (targetType.isAssignableFrom(sourceType)) return IDENTITY_COERCION;
 
         // TODO use registry first?
 
         //deal with primitive->primitive casting
-        if (isPrimitiveOrBoxer(targetType) && isPrimitiveOrBoxer(value.getClass())) {
+        if (isPrimitiveOrBoxer(targetType) && isPrimitiveOrBoxer(sourceType)) {
             // Don't just rely on Java to do its normal casting later; if caller writes
             // long `l = coerce(new Integer(1), Long.class)` then letting java do its casting will fail,
             // because an Integer will not automatically be unboxed and cast to a long
-            return castPrimitive(value, (Class<T>)targetType);
+            return CAST_PRIMITIVE_COERCION;
         }
 
         //deal with string->primitive
-        if (value instanceof String && isPrimitiveOrBoxer(targetType)) {
-            return stringToPrimitive((String)value, (Class<T>)targetType);
+        if (String.class.equals(sourceType) && isPrimitiveOrBoxer(targetType)) {
+            return STRING_TO_PRIMITIVE_COERCION;
         }
 
         //deal with primitive->string
-        if (isPrimitiveOrBoxer(value.getClass()) && targetType.equals(String.class)) {
-            return (T) value.toString();
+        if (isPrimitiveOrBoxer(sourceType) && targetType.equals(String.class)) {
+            return TO_STRING_COERCION;
         }
 
         //look for value.asType where Type is castable to targetType
         String targetTypeSimpleName = getVerySimpleName(targetType);
         if (targetTypeSimpleName!=null && targetTypeSimpleName.length()>0) {
-            for (Method m: value.getClass().getMethods()) {
+            for (Method m: sourceType.getMethods()) {
                 if (m.getName().startsWith("as") && m.getParameterTypes().length==0 &&
                         targetType.isAssignableFrom(m.getReturnType()) ) {
                     if (m.getName().equals("as"+getVerySimpleName(m.getReturnType()))) {
-                        try {
-                            return (T) m.invoke(value);
-                        } catch (Exception e) {
-                            throw new ClassCoercionException("Cannot coerce type "+value.getClass()+" to "+targetType.getCanonicalName()+" ("+value+"): "+m.getName()+" adapting failed, "+e);
-                        }
+                        return new MethodCoercion(m, false);
                     }
                 }
             }
@@ -213,13 +295,9 @@ public class TypeCoercions {
         for (Method m: targetType.getMethods()) {
             if (((m.getModifiers()&Modifier.STATIC)==Modifier.STATIC) && 
                     m.getName().startsWith("from") && m.getParameterTypes().length==1 &&
-                    m.getParameterTypes()[0].isInstance(value)) {
+                    m.getParameterTypes()[0].isAssignableFrom(sourceType)) {
                 if (m.getName().equals("from"+getVerySimpleName(m.getParameterTypes()[0]))) {
-                    try {
-                        return (T) m.invoke(null, value);
-                    } catch (Exception e) {
-                        throw new ClassCoercionException("Cannot coerce type "+value.getClass()+" to "+targetType.getCanonicalName()+" ("+value+"): "+m.getName()+" adapting failed, "+e);
-                    }
+                    return new MethodCoercion(m, true);
                 }
             }
         }
@@ -227,49 +305,202 @@ public class TypeCoercions {
        //ENHANCEMENT could look in type hierarchy of both types for a conversion method...
         
         //primitives get run through again boxed up
-        Class boxedT = UNBOXED_TO_BOXED_TYPES.get(targetType);
-        Class boxedVT = UNBOXED_TO_BOXED_TYPES.get(value.getClass());
-        if (boxedT!=null || boxedVT!=null) {
-            try {
-                if (boxedT==null) boxedT=targetType;
-                Object boxedV;
-                if (boxedVT==null) { boxedV = value; }
-                else { boxedV = boxedVT.getConstructor(value.getClass()).newInstance(value); }
-                return (T) coerce(boxedV, boxedT);
-            } catch (Exception e) {
-                throw new ClassCoercionException("Cannot coerce type "+value.getClass()+" to "+targetType.getCanonicalName()+" ("+value+"): unboxing failed, "+e);
+        // (the value's own class is never primitive, so only the target can need boxing)
+        Class<?> boxedT = UNBOXED_TO_BOXED_TYPES.get(targetType);
+        if (boxedT!=null) {
+            return new BoxedTargetCoercion(boxedT);
+        }
+
+        //now look in registry
+        CoercionPlan registryCoercion = NO_COERCION;
+        for (Map.Entry<Class, Function> entry : registry.row(targetType).entrySet()) {
+            if (entry.getKey().isAssignableFrom(sourceType)) {
+                registryCoercion = new RegistryCoercion(entry.getValue());
+                break;
             }
         }
 
-        //for enums call valueOf with the string representation of the value
+        //for enums call valueOf with the string representation of the value, then fall back to the registry
         if (targetType.isEnum()) {
-            T result = (T) stringToEnum((Class<Enum>) targetType, null).apply(String.valueOf(value));
-            if (result != null) return result;
+            return new EnumCoercion(targetType, registryCoercion);
         }
+        
+        return registryCoercion;
+    }
 
-        //now look in registry
-        synchronized (TypeCoercions.class) {
-            Map<Class, Function> adapters = registry.row(targetType);
-            for (Map.Entry<Class, Function> entry : adapters.entrySet()) {
-                if (entry.getKey().isInstance(value)) {
-                    T result = (T) entry.getValue().apply(value);
-                    
-                    // Check if need to unwrap again (e.g. if want List<Integer> and are given a String "1,2,3"
-                    // then we'll have so far converted to List.of("1", "2", "3"). Call recursively.
-                    // First check that value has changed, to avoid stack overflow!
-                    if (!Objects.equal(value, result) && targetTypeToken.getType() instanceof ParameterizedType) {
-                        // Could duplicate check for `result instanceof Collection` etc; but recursive call
-                        // will be fine as if that doesn't match we'll safely reach `targetType.isInstance(value)`
-                        // and just return the result.
-                        return coerce(result, targetTypeToken);
-                    }
-                    return result;
-                }
-            }
+    /** A resolved strategy for coercing instances of one class to one type; see {@link #resolveCoercionPlan(Class, TypeToken)} */
+    private static abstract class CoercionPlan {
+        abstract Object apply(Object value, TypeToken<?> targetTypeToken);
+    }
+    
+    private static final class CoercionKey {
+        private final Class<?> sourceType;
+        private final TypeToken<?> targetType;
+        
+        CoercionKey(Class<?> sourceType, TypeToken<?> targetType) {
+            this.sourceType = sourceType;
+            this.targetType = targetType;
+        }
+        @Override
+        public int hashCode() {
+            return 31*sourceType.hashCode() + targetType.hashCode();
         }
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof CoercionKey)) return false;
+            CoercionKey o = (CoercionKey) obj;
+            return sourceType.equals(o.sourceType) && targetType.equals(o.targetType);
+        }
+    }
 
-        //not found
-        throw new ClassCoercionException("Cannot coerce type "+value.getClass()+" to "+targetType.getCanonicalName()+" ("+value+"): no adapter known");
+    private static final CoercionPlan IDENTITY_COERCION = new CoercionPlan() {
+        @Override
+        Object apply(Object value, TypeToken<?> targetTypeToken) {
+            return value;
+        }
+    };
+    
+    private static final CoercionPlan CAST_PRIMITIVE_COERCION = new CoercionPlan() {
+        @Override
+        Object apply(Object value, TypeToken<?> targetTypeToken) {
+            return castPrimitive(value, targetTypeToken.getRawType());
+        }
+    };
+    
+    private static final CoercionPlan STRING_TO_PRIMITIVE_COERCION = new CoercionPlan() {
+        @Override
+        Object apply(Object value, TypeToken<?> targetTypeToken) {
+            return stringToPrimitive((String)value, targetTypeToken.getRawType());
+        }
+    };
+    
+    private static final CoercionPlan TO_STRING_COERCION = new CoercionPlan() {
+        @Override
+        Object apply(Object value, TypeToken<?> targetTypeToken) {
+            return value.toString();
+        }
+    };
+    
+    private static final CoercionPlan NO_COERCION = new CoercionPlan() {
+        @Override
+        Object apply(Object value, TypeToken<?> targetTypeToken) {
+            throw new ClassCoercionException("Cannot coerce type "+value.getClass()+" to "+targetTypeToken.getRawType().getCanonicalName()+" ("+value+"): no adapter known");
+        }
+    };
+    
+    private static class CollectionCoercion extends CoercionPlan {
+        private final TypeToken<?> entryType;
+        private final boolean isSet;
+        
+        CollectionCoercion(TypeToken<?> entryType, boolean isSet) {
+            this.entryType = entryType;
+            this.isSet = isSet;
+        }
+        @SuppressWarnings("unchecked")
+        @Override
+        Object apply(Object value, TypeToken<?> targetTypeToken) {
+            Collection coerced = isSet ? Sets.newLinkedHashSet() : Lists.newArrayList();
+            for (Object entry : (Iterable<?>) value) {
+                coerced.add(coerce(entry, entryType));
+            }
+            return coerced;
+        }
+    }
+    
+    private static class MapCoercion extends CoercionPlan {
+        private final TypeToken<?> keyType;
+        private final TypeToken<?> valueType;
+        
+        MapCoercion(TypeToken<?> keyType, TypeToken<?> valueType) {
+            this.keyType = keyType;
+            this.valueType = valueType;
+        }
+        @SuppressWarnings("unchecked")
+        @Override
+        Object apply(Object value, TypeToken<?> targetTypeToken) {
+            Map coerced = Maps.newLinkedHashMap();
+            for (Map.Entry entry : ((Map<?,?>) value).entrySet()) {
+                coerced.put(coerce(entry.getKey(), keyType),  coerce(entry.getValue(), valueType));
+            }
+            return coerced;
+        }
+    }
+    
+    /** invokes either <code>value.asTargetType()</code> or <code>TargetType.fromSourceType(value)</code> */
+    private static class MethodCoercion extends CoercionPlan {
+        private final Method method;
+        private final boolean isStaticFrom;
+        
+        MethodCoercion(Method method, boolean isStaticFrom) {
+            this.method = method;
+            this.isStaticFrom = isStaticFrom;
+        }
+        @Override
+        Object apply(Object value, TypeToken<?> targetTypeToken) {
+            try {
+                return isStaticFrom ? method.invoke(null, value) : method.invoke(value);
+            } catch (Exception e) {
+                throw new ClassCoercionException("Cannot coerce type "+value.getClass()+" to "+targetTypeToken.getRawType().getCanonicalName()+" ("+value+"): "+method.getName()+" adapting failed, "+e);
+            }
+        }
+    }
+    
+    private static class BoxedTargetCoercion extends CoercionPlan {
+        private final Class<?> boxedTargetType;
+        
+        BoxedTargetCoercion(Class<?> boxedTargetType) {
+            this.boxedTargetType = boxedTargetType;
+        }
+        @Override
+        Object apply(Object value, TypeToken<?> targetTypeToken) {
+            try {
+                return coerce(value, boxedTargetType);
+            } catch (Exception e) {
+                throw new ClassCoercionException("Cannot coerce type "+value.getClass()+" to "+targetTypeToken.getRawType().getCanonicalName()+" ("+value+"): unboxing failed, "+e);
+            }
+        }
+    }
+    
+    private static class EnumCoercion extends CoercionPlan {
+        private final Function<String, Enum> fromString;
+        private final CoercionPlan fallback;
+        
+        @SuppressWarnings("unchecked")
+        EnumCoercion(Class<?> enumType, CoercionPlan fallback) {
+            this.fromString = stringToEnum((Class<Enum>) enumType, null);
+            this.fallback = fallback;
+        }
+        @Override
+        Object apply(Object value, TypeToken<?> targetTypeToken) {
+            Object result = fromString.apply(String.valueOf(value));
+            if (result != null) return result;
+            return fallback.apply(value, targetTypeToken);
+        }
+    }
+    
+    private static class RegistryCoercion extends CoercionPlan {
+        private final Function adapter;
+        
+        RegistryCoercion(Function adapter) {
+            this.adapter = adapter;
+        }
+        @SuppressWarnings("unchecked")
+        @Override
+        Object apply(Object value, TypeToken<?> targetTypeToken) {
+            Object result = adapter.apply(value);
+            
+            // Check if need to unwrap again (e.g. if want List<Integer> and are given a String "1,2,3"
+            // then we'll have so far converted to List.of("1", "2", "3"). Call recursively.
+            // First check that value has changed, to avoid stack overflow!
+            if (!Objects.equal(value, result) && targetTypeToken.getType() instanceof ParameterizedType) {
+                // Could duplicate check for `result instanceof Collection` etc; but recursive call
+                // will be fine as if that doesn't match we'll safely reach `targetType.isInstance(value)`
+                // and just return the result.
+                return coerce(result, targetTypeToken);
+            }
+            return result;
+        }
     }
 
     /**
@@ -520,7 +751,22 @@ public class TypeCoercions {
 
     /** Registers an adapter for use with type coercion. Returns any old adapter. */
     public synchronized static <A,B> Function registerAdapter(Class<A> sourceType, Class<B> targetType, Function<? super A,B> fn) {
-        return registry.put(targetType, sourceType, fn);
+        Table<Class, Class, Function> newRegistry = HashBasedTable.create(registry);
+        Function result = newRegistry.put(targetType, sourceType, fn);
+        registry = newRegistry;
+        planCache = newPlanCache();
+        return result;
+    }
+
+    /** Removes any adapter registered for the given types, e.g. when the bundle supplying it is stopped. Returns the old adapter. */
+    @Beta
+    public synchronized static Function unregisterAdapter(Class<?> sourceType, Class<?> targetType) {
+        if (!registry.contains(targetType, sourceType)) return null;
+        Table<Class, Class, Function> newRegistry = HashBasedTable.create(registry);
+        Function result = newRegistry.remove(targetType, sourceType);
+        registry = newRegistry;
+        planCache = newPlanCache();
+        return result;
     }
 
     static { BrooklynInitialization.initTypeCoercionStandardAdapters(); }
@@ -369,17 +369,7 @@ public class Osgis {
         }
 
         try {
-            Bundle bundle = getInstalledBundle(framework, localUrl);
-            if (bundle != null) {
-                return bundle;
-            }
-    
-            // use our URL resolution so we get classpath items
-            LOG.debug("Installing bundle into {} from url: {}", framework, url);
-            InputStream stream = getUrlStream(localUrl);
-            Bundle installedBundle = framework.getBundleContext().installBundle(url, stream);
-            
-            return installedBundle;
+            return install(framework, url, localUrl);
         } finally {
             if (!isLocal) {
                 try {
@@ -391,13 +381,31 @@ public class Osgis {
         }
     }
 
+    /**
+     * As {@link #install(Framework, String)}, but reading the bundle from a local copy of the URL
+     * (e.g. one already downloaded); the bundle's location is still the given URL.
+     */
+    public static Bundle install(Framework framework, String url, String localCopyUrl) throws BundleException {
+        Bundle bundle = framework.getBundleContext().getBundle(url);
+        if (bundle == null) bundle = getInstalledBundle(framework, localCopyUrl);
+        if (bundle != null) {
+            return bundle;
+        }
+
+        // use our URL resolution so we get classpath items
+        LOG.debug("Installing bundle into {} from url: {}", framework, url);
+        InputStream stream = getUrlStream(localCopyUrl);
+        return framework.getBundleContext().installBundle(url, stream);
+    }
+
     private static String cacheFile(String url) {
         InputStream in = getUrlStream(url);
         File cache = Os.writeToTempFile(in, "bundle-cache", "jar");
         return cache.toURI().toString();
     }
 
-    private static boolean isLocalUrl(String url) {
+    /** whether the URL can be read without a download (file, classpath and jar URLs) */
+    public static boolean isLocalUrl(String url) {
         String protocol = Urls.getProtocol(url);
         return "file".equals(protocol) ||
                 "classpath".equals(protocol) ||
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.util.core.task;
+
+import org.apache.brooklyn.util.guava.Maybe;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A {@link DeferredSupplier} which can sometimes supply its value without blocking.
+ * <p>
+ * {@link ValueResolver} tries {@link #getImmediately()} first, and only falls back to {@link #get()}
+ * (which it may run in a task, e.g. to apply a timeout) if that returns absent.
+ * This avoids the cost of creating and submitting a task for values which are already available.
+ */
+@Beta
+public interface ImmediateSupplier<T> extends DeferredSupplier<T> {
+    
+    /**
+     * Gets the value if it is available now, or returns absent if it is not yet available 
+     * or cannot be determined without blocking. Must not block or submit tasks.
+     * <p>
+     * This is invoked in the caller's thread, but only where the current task's 
+     * execution context is the one in which {@link #get()} would have been run.
+     */
+    Maybe<T> getImmediately();
+    
+}
@@ -310,8 +310,12 @@ public class ValueResolver<T> implements DeferredSupplier<T> {
 
             } else if (v instanceof DeferredSupplier<?>) {
                 final DeferredSupplier<?> ds = (DeferredSupplier<?>) v;
+                Maybe<?> immediate = getImmediately(ds, exec);
 
-                if ((!Boolean.FALSE.equals(embedResolutionInTask) && (exec!=null || timeout!=null)) || Boolean.TRUE.equals(embedResolutionInTask)) {
+                if (immediate.isPresent()) {
+                    v = immediate.get();
+                    
+                } else if ((!Boolean.FALSE.equals(embedResolutionInTask) && (exec!=null || timeout!=null)) || Boolean.TRUE.equals(embedResolutionInTask)) {
                     if (exec==null)
                         return Maybe.absent("Embedding in task needed for '"+getDescription()+"' but no execution context available");
                         
@@ -410,6 +414,22 @@ public class ValueResolver<T> implements DeferredSupplier<T> {
         return new ValueResolver(v, type, this).getMaybe();
     }
 
+    /** Attempts to resolve the given supplier without blocking or creating a task, if it is an {@link ImmediateSupplier};
+     * only done where the current thread is already in the execution context a task would be submitted to,
+     * so that the supplier sees the same context entity as it would when run in a task. */
+    protected Maybe<?> getImmediately(DeferredSupplier<?> ds, ExecutionContext exec) {
+        if (!(ds instanceof ImmediateSupplier)) return Maybe.absent();
+        if (exec != BasicExecutionContext.getCurrentExecutionContext()) return Maybe.absent();
+        try {
+            return ((ImmediateSupplier<?>) ds).getImmediately();
+        } catch (Exception e) {
+            Exceptions.propagateIfFatal(e);
+            // fall back to usual resolution, which will report any error
+            if (log.isTraceEnabled()) log.trace("Immediate resolution of "+ds+" failed; will resolve in usual way: "+e);
+            return Maybe.absent();
+        }
+    }
+
     protected String getDescription() {
         return description!=null ? description : ""+value;
     }
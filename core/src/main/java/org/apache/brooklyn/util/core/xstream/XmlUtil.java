@@ -20,18 +20,24 @@ package org.apache.brooklyn.util.core.xstream;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.List;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
+import org.apache.brooklyn.util.collections.MutableList;
 import org.apache.brooklyn.util.exceptions.Exceptions;
 import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
+import com.google.common.base.Charsets;
+
 public class XmlUtil {
 
     public static Object xpath(String xml, String xpath) {
@@ -55,4 +61,31 @@ public class XmlUtil {
             throw Exceptions.propagate(e);
         }
     }
+
+    /** As {@link #xpath(String, String)} but returning the text content of every node matched by the xpath. */
+    public static List<String> xpathNodeValues(String xml, String xpath) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            Document doc = builder.parse(new ByteArrayInputStream(xml.getBytes(Charsets.UTF_8)));
+            XPathFactory xPathfactory = XPathFactory.newInstance();
+            XPathExpression expr = xPathfactory.newXPath().compile(xpath);
+            
+            NodeList nodes = (NodeList) expr.evaluate(doc, XPathConstants.NODESET);
+            List<String> result = MutableList.of();
+            for (int i=0; i<nodes.getLength(); i++) {
+                result.add(nodes.item(i).getTextContent());
+            }
+            return result;
+            
+        } catch (ParserConfigurationException e) {
+            throw Exceptions.propagate(e);
+        } catch (SAXException e) {
+            throw Exceptions.propagate(e);
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        } catch (XPathExpressionException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
 }
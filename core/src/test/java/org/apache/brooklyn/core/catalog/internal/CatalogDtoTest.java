@@ -47,6 +47,8 @@ import org.apache.brooklyn.util.core.BrooklynMavenArtifacts;
 import org.apache.brooklyn.util.maven.MavenRetriever;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
 
 public class CatalogDtoTest {
 
@@ -154,4 +156,15 @@ public class CatalogDtoTest {
         Assert.assertEquals(CatalogUtils.getSymbolicNameFromVersionedId(versionedId), id);
         Assert.assertEquals(CatalogUtils.getVersionFromVersionedId(versionedId), version);
     }
+
+    @Test
+    public void testParseLibrariesWithChecksum() {
+        CatalogBundle bundle = Iterables.getOnlyElement(CatalogItemDtoAbstract.parseLibraries(ImmutableList.of(
+            ImmutableMap.of("url", "http://example.com/bundle.jar", "checksum", "abc123"))));
+        Assert.assertEquals(bundle.getUrl(), "http://example.com/bundle.jar");
+        Assert.assertEquals(bundle.getChecksum(), "abc123");
+        
+        bundle = Iterables.getOnlyElement(CatalogItemDtoAbstract.parseLibraries(ImmutableList.of("http://example.com/bundle.jar")));
+        Assert.assertNull(bundle.getChecksum());
+    }
 }
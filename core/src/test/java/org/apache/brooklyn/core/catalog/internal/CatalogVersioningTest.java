@@ -35,6 +35,7 @@ import org.apache.brooklyn.core.catalog.internal.CatalogUtils;
 import org.apache.brooklyn.core.entity.Entities;
 import org.apache.brooklyn.core.mgmt.internal.LocalManagementContext;
 import org.apache.brooklyn.core.test.entity.LocalManagementContextForTests;
+import org.apache.brooklyn.core.typereg.RegisteredTypePredicates;
 
 import com.google.common.base.Predicates;
 import com.google.common.collect.Iterables;
@@ -154,6 +155,56 @@ public class CatalogVersioningTest {
         assertEquals(Iterables.size(items), 2);
     }
     
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testIndexedLookupsFollowAddAndDelete() {
+        createCatalogItem("sampleId", "0.1.0");
+        createCatalogItem("sampleId", "0.2.0");
+        catalog.addItem(CatalogItemBuilder.newTemplate("sampleTemplate", "0.1.0")
+                .plan("services:\n- type: org.apache.brooklyn.entity.stock.BasicEntity")
+                .tag("sampleTag")
+                .build());
+
+        Iterable<CatalogItem<Object, Object>> versions = catalog.getCatalogItemVersions("sampleId");
+        assertEquals(Iterables.size(versions), 2);
+        assertEquals(Iterables.get(versions, 0).getVersion(), "0.2.0");
+        assertEquals(Iterables.getOnlyElement(catalog.getCatalogItemsOfType(CatalogItem.CatalogItemType.TEMPLATE)).getSymbolicName(), "sampleTemplate");
+        assertEquals(Iterables.getOnlyElement(catalog.getCatalogItemsWithTag("sampleTag")).getSymbolicName(), "sampleTemplate");
+        assertEquals(Iterables.size(catalog.getCatalogItemsOfType(CatalogItem.CatalogItemType.ENTITY)), 2);
+
+        catalog.deleteCatalogItem("sampleId", "0.2.0");
+        assertEquals(Iterables.getOnlyElement(catalog.getCatalogItemVersions("sampleId")).getVersion(), "0.1.0");
+        assertEquals(catalog.getCatalogItem("sampleId", BasicBrooklynCatalog.DEFAULT_VERSION).getVersion(), "0.1.0");
+        catalog.deleteCatalogItem("sampleTemplate", "0.1.0");
+        assertTrue(Iterables.isEmpty(catalog.getCatalogItemsWithTag("sampleTag")));
+        assertEquals(Iterables.size(catalog.getCatalogItems()), 1);
+    }
+
+    @Test
+    public void testIndexSnapshotUnchangedByLaterChanges() {
+        createCatalogItem("sampleId", "0.1.0");
+        CatalogItemIndex index = ((BasicBrooklynCatalog) catalog).getCatalog().getIndex();
+        createCatalogItem("sampleId", "0.2.0");
+        
+        assertEquals(Iterables.getOnlyElement(index.getVersions("sampleId")).getVersion(), "0.1.0");
+        assertEquals(index.getBestVersion("sampleId").getVersion(), "0.1.0");
+        assertEquals(index.getByItemType(CatalogItem.CatalogItemType.ENTITY).size(), 1);
+        assertEquals(((BasicBrooklynCatalog) catalog).getCatalog().getIndex().getVersions("sampleId").size(), 2);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testTypeRegistrySubtypeLookupUsesItemTypes() {
+        createCatalogItem("sampleId", "0.1.0");
+        catalog.addItem(CatalogItemBuilder.newTemplate("sampleTemplate", "0.1.0")
+                .plan("services:\n- type: org.apache.brooklyn.entity.stock.BasicEntity")
+                .build());
+        
+        assertEquals(Iterables.size(managementContext.getTypeRegistry().getAll(RegisteredTypePredicates.IS_ENTITY)), 2);
+        assertEquals(Iterables.getOnlyElement(managementContext.getTypeRegistry().getAll(RegisteredTypePredicates.IS_APPLICATION)).getSymbolicName(), "sampleTemplate");
+        assertTrue(Iterables.isEmpty(managementContext.getTypeRegistry().getAll(RegisteredTypePredicates.IS_LOCATION)));
+    }
+
     @SuppressWarnings("deprecation")
     private void createCatalogItem(String symbolicName, String version) {
         catalog.addItem(CatalogItemBuilder.newEntity(symbolicName, version).
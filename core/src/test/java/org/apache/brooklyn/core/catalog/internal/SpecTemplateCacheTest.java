@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.catalog.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.List;
+
+import org.apache.brooklyn.api.entity.EntitySpec;
+import org.apache.brooklyn.config.ConfigKey;
+import org.apache.brooklyn.core.config.ConfigKeys;
+import org.apache.brooklyn.core.test.entity.TestEntity;
+import org.apache.brooklyn.util.collections.MutableList;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
+public class SpecTemplateCacheTest {
+
+    private static final ConfigKey<Object> OBJECT = ConfigKeys.newConfigKey(Object.class, "test.object");
+    private static final List<Object> KEY = ImmutableList.<Object>of("my.item", "1.0");
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCustomisingSpecDoesNotAffectCachedTemplate() throws Exception {
+        SpecTemplateCache cache = new SpecTemplateCache(10);
+        cache.put(KEY, cache.getGeneration(), EntitySpec.create(TestEntity.class)
+            .configure(OBJECT, MutableList.of("a"))
+            .child(EntitySpec.create(TestEntity.class).configure(OBJECT, MutableList.of("b"))));
+
+        EntitySpec<?> first = cache.get(KEY);
+        ((List<Object>) first.getConfig().get(OBJECT)).add("changed");
+        ((List<Object>) Iterables.getOnlyElement(first.getChildren()).getConfig().get(OBJECT)).add("changed");
+
+        EntitySpec<?> second = cache.get(KEY);
+        assertEquals(second.getConfig().get(OBJECT), ImmutableList.of("a"));
+        assertEquals(Iterables.getOnlyElement(second.getChildren()).getConfig().get(OBJECT), ImmutableList.of("b"));
+    }
+
+    @Test
+    public void testDoesNotCacheSpecWhichCannotBeCopied() throws Exception {
+        SpecTemplateCache cache = new SpecTemplateCache(10);
+        cache.put(KEY, cache.getGeneration(), EntitySpec.create(TestEntity.class).configure(OBJECT, new Object()));
+
+        assertNull(cache.get(KEY));
+    }
+
+    @Test
+    public void testDoesNotCacheSpecCreatedBeforeInvalidation() throws Exception {
+        SpecTemplateCache cache = new SpecTemplateCache(10);
+        long generation = cache.getGeneration();
+        cache.invalidateAll();
+        cache.put(KEY, generation, EntitySpec.create(TestEntity.class));
+
+        assertNull(cache.get(KEY));
+    }
+
+}
@@ -19,6 +19,8 @@
 package org.apache.brooklyn.core.config;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.fail;
 
 import org.apache.brooklyn.config.ConfigInheritance;
@@ -92,6 +94,17 @@ public class ConfigKeysTest {
         checkMyKey(key2);
     }
 
+    @Test
+    public void testInternSharesIdenticalKeys() throws Exception {
+        ConfigKey<String> key = ConfigKeys.intern(ConfigKeys.newStringConfigKey("mykey", "my descr", "my default val"));
+        ConfigKey<String> key2 = ConfigKeys.intern(ConfigKeys.newStringConfigKey("mykey", "my descr", "my default val"));
+        ConfigKey<String> key3 = ConfigKeys.intern(ConfigKeys.newStringConfigKey("mykey", "my descr", "other default val"));
+        
+        assertSame(key2, key);
+        assertNotSame(key3, key);
+        assertEquals(key3.getDefaultValue(), "other default val");
+    }
+    
     private void checkMyKey(ConfigKey<String> key) {
         assertEquals(key.getName(), "mykey");
         assertEquals(key.getType(), String.class);
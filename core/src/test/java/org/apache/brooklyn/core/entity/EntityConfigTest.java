@@ -20,6 +20,8 @@ package org.apache.brooklyn.core.entity;
 
 import static org.testng.Assert.assertEquals;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.brooklyn.api.entity.EntitySpec;
 import org.apache.brooklyn.api.mgmt.ManagementContext;
 import org.apache.brooklyn.config.ConfigKey;
@@ -28,7 +30,9 @@ import org.apache.brooklyn.core.entity.AbstractEntity;
 import org.apache.brooklyn.core.entity.Entities;
 import org.apache.brooklyn.core.entity.EntityInternal;
 import org.apache.brooklyn.core.test.entity.LocalManagementContextForTests;
+import org.apache.brooklyn.core.test.entity.TestApplication;
 import org.apache.brooklyn.util.core.flags.SetFromFlag;
+import org.apache.brooklyn.util.core.task.DeferredSupplier;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -153,9 +157,78 @@ public class EntityConfigTest {
         assertEquals(child.getLocalConfigBag().getAllConfig(), ImmutableMap.of("mychildentity.myconfigwithflagname", "overrideMyval"));
     }
     
+    @Test
+    public void testResolvedValueCachedUntilConfigChanged() throws Exception {
+        TestApplication app = TestApplication.Factory.newManagedInstanceForTests(managementContext);
+        CountingSupplier supplier = new CountingSupplier("myval");
+        EntityInternal entity = app.createAndManageChild(EntitySpec.create(MyEntity.class)
+                .configure(MyEntity.MY_CACHED_CONFIG.getName(), supplier));
+
+        assertEquals(entity.config().get(MyEntity.MY_CACHED_CONFIG), "myval");
+        assertEquals(entity.config().get(MyEntity.MY_CACHED_CONFIG), "myval");
+        assertEquals(supplier.count.get(), 1);
+        
+        entity.config().set(MyEntity.MY_CACHED_CONFIG, "myval2");
+        assertEquals(entity.config().get(MyEntity.MY_CACHED_CONFIG), "myval2");
+    }
+
+    @Test
+    public void testResolvedValueCacheInvalidatedWhenParentConfigChanged() throws Exception {
+        TestApplication app = TestApplication.Factory.newManagedInstanceForTests(managementContext);
+        EntityInternal entity = app.createAndManageChild(EntitySpec.create(MyEntity.class)
+                .configure(MyEntity.MY_CACHED_CONFIG, "myval"));
+        EntityInternal child = managementContext.getEntityManager().createEntity(EntitySpec.create(MyChildEntity.class)
+                .parent(entity));
+        
+        assertEquals(child.config().get(MyEntity.MY_CACHED_CONFIG), "myval");
+        entity.config().set(MyEntity.MY_CACHED_CONFIG, "myval2");
+        assertEquals(child.config().get(MyEntity.MY_CACHED_CONFIG), "myval2");
+    }
+
+    @Test
+    public void testResolvedValueCachedPerTypeOfKeyAskedFor() throws Exception {
+        TestApplication app = TestApplication.Factory.newManagedInstanceForTests(managementContext);
+        EntityInternal entity = app.createAndManageChild(EntitySpec.create(MyEntity.class)
+                .configure(MyEntity.MY_CACHED_CONFIG, "123"));
+        ConfigKey<Integer> intKey = ConfigKeys.newConfigKey(Integer.class, MyEntity.MY_CACHED_CONFIG.getName());
+
+        assertEquals(entity.config().get(MyEntity.MY_CACHED_CONFIG), "123");
+        assertEquals(entity.config().get(intKey), (Integer)123);
+        assertEquals(entity.config().get(MyEntity.MY_CACHED_CONFIG), "123");
+    }
+
+    @Test
+    public void testUncachedKeyResolvedOnEveryRead() throws Exception {
+        TestApplication app = TestApplication.Factory.newManagedInstanceForTests(managementContext);
+        CountingSupplier supplier = new CountingSupplier("myval");
+        EntityInternal entity = app.createAndManageChild(EntitySpec.create(MyEntity.class)
+                .configure(MyEntity.MY_CONFIG.getName(), supplier));
+
+        assertEquals(entity.config().get(MyEntity.MY_CONFIG), "myval");
+        assertEquals(entity.config().get(MyEntity.MY_CONFIG), "myval");
+        assertEquals(supplier.count.get(), 2);
+    }
+
+    private static class CountingSupplier implements DeferredSupplier<String> {
+        final AtomicInteger count = new AtomicInteger();
+        final String val;
+        CountingSupplier(String val) {
+            this.val = val;
+        }
+        @Override
+        public String get() {
+            count.incrementAndGet();
+            return val;
+        }
+    }
+
     public static class MyEntity extends AbstractEntity {
         public static final ConfigKey<String> MY_CONFIG = ConfigKeys.newStringConfigKey("myentity.myconfig");
 
+        public static final ConfigKey<String> MY_CACHED_CONFIG = ConfigKeys.builder(String.class, "myentity.mycachedconfig")
+                .resolvedValueCacheable(true)
+                .build();
+
         @SetFromFlag("myconfigflagname")
         public static final ConfigKey<String> MY_CONFIG_WITH_FLAGNAME = ConfigKeys.newStringConfigKey("myentity.myconfigwithflagname");
         
@@ -37,6 +37,7 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 import java.util.List;
@@ -248,6 +249,23 @@ public class EntityTypeTest extends BrooklynAppUnitTestSupport {
             BasicSensorEvent.ofUnchecked(SENSOR_REMOVED, entity, POLICY_ADDED)));
     }
 
+    @Test
+    public void testEntitiesOfSameTypeShareTypeUntilChanged() throws Exception {
+        EntityInternal entity2 = (EntityInternal) app.createAndManageChild(EntitySpec.create(Entity.class, EmptyEntityForTesting.class));
+        assertSame(entity2.getEntityType(), entity.getEntityType());
+        
+        entity2.getMutableEntityType().addSensor(TEST_SENSOR);
+        assertTrue(entity2.getEntityType().getSensors().contains(TEST_SENSOR));
+        assertFalse(entity.getEntityType().getSensors().contains(TEST_SENSOR));
+        
+        entity.getMutableEntityType().removeSensor(SENSOR_ADDED);
+        assertFalse(entity.getEntityType().getSensors().contains(SENSOR_ADDED));
+        assertTrue(entity2.getEntityType().getSensors().contains(SENSOR_ADDED));
+        
+        EntityInternal entity3 = (EntityInternal) app.createAndManageChild(EntitySpec.create(Entity.class, EmptyEntityForTesting.class));
+        assertEquals(entity3.getEntityType().getSensors(), DEFAULT_SENSORS);
+    }
+
     @Test
     public void testGetSensor() throws Exception {
         Sensor<?> sensor = entity.getEntityType().getSensor("entity.sensor.added");
@@ -24,7 +24,10 @@ import static org.testng.Assert.assertTrue;
 
 import org.apache.brooklyn.api.entity.EntitySpec;
 import org.apache.brooklyn.api.mgmt.EntityManager;
+import org.apache.brooklyn.core.entity.BrooklynConfigKeys;
+import org.apache.brooklyn.core.entity.Entities;
 import org.apache.brooklyn.core.entity.factory.ApplicationBuilder;
+import org.apache.brooklyn.core.mgmt.internal.EntityManagerInternal;
 import org.apache.brooklyn.core.objs.proxy.EntityProxy;
 import org.apache.brooklyn.core.test.BrooklynAppUnitTestSupport;
 import org.apache.brooklyn.core.test.entity.TestApplication;
@@ -80,4 +83,20 @@ public class EntityManagerTest extends BrooklynAppUnitTestSupport {
         Asserts.assertEqualsIgnoringOrder(entityManager.findEntities(Predicates.instanceOf(TestApplication.class)), ImmutableList.of(app, app2));
         Asserts.assertEqualsIgnoringOrder(entityManager.findEntitiesInApplication(app, Predicates.instanceOf(TestApplication.class)), ImmutableList.of(app));
     }
+    
+    @Test
+    public void testGetEntitiesWithPlanId() {
+        TestApplication app2 = ApplicationBuilder.newManagedApp(TestApplication.class, mgmt);
+        TestEntity entity = app.createAndManageChild(EntitySpec.create(TestEntity.class).configure(BrooklynConfigKeys.PLAN_ID, "myplanid"));
+        TestEntity entity2 = app2.createAndManageChild(EntitySpec.create(TestEntity.class).configure(BrooklynConfigKeys.PLAN_ID, "myplanid"));
+        EntityManagerInternal entityManagerInternal = (EntityManagerInternal) entityManager;
+        
+        assertEquals(ImmutableList.copyOf(entityManagerInternal.getEntitiesInApplicationWithPlanId(app.getId(), "myplanid")), ImmutableList.of(entity));
+        assertEquals(ImmutableList.copyOf(entityManagerInternal.getEntitiesInApplicationWithPlanId(app2.getId(), "myplanid")), ImmutableList.of(entity2));
+        assertTrue(entityManagerInternal.getEntitiesInApplicationWithPlanId(app.getId(), "otherplanid").isEmpty());
+        
+        Entities.unmanage(entity);
+        assertTrue(entityManagerInternal.getEntitiesInApplicationWithPlanId(app.getId(), "myplanid").isEmpty());
+        assertEquals(ImmutableList.copyOf(entityManagerInternal.getEntitiesInApplicationWithPlanId(app2.getId(), "myplanid")), ImmutableList.of(entity2));
+    }
 }
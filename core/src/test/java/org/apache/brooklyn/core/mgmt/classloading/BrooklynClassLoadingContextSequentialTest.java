@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.mgmt.classloading;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.apache.brooklyn.core.test.BrooklynMgmtUnitTestSupport;
+import org.apache.brooklyn.entity.stock.BasicEntity;
+import org.apache.brooklyn.util.guava.Maybe;
+import org.testng.annotations.Test;
+
+public class BrooklynClassLoadingContextSequentialTest extends BrooklynMgmtUnitTestSupport {
+
+    @Test
+    public void testRepeatedLookupsAreCached() {
+        BrooklynClassLoadingContextSequential loader = new BrooklynClassLoadingContextSequential(mgmt);
+        loader.addSecondary(JavaBrooklynClassLoadingContext.create(mgmt));
+
+        assertEquals(loader.tryLoadClass(BasicEntity.class.getName()).get(), BasicEntity.class);
+        assertFalse(loader.tryLoadClass("org.example.DoesNotExist").isPresent());
+
+        long hits = BrooklynClassLoadingContextSequential.getCacheHitCount();
+        assertEquals(loader.tryLoadClass(BasicEntity.class.getName()).get(), BasicEntity.class);
+        Maybe<Class<?>> missing = loader.tryLoadClass("org.example.DoesNotExist");
+        assertFalse(missing.isPresent());
+        // other tests may load classes concurrently, so can only check there were at least these hits
+        assertTrue(BrooklynClassLoadingContextSequential.getCacheHitCount() - hits >= 2);
+    }
+
+    @Test
+    public void testAddingLoaderDiscardsCachedLookups() {
+        BrooklynClassLoadingContextSequential loader = new BrooklynClassLoadingContextSequential(mgmt);
+        assertFalse(loader.tryLoadClass(BasicEntity.class.getName()).isPresent());
+
+        loader.addSecondary(JavaBrooklynClassLoadingContext.create(mgmt));
+        assertEquals(loader.tryLoadClass(BasicEntity.class.getName()).get(), BasicEntity.class);
+    }
+
+}
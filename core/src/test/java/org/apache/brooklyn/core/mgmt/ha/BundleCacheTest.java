@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.mgmt.ha;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+
+import org.apache.brooklyn.util.os.Os;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+public class BundleCacheTest {
+
+    // data URLs are not local, so are cached, but need no network
+    private static final String CONTENT = "pretend-bundle";
+    private static final String URL = "data:text/plain,"+CONTENT;
+    private static final String CHECKSUM = Hashing.sha256().hashString(CONTENT, Charsets.UTF_8).toString();
+
+    private File dir;
+
+    @BeforeMethod(alwaysRun=true)
+    public void setUp() {
+        dir = Os.newTempDir(getClass());
+    }
+
+    @AfterMethod(alwaysRun=true)
+    public void tearDown() {
+        if (dir!=null) Os.deleteRecursively(dir);
+    }
+
+    @Test
+    public void testDownloadStoredByChecksumAndReused() throws Exception {
+        File copy = new BundleCache(dir).getLocalCopy(URL, null);
+        assertEquals(Files.toString(copy, Charsets.UTF_8), CONTENT);
+        assertEquals(copy.getName(), CHECKSUM+".jar");
+
+        // a new cache on the same dir (e.g. after restart) uses the existing copy, by URL or by checksum
+        BundleCache cache2 = new BundleCache(dir);
+        assertEquals(cache2.getLocalCopy(URL, null), copy);
+        assertEquals(cache2.getLocalCopy("http://unreachable.example.com/bundle.jar", CHECKSUM), copy);
+    }
+
+    @Test
+    public void testDownloadVerifiedAgainstChecksum() throws Exception {
+        try {
+            new BundleCache(dir).getLocalCopy(URL, Hashing.sha256().hashString("other", Charsets.UTF_8).toString());
+            fail("should have failed checksum verification");
+        } catch (Exception e) {
+            if (!e.toString().contains("checksum")) throw e;
+        }
+        assertEquals(new File(dir, "content").list().length, 0);
+    }
+
+    @Test
+    public void testLocalUrlsNotCopied() throws Exception {
+        String url = "classpath://brooklyn/osgi/brooklyn-osgi-test-a_0.1.0.jar";
+        assertEquals(new BundleCache(dir).getLocalUrl(url, null), url);
+    }
+
+}
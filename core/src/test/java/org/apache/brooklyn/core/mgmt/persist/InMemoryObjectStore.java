@@ -18,6 +18,9 @@
  */
 package org.apache.brooklyn.core.mgmt.persist;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -29,10 +32,13 @@ import org.apache.brooklyn.core.mgmt.persist.PersistenceObjectStore;
 import org.apache.brooklyn.core.mgmt.persist.StoreObjectAccessorLocking;
 import org.apache.brooklyn.util.collections.MutableList;
 import org.apache.brooklyn.util.collections.MutableMap;
+import org.apache.brooklyn.util.exceptions.Exceptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Objects;
+import com.google.common.io.ByteSource;
 
 public class InMemoryObjectStore implements PersistenceObjectStore {
 
@@ -92,6 +98,11 @@ public class InMemoryObjectStore implements PersistenceObjectStore {
             return get().getBytes();
         }
         @Override
+        public InputStream getInputStream() {
+            String val = get();
+            return val==null ? null : new ByteArrayInputStream(val.getBytes(Charsets.UTF_8));
+        }
+        @Override
         public boolean exists() {
             synchronized (map) {
                 return map.containsKey(key);
@@ -105,6 +116,14 @@ public class InMemoryObjectStore implements PersistenceObjectStore {
             }
         }
         @Override
+        public void put(ByteSource val) {
+            try {
+                put(val==null ? "" : val.asCharSource(Charsets.UTF_8).read());
+            } catch (IOException e) {
+                throw Exceptions.propagate(e);
+            }
+        }
+        @Override
         public void append(String val) {
             synchronized (map) {
                 String val2 = get();
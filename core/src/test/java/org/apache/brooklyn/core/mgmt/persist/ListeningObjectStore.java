@@ -18,6 +18,9 @@
  */
 package org.apache.brooklyn.core.mgmt.persist;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.TimeoutException;
@@ -27,6 +30,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.apache.brooklyn.api.mgmt.ManagementContext;
 import org.apache.brooklyn.api.mgmt.ha.HighAvailabilityMode;
 import org.apache.brooklyn.util.collections.MutableList;
+import org.apache.brooklyn.util.exceptions.Exceptions;
 import org.apache.brooklyn.util.text.Strings;
 import org.apache.brooklyn.util.time.CountdownTimer;
 import org.apache.brooklyn.util.time.Duration;
@@ -34,6 +38,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
 
 public class ListeningObjectStore implements PersistenceObjectStore {
 
@@ -209,6 +215,19 @@ public class ListeningObjectStore implements PersistenceObjectStore {
             delegate.put(val);
         }
         @Override
+        public void put(ByteSource val) {
+            if (writesFailSilently)
+                return;
+
+            try {
+                for (ObjectStoreTransactionListener listener: listeners)
+                    listener.recordDataOut("writing "+path, (int) val.size());
+            } catch (IOException e) {
+                throw Exceptions.propagate(e);
+            }
+            delegate.put(val);
+        }
+        @Override
         public void append(String s) {
             if (writesFailSilently)
                 return;
@@ -241,6 +260,31 @@ public class ListeningObjectStore implements PersistenceObjectStore {
             return get().getBytes();
         }
         @Override
+        public InputStream getInputStream() {
+            for (ObjectStoreTransactionListener listener: listeners)
+                listener.recordQueryOut("requesting "+path, path.length());
+            InputStream in = delegate.getInputStream();
+            if (in==null) {
+                for (ObjectStoreTransactionListener listener: listeners)
+                    listener.recordDataIn("reading "+path, 0);
+                return null;
+            }
+            try {
+                // read fully so the listeners can be told the size
+                byte[] result;
+                try {
+                    result = ByteStreams.toByteArray(in);
+                } finally {
+                    in.close();
+                }
+                for (ObjectStoreTransactionListener listener: listeners)
+                    listener.recordDataIn("reading "+path, result.length);
+                return new ByteArrayInputStream(result);
+            } catch (IOException e) {
+                throw Exceptions.propagate(e);
+            }
+        }
+        @Override
         public Date getLastModifiedDate() {
             return delegate.getLastModifiedDate();
         }
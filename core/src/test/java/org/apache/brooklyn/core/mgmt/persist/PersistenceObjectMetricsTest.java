@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.mgmt.persist;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.brooklyn.api.mgmt.rebind.mementos.BrooklynMementoPersister.LookupContext;
+import org.apache.brooklyn.api.objs.BrooklynObjectType;
+import org.apache.brooklyn.core.mgmt.persist.PersistenceObjectMetrics.Histogram;
+import org.testng.annotations.Test;
+
+public class PersistenceObjectMetricsTest {
+
+    @Test
+    public void testHistogram() throws Exception {
+        Histogram h = new Histogram();
+        for (int i=1; i<=100; i++) h.add(i);
+        
+        assertEquals(h.getCount(), 100);
+        // 50th value lies in bucket [32,64)
+        assertEquals(h.getPercentileUpperBound(0.5), 64);
+        // capped at the max seen
+        assertEquals(h.getPercentileUpperBound(0.99), 100);
+        assertEquals(h.asMap().get("mean"), 50L);
+        assertEquals(h.asMap().get("max"), 100L);
+    }
+
+    @Test
+    public void testTracksLargestAndSlowestPerType() throws Exception {
+        PersistenceObjectMetrics metrics = new PersistenceObjectMetrics();
+        for (int i=0; i<PersistenceObjectMetrics.MAX_OBJECTS_TRACKED*2; i++) {
+            metrics.noteWrite(BrooklynObjectType.ENTITY, "e"+i, i, 1000, i*10);
+        }
+        metrics.noteWrite(BrooklynObjectType.POLICY, "p0", 5, 5, 5);
+        
+        List<Map<String, Object>> largest = metrics.getLargestObjects(BrooklynObjectType.ENTITY);
+        assertEquals(largest.size(), PersistenceObjectMetrics.MAX_OBJECTS_TRACKED);
+        assertEquals(largest.get(0).get("id"), "e"+(PersistenceObjectMetrics.MAX_OBJECTS_TRACKED*2-1));
+        assertEquals(metrics.getSlowestObjects(BrooklynObjectType.ENTITY).get(0).get("id"), "e"+(PersistenceObjectMetrics.MAX_OBJECTS_TRACKED*2-1));
+        assertEquals(metrics.getLargestObjects(BrooklynObjectType.POLICY).size(), 1);
+        
+        Map<String, Object> map = metrics.asMap();
+        assertTrue(map.containsKey("entity"), "map="+map);
+        assertTrue(map.containsKey("policy"), "map="+map);
+        assertFalse(map.containsKey("enricher"), "map="+map);
+    }
+
+    @Test
+    public void testRecordsRetries() throws Exception {
+        PersistenceObjectMetrics metrics = new PersistenceObjectMetrics();
+        metrics.noteSerializationRetry(BrooklynObjectType.FEED);
+        
+        @SuppressWarnings("unchecked")
+        Map<String, Object> feedMetrics = (Map<String, Object>) metrics.asMap().get("feed");
+        assertEquals(feedMetrics.get("serializationRetries"), 1L);
+    }
+
+    @Test
+    public void testRecordsDeserializationRetriesAgainstExpectedType() throws Exception {
+        PersistenceObjectMetrics metrics = new PersistenceObjectMetrics();
+        final AtomicInteger attempts = new AtomicInteger();
+        MementoSerializer<String> failsFirstTime = new MementoSerializer<String>() {
+            @Override public String toString(String memento) { return MementoSerializer.NOOP.toString(memento); }
+            @Override public void toStream(String memento, OutputStream out) { MementoSerializer.NOOP.toStream(memento, out); }
+            @Override public void setLookupContext(LookupContext lookupContext) {}
+            @Override public void unsetLookupContext() {}
+            @Override
+            public String fromString(String string) {
+                if (attempts.incrementAndGet()==1) throw new IllegalStateException("simulated failure");
+                return string;
+            }
+        };
+        RetryingMementoSerializer<String> serializer = new RetryingMementoSerializer<String>(failsFirstTime, 3, metrics);
+        
+        assertEquals(serializer.fromString("<entity/>", BrooklynObjectType.ENTITY), "<entity/>");
+        
+        @SuppressWarnings("unchecked")
+        Map<String, Object> entityMetrics = (Map<String, Object>) metrics.asMap().get("entity");
+        assertEquals(entityMetrics.get("deserializationRetries"), 1L);
+        assertFalse(metrics.asMap().containsKey("unknown"), "map="+metrics.asMap());
+    }
+}
@@ -23,8 +23,10 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Date;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.brooklyn.core.mgmt.persist.PersistenceObjectStore.StoreObjectAccessorWithLock;
 import org.apache.brooklyn.util.text.Identifiers;
@@ -35,6 +37,10 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 
@@ -70,6 +76,47 @@ public abstract class PersistenceStoreObjectAccessorWriterTestFixture {
         assertEquals(accessor.get(), "abc");
     }
 
+    @Test
+    public void testStreamsFile() throws Exception {
+        Assert.assertNull(accessor.getInputStream());
+        accessor.put(ByteSource.wrap("abc\u00e9".getBytes(Charsets.UTF_8)));
+        accessor.waitForCurrentWrites(TIMEOUT);
+
+        assertEquals(accessor.get(), "abc\u00e9");
+        InputStream in = accessor.getInputStream();
+        try {
+            assertEquals(new String(ByteStreams.toByteArray(in), Charsets.UTF_8), "abc\u00e9");
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void testWriteWaitsUntilStreamClosed() throws Exception {
+        accessor.put("abc");
+        accessor.waitForCurrentWrites(TIMEOUT);
+
+        InputStream in = accessor.getInputStream();
+        ListenableFuture<?> write;
+        try {
+            write = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    accessor.put("def");
+                }
+            });
+            Time.sleep(Duration.millis(100));
+            assertFalse(write.isDone());
+            assertEquals(new String(ByteStreams.toByteArray(in), Charsets.UTF_8), "abc");
+        } finally {
+            in.close();
+        }
+        write.get(TIMEOUT.toMilliseconds(), TimeUnit.MILLISECONDS);
+        // closing again does not release the lock twice
+        in.close();
+        assertEquals(accessor.get(), "def");
+    }
+
     @Test
     public void testExists() throws Exception {
         accessor.put("abc");
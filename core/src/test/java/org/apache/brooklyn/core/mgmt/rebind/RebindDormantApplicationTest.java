@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.mgmt.rebind;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+
+import org.apache.brooklyn.api.entity.Entity;
+import org.apache.brooklyn.api.entity.EntitySpec;
+import org.apache.brooklyn.api.mgmt.ha.MementoCopyMode;
+import org.apache.brooklyn.api.mgmt.rebind.mementos.BrooklynMementoRawData;
+import org.apache.brooklyn.config.ConfigKey;
+import org.apache.brooklyn.core.config.ConfigKeys;
+import org.apache.brooklyn.core.entity.factory.ApplicationBuilder;
+import org.apache.brooklyn.core.internal.BrooklynProperties;
+import org.apache.brooklyn.core.mgmt.BrooklynTags;
+import org.apache.brooklyn.core.mgmt.internal.EntityManagerInternal;
+import org.apache.brooklyn.core.mgmt.internal.LocalManagementContext;
+import org.apache.brooklyn.core.mgmt.persist.BrooklynPersistenceUtils;
+import org.apache.brooklyn.core.mgmt.rebind.DormantApplicationSupport.DormantApplication;
+import org.apache.brooklyn.core.test.entity.TestApplication;
+import org.apache.brooklyn.core.test.entity.TestApplicationNoEnrichersImpl;
+import org.apache.brooklyn.core.test.entity.TestEntity;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+
+public class RebindDormantApplicationTest extends RebindTestFixtureWithApp {
+
+    private static final ConfigKey<Entity> REF = ConfigKeys.newConfigKey(Entity.class, "test.ref");
+
+    @Override
+    protected LocalManagementContext createNewManagementContext(File mementoDir) {
+        if (mementoDir==null) mementoDir = this.mementoDir;
+        BrooklynProperties properties = BrooklynProperties.Factory.newEmpty();
+        properties.put(RebindManagerImpl.LAZY_REBIND_DORMANT_APPLICATIONS, true);
+        return RebindTestUtils.managementContextBuilder(mementoDir, classLoader)
+                .properties(properties)
+                .forLive(useLiveManagementContext())
+                .emptyCatalog(useEmptyCatalog())
+                .buildUnstarted();
+    }
+    
+    @Test
+    public void testDormantApplicationNotInstantiatedUntilLookedUp() throws Exception {
+        TestApplication dormantApp = ApplicationBuilder.newManagedApp(EntitySpec.create(TestApplication.class, TestApplicationNoEnrichersImpl.class)
+                .tag(BrooklynTags.DORMANT_APPLICATION), origManagementContext);
+        TestEntity dormantChild = dormantApp.createAndManageChild(EntitySpec.create(TestEntity.class)
+                .configure(TestEntity.CONF_NAME, "dormant-child"));
+        TestEntity activeChild = origApp.createAndManageChild(EntitySpec.create(TestEntity.class));
+        RebindTestUtils.waitForPersisted(dormantApp);
+        
+        rebind();
+        RebindManagerImpl rebindManager = (RebindManagerImpl) newManagementContext.getRebindManager();
+        
+        assertEquals(newApp.getId(), origApp.getId());
+        assertNotNull(newManagementContext.getEntityManager().getEntity(activeChild.getId()));
+        assertEquals(rebindManager.getDormantApplicationIds(), ImmutableSet.of(dormantApp.getId()));
+        assertTrue(rebindManager.isDormant(dormantChild.getId()));
+        assertFalse(isManaged(dormantApp.getId()));
+        assertFalse(isManaged(dormantChild.getId()));
+        
+        // looking up any entity in the dormant app wakes the whole app
+        Entity newDormantChild = newManagementContext.getEntityManager().getEntity(dormantChild.getId());
+        assertNotNull(newDormantChild);
+        assertEquals(newDormantChild.config().get(TestEntity.CONF_NAME), "dormant-child");
+        assertEquals(newDormantChild.getApplicationId(), dormantApp.getId());
+        assertTrue(isManaged(dormantApp.getId()));
+        assertTrue(rebindManager.getDormantApplicationIds().isEmpty());
+        assertFalse(rebindManager.isDormant(dormantChild.getId()));
+    }
+
+    @Test
+    public void testWakeDormantApplicationExplicitly() throws Exception {
+        TestApplication dormantApp = ApplicationBuilder.newManagedApp(EntitySpec.create(TestApplication.class, TestApplicationNoEnrichersImpl.class)
+                .tag(BrooklynTags.DORMANT_APPLICATION), origManagementContext);
+        RebindTestUtils.waitForPersisted(dormantApp);
+        
+        rebind();
+        RebindManagerImpl rebindManager = (RebindManagerImpl) newManagementContext.getRebindManager();
+        
+        assertEquals(rebindManager.wakeDormantApplication(dormantApp.getId()).getId(), dormantApp.getId());
+        assertTrue(newManagementContext.getApplications().contains(newManagementContext.getEntityManager().getEntity(dormantApp.getId())));
+        // already woken
+        assertEquals(rebindManager.wakeDormantApplication(dormantApp.getId()), null);
+    }
+
+    @Test
+    public void testDormantApplicationSummarizedAndKeptInLocalState() throws Exception {
+        TestApplication dormantApp = ApplicationBuilder.newManagedApp(EntitySpec.create(TestApplication.class, TestApplicationNoEnrichersImpl.class)
+                .displayName("my-dormant-app")
+                .tag(BrooklynTags.DORMANT_APPLICATION), origManagementContext);
+        TestEntity dormantChild = dormantApp.createAndManageChild(EntitySpec.create(TestEntity.class));
+        RebindTestUtils.waitForPersisted(dormantApp);
+        
+        rebind();
+        RebindManagerImpl rebindManager = (RebindManagerImpl) newManagementContext.getRebindManager();
+        
+        DormantApplication summary = Iterables.getOnlyElement(rebindManager.getDormantApplications());
+        assertEquals(summary.getId(), dormantApp.getId());
+        assertEquals(summary.getDisplayName(), "my-dormant-app");
+        assertEquals(summary.getType(), TestApplicationNoEnrichersImpl.class.getName());
+        
+        // writing out the state in full, e.g. on demotion or backup, must not drop the dormant app
+        BrooklynMementoRawData state = BrooklynPersistenceUtils.newStateMemento(newManagementContext, MementoCopyMode.LOCAL);
+        assertTrue(state.getEntities().containsKey(dormantApp.getId()), "entities="+state.getEntities().keySet());
+        assertTrue(state.getEntities().containsKey(dormantChild.getId()), "entities="+state.getEntities().keySet());
+        assertTrue(state.getEntities().containsKey(origApp.getId()), "entities="+state.getEntities().keySet());
+        assertTrue(rebindManager.isDormant(dormantApp.getId()));
+    }
+
+    @Test
+    public void testApplicationReferredToByActiveEntityNotKeptDormant() throws Exception {
+        TestApplication referredApp = ApplicationBuilder.newManagedApp(EntitySpec.create(TestApplication.class, TestApplicationNoEnrichersImpl.class)
+                .tag(BrooklynTags.DORMANT_APPLICATION), origManagementContext);
+        TestEntity referredChild = referredApp.createAndManageChild(EntitySpec.create(TestEntity.class));
+        TestApplication dormantApp = ApplicationBuilder.newManagedApp(EntitySpec.create(TestApplication.class, TestApplicationNoEnrichersImpl.class)
+                .tag(BrooklynTags.DORMANT_APPLICATION), origManagementContext);
+        TestEntity activeChild = origApp.createAndManageChild(EntitySpec.create(TestEntity.class)
+                .configure(REF, referredChild));
+        RebindTestUtils.waitForPersisted(origApp);
+        RebindTestUtils.waitForPersisted(referredApp);
+        RebindTestUtils.waitForPersisted(dormantApp);
+        
+        rebind();
+        RebindManagerImpl rebindManager = (RebindManagerImpl) newManagementContext.getRebindManager();
+        
+        assertEquals(rebindManager.getDormantApplicationIds(), ImmutableSet.of(dormantApp.getId()));
+        assertTrue(isManaged(referredChild.getId()));
+        Entity newActiveChild = newManagementContext.getEntityManager().getEntity(activeChild.getId());
+        assertEquals(newActiveChild.config().get(REF).getId(), referredChild.getId());
+    }
+
+    /** checks without looking up the entity, as that would wake it */
+    private boolean isManaged(String entityId) {
+        return Iterables.contains(((EntityManagerInternal)newManagementContext.getEntityManager()).getEntityIds(), entityId);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.objs;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.brooklyn.api.entity.EntityInitializer;
+import org.apache.brooklyn.api.entity.EntityLocal;
+import org.apache.brooklyn.api.entity.EntitySpec;
+import org.apache.brooklyn.api.policy.PolicySpec;
+import org.apache.brooklyn.config.ConfigKey;
+import org.apache.brooklyn.core.config.ConfigKeys;
+import org.apache.brooklyn.core.test.entity.TestEntity;
+import org.apache.brooklyn.core.test.policy.TestPolicy;
+import org.apache.brooklyn.util.collections.MutableList;
+import org.apache.brooklyn.util.collections.MutableMap;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Iterables;
+
+public class BrooklynObjectSpecsTest {
+
+    private static final ConfigKey<Object> OBJECT = ConfigKeys.newConfigKey(Object.class, "test.object");
+
+    @Test
+    public void testDeepCopySharesNoCollectionsOrNestedSpecs() throws Exception {
+        EntitySpec<TestEntity> spec = EntitySpec.create(TestEntity.class)
+            .configure(OBJECT, MutableList.of("a"))
+            .configure("flag", MutableMap.of("k", MutableList.of("v")))
+            .child(EntitySpec.create(TestEntity.class).configure(TestEntity.CONF_NAME, "child"))
+            .policy(PolicySpec.create(TestPolicy.class).configure("policyFlag", MutableList.of("p")));
+
+        EntitySpec<TestEntity> copy = BrooklynObjectSpecs.deepCopy(spec).get();
+
+        assertEquals(copy.getType(), TestEntity.class);
+        assertEquals(copy.getConfig().get(OBJECT), spec.getConfig().get(OBJECT));
+        assertNotSame(copy.getConfig().get(OBJECT), spec.getConfig().get(OBJECT));
+        assertEquals(copy.getFlags().get("flag"), spec.getFlags().get("flag"));
+        assertNotSame(((Map<?,?>)copy.getFlags().get("flag")).get("k"), ((Map<?,?>)spec.getFlags().get("flag")).get("k"));
+        EntitySpec<?> childCopy = Iterables.getOnlyElement(copy.getChildren());
+        assertNotSame(childCopy, Iterables.getOnlyElement(spec.getChildren()));
+        assertEquals(childCopy.getConfig().get(TestEntity.CONF_NAME), "child");
+        PolicySpec<?> policyCopy = Iterables.getOnlyElement(copy.getPolicySpecs());
+        assertNotSame(policyCopy, Iterables.getOnlyElement(spec.getPolicySpecs()));
+        assertNotSame(policyCopy.getFlags().get("policyFlag"), Iterables.getOnlyElement(spec.getPolicySpecs()).getFlags().get("policyFlag"));
+
+        // customising the copy leaves the original untouched
+        childCopy.configure(TestEntity.CONF_NAME, "changed");
+        copy.configure(TestEntity.CONF_NAME, "changed");
+        assertEquals(Iterables.getOnlyElement(spec.getChildren()).getConfig().get(TestEntity.CONF_NAME), "child");
+        assertFalse(spec.getConfig().containsKey(TestEntity.CONF_NAME));
+    }
+
+    @Test
+    public void testDeepCopySharesImmutableValuesAndCopiesSerializableOnes() throws Exception {
+        RecordingInitializer initializer = new RecordingInitializer();
+        EntitySpec<TestEntity> spec = EntitySpec.create(TestEntity.class)
+            .configure(TestEntity.CONF_NAME, "name")
+            .addInitializer(initializer);
+
+        EntitySpec<TestEntity> copy = BrooklynObjectSpecs.deepCopy(spec).get();
+
+        assertSame(copy.getConfig().get(TestEntity.CONF_NAME), spec.getConfig().get(TestEntity.CONF_NAME));
+        EntityInitializer initializerCopy = Iterables.getOnlyElement(copy.getInitializers());
+        assertNotSame(initializerCopy, initializer);
+        assertEquals(((RecordingInitializer)initializerCopy).applied, initializer.applied);
+    }
+
+    @Test
+    public void testDeepCopyAbsentIfValueCannotBeCopied() throws Exception {
+        EntitySpec<TestEntity> spec = EntitySpec.create(TestEntity.class)
+            .child(EntitySpec.create(TestEntity.class).configure(OBJECT, new Object()));
+
+        assertFalse(BrooklynObjectSpecs.deepCopy(spec).isPresent());
+    }
+
+    public static class RecordingInitializer implements EntityInitializer, Serializable {
+        private static final long serialVersionUID = 1L;
+        final List<String> applied = MutableList.of("initial");
+
+        @Override
+        public void apply(EntityLocal entity) {
+            applied.add(entity.getId());
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.sensor;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import org.apache.brooklyn.api.sensor.AttributeSensor;
+import org.apache.brooklyn.api.sensor.AttributeSensor.SensorPersistenceMode;
+import org.testng.annotations.Test;
+
+public class SensorsTest {
+
+    @Test
+    public void testInternSharesSensorsOfSameNameAndType() throws Exception {
+        AttributeSensor<String> sensor = Sensors.intern(Sensors.newStringSensor("sensorsTest.intern.same", "my descr"));
+        AttributeSensor<String> sensor2 = Sensors.intern(Sensors.newStringSensor("sensorsTest.intern.same", "my descr"));
+        
+        assertSame(sensor2, sensor);
+    }
+
+    @Test
+    public void testInternDoesNotShareSensorsOfDifferentType() throws Exception {
+        AttributeSensor<String> sensor = Sensors.intern(Sensors.newStringSensor("sensorsTest.intern.type", "my descr"));
+        AttributeSensor<Integer> sensor2 = Sensors.intern(Sensors.newIntegerSensor("sensorsTest.intern.type", "my descr"));
+        
+        assertNotSame(sensor2, sensor);
+        assertEquals(sensor2.getType(), Integer.class);
+    }
+
+    @Test
+    public void testInternDoesNotShareSensorsOfDifferentPersistenceMode() throws Exception {
+        AttributeSensor<String> sensor = Sensors.intern(Sensors.newStringSensor("sensorsTest.intern.persistence"));
+        AttributeSensor<String> sensor2 = Sensors.intern(Sensors.builder(String.class, "sensorsTest.intern.persistence")
+                .persistence(SensorPersistenceMode.NONE)
+                .build());
+        
+        assertNotSame(sensor2, sensor);
+        assertEquals(sensor2.getPersistenceMode(), SensorPersistenceMode.NONE);
+    }
+}
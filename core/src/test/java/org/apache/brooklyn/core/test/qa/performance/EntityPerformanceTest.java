@@ -161,4 +161,38 @@ public class EntityPerformanceTest extends AbstractPerformanceTest {
                         }
                     }}));
     }
+
+    @Test(groups={"Integration", "Acceptance"})
+    public void testGetAttributeViaProxy() {
+        int numIterations = numIterations() * 100;
+        double minRatePerSec = 100000 * PERFORMANCE_EXPECTATION;
+        entity.sensors().set(TestEntity.SEQUENCE, 1);
+        
+        measure(PerformanceTestDescriptor.create()
+                .summary("EntityPerformanceTest.testGetAttributeViaProxy")
+                .iterations(numIterations)
+                .minAcceptablePerSecond(minRatePerSec)
+                .job(new Runnable() {
+                    public void run() {
+                        entity.getAttribute(TestEntity.SEQUENCE);
+                    }}));
+    }
+    
+    /** for comparison with {@link #testGetAttributeViaProxy()}, to show the overhead of the proxy */
+    @Test(groups={"Integration", "Acceptance"})
+    public void testGetAttributeDirect() {
+        int numIterations = numIterations() * 100;
+        double minRatePerSec = 100000 * PERFORMANCE_EXPECTATION;
+        entity.sensors().set(TestEntity.SEQUENCE, 1);
+        final TestEntity delegate = (TestEntity) Entities.deproxy(entity);
+        
+        measure(PerformanceTestDescriptor.create()
+                .summary("EntityPerformanceTest.testGetAttributeDirect")
+                .iterations(numIterations)
+                .minAcceptablePerSecond(minRatePerSec)
+                .job(new Runnable() {
+                    public void run() {
+                        delegate.getAttribute(TestEntity.SEQUENCE);
+                    }}));
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.core.test.qa.performance;
+
+import java.util.List;
+
+import org.apache.brooklyn.core.entity.lifecycle.Lifecycle;
+import org.apache.brooklyn.test.performance.PerformanceTestDescriptor;
+import org.apache.brooklyn.util.core.flags.TypeCoercions;
+import org.apache.brooklyn.util.time.Duration;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.reflect.TypeToken;
+
+public class TypeCoercionsPerformanceTest extends AbstractPerformanceTest {
+
+    @Test(groups={"Integration", "Acceptance"})
+    public void testCoerceStringToPrimitive() {
+        int numIterations = 1000000;
+        double minRatePerSec = 1000000 * PERFORMANCE_EXPECTATION;
+        measure(PerformanceTestDescriptor.create()
+                .summary("TypeCoercionsPerformanceTest.stringToPrimitive")
+                .iterations(numIterations)
+                .minAcceptablePerSecond(minRatePerSec)
+                .job(new Runnable() {
+                    @Override public void run() {
+                        TypeCoercions.coerce("123", Integer.class);
+                    }}));
+    }
+
+    @Test(groups={"Integration", "Acceptance"})
+    public void testCoerceUsingRegistry() {
+        int numIterations = 1000000;
+        double minRatePerSec = 100000 * PERFORMANCE_EXPECTATION;
+        measure(PerformanceTestDescriptor.create()
+                .summary("TypeCoercionsPerformanceTest.registry")
+                .iterations(numIterations)
+                .minAcceptablePerSecond(minRatePerSec)
+                .job(new Runnable() {
+                    @Override public void run() {
+                        TypeCoercions.coerce("1m", Duration.class);
+                    }}));
+    }
+
+    @Test(groups={"Integration", "Acceptance"})
+    public void testCoerceToEnum() {
+        int numIterations = 1000000;
+        double minRatePerSec = 100000 * PERFORMANCE_EXPECTATION;
+        measure(PerformanceTestDescriptor.create()
+                .summary("TypeCoercionsPerformanceTest.enum")
+                .iterations(numIterations)
+                .minAcceptablePerSecond(minRatePerSec)
+                .job(new Runnable() {
+                    @Override public void run() {
+                        TypeCoercions.coerce("running", Lifecycle.class);
+                    }}));
+    }
+
+    @Test(groups={"Integration", "Acceptance"})
+    public void testCoerceGenericList() {
+        int numIterations = 100000;
+        double minRatePerSec = 10000 * PERFORMANCE_EXPECTATION;
+        final List<String> val = ImmutableList.of("1", "2", "3");
+        final TypeToken<List<Integer>> type = new TypeToken<List<Integer>>() {};
+        measure(PerformanceTestDescriptor.create()
+                .summary("TypeCoercionsPerformanceTest.genericList")
+                .iterations(numIterations)
+                .minAcceptablePerSecond(minRatePerSec)
+                .job(new Runnable() {
+                    @Override public void run() {
+                        TypeCoercions.coerce(val, type);
+                    }}));
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.brooklyn.feed.http;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
+import java.net.URI;
 import java.net.URL;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -315,6 +316,73 @@ public class HttpFeedTest extends BrooklynAppUnitTestSupport {
         assertSensorEventually(SENSOR_STRING, "error", TIMEOUT_MS);
     }
 
+    @Test
+    public void testPollsAreNotSkippedByDefaultWhenHostBusy() throws Exception {
+        HttpPollingEngine engine = HttpPollingEngine.get(mgmt);
+        URI uri = baseUrl.toURI();
+        // as if many polls were already in flight
+        for (int i = 0; i < 100; i++) {
+            assertTrue(engine.tryAcquire(uri, null));
+        }
+
+        feed = HttpFeed.builder()
+                .entity(entity)
+                .baseUrl(baseUrl)
+                .poll(HttpPollConfig.forSensor(SENSOR_INT)
+                        .period(100)
+                        .onSuccess(HttpValueFunctions.responseCode()))
+                .build();
+
+        assertSensorEventually(SENSOR_INT, (Integer)200, TIMEOUT_MS);
+    }
+
+    @Test
+    public void testRepeatedlySkippedPollReportedAsFailure() throws Exception {
+        HttpPollingEngine engine = HttpPollingEngine.get(mgmt);
+        URI uri = baseUrl.toURI();
+        assertTrue(engine.tryAcquire(uri, 1));
+
+        feed = HttpFeed.builder()
+                .entity(entity)
+                .baseUrl(baseUrl)
+                .poll(HttpPollConfig.forSensor(SENSOR_INT)
+                        .period(100)
+                        .maxConcurrentPerHost(1)
+                        .onSuccess(HttpValueFunctions.responseCode())
+                        .onException(Functions.constant(-1)))
+                .build();
+        assertSensorEventually(SENSOR_INT, -1, TIMEOUT_MS);
+
+        engine.release(uri);
+        assertSensorEventually(SENSOR_INT, (Integer)200, TIMEOUT_MS);
+    }
+
+    @Test
+    public void testPollsWithDifferentLimitsPerHostAreNotGrouped() throws Exception {
+        HttpPollingEngine engine = HttpPollingEngine.get(mgmt);
+        URI uri = baseUrl.toURI();
+        assertTrue(engine.tryAcquire(uri, 1));
+
+        feed = HttpFeed.builder()
+                .entity(entity)
+                .baseUrl(baseUrl)
+                .poll(HttpPollConfig.forSensor(SENSOR_INT)
+                        .period(100)
+                        .maxConcurrentPerHost(1)
+                        .onSuccess(HttpValueFunctions.responseCode())
+                        .onException(Functions.constant(-1)))
+                .poll(HttpPollConfig.forSensor(SENSOR_STRING)
+                        .period(100)
+                        .onSuccess(Functions.constant("polled")))
+                .build();
+        // the same request, but only the poll which asked to be skipped is
+        assertSensorEventually(SENSOR_STRING, "polled", TIMEOUT_MS);
+        assertSensorEventually(SENSOR_INT, -1, TIMEOUT_MS);
+
+        engine.release(uri);
+        assertSensorEventually(SENSOR_INT, (Integer)200, TIMEOUT_MS);
+    }
+
     @Test
     public void testPollsMulti() throws Exception {
         newMultiFeed(baseUrl);
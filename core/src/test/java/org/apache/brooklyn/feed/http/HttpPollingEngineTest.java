@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.feed.http;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.net.URI;
+
+import org.apache.brooklyn.core.entity.Entities;
+import org.apache.brooklyn.core.test.entity.LocalManagementContextForTests;
+import org.apache.brooklyn.test.Asserts;
+import org.apache.brooklyn.util.core.http.BetterMockWebServer;
+import org.apache.brooklyn.util.http.HttpTool;
+import org.apache.brooklyn.util.http.HttpToolResponse;
+import org.apache.brooklyn.util.time.Duration;
+import org.apache.http.auth.Credentials;
+import org.apache.http.client.HttpClient;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.mockwebserver.MockResponse;
+
+public class HttpPollingEngineTest {
+
+    private HttpPollingEngine engine;
+    private BetterMockWebServer server;
+
+    @BeforeMethod(alwaysRun=true)
+    public void setUp() throws Exception {
+        engine = new HttpPollingEngine(10, 2);
+    }
+
+    @AfterMethod(alwaysRun=true)
+    public void tearDown() throws Exception {
+        if (engine != null) engine.shutdown();
+        if (server != null) server.shutdown();
+    }
+
+    @Test
+    public void testLimitsPollsInFlightPerHost() throws Exception {
+        URI uri1 = URI.create("http://host1:8080/a");
+        URI uri1b = URI.create("http://host1:8080/b");
+        URI uri2 = URI.create("http://host2:8080/a");
+
+        assertTrue(engine.tryAcquire(uri1, null));
+        assertFalse(engine.tryAcquire(uri1b, 1), "poll's own limit should apply");
+        assertTrue(engine.tryAcquire(uri1b, 5));
+        assertFalse(engine.tryAcquire(uri1, null), "engine's limit should apply");
+        assertTrue(engine.tryAcquire(uri2, null));
+        assertEquals(engine.getInFlight(uri1), 2);
+
+        engine.release(uri1);
+        assertEquals(engine.getInFlight(uri1), 1);
+        assertTrue(engine.tryAcquire(uri1, null));
+    }
+
+    @Test
+    public void testNoLimitPerHostByDefault() throws Exception {
+        HttpPollingEngine unlimited = new HttpPollingEngine(10, null);
+        try {
+            URI uri = URI.create("http://host1:8080/a");
+            for (int i = 0; i < 20; i++) {
+                assertTrue(unlimited.tryAcquire(uri, null));
+            }
+            assertFalse(unlimited.tryAcquire(uri, 20), "poll's own limit should apply");
+        } finally {
+            unlimited.shutdown();
+        }
+
+        LocalManagementContextForTests mgmt = new LocalManagementContextForTests();
+        try {
+            assertNull(mgmt.getConfig().getConfig(HttpPollingEngine.MAX_CONNECTIONS_PER_HOST));
+        } finally {
+            Entities.destroyAll(mgmt);
+        }
+    }
+
+    @Test
+    public void testClientsShareConnections() throws Exception {
+        server = BetterMockWebServer.newInstanceLocalhost();
+        for (int i = 0; i < 2; i++) {
+            server.enqueue(new MockResponse().setResponseCode(200).setBody("ok"));
+        }
+        server.play();
+        URI uri = server.getUrl("/").toURI();
+
+        HttpClient client1 = engine.newClient(uri, Optional.<Credentials>absent(), Duration.TEN_SECONDS, Duration.TEN_SECONDS);
+        HttpClient client2 = engine.newClient(uri, Optional.<Credentials>absent(), null, null);
+        HttpToolResponse response1 = HttpTool.httpGet(client1, uri, ImmutableMap.<String,String>of());
+        HttpToolResponse response2 = HttpTool.httpGet(client2, uri, ImmutableMap.<String,String>of());
+        assertEquals(response1.getResponseCode(), 200);
+        assertEquals(response2.getResponseCode(), 200);
+
+        // the second request was the second on the first connection
+        server.takeRequest();
+        assertEquals(server.takeRequest().getSequenceNumber(), 1);
+    }
+
+    @Test
+    public void testEngineOfManagementContextShutDownWhenItTerminates() throws Exception {
+        LocalManagementContextForTests mgmt = new LocalManagementContextForTests();
+        HttpPollingEngine mgmtEngine;
+        try {
+            mgmtEngine = HttpPollingEngine.get(mgmt);
+            assertSame(HttpPollingEngine.get(mgmt), mgmtEngine);
+        } finally {
+            Entities.destroyAll(mgmt);
+        }
+
+        HttpClient client = mgmtEngine.newClient(URI.create("http://localhost:8080/"), Optional.<Credentials>absent(), null, null);
+        try {
+            HttpTool.httpGet(client, URI.create("http://localhost:8080/"), ImmutableMap.<String,String>of());
+            Asserts.shouldHaveFailedPreviously("engine should have been shut down");
+        } catch (Exception e) {
+            Asserts.expectedFailureContains(e, "shut down");
+        }
+    }
+
+}
@@ -0,0 +1,395 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.feed.ssh;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.brooklyn.test.Asserts;
+import org.apache.brooklyn.util.collections.MutableList;
+import org.apache.brooklyn.util.core.config.ConfigBag;
+import org.apache.brooklyn.util.core.internal.ssh.SshTool;
+import org.apache.brooklyn.util.core.internal.ssh.process.ProcessTool;
+import org.apache.brooklyn.util.exceptions.Exceptions;
+import org.apache.brooklyn.util.time.Duration;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+public class SshPollAggregatorTest {
+
+    private ExecutorService executor;
+    private final Set<Thread> pollThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+
+    @BeforeMethod(alwaysRun=true)
+    public void setUp() throws Exception {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod(alwaysRun=true)
+    public void tearDown() throws Exception {
+        if (executor != null) executor.shutdownNow();
+        pollThreads.clear();
+    }
+
+    @Test
+    public void testParsesFramesAfterOtherOutput() throws Exception {
+        String output = "login banner\n"
+                + "MARK 0 3 3 4\nhi\nerr\n"
+                + "MARK 1 0 0 0\n";
+        List<SshPollValue> results = SshPollAggregator.parse(null, "MARK", output.getBytes(), 2);
+
+        assertEquals(results.size(), 2);
+        assertValue(results.get(0), 3, "hi\n", "err\n");
+        assertValue(results.get(1), 0, "", "");
+    }
+
+    @Test
+    public void testParsesOutputContainingMarker() throws Exception {
+        String stdout = "MARK 1 é \n";
+        // lengths are in bytes, not chars
+        String output = "MARK 0 0 "+stdout.getBytes().length+" 0\n" + stdout + "MARK 1 1 2 0\nok";
+        List<SshPollValue> results = SshPollAggregator.parse(null, "MARK", output.getBytes(), 2);
+
+        assertValue(results.get(0), 0, stdout, "");
+        assertValue(results.get(1), 1, "ok", "");
+    }
+
+    @Test
+    public void testMissingOrIncompleteFramesAreNull() throws Exception {
+        // no exit status for the first, e.g. if killed; and the second is cut short
+        String output = "MARK 0  0 0\nMARK 1 0 10 0\nshort";
+        List<SshPollValue> results = SshPollAggregator.parse(null, "MARK", output.getBytes(), 3);
+
+        assertEquals(results.size(), 3);
+        assertNull(results.get(0));
+        assertNull(results.get(1));
+        assertNull(results.get(2));
+    }
+
+    @Test
+    public void testTimedOutFramesAreNull() throws Exception {
+        String output = "MARK 1 0 3 0\nok\nMARK 0 timeout 4 0\npart";
+        List<SshPollValue> results = SshPollAggregator.parse(null, "MARK", output.getBytes(), 2);
+
+        assertNull(results.get(0));
+        assertValue(results.get(1), 0, "ok\n", "");
+    }
+
+    @Test
+    public void testFramesPassedOnAsSoonAsComplete() throws Exception {
+        final List<Object> frames = MutableList.of();
+        SshPollAggregator.FrameParser parser = new SshPollAggregator.FrameParser("MARK", 2) {
+            @Override
+            protected void onFrame(int index, Integer exitStatus, byte[] out, byte[] err) {
+                frames.add(index);
+                frames.add(exitStatus);
+                frames.add(new String(out));
+            }
+        };
+        parser.write("banner\nMARK 1 0 3".getBytes());
+        parser.write(" 0\nab".getBytes());
+        assertEquals(frames, ImmutableList.of());
+        parser.write("c".getBytes());
+        assertEquals(frames, ImmutableList.<Object>of(1, 0, "abc"));
+        parser.write("MARK 0 timeout 0 0\n".getBytes());
+        assertEquals(frames.subList(3, 6), MutableList.<Object>of(0, null, ""));
+    }
+
+    @Test
+    public void testPollsArrivingDuringExecGoTogetherInNextOne() throws Exception {
+        FakeAggregator aggregator = new FakeAggregator(1);
+        Future<SshPollValue> first = execInBackground(aggregator, "echo first");
+        assertTrue(aggregator.firstStarted.await(30, TimeUnit.SECONDS));
+        Future<SshPollValue> second = execInBackground(aggregator, "echo second");
+        Future<SshPollValue> third = execInBackground(aggregator, "echo third");
+        assertQueuedEventually(aggregator, 2);
+
+        aggregator.releaseFirst.countDown();
+
+        assertValue(first.get(30, TimeUnit.SECONDS), 0, "first\n", "");
+        assertValue(second.get(30, TimeUnit.SECONDS), 0, "second\n", "");
+        assertValue(third.get(30, TimeUnit.SECONDS), 0, "third\n", "");
+        assertEquals(aggregator.execs.size(), 2, "execs="+aggregator.execs);
+        String batch = Joiner.on("\n").join(aggregator.execs.get(1));
+        assertTrue(batch.contains("echo second") && batch.contains("echo third"), batch);
+        assertEquals(aggregator.getQueuedCount(false), 0);
+    }
+
+    @Test
+    public void testEachPollReturnsAsItsCommandFinishesAndOnlySlowOneFails() throws Exception {
+        FakeAggregator aggregator = new FakeAggregator(1);
+        Future<SshPollValue> first = execInBackground(aggregator, "echo first");
+        assertTrue(aggregator.firstStarted.await(30, TimeUnit.SECONDS));
+        Future<SshPollValue> quick = execInBackground(aggregator, "echo quick");
+        Future<SshPollValue> slow = execInBackground(aggregator, "hang");
+        assertQueuedEventually(aggregator, 2);
+
+        aggregator.releaseFirst.countDown();
+        assertValue(first.get(30, TimeUnit.SECONDS), 0, "first\n", "");
+
+        // returned while the slow command is still running
+        assertValue(quick.get(30, TimeUnit.SECONDS), 0, "quick\n", "");
+        assertFalse(slow.isDone());
+
+        aggregator.releaseHung.countDown();
+        try {
+            slow.get(30, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            IOException cause = Exceptions.getFirstThrowableOfType(e, IOException.class);
+            assertTrue(cause != null && cause.getMessage().contains("timed out"), "e="+e);
+        }
+
+        // execs are run by the aggregator, so no poll waits for the others' commands after its own has finished
+        for (Thread thread : aggregator.execThreads) {
+            assertFalse(pollThreads.contains(thread), "exec run by polling thread "+thread);
+        }
+    }
+
+    @Test
+    public void testNextExecStartsWithoutWaitingWhenUnderLimit() throws Exception {
+        final FakeAggregator aggregator = new FakeAggregator(2);
+        Future<SshPollValue> first = execInBackground(aggregator, "echo first");
+        assertTrue(aggregator.firstStarted.await(30, TimeUnit.SECONDS));
+
+        // a second exec starts while the first is still running
+        Future<SshPollValue> second = execInBackground(aggregator, "hang");
+        Future<SshPollValue> third = execInBackground(aggregator, "echo third");
+        Asserts.succeedsEventually(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (aggregator.execs) {
+                    assertEquals(aggregator.execs.size(), 2);
+                }
+            }
+        });
+        // but no more than the limit
+        assertQueuedEventually(aggregator, 1);
+        assertFalse(first.isDone());
+
+        aggregator.releaseFirst.countDown();
+        assertValue(first.get(30, TimeUnit.SECONDS), 0, "first\n", "");
+        assertValue(third.get(30, TimeUnit.SECONDS), 0, "third\n", "");
+        assertFalse(second.isDone());
+        assertEquals(aggregator.execs.size(), 3, "execs="+aggregator.execs);
+
+        aggregator.releaseHung.countDown();
+        try {
+            second.get(30, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(Exceptions.getFirstThrowableOfType(e, IOException.class) != null, "e="+e);
+        }
+    }
+
+    @Test
+    public void testInvalidEnvNamesRejected() throws Exception {
+        for (String name : ImmutableList.of("", "1ABC", "A-B", "A B", "X=1;rm -rf /", "$(id)")) {
+            try {
+                SshPollAggregator.toScript("MARK", ImmutableList.of("echo hi"),
+                        ImmutableList.<Map<String, String>>of(ImmutableMap.of(name, "val")), Duration.ONE_MINUTE);
+                fail("accepted env name '"+name+"'");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        List<String> script = SshPollAggregator.toScript("MARK", ImmutableList.of("echo hi"),
+                ImmutableList.<Map<String, String>>of(ImmutableMap.of("_my_Var1", "val")), Duration.ONE_MINUTE);
+        assertTrue(script.contains("export _my_Var1=\"val\""), "script="+script);
+    }
+
+    @Test
+    public void testInvalidEnvNameFailsOnlyItsOwnPoll() throws Exception {
+        FakeAggregator aggregator = new FakeAggregator(1);
+        try {
+            aggregator.exec("echo hi", ImmutableMap.of("A;B", "val"), false);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(aggregator.getQueuedCount(false), 0);
+        assertTrue(aggregator.execs.isEmpty(), "execs="+aggregator.execs);
+    }
+
+    @Test
+    public void testOutputDecodedAsUtf8() throws Exception {
+        byte[] stdout = "héllo ✓".getBytes(Charsets.UTF_8);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(("MARK 0 0 "+stdout.length+" 0\n").getBytes(Charsets.UTF_8));
+        output.write(stdout);
+        List<SshPollValue> results = SshPollAggregator.parse(null, "MARK", output.toByteArray(), 1);
+
+        assertValue(results.get(0), 0, "héllo ✓", "");
+    }
+
+    @Test(groups="Integration")
+    public void testScriptRunsEachCommandWithItsOwnEnvAndOutput() throws Exception {
+        List<String> script = SshPollAggregator.toScript("MARK",
+                ImmutableList.of("echo \"$GREETING\"; echo oops >&2; exit 3", "printf \"$GREETING\"", "exit 0"),
+                ImmutableList.<Map<String, String>>of(ImmutableMap.of("GREETING", "hello \"$world\"!"), ImmutableMap.of("GREETING", "bye"),
+                        ImmutableMap.<String, String>of()),
+                Duration.ONE_MINUTE);
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        int exitStatus = new ProcessTool().execScript(
+                ConfigBag.newInstance().configure(SshTool.PROP_OUT_STREAM, stdout).getAllConfig(),
+                script, ImmutableMap.<String, String>of());
+        List<SshPollValue> results = SshPollAggregator.parse(null, "MARK", stdout.toByteArray(), 3);
+
+        assertEquals(exitStatus, 0);
+        assertValue(results.get(0), 3, "hello \"$world\"!\n", "oops\n");
+        assertValue(results.get(1), 0, "bye", "");
+        assertValue(results.get(2), 0, "", "");
+    }
+
+    @Test(groups="Integration")
+    public void testScriptKillsCommandsWhichTimeOutAndPrintsOthersFirst() throws Exception {
+        List<String> script = SshPollAggregator.toScript("MARK",
+                ImmutableList.of("sleep 60; echo late", "echo quick"),
+                ImmutableList.<Map<String, String>>of(ImmutableMap.<String, String>of(), ImmutableMap.<String, String>of()),
+                Duration.ONE_SECOND);
+        final List<Integer> order = MutableList.of();
+        final List<Integer> statuses = MutableList.of();
+        SshPollAggregator.FrameParser stdout = new SshPollAggregator.FrameParser("MARK", 2) {
+            @Override
+            protected void onFrame(int index, Integer exitStatus, byte[] out, byte[] err) {
+                order.add(index);
+                statuses.add(exitStatus);
+            }
+        };
+        long start = System.currentTimeMillis();
+        int exitStatus = new ProcessTool().execScript(
+                ConfigBag.newInstance().configure(SshTool.PROP_OUT_STREAM, stdout).getAllConfig(),
+                script, ImmutableMap.<String, String>of());
+
+        assertEquals(exitStatus, 0);
+        assertTrue(System.currentTimeMillis() - start < 30*1000, "took "+(System.currentTimeMillis() - start)+"ms");
+        assertEquals(order, ImmutableList.of(1, 0));
+        assertEquals(statuses, MutableList.of(0, null));
+    }
+
+    private Future<SshPollValue> execInBackground(final SshPollAggregator aggregator, final String command) {
+        return executor.submit(new Callable<SshPollValue>() {
+            @Override
+            public SshPollValue call() throws Exception {
+                pollThreads.add(Thread.currentThread());
+                return aggregator.exec(command, null, false);
+            }
+        });
+    }
+
+    private static void assertQueuedEventually(final SshPollAggregator aggregator, final int count) {
+        Asserts.succeedsEventually(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(aggregator.getQueuedCount(false), count);
+            }
+        });
+    }
+
+    /**
+     * Rather than running the script, writes a frame for each of its commands: the output of {@code echo <word>},
+     * or, for {@code hang}, a time out once released. Its first exec waits until released.
+     */
+    private static class FakeAggregator extends SshPollAggregator {
+        private static final Pattern MARKER = Pattern.compile("printf '%s %s %s %s %s\\\\n' (\\S+)");
+
+        final List<List<String>> execs = MutableList.of();
+        final Set<Thread> execThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        final CountDownLatch firstStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirst = new CountDownLatch(1);
+        final CountDownLatch releaseHung = new CountDownLatch(1);
+
+        FakeAggregator(int maxConcurrentExecs) {
+            super(null, maxConcurrentExecs);
+        }
+
+        @Override
+        protected int execOnMachine(List<String> script, boolean execAsCommand, OutputStream stdout, OutputStream stderr) {
+            try {
+                execThreads.add(Thread.currentThread());
+                boolean isFirst;
+                synchronized (execs) {
+                    execs.add(script);
+                    isFirst = execs.size() == 1;
+                }
+                if (isFirst) {
+                    firstStarted.countDown();
+                    releaseFirst.await();
+                }
+                Matcher marker = MARKER.matcher(Joiner.on("\n").join(script));
+                assertTrue(marker.find(), "script="+script);
+                List<Integer> hung = MutableList.of();
+                int i = 0;
+                for (String line : script) {
+                    if (line.startsWith("echo ")) {
+                        byte[] out = (line.substring("echo ".length())+"\n").getBytes();
+                        stdout.write((marker.group(1)+" "+i+" 0 "+out.length+" 0\n").getBytes());
+                        stdout.write(out);
+                        i++;
+                    } else if (line.equals("hang")) {
+                        hung.add(i++);
+                    }
+                }
+                if (!hung.isEmpty()) {
+                    releaseHung.await();
+                    for (int index : hung) {
+                        stdout.write((marker.group(1)+" "+index+" timeout 0 0\n").getBytes());
+                    }
+                }
+                return 0;
+            } catch (Exception e) {
+                throw Exceptions.propagate(e);
+            }
+        }
+    }
+
+    private static void assertValue(SshPollValue value, int exitStatus, String stdout, String stderr) {
+        assertEquals(value.getExitStatus(), exitStatus);
+        assertEquals(value.getStdout(), stdout);
+        assertEquals(value.getStderr(), stderr);
+    }
+
+}
@@ -85,6 +85,25 @@ public class FlagUtilsTest {
         assertEquals(m2, m);
     }
     
+    @Test
+    public void testGetAllFieldsReturnsIndependentLists() {
+        List<Field> fs = FlagUtils.getAllFields(Baz.class);
+        int size = fs.size();
+        fs.clear();
+        assertEquals(FlagUtils.getAllFields(Baz.class).size(), size);
+    }
+    
+    @Test
+    public void testSetFieldsFromFlagsRepeatedlyOnNewInstances() {
+        for (int i=0; i<3; i++) {
+            Foo f = new Foo();
+            Map<?, ?> unused = FlagUtils.setFieldsFromFlags(MutableMap.of("w", i, "x", 1, "z", 9), f);
+            assertEquals(f.w, i);
+            assertEquals(f.x, 1);
+            assertEquals(unused, ImmutableMap.of("z", 9));
+        }
+    }
+    
     @Test
     public void testCollectionCoercionOnSetFromFlags() {
         WithSpecialFieldTypes s = new WithSpecialFieldTypes();
@@ -41,8 +41,10 @@ import org.codehaus.groovy.runtime.GStringImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -53,6 +55,11 @@ public class TypeCoercionsTest {
 
     private static final Logger log = LoggerFactory.getLogger(TypeCoercionsTest.class);
     
+    @AfterMethod(alwaysRun=true)
+    public void tearDown() {
+        TypeCoercions.unregisterAdapter(WithAdapter.class, WithAdapterTarget.class);
+    }
+
     @Test
     public void testCoerceCharSequenceToString() {
         assertEquals(TypeCoercions.coerce(new StringBuilder("abc"), String.class), "abc");
@@ -361,6 +368,50 @@ public class TypeCoercionsTest {
         assertEquals(TypeCoercions.function(Double.class).apply("1"), Double.valueOf(1));
     }
 
+    @Test
+    public void testRepeatedCoercionUsesSameStrategy() {
+        // second call will use the cached coercion plan for the same types
+        for (int i=0; i<2; i++) {
+            assertEquals(TypeCoercions.coerce(ImmutableList.of("1", "2"), new TypeToken<List<Integer>>() {}), ImmutableList.of(1, 2));
+            assertEquals(TypeCoercions.coerce("3", WithFrom.class).value, 3);
+            assertEquals(TypeCoercions.coerce("on-fire", Lifecycle.class), Lifecycle.ON_FIRE);
+        }
+    }
+
+    @Test
+    public void testRegisteringAdapterAffectsSubsequentCoercions() {
+        try {
+            TypeCoercions.coerce(new WithAdapter("a"), WithAdapterTarget.class);
+            Assert.fail("Should not have coerced before adapter registered");
+        } catch (ClassCoercionException e) {
+            // expected
+        }
+        TypeCoercions.registerAdapter(WithAdapter.class, WithAdapterTarget.class, new Function<WithAdapter, WithAdapterTarget>() {
+            @Override public WithAdapterTarget apply(WithAdapter input) {
+                return new WithAdapterTarget(input.value);
+            }
+        });
+        assertEquals(TypeCoercions.coerce(new WithAdapter("a"), WithAdapterTarget.class).value, "a");
+        
+        TypeCoercions.unregisterAdapter(WithAdapter.class, WithAdapterTarget.class);
+        try {
+            TypeCoercions.coerce(new WithAdapter("a"), WithAdapterTarget.class);
+            Assert.fail("Should not have coerced after adapter unregistered");
+        } catch (ClassCoercionException e) {
+            // expected
+        }
+    }
+
+    public static class WithAdapter {
+        final String value;
+        public WithAdapter(String value) { this.value = value; }
+    }
+
+    public static class WithAdapterTarget {
+        final String value;
+        public WithAdapterTarget(String value) { this.value = value; }
+    }
+
     public static class WithAs {
         String value;
         public WithAs(Object x) { value = ""+x; }
@@ -19,6 +19,7 @@
 package org.apache.brooklyn.util.core.task;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.brooklyn.api.mgmt.ExecutionContext;
 import org.apache.brooklyn.api.mgmt.Task;
@@ -130,4 +131,51 @@ public class ValueResolverTest extends BrooklynAppUnitTestSupport {
         Assert.assertEquals(result.get(), "foo");
     }
 
+    public void testImmediateSupplierUsedWhenInContext() throws Exception {
+        final CountingImmediateSupplier supplier = new CountingImmediateSupplier(Maybe.of("foo"));
+        String result = executionContext.submit(new Callable<String>() {
+            public String call() {
+                return Tasks.resolving(supplier).as(String.class).context(executionContext).get();
+            }}).get();
+        Assert.assertEquals(result, "foo");
+        Assert.assertEquals(supplier.immediateCount.get(), 1);
+        Assert.assertEquals(supplier.getCount.get(), 0);
+    }
+
+    public void testImmediateSupplierFallsBackToTaskWhenAbsent() throws Exception {
+        final CountingImmediateSupplier supplier = new CountingImmediateSupplier(Maybe.<String>absent());
+        String result = executionContext.submit(new Callable<String>() {
+            public String call() {
+                return Tasks.resolving(supplier).as(String.class).context(executionContext).get();
+            }}).get();
+        Assert.assertEquals(result, "bar");
+        Assert.assertEquals(supplier.immediateCount.get(), 1);
+        Assert.assertEquals(supplier.getCount.get(), 1);
+    }
+
+    public void testImmediateSupplierNotUsedOutsideContext() {
+        CountingImmediateSupplier supplier = new CountingImmediateSupplier(Maybe.of("foo"));
+        String result = Tasks.resolving(supplier).as(String.class).context(executionContext).get();
+        Assert.assertEquals(result, "bar");
+        Assert.assertEquals(supplier.immediateCount.get(), 0);
+        Assert.assertEquals(supplier.getCount.get(), 1);
+    }
+
+    private static class CountingImmediateSupplier implements ImmediateSupplier<String> {
+        final AtomicInteger immediateCount = new AtomicInteger();
+        final AtomicInteger getCount = new AtomicInteger();
+        final Maybe<String> immediate;
+        CountingImmediateSupplier(Maybe<String> immediate) {
+            this.immediate = immediate;
+        }
+        @Override public Maybe<String> getImmediately() {
+            immediateCount.incrementAndGet();
+            return immediate;
+        }
+        @Override public String get() {
+            getCount.incrementAndGet();
+            return "bar";
+        }
+    }
+
 }
@@ -23,6 +23,8 @@ import static org.testng.Assert.assertEquals;
 import org.apache.brooklyn.util.core.xstream.XmlUtil;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
+
 
 public class XmlUtilTest {
 
@@ -31,4 +33,11 @@ public class XmlUtilTest {
         String xml = "<a><b>myb</b></a>";
         assertEquals(XmlUtil.xpath(xml, "/a/b[text()]"), "myb");
     }
+
+    @Test
+    public void testXpathNodeValues() throws Exception {
+        String xml = "<a><b><c>c1</c><c>c2</c></b><d><c>c3</c></d></a>";
+        assertEquals(XmlUtil.xpathNodeValues(xml, "/a/b/c|/a/d/c"), ImmutableList.of("c1", "c2", "c3"));
+        assertEquals(XmlUtil.xpathNodeValues(xml, "/a/e"), ImmutableList.of());
+    }
 }
@@ -73,6 +73,22 @@ public class JcloudsStoreObjectAccessor implements PersistenceObjectStore.StoreO
         blobStore.putBlob(containerName, blob);
     }
 
+    @Override
+    public void put(ByteSource payload) {
+        if (payload==null) payload = ByteSource.empty();
+        
+        blobStore.createContainerInLocation(null, containerName);
+        Blob blob;
+        try {
+            blob = blobStore.blobBuilder(blobName).payload(payload)
+                    .contentLength(payload.size())
+                    .build();
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+        blobStore.putBlob(containerName, blob);
+    }
+
     @Override
     public void append(String val) {
         String val0 = get();
@@ -117,6 +133,18 @@ public class JcloudsStoreObjectAccessor implements PersistenceObjectStore.StoreO
         }
     }
 
+    @Override
+    public InputStream getInputStream() {
+        try {
+            Blob blob = blobStore.getBlob(containerName, blobName);
+            if (blob==null) return null;
+            return blob.getPayload().openStream();
+        } catch (IOException e) {
+            Exceptions.propagateIfFatal(e);
+            throw new IllegalStateException("Error reading blobstore "+containerName+" "+blobName+": "+e, e);
+        }
+    }
+
     @Override
     public Date getLastModifiedDate() {
         Blob blob = blobStore.getBlob(containerName, blobName);
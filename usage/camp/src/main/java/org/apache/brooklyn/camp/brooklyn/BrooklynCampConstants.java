@@ -24,6 +24,7 @@ import org.apache.brooklyn.camp.CampPlatform;
 import org.apache.brooklyn.config.ConfigInheritance;
 import org.apache.brooklyn.config.ConfigKey;
 import org.apache.brooklyn.core.config.ConfigKeys;
+import org.apache.brooklyn.core.entity.BrooklynConfigKeys;
 
 import com.google.common.collect.ImmutableSet;
 
@@ -31,11 +32,7 @@ public class BrooklynCampConstants {
 
     public static final String PLAN_ID_FLAG = "planId";
 
-    public static final ConfigKey<String> PLAN_ID = ConfigKeys.builder(String.class, "camp.plan.id")
-            .description("Identifier supplied in the deployment plan for component to which this entity corresponds "
-                        + "(human-readable, for correlating across plan, template, and instance)")
-            .inheritance(ConfigInheritance.NONE)
-            .build();
+    public static final ConfigKey<String> PLAN_ID = BrooklynConfigKeys.PLAN_ID;
 
     public static final ConfigKey<String> TEMPLATE_ID = ConfigKeys.builder(String.class, "camp.template.id")
             .description("UID of the component in the CAMP template from which this entity was created")
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.camp.brooklyn.spi.creation;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.brooklyn.api.entity.EntitySpec;
+import org.apache.brooklyn.api.internal.AbstractBrooklynObjectSpec;
+import org.apache.brooklyn.core.mgmt.BrooklynTags;
+import org.apache.brooklyn.core.mgmt.BrooklynTags.StageTimingsTag;
+import org.apache.brooklyn.core.objs.BrooklynObjectSpecs;
+import org.apache.brooklyn.util.guava.Maybe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.Maps;
+
+/**
+ * State shared by everything done to resolve one blueprint to a spec: specs already resolved for
+ * service types (typically catalog items, which are expensive to resolve), so that a blueprint
+ * which references the same item many times resolves it only once; and the time taken by each stage.
+ * <p>
+ * The resolution in progress is held against the current thread, and is passed explicitly
+ * (by {@link #wrap(Callable)}) to threads resolving parts of the blueprint in parallel.
+ */
+@Beta
+public class BlueprintResolution {
+
+    private static final Logger log = LoggerFactory.getLogger(BlueprintResolution.class);
+
+    /** time spent parsing plans, including those of referenced catalog items */
+    public static final String STAGE_PARSE = "parse";
+    /** total time to resolve the blueprint to a spec, including parsing */
+    public static final String STAGE_RESOLVE = "resolve";
+
+    private static final ThreadLocal<BlueprintResolution> CURRENT = new ThreadLocal<BlueprintResolution>();
+
+    private final ConcurrentMap<List<Object>, EntitySpec<?>> resolvedSpecs = Maps.newConcurrentMap();
+    private final AtomicInteger reusedSpecCount = new AtomicInteger();
+    private final StageTimingsTag timings = BrooklynTags.newDeploymentTimingsTag();
+
+    /** the resolution in progress on this thread, or null */
+    public static BlueprintResolution current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts a resolution on this thread, if none is in progress; blueprints resolved on this thread
+     * until it is ended share the resolution (and so reuse the specs resolved for each other's types).
+     * @return the new resolution, which the caller must {@link #end()}; or null if one was already in progress
+     */
+    public static BlueprintResolution beginIfNone() {
+        if (CURRENT.get()!=null) return null;
+        BlueprintResolution result = new BlueprintResolution();
+        CURRENT.set(result);
+        return result;
+    }
+
+    public void end() {
+        if (CURRENT.get()==this) CURRENT.remove();
+    }
+
+    /** returns a callable which runs the given one with this resolution in progress on whichever thread calls it */
+    <T> Callable<T> wrap(final Callable<T> job) {
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                BlueprintResolution old = CURRENT.get();
+                CURRENT.set(BlueprintResolution.this);
+                try {
+                    return job.call();
+                } finally {
+                    if (old!=null) CURRENT.set(old); else CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * returns a deep copy (see {@link BrooklynObjectSpecs#deepCopy(AbstractBrooklynObjectSpec)})
+     * of the spec previously resolved for the given key, or null
+     */
+    EntitySpec<?> getResolvedSpec(List<Object> key) {
+        EntitySpec<?> template = resolvedSpecs.get(key);
+        if (template==null) return null;
+        Maybe<EntitySpec<?>> result = BrooklynObjectSpecs.deepCopy(template);
+        if (result.isAbsent()) return null;
+        reusedSpecCount.incrementAndGet();
+        return result.get();
+    }
+
+    /**
+     * records a deep copy of the given spec (before it is customised) as the resolution for the given key;
+     * nothing is recorded if the spec cannot be deep copied, so the type is then resolved afresh each time
+     */
+    void putResolvedSpec(List<Object> key, EntitySpec<?> spec) {
+        Maybe<EntitySpec<?>> copy = BrooklynObjectSpecs.deepCopy(spec);
+        if (copy.isPresent()) {
+            resolvedSpecs.putIfAbsent(key, copy.get());
+        } else {
+            log.trace("Not reusing resolution of {}, as its spec cannot be copied", key.get(0));
+        }
+    }
+
+    public int getReusedSpecCount() {
+        return reusedSpecCount.get();
+    }
+
+    public void addStageTime(String stage, long nanos) {
+        timings.addStageMillis(stage, nanos / 1000 / 1000);
+    }
+
+    /** timings of the stages completed so far; the same (live) instance is returned on every call */
+    public StageTimingsTag getTimings() {
+        return timings;
+    }
+
+}
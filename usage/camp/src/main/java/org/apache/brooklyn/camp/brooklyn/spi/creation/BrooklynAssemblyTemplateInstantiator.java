@@ -20,26 +20,41 @@ package org.apache.brooklyn.camp.brooklyn.spi.creation;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.brooklyn.api.entity.Application;
 import org.apache.brooklyn.api.entity.EntitySpec;
 import org.apache.brooklyn.api.mgmt.ManagementContext;
+import org.apache.brooklyn.api.mgmt.Task;
 import org.apache.brooklyn.api.mgmt.classloading.BrooklynClassLoadingContext;
+import org.apache.brooklyn.api.mgmt.entitlement.EntitlementContext;
 import org.apache.brooklyn.camp.CampPlatform;
 import org.apache.brooklyn.camp.brooklyn.api.AssemblyTemplateSpecInstantiator;
 import org.apache.brooklyn.camp.spi.Assembly;
 import org.apache.brooklyn.camp.spi.AssemblyTemplate;
 import org.apache.brooklyn.camp.spi.PlatformComponentTemplate;
 import org.apache.brooklyn.camp.spi.collection.ResolvableLink;
+import org.apache.brooklyn.config.ConfigKey;
+import org.apache.brooklyn.core.config.ConfigKeys;
 import org.apache.brooklyn.core.mgmt.EntityManagementUtils;
 import org.apache.brooklyn.core.mgmt.EntityManagementUtils.CreationResult;
+import org.apache.brooklyn.core.mgmt.BrooklynTaskTags;
 import org.apache.brooklyn.core.mgmt.HasBrooklynManagementContext;
 import org.apache.brooklyn.core.mgmt.classloading.JavaBrooklynClassLoadingContext;
+import org.apache.brooklyn.core.mgmt.entitlement.Entitlements;
 import org.apache.brooklyn.util.collections.MutableSet;
 import org.apache.brooklyn.util.core.flags.TypeCoercions;
+import org.apache.brooklyn.util.core.task.TaskBuilder;
+import org.apache.brooklyn.util.core.task.Tasks;
+import org.apache.brooklyn.util.exceptions.Exceptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 
 public class BrooklynAssemblyTemplateInstantiator implements AssemblyTemplateSpecInstantiator {
@@ -48,6 +63,11 @@ public class BrooklynAssemblyTemplateInstantiator implements AssemblyTemplateSpe
 
     public static final String NEVER_UNWRAP_APPS_PROPERTY = "wrappedApp";
 
+    public static final ConfigKey<Integer> SERVICE_RESOLUTION_MAX_THREADS = ConfigKeys.newIntegerConfigKey(
+            "camp.serviceResolution.maxThreads",
+            "Maximum number of services in a blueprint to resolve concurrently; 1 to resolve them sequentially",
+            8);
+
     @Override
     public Assembly instantiate(AssemblyTemplate template, CampPlatform platform) {
         Application app = create(template, platform);
@@ -59,8 +79,19 @@ public class BrooklynAssemblyTemplateInstantiator implements AssemblyTemplateSpe
     private Application create(AssemblyTemplate template, CampPlatform platform) {
         ManagementContext mgmt = getManagementContext(platform);
         BrooklynClassLoadingContext loader = JavaBrooklynClassLoadingContext.create(mgmt);
-        EntitySpec<? extends Application> spec = createApplicationSpec(template, platform, loader, MutableSet.<String>of());
-        Application instance = mgmt.getEntityManager().createEntity(spec);
+        EntitySpec<? extends Application> spec;
+        BlueprintResolution newResolution = BlueprintResolution.beginIfNone();
+        try {
+            long startTime = System.nanoTime();
+            spec = createApplicationSpec(template, platform, loader, MutableSet.<String>of());
+            if (newResolution!=null) {
+                newResolution.addStageTime(BlueprintResolution.STAGE_RESOLVE, System.nanoTime() - startTime);
+                EntityManagementUtils.recordDeploymentTimings(spec, newResolution.getTimings());
+            }
+        } finally {
+            if (newResolution!=null) newResolution.end();
+        }
+        Application instance = EntityManagementUtils.createUnstarted(mgmt, spec);
         log.info("CAMP created '{}'", instance);
         return instance;
     }
@@ -70,7 +101,12 @@ public class BrooklynAssemblyTemplateInstantiator implements AssemblyTemplateSpe
             AssemblyTemplate template,
             CampPlatform platform, BrooklynClassLoadingContext itemLoader,
             Set<String> encounteredRegisteredTypeIds) {
-        return buildTemplateServicesAsSpecs(itemLoader, template, platform, encounteredRegisteredTypeIds);
+        BlueprintResolution newResolution = BlueprintResolution.beginIfNone();
+        try {
+            return buildTemplateServicesAsSpecs(itemLoader, template, platform, encounteredRegisteredTypeIds);
+        } finally {
+            if (newResolution!=null) newResolution.end();
+        }
     }
 
     @Override
@@ -106,15 +142,83 @@ public class BrooklynAssemblyTemplateInstantiator implements AssemblyTemplateSpe
     }
 
     private List<EntitySpec<?>> buildTemplateServicesAsSpecs(BrooklynClassLoadingContext loader, AssemblyTemplate template, CampPlatform platform, Set<String> encounteredRegisteredTypeIds) {
-        List<EntitySpec<?>> result = Lists.newArrayList();
-
+        List<PlatformComponentTemplate> componentTemplates = Lists.newArrayList();
         for (ResolvableLink<PlatformComponentTemplate> ctl: template.getPlatformComponentTemplates().links()) {
-            PlatformComponentTemplate appChildComponentTemplate = ctl.resolve();
-            BrooklynComponentTemplateResolver entityResolver = BrooklynComponentTemplateResolver.Factory.newInstance(loader, appChildComponentTemplate);
-            EntitySpec<?> spec = entityResolver.resolveSpec(encounteredRegisteredTypeIds);
-            result.add(spec);
+            componentTemplates.add(ctl.resolve());
+        }
+
+        Integer maxThreads = loader.getManagementContext().getConfig().getConfig(SERVICE_RESOLUTION_MAX_THREADS);
+        int threads = Math.min(componentTemplates.size(), maxThreads==null ? 1 : maxThreads);
+        if (threads <= 1) {
+            List<EntitySpec<?>> result = Lists.newArrayList();
+            for (PlatformComponentTemplate appChildComponentTemplate : componentTemplates) {
+                result.add(resolveServiceSpec(loader, appChildComponentTemplate, encounteredRegisteredTypeIds));
+            }
+            return result;
+        } else {
+            return resolveServiceSpecsInParallel(loader, componentTemplates, encounteredRegisteredTypeIds, threads);
+        }
+    }
+
+    private static EntitySpec<?> resolveServiceSpec(BrooklynClassLoadingContext loader, PlatformComponentTemplate componentTemplate, Set<String> encounteredRegisteredTypeIds) {
+        BrooklynComponentTemplateResolver entityResolver = BrooklynComponentTemplateResolver.Factory.newInstance(loader, componentTemplate);
+        return entityResolver.resolveSpec(encounteredRegisteredTypeIds);
+    }
+
+    /**
+     * Resolves the given (independent) services using the given number of worker tasks, each taking the next
+     * unresolved service until none are left; the result is in the same order as the templates.
+     */
+    private static List<EntitySpec<?>> resolveServiceSpecsInParallel(final BrooklynClassLoadingContext loader, final List<PlatformComponentTemplate> componentTemplates, 
+            final Set<String> encounteredRegisteredTypeIds, int threads) {
+        ManagementContext mgmt = loader.getManagementContext();
+        final AtomicReferenceArray<EntitySpec<?>> result = new AtomicReferenceArray<EntitySpec<?>>(componentTemplates.size());
+        final AtomicInteger nextIndex = new AtomicInteger();
+        final AtomicBoolean failed = new AtomicBoolean();
+        // each service gets its own copy, as resolvers add to it (and it is not thread-safe)
+        final Set<String> encounteredTypes = ImmutableSet.copyOf(encounteredRegisteredTypeIds);
+        BlueprintResolution resolution = BlueprintResolution.current();
+        EntitlementContext entitlementContext = Entitlements.getEntitlementContext();
+
+        Callable<Void> worker = resolution.wrap(new Callable<Void>() {
+            @Override
+            public Void call() {
+                int i;
+                while (!failed.get() && (i = nextIndex.getAndIncrement()) < componentTemplates.size()) {
+                    try {
+                        result.set(i, resolveServiceSpec(loader, componentTemplates.get(i), MutableSet.copyOf(encounteredTypes)));
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                }
+                return null;
+            }
+        });
+
+        List<Task<Void>> tasks = Lists.newArrayList();
+        for (int t=0; t<threads; t++) {
+            TaskBuilder<Void> tb = Tasks.<Void>builder().displayName("resolving services").body(worker)
+                .tag(BrooklynTaskTags.TRANSIENT_TASK_TAG);
+            if (entitlementContext!=null) tb.tag(BrooklynTaskTags.tagForEntitlement(entitlementContext));
+            tasks.add(mgmt.getExecutionManager().submit(tb.build()));
+        }
+        for (Task<Void> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                // rethrow the failure itself, as sequential resolution would
+                throw Exceptions.propagate(e.getCause());
+            } catch (InterruptedException e) {
+                throw Exceptions.propagate(e);
+            }
+        }
+
+        List<EntitySpec<?>> specs = Lists.newArrayListWithCapacity(componentTemplates.size());
+        for (int i=0; i<result.length(); i++) {
+            specs.add(result.get(i));
         }
-        return result;
+        return specs;
     }
 
     private static ManagementContext getManagementContext(CampPlatform platform) {
@@ -65,6 +65,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 
@@ -85,6 +87,7 @@ public class BrooklynComponentTemplateResolver {
     private final String type;
     private final AtomicBoolean alreadyBuilt = new AtomicBoolean(false);
     private final EntitySpecResolver serviceSpecResolver;
+    private final List<EntitySpecResolver> serviceTypeResolverOverrides;
 
     private BrooklynComponentTemplateResolver(BrooklynClassLoadingContext loader, ConfigBag attrs, AbstractResource optionalTemplate, String type) {
         this.loader = loader;
@@ -93,7 +96,8 @@ public class BrooklynComponentTemplateResolver {
         this.template = Maybe.fromNullable(optionalTemplate);
         this.yamlLoader = new BrooklynYamlTypeInstantiator.Factory(loader, this);
         this.type = type;
-        this.serviceSpecResolver = new CampServiceSpecResolver(mgmt, getServiceTypeResolverOverrides());
+        this.serviceTypeResolverOverrides = getServiceTypeResolverOverrides();
+        this.serviceSpecResolver = new CampServiceSpecResolver(mgmt, serviceTypeResolverOverrides);
     }
 
     // Deprecated because want to keep as much of the state private as possible
@@ -148,7 +152,7 @@ public class BrooklynComponentTemplateResolver {
         if (alreadyBuilt.getAndSet(true))
             throw new IllegalStateException("Spec can only be used once: "+this);
 
-        EntitySpec<?> spec = serviceSpecResolver.resolve(type, loader, encounteredRegisteredTypeSymbolicNames);
+        EntitySpec<?> spec = resolveServiceType(encounteredRegisteredTypeSymbolicNames);
 
         if (spec == null) {
             // Try to provide some troubleshooting details
@@ -176,6 +180,32 @@ public class BrooklynComponentTemplateResolver {
         return typedSpec;
     }
 
+    /**
+     * Resolves the type to a spec, reusing (a copy of) the spec already resolved for the same type
+     * in the {@link BlueprintResolution} in progress, if there is one.
+     */
+    private EntitySpec<?> resolveServiceType(Set<String> encounteredRegisteredTypeSymbolicNames) {
+        BlueprintResolution resolution = BlueprintResolution.current();
+        if (resolution==null || type==null || isResolvedByServiceTypeResolverOverride()) {
+            return serviceSpecResolver.resolve(type, loader, encounteredRegisteredTypeSymbolicNames);
+        }
+        List<Object> key = ImmutableList.<Object>of(type, loader, ImmutableSet.copyOf(encounteredRegisteredTypeSymbolicNames));
+        EntitySpec<?> spec = resolution.getResolvedSpec(key);
+        if (spec == null) {
+            spec = serviceSpecResolver.resolve(type, loader, encounteredRegisteredTypeSymbolicNames);
+            if (spec != null) resolution.putResolvedSpec(key, spec);
+        }
+        return spec;
+    }
+
+    /** legacy {@link ServiceTypeResolver}s may decorate the spec using this resolver's attributes, so their results can't be shared */
+    private boolean isResolvedByServiceTypeResolverOverride() {
+        for (EntitySpecResolver override : serviceTypeResolverOverrides) {
+            if (override.accepts(type, loader)) return true;
+        }
+        return false;
+    }
+
     private List<EntitySpecResolver> getServiceTypeResolverOverrides() {
         List<EntitySpecResolver> overrides = new ArrayList<>();
         ServiceLoader<ServiceTypeResolver> loader = ServiceLoader.load(ServiceTypeResolver.class, mgmt.getCatalogClassLoader());
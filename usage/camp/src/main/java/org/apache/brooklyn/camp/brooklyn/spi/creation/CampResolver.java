@@ -124,9 +124,27 @@ class CampResolver {
     }
  
     private static EntitySpec<?> createEntitySpecFromServicesBlock(String plan, BrooklynClassLoadingContext loader, Set<String> encounteredTypes, boolean isApplication) {
+        BlueprintResolution newResolution = BlueprintResolution.beginIfNone();
+        try {
+            long startTime = System.nanoTime();
+            EntitySpec<?> result = createEntitySpecFromServicesBlockInResolution(plan, loader, encounteredTypes, isApplication);
+            if (newResolution!=null) {
+                // outermost blueprint; record how long it took to resolve
+                newResolution.addStageTime(BlueprintResolution.STAGE_RESOLVE, System.nanoTime() - startTime);
+                EntityManagementUtils.recordDeploymentTimings(result, newResolution.getTimings());
+            }
+            return result;
+        } finally {
+            if (newResolution!=null) newResolution.end();
+        }
+    }
+
+    private static EntitySpec<?> createEntitySpecFromServicesBlockInResolution(String plan, BrooklynClassLoadingContext loader, Set<String> encounteredTypes, boolean isApplication) {
         CampPlatform camp = CampInternalUtils.getCampPlatform(loader.getManagementContext());
 
+        long startTime = System.nanoTime();
         AssemblyTemplate at = CampInternalUtils.registerDeploymentPlan(plan, loader, camp);
+        BlueprintResolution.current().addStageTime(BlueprintResolution.STAGE_PARSE, System.nanoTime() - startTime);
         AssemblyTemplateInstantiator instantiator = CampInternalUtils.getInstantiator(at);
         if (instantiator instanceof AssemblyTemplateSpecInstantiator) {
             EntitySpec<? extends Application> appSpec = ((AssemblyTemplateSpecInstantiator)instantiator).createApplicationSpec(at, camp, loader, encounteredTypes);
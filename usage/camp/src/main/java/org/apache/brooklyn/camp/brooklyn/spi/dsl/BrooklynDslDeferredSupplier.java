@@ -33,8 +33,10 @@ import org.apache.brooklyn.core.mgmt.BrooklynTaskTags;
 import org.apache.brooklyn.core.mgmt.internal.ManagementContextInternal;
 import org.apache.brooklyn.util.core.task.BasicExecutionContext;
 import org.apache.brooklyn.util.core.task.DeferredSupplier;
+import org.apache.brooklyn.util.core.task.ImmediateSupplier;
 import org.apache.brooklyn.util.core.task.Tasks;
 import org.apache.brooklyn.util.exceptions.Exceptions;
+import org.apache.brooklyn.util.guava.Maybe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,7 +59,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  * (TODO the precise semantics of this are under development.)
  * <p>
  **/
-public abstract class BrooklynDslDeferredSupplier<T> implements DeferredSupplier<T>, TaskFactory<Task<T>>, Serializable {
+public abstract class BrooklynDslDeferredSupplier<T> implements DeferredSupplier<T>, ImmediateSupplier<T>, TaskFactory<Task<T>>, Serializable {
 
     private static final long serialVersionUID = -8789624905412198233L;
 
@@ -113,6 +115,17 @@ public abstract class BrooklynDslDeferredSupplier<T> implements DeferredSupplier
         }
     }
 
+    /**
+     * Returns the value if it can be computed without blocking, as described in {@link ImmediateSupplier};
+     * this implementation returns absent, so the value is always computed by {@link #newTask()}.
+     * Subclasses should override where the value is often available immediately, 
+     * using {@link #entity()} as they would in the task.
+     */
+    @Override
+    public Maybe<T> getImmediately() {
+        return Maybe.absent("Immediate resolution not supported by "+getClass().getSimpleName());
+    }
+
     @Override
     public abstract Task<T> newTask();
 
@@ -19,6 +19,7 @@
 package org.apache.brooklyn.camp.brooklyn.spi.dsl;
 
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +39,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 
 /**
  * {@link PlanInterpreter} which understands the $brooklyn DSL
@@ -64,13 +68,52 @@ public class BrooklynDslInterpreter extends PlanInterpreterAdapter {
         currentNode.set(null);
     }
     
+    /**
+     * Parsed expressions, shared across all blueprints, keyed by the expression text.
+     * Parsing is independent of any class-loading context (the functions named are resolved at evaluation time,
+     * and only on classes in the DSL package), and the parse tree is immutable, so it is safe to share.
+     * Evaluation is not cached, as it creates new DSL objects tied to the node being interpreted.
+     */
+    private static final Cache<String, Object> PARSED_EXPRESSIONS = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .build();
+    
+    /** Methods to invoke for DSL functions, keyed by the class, function name and argument types; see {@link #findMethod(Class, String, List)} */
+    private static final Cache<List<Object>, Optional<Method>> DSL_METHODS = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .build();
+    
+    /** parses the given DSL expression, returning a previously parsed tree if available */
+    public static Object parse(String expression) {
+        Object result = PARSED_EXPRESSIONS.getIfPresent(expression);
+        if (result==null) {
+            result = new DslParser(expression).parse();
+            if (result instanceof List) result = ImmutableList.copyOf((List<?>)result);
+            PARSED_EXPRESSIONS.put(expression, result);
+        }
+        return result;
+    }
+    
+    private static Optional<Method> findMethod(Class<?> clazz, String fn, List<Object> args) {
+        List<Object> key = new ArrayList<Object>(args.size()+2);
+        key.add(clazz);
+        key.add(fn);
+        for (Object arg: args) key.add(arg==null ? null : arg.getClass());
+        Optional<Method> result = DSL_METHODS.getIfPresent(key);
+        if (result==null) {
+            result = Reflections.findMethodMatchingArgs(clazz, fn, args);
+            DSL_METHODS.put(key, result);
+        }
+        return result;
+    }
+    
     @Override
     public void applyYamlPrimitive(PlanInterpretationNode node) {
         String expression = node.getNewValue().toString();
 
         try {
             currentNode.set(node);
-            Object parsedNode = new DslParser(expression).parse();
+            Object parsedNode = parse(expression);
             if ((parsedNode instanceof FunctionWithArgs) && ((FunctionWithArgs)parsedNode).getArgs()==null) {
                 if (node.getRoleInParent() == Role.MAP_KEY) {
                     node.setNewValue(parsedNode);
@@ -180,8 +223,8 @@ public class BrooklynDslInterpreter extends PlanInterpreterAdapter {
             for (Object arg: f.getArgs()) {
                 args.add( deepEvaluation ? evaluate(arg, true) : arg );
             }
-            Optional<Object> v = Reflections.invokeMethodWithArgs(o, fn, args);
-            if (v.isPresent()) return v.get();
+            Optional<Method> m = findMethod(o instanceof Class ? (Class<?>)o : o.getClass(), fn, args);
+            if (m.isPresent()) return Reflections.invokeMethodWithArgs(o instanceof Class ? null : o, m.get(), args);
         } catch (Exception e) {
             Exceptions.propagateIfFatal(e);
             throw Exceptions.propagate(new InvocationTargetException(e, "Error invoking '"+fn+"' on '"+o+"'"));
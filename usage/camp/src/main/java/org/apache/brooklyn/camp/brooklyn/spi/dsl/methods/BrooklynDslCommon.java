@@ -50,8 +50,10 @@ import org.apache.brooklyn.util.core.flags.ClassCoercionException;
 import org.apache.brooklyn.util.core.flags.FlagUtils;
 import org.apache.brooklyn.util.core.flags.TypeCoercions;
 import org.apache.brooklyn.util.core.task.DeferredSupplier;
+import org.apache.brooklyn.util.core.task.ImmediateSupplier;
 import org.apache.brooklyn.util.core.task.Tasks;
 import org.apache.brooklyn.util.exceptions.Exceptions;
+import org.apache.brooklyn.util.guava.Maybe;
 import org.apache.brooklyn.util.javalang.Reflections;
 import org.apache.brooklyn.util.text.StringEscapes.JavaStringEscapes;
 import org.apache.brooklyn.util.text.Strings;
@@ -225,6 +227,24 @@ public class BrooklynDslCommon {
             this.args = args;
         }
 
+        @Override
+        public Maybe<String> getImmediately() {
+            Object[] resolvedArgs = new Object[args.length];
+            for (int i=0; i<args.length; i++) {
+                Object arg = args[i];
+                if (arg instanceof ImmediateSupplier) {
+                    Maybe<?> resolved = ((ImmediateSupplier<?>) arg).getImmediately();
+                    if (resolved.isAbsent()) return Maybe.absent("Argument "+arg+" not available immediately");
+                    resolvedArgs[i] = resolved.get();
+                } else if (arg instanceof TaskAdaptable || arg instanceof TaskFactory || arg instanceof DeferredSupplier) {
+                    return Maybe.absent("Argument "+arg+" requires a task to resolve");
+                } else {
+                    resolvedArgs[i] = arg;
+                }
+            }
+            return Maybe.of(String.format(pattern, resolvedArgs));
+        }
+
         @Override
         public Task<String> newTask() {
             return DependentConfiguration.formatString(pattern, args);
@@ -18,16 +18,21 @@
  */
 package org.apache.brooklyn.camp.brooklyn.spi.dsl.methods;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.apache.brooklyn.api.entity.Entity;
 import org.apache.brooklyn.api.mgmt.Task;
+import org.apache.brooklyn.api.mgmt.TaskAdaptable;
 import org.apache.brooklyn.api.sensor.AttributeSensor;
 import org.apache.brooklyn.api.sensor.Sensor;
 import org.apache.brooklyn.camp.brooklyn.BrooklynCampConstants;
 import org.apache.brooklyn.camp.brooklyn.spi.dsl.BrooklynDslDeferredSupplier;
+import org.apache.brooklyn.config.ConfigKey;
 import org.apache.brooklyn.core.config.ConfigKeys;
 import org.apache.brooklyn.core.entity.Entities;
 import org.apache.brooklyn.core.entity.EntityInternal;
@@ -36,8 +41,11 @@ import org.apache.brooklyn.core.mgmt.BrooklynTaskTags;
 import org.apache.brooklyn.core.mgmt.internal.EntityManagerInternal;
 import org.apache.brooklyn.core.sensor.DependentConfiguration;
 import org.apache.brooklyn.core.sensor.Sensors;
+import org.apache.brooklyn.util.core.task.DeferredSupplier;
 import org.apache.brooklyn.util.core.task.TaskBuilder;
 import org.apache.brooklyn.util.core.task.Tasks;
+import org.apache.brooklyn.util.exceptions.Exceptions;
+import org.apache.brooklyn.util.groovy.GroovyJavaMethods;
 import org.apache.brooklyn.util.guava.Maybe;
 import org.apache.brooklyn.util.text.StringEscapes.JavaStringEscapes;
 
@@ -71,6 +79,16 @@ public class DslComponent extends BrooklynDslDeferredSupplier<Entity> {
 
     // ---------------------------
     
+    @Override
+    public Maybe<Entity> getImmediately() {
+        try {
+            return Maybe.of(new EntityInScopeFinder(scopeComponent, scope, componentId, true).call());
+        } catch (Exception e) {
+            Exceptions.propagateIfFatal(e);
+            return Maybe.absent(e);
+        }
+    }
+
     @Override
     public Task<Entity> newTask() {
         return TaskBuilder.<Entity>builder().displayName(toString()).tag(BrooklynTaskTags.TRANSIENT_TASK_TAG)
@@ -81,16 +99,23 @@ public class DslComponent extends BrooklynDslDeferredSupplier<Entity> {
         protected final DslComponent scopeComponent;
         protected final Scope scope;
         protected final String componentId;
+        /** whether the scope component must be resolved without blocking, as for {@link DslComponent#getImmediately()} */
+        protected final boolean immediate;
 
         public EntityInScopeFinder(DslComponent scopeComponent, Scope scope, String componentId) {
+            this(scopeComponent, scope, componentId, false);
+        }
+
+        public EntityInScopeFinder(DslComponent scopeComponent, Scope scope, String componentId, boolean immediate) {
             this.scopeComponent = scopeComponent;
             this.scope = scope;
             this.componentId = componentId;
+            this.immediate = immediate;
         }
 
         protected EntityInternal getEntity() {
             if (scopeComponent!=null) {
-                return (EntityInternal)scopeComponent.get();
+                return (EntityInternal) (immediate ? scopeComponent.getImmediately().get() : scopeComponent.get());
             } else {
                 return entity();
             }
@@ -98,6 +123,9 @@ public class DslComponent extends BrooklynDslDeferredSupplier<Entity> {
         
         @Override
         public Entity call() throws Exception {
+            Maybe<Entity> indexed = findInIndex();
+            if (indexed.isPresent()) return indexed.get();
+            
             Iterable<Entity> entitiesToSearch = null;
             switch (scope) {
                 case THIS:
@@ -138,6 +166,47 @@ public class DslComponent extends BrooklynDslDeferredSupplier<Entity> {
                 (scope==Scope.GLOBAL ? "" : ", in scope "+scope+" wrt "+getEntity()+
                 (scopeComponent!=null ? " ("+scopeComponent+" from "+entity()+")" : "")));
         }        
+
+        /**
+         * Looks up the entity using the entity manager's index of entities by plan id, avoiding walking the entity tree.
+         * Returns absent where this cannot give a definitive answer (e.g. entity not yet managed, or several candidates
+         * in scope, where the tree walk determines which is found), in which case the caller should search as usual.
+         */
+        protected Maybe<Entity> findInIndex() {
+            switch (scope) {
+                case GLOBAL: case DESCENDANT: case ANCESTOR: case SIBLING: case CHILD:
+                    break;
+                default:
+                    return Maybe.absent("Scope "+scope+" does not use a plan id");
+            }
+            EntityInternal entity = getEntity();
+            if (!(entity.getManagementContext().getEntityManager() instanceof EntityManagerInternal)) {
+                return Maybe.absent("Entity manager not indexed");
+            }
+            String applicationId = (scope==Scope.GLOBAL ? entity() : entity).getApplicationId();
+            Collection<Entity> candidates = ((EntityManagerInternal)entity.getManagementContext().getEntityManager())
+                .getEntitiesInApplicationWithPlanId(applicationId, componentId);
+            Entity match = null;
+            for (Entity candidate: candidates) {
+                if (!isInScope(entity, candidate)) continue;
+                if (match!=null) return Maybe.absent("Multiple entities matching id "+componentId);
+                match = candidate;
+            }
+            if (match==null) return Maybe.absent("No indexed entity matching id "+componentId);
+            return Maybe.of(match);
+        }
+
+        /** whether the candidate would be found by searching the given scope, as done in {@link #call()} */
+        protected boolean isInScope(Entity entity, Entity candidate) {
+            switch (scope) {
+                case GLOBAL: return true;
+                case DESCENDANT: return Iterables.contains(Entities.ancestors(candidate), entity);
+                case ANCESTOR: return Iterables.contains(Entities.ancestors(entity), candidate);
+                case SIBLING: return entity.getParent()!=null && entity.getParent().equals(candidate.getParent());
+                case CHILD: return entity.equals(candidate.getParent());
+                default: return false;
+            }
+        }
     }
     
     // -------------------------------
@@ -196,13 +265,29 @@ public class DslComponent extends BrooklynDslDeferredSupplier<Entity> {
             this.component = Preconditions.checkNotNull(component);
             this.sensorName = sensorName;
         }
+        @Override
+        public Maybe<Object> getImmediately() {
+            Maybe<Entity> targetEntity = component.getImmediately();
+            if (targetEntity.isAbsent()) return Maybe.absent("Target entity "+component+" not available immediately");
+            Object value = targetEntity.get().getAttribute(getTargetSensor(targetEntity.get()));
+            // same readiness check as the task
+            if (GroovyJavaMethods.truth(value)) return Maybe.of(value);
+            return Maybe.absent("Sensor "+sensorName+" on "+targetEntity.get()+" not yet ready");
+        }
+        protected AttributeSensor<?> getTargetSensor(Entity targetEntity) {
+            Sensor<?> targetSensor = targetEntity.getEntityType().getSensor(sensorName);
+            if (!(targetSensor instanceof AttributeSensor<?>)) {
+                targetSensor = Sensors.intern(Sensors.newSensor(Object.class, sensorName));
+            }
+            return (AttributeSensor<?>) targetSensor;
+        }
         @SuppressWarnings("unchecked")
         @Override
         public Task<Object> newTask() {
             Entity targetEntity = component.get();
             Sensor<?> targetSensor = targetEntity.getEntityType().getSensor(sensorName);
             if (!(targetSensor instanceof AttributeSensor<?>)) {
-                targetSensor = Sensors.newSensor(Object.class, sensorName);
+                targetSensor = Sensors.intern(Sensors.newSensor(Object.class, sensorName));
             }
             return (Task<Object>) DependentConfiguration.attributeWhenReady(targetEntity, (AttributeSensor<?>)targetSensor);
         }
@@ -226,6 +311,23 @@ public class DslComponent extends BrooklynDslDeferredSupplier<Entity> {
             this.keyName = keyName;
         }
 
+        @Override
+        public Maybe<Object> getImmediately() {
+            Maybe<Entity> targetEntity = component.getImmediately();
+            if (targetEntity.isAbsent()) return Maybe.absent("Target entity "+component+" not available immediately");
+            ConfigKey<Object> key = ConfigKeys.newConfigKey(Object.class, keyName);
+            Maybe<Object> raw = ((EntityInternal)targetEntity.get()).config().getRaw(key);
+            if (raw.isPresent() && !isPlainValue(raw.get())) {
+                // resolving it might block, or need the target entity's context
+                return Maybe.absent("Config "+keyName+" on "+targetEntity.get()+" requires resolution");
+            }
+            return Maybe.of(targetEntity.get().getConfig(key));
+        }
+        private static boolean isPlainValue(Object v) {
+            return !(v instanceof DeferredSupplier || v instanceof TaskAdaptable || v instanceof Future 
+                || v instanceof Map || v instanceof Iterable);
+        }
+
         @Override
         public Task<Object> newTask() {
             return Tasks.builder().displayName("retrieving config for "+keyName).tag(BrooklynTaskTags.TRANSIENT_TASK_TAG).dynamic(false).body(new Callable<Object>() {
@@ -257,22 +359,32 @@ public class DslComponent extends BrooklynDslDeferredSupplier<Entity> {
             this.sensorName = sensorName;
         }
 
+        @Override
+        public Maybe<Sensor<?>> getImmediately() {
+            Maybe<Entity> targetEntity = component.getImmediately();
+            if (targetEntity.isAbsent()) return Maybe.absent("Target entity "+component+" not available immediately");
+            return Maybe.<Sensor<?>>of(lookupSensor(targetEntity.get()));
+        }
+
         @Override
         public Task<Sensor<?>> newTask() {
             return Tasks.<Sensor<?>>builder().displayName("looking up sensor for "+sensorName).dynamic(false).body(new Callable<Sensor<?>>() {
                 @Override
                 public Sensor<?> call() throws Exception {
-                    Entity targetEntity = component.get();
-                    Sensor<?> result = null;
-                    if (targetEntity!=null) {
-                        result = targetEntity.getEntityType().getSensor(sensorName);
-                    }
-                    if (result!=null) return result;
-                    return Sensors.newSensor(Object.class, sensorName);
+                    return lookupSensor(component.get());
                 }
             }).build();
         }
 
+        protected Sensor<?> lookupSensor(Entity targetEntity) {
+            Sensor<?> result = null;
+            if (targetEntity!=null) {
+                result = targetEntity.getEntityType().getSensor(sensorName);
+            }
+            if (result!=null) return result;
+            return Sensors.intern(Sensors.newSensor(Object.class, sensorName));
+        }
+
         @Override
         public String toString() {
             return (component.scope==Scope.THIS ? "" : component.toString()+".") + 
@@ -22,17 +22,21 @@ import org.apache.brooklyn.api.entity.Entity;
 import org.apache.brooklyn.api.policy.Policy;
 import org.apache.brooklyn.api.typereg.RegisteredType;
 import org.apache.brooklyn.camp.brooklyn.AbstractYamlTest;
+import org.apache.brooklyn.core.catalog.internal.BasicBrooklynCatalog;
+import org.apache.brooklyn.core.catalog.internal.CatalogBulkAddReport;
 import org.apache.brooklyn.core.config.ConfigKeys;
 import org.apache.brooklyn.core.entity.Entities;
 import org.apache.brooklyn.entity.stock.BasicEntity;
 import org.apache.brooklyn.entity.stock.BasicStartable;
 import org.apache.brooklyn.policy.ha.ServiceRestarter;
+import org.apache.brooklyn.util.collections.MutableMap;
 import org.apache.brooklyn.util.exceptions.Exceptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 
 
@@ -131,6 +135,48 @@ public class CatalogYamlCombiTest extends AbstractYamlTest {
         deleteCatalogEntity("Z");
     }
 
+    @Test
+    public void testBulkAddResolvesReferencesBetweenBoms() throws Exception {
+        // B is given before the A it refers to, and C cannot be resolved at all
+        CatalogBulkAddReport report = ((BasicBrooklynCatalog)mgmt().getCatalog()).addItemsInBulk(MutableMap.of(
+            "bom-b", joinLines(
+                "brooklyn.catalog:",
+                "  version: "+TEST_VERSION,
+                "  id: B",
+                "  itemType: entity",
+                "  item:",
+                "    type: A",
+                "    brooklyn.config: { b: 1 }"),
+            "bom-a", joinLines(
+                "brooklyn.catalog:",
+                "  version: "+TEST_VERSION,
+                "  id: A",
+                "  itemType: entity",
+                "  item:",
+                "    type: "+BasicEntity.class.getName(),
+                "    brooklyn.config: { a: 1, b: 0 }"),
+            "bom-c", joinLines(
+                "brooklyn.catalog:",
+                "  version: "+TEST_VERSION,
+                "  id: C",
+                "  itemType: entity",
+                "  item:",
+                "    type: org.example.DoesNotExist")), false);
+
+        Assert.assertEquals(report.getItems().size(), 2, "report="+report);
+        Assert.assertEquals(report.getErrors().keySet(), ImmutableSet.of("bom-c"), "report="+report);
+        Assert.assertEquals(report.getRounds(), 2, "report="+report);
+        Assert.assertNull(mgmt().getTypeRegistry().get("C", TEST_VERSION));
+
+        Entity b = launchEntity("B");
+        Assert.assertTrue(BasicEntity.class.isInstance(b), "Wrong type: "+b);
+        Assert.assertEquals(b.config().get(ConfigKeys.newIntegerConfigKey("a")), (Integer)1);
+        Assert.assertEquals(b.config().get(ConfigKeys.newIntegerConfigKey("b")), (Integer)1);
+
+        deleteCatalogEntity("A");
+        deleteCatalogEntity("B");
+    }
+
     private Entity launchEntity(String symbolicName) throws Exception {
         return launchEntity(symbolicName, true);
     }
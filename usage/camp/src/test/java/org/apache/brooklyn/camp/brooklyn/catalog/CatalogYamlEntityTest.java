@@ -27,13 +27,23 @@ import java.util.Collection;
 import java.util.List;
 
 import org.apache.brooklyn.api.catalog.BrooklynCatalog;
+import org.apache.brooklyn.api.entity.Application;
 import org.apache.brooklyn.api.entity.Entity;
 import org.apache.brooklyn.api.entity.EntitySpec;
 import org.apache.brooklyn.api.internal.AbstractBrooklynObjectSpec;
 import org.apache.brooklyn.api.typereg.BrooklynTypeRegistry;
 import org.apache.brooklyn.api.typereg.RegisteredType;
 import org.apache.brooklyn.camp.brooklyn.AbstractYamlTest;
+import org.apache.brooklyn.camp.brooklyn.spi.creation.BlueprintResolution;
+import org.apache.brooklyn.camp.brooklyn.spi.creation.BrooklynAssemblyTemplateInstantiator;
+import org.apache.brooklyn.core.catalog.internal.BasicBrooklynCatalog;
 import org.apache.brooklyn.core.catalog.internal.CatalogUtils;
+import org.apache.brooklyn.core.catalog.internal.SpecTemplateCache;
+import org.apache.brooklyn.core.mgmt.BrooklynTags;
+import org.apache.brooklyn.core.mgmt.BrooklynTags.StageTimingsTag;
+import org.apache.brooklyn.core.mgmt.EntityManagementUtils;
+import org.apache.brooklyn.core.mgmt.EntityManagementUtils.CreationResult;
+import org.apache.brooklyn.core.mgmt.internal.ManagementContextInternal;
 import org.apache.brooklyn.core.mgmt.osgi.OsgiStandaloneTest;
 import org.apache.brooklyn.core.test.entity.TestEntity;
 import org.apache.brooklyn.core.test.entity.TestEntityImpl;
@@ -47,6 +57,7 @@ import org.apache.brooklyn.util.osgi.OsgiTestResources;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
 
@@ -210,6 +221,107 @@ public class CatalogYamlEntityTest extends AbstractYamlTest {
         }
     }
 
+    @Test
+    public void testLaunchApplicationReferencingCatalogItemManyTimes() throws Exception {
+        String symbolicName = "my.catalog.app.id.reused";
+        addCatalogItems(
+            "brooklyn.catalog:",
+            "  id: " + symbolicName,
+            "  version: " + TEST_VERSION,
+            "  item:",
+            "    type: " + TestEntity.class.getName(),
+            "    brooklyn.config:",
+            "      test.confName: fromCatalog");
+
+        List<String> yaml = MutableList.of("services:");
+        for (int i=0; i<10; i++) {
+            yaml.add("- type: " + ver(symbolicName));
+            if (i%2==0) {
+                yaml.add("  brooklyn.config:");
+                yaml.add("    test.confName: service"+i);
+            }
+        }
+        // resolve the services one at a time, so that all but the first reuse the first's resolution
+        ((ManagementContextInternal)mgmt()).getBrooklynProperties().put(BrooklynAssemblyTemplateInstantiator.SERVICE_RESOLUTION_MAX_THREADS, 1);
+        BlueprintResolution resolution = BlueprintResolution.beginIfNone();
+        Entity app;
+        try {
+            app = createAndStartApplication(yaml.toArray(new String[0]));
+        } finally {
+            resolution.end();
+        }
+        assertEquals(resolution.getReusedSpecCount(), 9);
+
+        List<Entity> children = ImmutableList.copyOf(app.getChildren());
+        assertEquals(children.size(), 10);
+        for (int i=0; i<10; i++) {
+            Entity child = children.get(i);
+            assertEquals(child.getCatalogItemId(), ver(symbolicName));
+            assertEquals(child.getConfig(TestEntity.CONF_NAME), i%2==0 ? "service"+i : "fromCatalog");
+        }
+
+        deleteCatalogEntity(symbolicName);
+    }
+
+    @Test
+    public void testDeploymentTimingsRecordedOnStartTaskNotApp() throws Exception {
+        String symbolicName = "my.catalog.app.id.timed";
+        addCatalogItems(
+            "brooklyn.catalog:",
+            "  id: " + symbolicName,
+            "  version: " + TEST_VERSION,
+            "  item:",
+            "    type: " + TestEntity.class.getName());
+
+        CreationResult<? extends Application, Void> result = EntityManagementUtils.createStarting(mgmt(),
+            joinLines("services:", "- type: " + ver(symbolicName), "- type: " + ver(symbolicName)));
+        result.blockUntilComplete();
+
+        StageTimingsTag timings = BrooklynTags.findFirstStageTimings(BrooklynTags.DEPLOYMENT_TIMINGS_KIND, result.task().getTags());
+        Assert.assertNotNull(timings, "tags="+result.task().getTags());
+        assertTrue(timings.getStageMillis().containsKey(BlueprintResolution.STAGE_RESOLVE), "timings="+timings);
+        assertTrue(timings.getStageMillis().containsKey("create"), "timings="+timings);
+        // mutable and only of interest while deploying, so not persisted with the app
+        Assert.assertNull(BrooklynTags.findFirstStageTimings(BrooklynTags.DEPLOYMENT_TIMINGS_KIND, result.get().tags().getTags()));
+
+        deleteCatalogEntity(symbolicName);
+    }
+
+    @Test
+    public void testRedeployingCatalogItemReusesSpecUntilItemChanges() throws Exception {
+        String symbolicName = "my.catalog.app.id.redeployed";
+        addCatalogItems(
+            "brooklyn.catalog:",
+            "  id: " + symbolicName,
+            "  version: " + TEST_VERSION,
+            "  item:",
+            "    type: " + TestEntity.class.getName(),
+            "    brooklyn.config:",
+            "      test.confName: original");
+
+        SpecTemplateCache cache = ((BasicBrooklynCatalog)mgmt().getCatalog()).getSpecTemplateCache();
+        Entity app1 = createAndStartApplication("services:", "- type: " + ver(symbolicName));
+        long hitsAfterFirst = cache.getStats().hitCount();
+        Entity app2 = createAndStartApplication("services:", "- type: " + ver(symbolicName));
+        assertTrue(cache.getStats().hitCount() > hitsAfterFirst, "stats="+cache.asMap());
+        assertEquals(Iterables.getOnlyElement(app1.getChildren()).getConfig(TestEntity.CONF_NAME), "original");
+        assertEquals(Iterables.getOnlyElement(app2.getChildren()).getConfig(TestEntity.CONF_NAME), "original");
+
+        forceCatalogUpdate();
+        addCatalogItems(
+            "brooklyn.catalog:",
+            "  id: " + symbolicName,
+            "  version: " + TEST_VERSION,
+            "  item:",
+            "    type: " + TestEntity.class.getName(),
+            "    brooklyn.config:",
+            "      test.confName: updated");
+        Entity app3 = createAndStartApplication("services:", "- type: " + ver(symbolicName));
+        assertEquals(Iterables.getOnlyElement(app3.getChildren()).getConfig(TestEntity.CONF_NAME), "updated");
+
+        deleteCatalogEntity(symbolicName);
+    }
+
     @Test
     public void testLaunchApplicationWithCatalogReferencingOtherCatalog() throws Exception {
         TestResourceUnavailableException.throwIfResourceUnavailable(getClass(), OsgiStandaloneTest.BROOKLYN_TEST_OSGI_ENTITIES_PATH);
@@ -576,6 +688,34 @@ public class CatalogYamlEntityTest extends AbstractYamlTest {
         }
     }
     
+    @Test
+    public void testMissingTypeDoesNotRecurseWhenServicesResolvedInParallel() {
+        String symbolicName = "my.catalog.app.id.basic";
+        addCatalogItems(
+            "brooklyn.catalog:",
+            "  id: " + symbolicName,
+            "  version: " + TEST_VERSION,
+            "",
+            "services:",
+            "- type: org.apache.brooklyn.entity.stock.BasicEntity");
+
+        try {
+            // more than one service, so they are resolved in parallel
+            addCatalogItems(
+                    "brooklyn.catalog:",
+                    "  id: " + symbolicName,
+                    "  version: " + TEST_VERSION + "-update",
+                    "",
+                    "services:",
+                    "- type: " + symbolicName,
+                    "- type: " + symbolicName,
+                    "- type: org.apache.brooklyn.entity.stock.BasicEntity");
+            fail("Catalog addition expected to fail due to non-existent java type " + symbolicName);
+        } catch (IllegalStateException e) {
+            assertTrue(e.toString().contains("recursive"), "Unexpected error message: "+e);
+        }
+    }
+    
     @Test
     public void testVersionedTypeDoesNotRecurse() {
         String symbolicName = "my.catalog.app.id.basic";
@@ -19,6 +19,7 @@
 package org.apache.brooklyn.camp.brooklyn.spi.dsl;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 import java.util.Arrays;
@@ -75,4 +76,11 @@ public class DslParseTest {
     }
     
 
+    public void testParsedExpressionsAreShared() {
+        String expression = "$brooklyn:component(\"x\").attributeWhenReady(\"y\")";
+        Object fx = BrooklynDslInterpreter.parse(expression);
+        assertSame(BrooklynDslInterpreter.parse(expression), fx);
+        assertEquals(fx.toString(), new DslParser(expression).parse().toString());
+    }
+
 }
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.camp.brooklyn.spi.dsl;
+
+import org.apache.brooklyn.camp.brooklyn.spi.dsl.parse.DslParser;
+import org.apache.brooklyn.core.test.qa.performance.AbstractPerformanceTest;
+import org.apache.brooklyn.test.performance.PerformanceTestDescriptor;
+import org.testng.annotations.Test;
+
+public class DslPerformanceTest extends AbstractPerformanceTest {
+
+    private static final String EXPRESSION = "$brooklyn:formatString(\"http://%s:%s/\", component(\"db\").attributeWhenReady(\"host.name\"), sibling(\"web\").config(\"http.port\"))";
+    
+    @Test(groups={"Integration", "Acceptance"})
+    public void testParseUncached() {
+        int numIterations = 100000;
+        double minRatePerSec = 10000 * PERFORMANCE_EXPECTATION;
+        measure(PerformanceTestDescriptor.create()
+                .summary("DslPerformanceTest.parseUncached")
+                .iterations(numIterations)
+                .minAcceptablePerSecond(minRatePerSec)
+                .job(new Runnable() {
+                    @Override public void run() {
+                        new DslParser(EXPRESSION).parse();
+                    }}));
+    }
+
+    @Test(groups={"Integration", "Acceptance"})
+    public void testParseCached() {
+        int numIterations = 1000000;
+        double minRatePerSec = 100000 * PERFORMANCE_EXPECTATION;
+        measure(PerformanceTestDescriptor.create()
+                .summary("DslPerformanceTest.parseCached")
+                .iterations(numIterations)
+                .minAcceptablePerSecond(minRatePerSec)
+                .job(new Runnable() {
+                    @Override public void run() {
+                        BrooklynDslInterpreter.parse(EXPRESSION);
+                    }}));
+    }
+
+    @Test(groups={"Integration", "Acceptance"})
+    public void testParseAndEvaluate() {
+        int numIterations = 100000;
+        double minRatePerSec = 10000 * PERFORMANCE_EXPECTATION;
+        final BrooklynDslInterpreter interpreter = new BrooklynDslInterpreter();
+        measure(PerformanceTestDescriptor.create()
+                .summary("DslPerformanceTest.parseAndEvaluate")
+                .iterations(numIterations)
+                .minAcceptablePerSecond(minRatePerSec)
+                .job(new Runnable() {
+                    @Override public void run() {
+                        interpreter.evaluate(BrooklynDslInterpreter.parse(EXPRESSION), true);
+                    }}));
+    }
+}
@@ -27,6 +27,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
@@ -233,8 +234,9 @@ public class Main extends AbstractMain {
         public boolean catalogReset;
 
         @Option(name = { "--catalogAdd" }, title = "catalog bom URI to add",
-            description = "Specifies a catalog.bom to be added to the catalog")
-        public String catalogAdd;
+            description = "Specifies a catalog.bom to be added to the catalog; "
+                + "can be repeated to add several, which are added together")
+        public List<String> catalogAdd;
 
         @Option(name = { "--catalogForce" }, 
             description = "Specifies that catalog items added via the CLI should be forcibly added, "
@@ -417,7 +419,12 @@ public class Main extends AbstractMain {
     
                 launcher = createLauncher();
 
-                CatalogInitialization catInit = new CatalogInitialization(catalogInitial, catalogReset, catalogAdd, catalogForce);
+                CatalogInitialization catInit = new CatalogInitialization(catalogInitial, catalogReset, null, catalogForce);
+                if (catalogAdd != null) {
+                    for (String uri : catalogAdd) {
+                        catInit.addAdditionsUri(uri);
+                    }
+                }
                 catInit.addPopulationCallback(new Function<CatalogInitialization,Void>() {
                     @Override
                     public Void apply(CatalogInitialization catInit) {
@@ -19,6 +19,8 @@
 package org.apache.brooklyn.rest.api;
 
 import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
 import java.util.List;
 
 import org.apache.brooklyn.rest.domain.TaskSummary;
@@ -54,6 +56,11 @@ public interface ActivityApi {
     @ApiResponses(value = {
             @ApiResponse(code = 404, message = "Could not find task")
     })
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "limit", value = "Maximum number of items to return; if there are more, the response has a Link header to the next page", dataType = "int", paramType = "query"),
+        @ApiImplicitParam(name = "after", value = "Id of the last item of the previous page, to return the items after it", dataType = "string", paramType = "query"),
+        @ApiImplicitParam(name = "fields", value = "Comma-separated fields to include for each item (default all)", dataType = "string", paramType = "query")
+    })
     public List<TaskSummary> children(
             @ApiParam(value = "Task ID", required = true) @PathParam("task") String taskId);
 
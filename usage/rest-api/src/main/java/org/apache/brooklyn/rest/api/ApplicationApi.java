@@ -19,6 +19,8 @@
 package org.apache.brooklyn.rest.api;
 
 import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +28,7 @@ import javax.validation.Valid;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
+import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
@@ -35,7 +38,6 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
-import org.codehaus.jackson.JsonNode;
 
 import org.apache.brooklyn.rest.domain.ApplicationSpec;
 import org.apache.brooklyn.rest.domain.ApplicationSummary;
@@ -59,23 +61,166 @@ public interface ApplicationApi {
     )
     /** @deprecated since 0.6.0 use {@link #fetch(String)} (with slightly different, but better semantics) */
     @Deprecated
-    public JsonNode applicationTree();
+    public Response applicationTree();
 
     @GET
     @Path("/fetch")
     @ApiOperation(
-            value = "Fetch display details for all applications and optionally selected additional entities"
+            value = "Fetch display details for all applications and optionally selected additional entities",
+            notes = "Returns a list of entities, written one at a time as they are read"
     )
-    public JsonNode fetch(
+    public Response fetch(
             @ApiParam(value="Selected additional entity ID's to include, comma-separated", required=false)
             @DefaultValue("")
             @QueryParam("items") String items);
 
     @GET
+    @Path("/current-state")
     @ApiOperation(
-            value = "Fetch list of applications, as ApplicationSummary objects",
+            value = "Fetch selected sensor and config values of many entities at once",
+            notes = "Returns a map of entity ID to a map containing the selected \"sensors\" and \"config\" of that entity, "
+                    + "written as the values are read. Entities are selected by ID and/or application (with all its descendants), "
+                    + "or all entities if neither is given, then filtered by type and tag. "
+                    + "Entities and sensors which the user is not entitled to see are omitted."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(code = 404, message = "Application not found")
+    })
+    public Response currentState(
+            @ApiParam(value = "Entity IDs to include, comma-separated", required = false)
+            @QueryParam("entities") String entityIds,
+            @ApiParam(value = "Application ID or name, to include it and all its descendants", required = false)
+            @QueryParam("application") String application,
+            @ApiParam(value = "Regular expression for an entity type which must be matched", required = false)
+            @DefaultValue(".*")
+            @QueryParam("typeRegex") String typeRegex,
+            @ApiParam(value = "Tag which entities must have", required = false)
+            @QueryParam("tag") String tag,
+            @ApiParam(value = "Sensor names to include, comma-separated, or * for all", required = false)
+            @DefaultValue("")
+            @QueryParam("sensors") String sensors,
+            @ApiParam(value = "Config key names to include, comma-separated, or * for all", required = false)
+            @DefaultValue("")
+            @QueryParam("config") String config,
+            @ApiParam(value = "Return raw values instead of display values", required = false)
+            @DefaultValue("false")
+            @QueryParam("raw") Boolean raw);
+
+    /** As {@link #currentState(String, String, String, String, String, String, Boolean)}, for a selection too long for a URL. */
+    @POST
+    @Path("/current-state")
+    @Consumes({MediaType.APPLICATION_FORM_URLENCODED})
+    @ApiOperation(
+            value = "Fetch selected sensor and config values of many entities at once, with the selection form URL-encoded",
+            notes = "As the GET request, for when the selection (e.g. the list of entity IDs) is too long for a URL"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(code = 404, message = "Application not found")
+    })
+    public Response currentStateFromForm(
+            @ApiParam(value = "Entity IDs to include, comma-separated", required = false)
+            @FormParam("entities") String entityIds,
+            @ApiParam(value = "Application ID or name, to include it and all its descendants", required = false)
+            @FormParam("application") String application,
+            @ApiParam(value = "Regular expression for an entity type which must be matched", required = false)
+            @DefaultValue(".*")
+            @FormParam("typeRegex") String typeRegex,
+            @ApiParam(value = "Tag which entities must have", required = false)
+            @FormParam("tag") String tag,
+            @ApiParam(value = "Sensor names to include, comma-separated, or * for all", required = false)
+            @DefaultValue("")
+            @FormParam("sensors") String sensors,
+            @ApiParam(value = "Config key names to include, comma-separated, or * for all", required = false)
+            @DefaultValue("")
+            @FormParam("config") String config,
+            @ApiParam(value = "Return raw values instead of display values", required = false)
+            @DefaultValue("false")
+            @FormParam("raw") Boolean raw);
+
+    @GET
+    @Path("/sensor-events")
+    @Produces("text/event-stream")
+    @ApiOperation(
+            value = "Stream changes to sensor values of many entities, as server-sent events",
+            notes = "Each event is named \"sensor\", with JSON data giving the \"entity\" ID, \"sensor\" name, \"value\" and \"timestamp\". "
+                    + "Entities are selected as for current-state, including entities added later (e.g. to the application). "
+                    + "If a sensor changes several times between writes, only its latest value is sent. "
+                    + "Events for entities and sensors which the user is not entitled to see are omitted. "
+                    + "The stream is open until the client disconnects; the number of streams open at once is limited."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(code = 404, message = "Application not found"),
+            @ApiResponse(code = 503, message = "Too many streams open")
+    })
+    public Response sensorEvents(
+            @ApiParam(value = "Entity IDs to include, comma-separated", required = false)
+            @QueryParam("entities") String entityIds,
+            @ApiParam(value = "Application ID or name, to include it and all its descendants", required = false)
+            @QueryParam("application") String application,
+            @ApiParam(value = "Regular expression for an entity type which must be matched", required = false)
+            @DefaultValue(".*")
+            @QueryParam("typeRegex") String typeRegex,
+            @ApiParam(value = "Tag which entities must have", required = false)
+            @QueryParam("tag") String tag,
+            @ApiParam(value = "Sensor names to include, comma-separated, or * for all", required = false)
+            @DefaultValue("*")
+            @QueryParam("sensors") String sensors,
+            @ApiParam(value = "Whether to start by sending the current values of the sensors", required = false)
+            @DefaultValue("true")
+            @QueryParam("initial") Boolean initial,
+            @ApiParam(value = "Minimum time between writes, e.g. 1s; cannot be less than the server's minimum", required = false)
+            @QueryParam("minPeriod") String minPeriod);
+
+    @POST
+    @Path("/effectors/{effector}")
+    @ApiOperation(
+            value = "Invoke an effector on many entities at once",
+            notes = "Entities are selected by ID and/or application as for current-state (a selection is required), "
+                    + "then filtered by type and tag; those without the effector, or on which the user is not entitled to invoke it, are skipped. "
+                    + "The invocations are children of a single task, at most maxConcurrent running at once. "
+                    + "Returns a map of entity ID to the result on that entity (or a map with the \"error\" if it failed there) "
+                    + "if all complete within the timeout, otherwise status 202 and the task, whose result is that map once it completes."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(code = 400, message = "No entities selected"),
+            @ApiResponse(code = 404, message = "Application not found, or no selected entity has the effector")
+    })
+    @Consumes({MediaType.APPLICATION_JSON, MediaType.APPLICATION_FORM_URLENCODED})
+    public Response invokeOnEntities(
+            @ApiParam(value = "Entity IDs to include, comma-separated", required = false)
+            @QueryParam("entities") String entityIds,
+            @ApiParam(value = "Application ID or name, to include it and all its descendants", required = false)
+            @QueryParam("application") String application,
+            @ApiParam(value = "Regular expression for an entity type which must be matched", required = false)
+            @DefaultValue(".*")
+            @QueryParam("typeRegex") String typeRegex,
+            @ApiParam(value = "Tag which entities must have", required = false)
+            @QueryParam("tag") String tag,
+            @ApiParam(value = "Name of the effector to invoke", required = true)
+            @PathParam("effector") String effectorName,
+            @ApiParam(value = "Maximum number of invocations running at once; cannot be more than the server's maximum", required = false)
+            @QueryParam("maxConcurrent") Integer maxConcurrent,
+            @ApiParam(value = "Delay before the server should respond with the task rather than the results (in millis if no unit specified): "
+                    + "'0' (the default) means always return the task, so the request does not wait for the invocations; "
+                    + "'never' waits for all to complete",
+                    required = false, defaultValue = "0")
+            @DefaultValue("0")
+            @QueryParam("timeout") String timeout,
+            @ApiParam(value = "Effector parameters (as key value pairs), the same for every entity", required = false)
+            @Valid
+            Map<String, Object> parameters);
+
+    @GET
+    @ApiOperation(
+            value = "Fetch list of applications, as ApplicationSummary objects; "
+                    + "applications kept dormant on rebind are included, with status DORMANT, for users who can see all server info",
             response = org.apache.brooklyn.rest.domain.ApplicationSummary.class
     )
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "limit", value = "Maximum number of items to return; if there are more, the response has a Link header to the next page", dataType = "int", paramType = "query"),
+        @ApiImplicitParam(name = "after", value = "Id of the last item of the previous page, to return the items after it", dataType = "string", paramType = "query"),
+        @ApiImplicitParam(name = "fields", value = "Comma-separated fields to include for each item (default all)", dataType = "string", paramType = "query")
+    })
     public List<ApplicationSummary> list(
             @ApiParam(value = "Regular expression to filter by", required = false)
             @DefaultValue(".*")
@@ -102,6 +247,22 @@ public interface ApplicationApi {
                     required = true)
             @PathParam("application") String application);
 
+    @POST
+    @Path("/{application}/wake")
+    @ApiOperation(
+            value = "Wake an application kept dormant on rebind, instantiating and managing it (does nothing if it is not dormant)",
+            response = org.apache.brooklyn.rest.domain.ApplicationSummary.class
+    )
+    @ApiResponses(value = {
+            @ApiResponse(code = 401, message = "Not entitled to wake dormant applications"),
+            @ApiResponse(code = 404, message = "Application not found")
+    })
+    public ApplicationSummary wake(
+            @ApiParam(
+                    value = "ID of the application to wake",
+                    required = true)
+            @PathParam("application") String application);
+
     @POST
     @Consumes({"application/x-yaml",
             // see http://stackoverflow.com/questions/332129/yaml-mime-type
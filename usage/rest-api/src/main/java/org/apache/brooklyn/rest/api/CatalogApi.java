@@ -42,6 +42,8 @@ import org.apache.brooklyn.rest.domain.CatalogPolicySummary;
 import com.sun.jersey.core.header.FormDataContentDisposition;
 import com.sun.jersey.multipart.FormDataParam;
 import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.ApiOperation;
@@ -150,6 +152,11 @@ public interface CatalogApi {
     @ApiOperation(value = "List available entity types optionally matching a query", 
             response = CatalogItemSummary.class,
             responseContainer = "List")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "limit", value = "Maximum number of items to return; if there are more, the response has a Link header to the next page", dataType = "int", paramType = "query"),
+        @ApiImplicitParam(name = "after", value = "Id of the last item of the previous page, to return the items after it", dataType = "string", paramType = "query"),
+        @ApiImplicitParam(name = "fields", value = "Comma-separated fields to include for each item (default all)", dataType = "string", paramType = "query")
+    })
     public List<CatalogEntitySummary> listEntities(
         @ApiParam(name = "regex", value = "Regular expression to search for")
         @QueryParam("regex") @DefaultValue("") String regex,
@@ -163,6 +170,11 @@ public interface CatalogApi {
     @ApiOperation(value = "Fetch a list of application templates optionally matching a query", 
             response = CatalogItemSummary.class,
             responseContainer = "List")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "limit", value = "Maximum number of items to return; if there are more, the response has a Link header to the next page", dataType = "int", paramType = "query"),
+        @ApiImplicitParam(name = "after", value = "Id of the last item of the previous page, to return the items after it", dataType = "string", paramType = "query"),
+        @ApiImplicitParam(name = "fields", value = "Comma-separated fields to include for each item (default all)", dataType = "string", paramType = "query")
+    })
     public List<CatalogItemSummary> listApplications(
             @ApiParam(name = "regex", value = "Regular expression to search for")
             @QueryParam("regex") @DefaultValue("") String regex,
@@ -234,6 +246,11 @@ public interface CatalogApi {
     @ApiOperation(value = "List available policies optionally matching a query", 
             response = CatalogPolicySummary.class,
             responseContainer = "List")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "limit", value = "Maximum number of items to return; if there are more, the response has a Link header to the next page", dataType = "int", paramType = "query"),
+        @ApiImplicitParam(name = "after", value = "Id of the last item of the previous page, to return the items after it", dataType = "string", paramType = "query"),
+        @ApiImplicitParam(name = "fields", value = "Comma-separated fields to include for each item (default all)", dataType = "string", paramType = "query")
+    })
     public List<CatalogPolicySummary> listPolicies(
             @ApiParam(name = "regex", value = "Regular expression to search for")
             @QueryParam("regex") @DefaultValue("") String regex,
@@ -275,6 +292,11 @@ public interface CatalogApi {
     @ApiOperation(value = "List available locations optionally matching a query", 
             response = CatalogLocationSummary.class,
             responseContainer = "List")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "limit", value = "Maximum number of items to return; if there are more, the response has a Link header to the next page", dataType = "int", paramType = "query"),
+        @ApiImplicitParam(name = "after", value = "Id of the last item of the previous page, to return the items after it", dataType = "string", paramType = "query"),
+        @ApiImplicitParam(name = "fields", value = "Comma-separated fields to include for each item (default all)", dataType = "string", paramType = "query")
+    })
     public List<CatalogLocationSummary> listLocations(
             @ApiParam(name = "regex", value = "Regular expression to search for")
             @QueryParam("regex") @DefaultValue("") String regex,
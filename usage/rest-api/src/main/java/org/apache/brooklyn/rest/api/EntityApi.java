@@ -19,6 +19,8 @@
 package org.apache.brooklyn.rest.api;
 
 import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
 import org.apache.brooklyn.rest.domain.EntitySummary;
 import org.apache.brooklyn.rest.domain.LocationSummary;
 import org.apache.brooklyn.rest.domain.TaskSummary;
@@ -48,6 +50,11 @@ public interface EntityApi {
     @ApiResponses(value = {
             @ApiResponse(code = 404, message = "Application not found")
     })
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "limit", value = "Maximum number of items to return; if there are more, the response has a Link header to the next page", dataType = "int", paramType = "query"),
+        @ApiImplicitParam(name = "after", value = "Id of the last item of the previous page, to return the items after it", dataType = "string", paramType = "query"),
+        @ApiImplicitParam(name = "fields", value = "Comma-separated fields to include for each item (default all)", dataType = "string", paramType = "query")
+    })
     public List<EntitySummary> list(
             @ApiParam(value = "Application ID or name", required = true)
             @PathParam("application") final String application) ;
@@ -70,6 +77,11 @@ public interface EntityApi {
     @ApiOperation(value = "Fetch details about a specific application entity's children",
             response = org.apache.brooklyn.rest.domain.EntitySummary.class)
     @Path("/{entity}/children")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "limit", value = "Maximum number of items to return; if there are more, the response has a Link header to the next page", dataType = "int", paramType = "query"),
+        @ApiImplicitParam(name = "after", value = "Id of the last item of the previous page, to return the items after it", dataType = "string", paramType = "query"),
+        @ApiImplicitParam(name = "fields", value = "Comma-separated fields to include for each item (default all)", dataType = "string", paramType = "query")
+    })
     public List<EntitySummary> getChildren(
             @PathParam("application") final String application,
             @PathParam("entity") final String entity);
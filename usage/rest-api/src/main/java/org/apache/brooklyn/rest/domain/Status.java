@@ -29,5 +29,7 @@ public enum Status {
     STOPPED,
     DESTROYED,
     ERROR,
-    UNKNOWN
+    UNKNOWN,
+    /** kept dormant on rebind, i.e. not yet instantiated; woken when first accessed */
+    DORMANT
 }
\ No newline at end of file
@@ -26,6 +26,7 @@ import org.apache.brooklyn.core.config.ConfigPredicates;
 import org.apache.brooklyn.rest.security.provider.DelegatingSecurityProvider;
 import org.apache.brooklyn.rest.security.provider.ExplicitUsersSecurityProvider;
 import org.apache.brooklyn.rest.security.provider.SecurityProvider;
+import org.apache.brooklyn.util.time.Duration;
 
 public class BrooklynWebConfig {
 
@@ -151,6 +152,23 @@ public class BrooklynWebConfig {
             "SSL_DHE_DSS_WITH_CAMELLIA_128_CBC_SHA,SSL_RSA_WITH_CAMELLIA_128_CBC_SHA," +
             "SSL_RSA_WITH_3DES_EDE_CBC_SHA");
 
+    public final static ConfigKey<Integer> SENSOR_EVENTS_MAX_STREAMS = ConfigKeys.newIntegerConfigKey(
+            BASE_NAME+".sensorEvents.maxStreams",
+            "Maximum number of sensor event streams open at once; each holds a server thread while it is open",
+            16);
+
+    public final static ConfigKey<Duration> SENSOR_EVENTS_MIN_PERIOD = ConfigKeys.newDurationConfigKey(
+            BASE_NAME+".sensorEvents.minPeriod",
+            "Minimum time between writes to a sensor event stream; changes in between are conflated, "
+            + "sending only the latest value of each sensor (clients may ask for a longer period but not a shorter one)",
+            Duration.millis(200));
+
+    public final static ConfigKey<Integer> BULK_EFFECTOR_MAX_CONCURRENT = ConfigKeys.newIntegerConfigKey(
+            BASE_NAME+".bulkEffector.maxConcurrent",
+            "Maximum number of invocations running at once when an effector is invoked on many entities with one request "
+            + "(clients may ask for fewer but not more)",
+            50);
+
     public final static boolean hasNoSecurityOptions(ConfigMap config) {
         return config.submap(ConfigPredicates.nameStartsWith(BASE_NAME_SECURITY)).isEmpty();
     }
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.rest.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.brooklyn.util.collections.MutableMap;
+import org.apache.brooklyn.util.exceptions.Exceptions;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerResponse;
+import com.sun.jersey.spi.container.ContainerResponseFilter;
+
+/**
+ * Completes the response to a request for a list which was set up by
+ * {@link org.apache.brooklyn.rest.resources.AbstractBrooklynRestResource}:
+ * reduces the items to the requested <code>fields</code> (lazily, as they are written),
+ * fails the response if any item fails to be computed (never sending a partial list),
+ * computes an ETag from the content if requested and the resource did not supply one
+ * (answering <code>304 Not Modified</code> if it matches the request's <code>If-None-Match</code>),
+ * and adds the <code>ETag</code> and <code>Link</code> (to the next page) headers.
+ * <p>
+ * The resource passes these details in a property of the request (see {@link #begin(HttpContext, ObjectMapper)}),
+ * so nothing is left over if a request does not reach this filter.
+ * This should be the first response filter, so that the others (e.g. {@link NoCacheFilter}) see the headers it sets.
+ */
+public class ListResponseFilter implements ContainerResponseFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ListResponseFilter.class);
+
+    /** how the response to the current request should be completed */
+    public static class ListResponse {
+        private final ObjectMapper mapper;
+        private EntityTag etag;
+        private boolean contentEtag;
+        private URI next;
+        private Set<String> fields;
+
+        private ListResponse(ObjectMapper mapper) {
+            this.mapper = mapper;
+        }
+        /** sets the ETag, when known before computing the list (e.g. from a modification counter) */
+        public ListResponse etag(EntityTag etag) { this.etag = etag; return this; }
+        /** requests an ETag computed from the content of the response (which is then serialized in memory), if none is {@link #etag(EntityTag) set} */
+        public ListResponse contentEtag() { this.contentEtag = true; return this; }
+        public ListResponse next(URI next) { this.next = next; return this; }
+        public ListResponse fields(Set<String> fields) { this.fields = fields; return this; }
+    }
+
+    /** the request property holding the {@link ListResponse} */
+    private static final String LIST_RESPONSE_PROPERTY = ListResponse.class.getName();
+
+    /** starts describing the response to the given request, discarding anything set earlier for it */
+    public static ListResponse begin(HttpContext request, ObjectMapper mapper) {
+        ListResponse result = new ListResponse(mapper);
+        request.getProperties().put(LIST_RESPONSE_PROPERTY, result);
+        return result;
+    }
+
+    /** the response being described for the given request, or null */
+    public static ListResponse current(HttpContext request) {
+        return (ListResponse) request.getProperties().get(LIST_RESPONSE_PROPERTY);
+    }
+
+    @Override
+    public ContainerResponse filter(ContainerRequest request, ContainerResponse response) {
+        ListResponse settings = (ListResponse) request.getProperties().remove(LIST_RESPONSE_PROPERTY);
+        if (settings==null) return response;
+        if (response.getStatus()!=200 || !(response.getEntity() instanceof List)) {
+            // e.g. an error, or a 304 already given by the resource
+            return response;
+        }
+
+        List<?> items = (List<?>) response.getEntity();
+        if (settings.fields!=null) {
+            items = project(settings.mapper, items, settings.fields);
+        }
+        ListOutput entity = new ListOutput(settings.mapper, items);
+        response.setEntity(entity);
+        if (response.getHttpHeaders().getFirst(HttpHeaders.CONTENT_TYPE)==null) {
+            response.getHttpHeaders().putSingle(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_TYPE);
+        }
+
+        EntityTag etag = settings.etag;
+        if (etag==null && settings.contentEtag) {
+            // serialize once, and send exactly what was hashed (the items may be computed lazily)
+            byte[] body = entity.toBytes();
+            etag = new EntityTag(Hashing.murmur3_128().hashBytes(body).toString(), true);
+            response.setEntity(body);
+            ResponseBuilder notModified = request.evaluatePreconditions(etag);
+            if (notModified!=null) {
+                response.setResponse(notModified.tag(etag).build());
+                return response;
+            }
+        }
+        if (etag!=null) response.getHttpHeaders().putSingle(HttpHeaders.ETAG, etag);
+        if (settings.next!=null) response.getHttpHeaders().add("Link", "<"+settings.next+">; rel=\"next\"");
+        return response;
+    }
+
+    /** reduces each item to a map of the given fields, in the order they are given, as it is written */
+    private static List<Map<String,Object>> project(final ObjectMapper mapper, List<?> items, final Set<String> fields) {
+        return Lists.transform(items, new Function<Object, Map<String,Object>>() {
+            @Override
+            public Map<String,Object> apply(Object item) {
+                @SuppressWarnings("unchecked")
+                Map<String,Object> all = mapper.convertValue(item, Map.class);
+                Map<String,Object> selected = MutableMap.of();
+                for (String field: fields) {
+                    if (all.containsKey(field)) selected.put(field, all.get(field));
+                }
+                return selected;
+            }
+        });
+    }
+
+    /**
+     * Writes the items, computing each as it is written. If an item fails, the failure is rethrown
+     * without closing the array: once the status has been sent, the output is left truncated,
+     * so the client sees an error rather than a shorter, valid list.
+     */
+    @VisibleForTesting
+    static class ListOutput implements StreamingOutput {
+        private final ObjectMapper mapper;
+        private final List<?> items;
+
+        ListOutput(ObjectMapper mapper, List<?> items) {
+            this.mapper = mapper;
+            this.items = items;
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException {
+            JsonGenerator json = mapper.getJsonFactory().createJsonGenerator(output);
+            json.writeStartArray();
+            for (int i=0; i<items.size(); i++) {
+                try {
+                    json.writeObject(items.get(i));
+                } catch (Exception e) {
+                    Exceptions.propagateIfFatal(e);
+                    log.warn("Failing list response, as item "+i+" could not be written: "+e, e);
+                    throw Exceptions.propagate(e);
+                }
+            }
+            json.writeEndArray();
+            json.flush();
+        }
+
+        byte[] toBytes() {
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            try {
+                write(result);
+            } catch (IOException e) {
+                throw Exceptions.propagate(e);
+            }
+            return result.toByteArray();
+        }
+    }
+
+}
@@ -31,6 +31,11 @@ public class NoCacheFilter implements ContainerResponseFilter {
     public ContainerResponse filter(ContainerRequest request, ContainerResponse response) {
         //https://developer.mozilla.org/en-US/docs/Web/HTTP/Caching_FAQ
         MultivaluedMap<String, Object> headers = response.getHttpHeaders();
+        if (headers.containsKey(HttpHeaders.ETAG)) {
+            // clients may keep the response, but must revalidate it (cheaply, with If-None-Match) before using it
+            headers.putSingle(HttpHeaders.CACHE_CONTROL, "no-cache");
+            return response;
+        }
         headers.putSingle(HttpHeaders.CACHE_CONTROL, "no-cache, no-store");
         headers.putSingle("Pragma", "no-cache");
         headers.putSingle(HttpHeaders.EXPIRES, "0");
@@ -18,23 +18,42 @@
  */
 package org.apache.brooklyn.rest.resources;
 
+import java.util.List;
+import java.util.Set;
+
 import javax.annotation.Nullable;
 import javax.servlet.ServletContext;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.UriInfo;
 
 import org.apache.brooklyn.api.entity.Entity;
 import org.apache.brooklyn.api.mgmt.ManagementContext;
 import org.apache.brooklyn.core.config.render.RendererHints;
 import org.apache.brooklyn.core.mgmt.ManagementContextInjectable;
+import org.apache.brooklyn.core.mgmt.entitlement.Entitlements;
+import org.apache.brooklyn.rest.filter.ListResponseFilter;
+import org.apache.brooklyn.rest.filter.ListResponseFilter.ListResponse;
 import org.apache.brooklyn.rest.util.BrooklynRestResourceUtils;
 import org.apache.brooklyn.rest.util.OsgiCompat;
 import org.apache.brooklyn.rest.util.WebResourceUtils;
 import org.apache.brooklyn.rest.util.json.BrooklynJacksonJsonProvider;
+import org.apache.brooklyn.util.collections.MutableSet;
 import org.apache.brooklyn.util.core.task.Tasks;
 import org.apache.brooklyn.util.guava.Maybe;
+import org.apache.brooklyn.util.text.Strings;
 import org.apache.brooklyn.util.time.Duration;
 import org.codehaus.jackson.map.ObjectMapper;
 
+import com.google.common.base.Function;
+import com.google.common.base.Splitter;
+import com.google.common.hash.Hashing;
+import com.sun.jersey.api.core.HttpContext;
+
 public abstract class AbstractBrooklynRestResource implements ManagementContextInjectable {
 
     // can be injected by jersey when ManagementContext in not injected manually
@@ -42,6 +61,9 @@ public abstract class AbstractBrooklynRestResource implements ManagementContextI
     // most of the time that happens for free, but with test framework it doesn't,
     // so we have set up a NullServletContextProvider in our tests) 
     @Context ServletContext servletContext;
+    @Context protected UriInfo uriInfo;
+    @Context private Request request;
+    @Context private HttpContext httpContext;
     
     private ManagementContext managementContext;
     private BrooklynRestResourceUtils brooklynRestResourceUtils;
@@ -80,6 +102,94 @@ public abstract class AbstractBrooklynRestResource implements ManagementContextI
         return mapper;
     }
 
+    /**
+     * Answers <code>304 Not Modified</code> (by throwing) if the client already has the current version of the list
+     * being requested, identified by the given tag (e.g. a modification counter); otherwise sets the tag as the ETag
+     * of the response. The tag need not cover the query parameters (such as <code>fields</code>, <code>limit</code> and
+     * <code>after</code>) nor the user (as lists are filtered by entitlements), which are included here,
+     * but must cover everything else the list depends on. The ETag is weak, as the same list may be sent
+     * in different encodings (e.g. compressed or not).
+     * <p>
+     * Call before {@link #page(List, Function)}, to avoid computing the list at all if it is not needed.
+     */
+    protected void checkListNotModified(String tag) {
+        String user = Entitlements.getEntitlementContext()==null ? null : Entitlements.getEntitlementContext().user();
+        String query = uriInfo.getRequestUri().getRawQuery();
+        EntityTag etag = new EntityTag(tag+"-"+Hashing.murmur3_32().hashUnencodedChars(user+"\n"+query), true);
+        ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified!=null) {
+            throw new WebApplicationException(notModified.tag(etag).build());
+        }
+        listResponse().etag(etag);
+    }
+
+    /**
+     * Returns the page of the given items requested by the query parameters common to lists:
+     * at most <code>limit</code> items (all if not set),
+     * starting after the item whose id is <code>after</code> (from the start if not set),
+     * with the URI of the next page given in a <code>Link</code> header if there are more.
+     * Also arranges for the items to be reduced to the comma-separated <code>fields</code>, if set,
+     * and, when a <code>limit</code> is set, for the response to have an ETag computed from its content
+     * (supporting <code>If-None-Match</code>), unless one was set by {@link #checkListNotModified(String)}.
+     * <p>
+     * The result may be a view which is computed lazily as it is written (e.g. by {@link com.google.common.collect.Lists#transform(List, Function)}),
+     * so that large lists need not be in memory at once; a content ETag needs the page in memory, hence requires a limit.
+     * <p>
+     * Cursors are the ids of items, so paging is stable when items are added or removed,
+     * but the cursor item itself must still be present.
+     */
+    protected <T> List<T> page(List<T> items, Function<? super T, String> idFunction) {
+        ListResponse response = listResponse();
+        MultivaluedMap<String, String> params = uriInfo.getQueryParameters();
+
+        String fields = params.getFirst("fields");
+        if (Strings.isNonBlank(fields)) {
+            Set<String> fieldSet = MutableSet.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(fields));
+            response.fields(fieldSet);
+        }
+
+        int start = 0;
+        String after = params.getFirst("after");
+        if (Strings.isNonBlank(after)) {
+            start = -1;
+            for (int i=0; i<items.size(); i++) {
+                if (after.equals(idFunction.apply(items.get(i)))) {
+                    start = i+1;
+                    break;
+                }
+            }
+            if (start<0) {
+                throw WebResourceUtils.badRequest("Cursor '%s' not found; the item may have been removed, so the list should be requested again from the start", after);
+            }
+        }
+
+        String limitParam = params.getFirst("limit");
+        if (Strings.isBlank(limitParam)) {
+            return start==0 ? items : items.subList(start, items.size());
+        }
+        int limit;
+        try {
+            limit = Integer.parseInt(limitParam.trim());
+        } catch (NumberFormatException e) {
+            throw WebResourceUtils.badRequest("Invalid limit '%s'", limitParam);
+        }
+        if (limit<=0) throw WebResourceUtils.badRequest("Invalid limit '%s'; must be positive", limitParam);
+        response.contentEtag();
+        int end = (int) Math.min((long)start+limit, items.size());
+        List<T> result = items.subList(start, end);
+        if (end < items.size() && !result.isEmpty()) {
+            response.next(uriInfo.getRequestUriBuilder()
+                .replaceQueryParam("after", idFunction.apply(result.get(result.size()-1)))
+                .build());
+        }
+        return result;
+    }
+
+    private ListResponse listResponse() {
+        ListResponse result = ListResponseFilter.current(httpContext);
+        return result!=null ? result : ListResponseFilter.begin(httpContext, mapper());
+    }
+
     /** @deprecated since 0.7.0 use {@link #getValueForDisplay(Object, boolean, boolean, Boolean, EntityLocal, Duration)} */ @Deprecated
     protected Object getValueForDisplay(Object value, boolean preferJson, boolean isJerseyReturnValue) {
         return resolving(value).preferJson(preferJson).asJerseyOutermostReturnValue(isJerseyReturnValue).resolve();
@@ -19,7 +19,6 @@
 package org.apache.brooklyn.rest.resources;
 
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.brooklyn.api.mgmt.HasTaskChildren;
@@ -31,7 +30,7 @@ import org.apache.brooklyn.rest.domain.TaskSummary;
 import org.apache.brooklyn.rest.transform.TaskTransformer;
 import org.apache.brooklyn.rest.util.WebResourceUtils;
 
-import com.google.common.collect.Collections2;
+import com.google.common.base.Function;
 import com.google.common.collect.Lists;
 
 public class ActivityResource extends AbstractBrooklynRestResource implements ActivityApi {
@@ -51,10 +50,18 @@ public class ActivityResource extends AbstractBrooklynRestResource implements Ac
             throw WebResourceUtils.notFound("Cannot find task '%s'", taskId);
         if (!(t instanceof HasTaskChildren))
             return Collections.emptyList();
-        return new LinkedList<TaskSummary>(Collections2.transform(Lists.newArrayList(((HasTaskChildren) t).getChildren()),
-                TaskTransformer.FROM_TASK));
+        List<Task<?>> children = Lists.newArrayList(((HasTaskChildren) t).getChildren());
+        // summaries are computed as they are written
+        return Lists.transform(page(children, TASK_ID), TaskTransformer.FROM_TASK);
     }
 
+    private static final Function<Task<?>, String> TASK_ID = new Function<Task<?>, String>() {
+        @Override
+        public String apply(Task<?> input) {
+            return input.getId();
+        }
+    };
+
     public String stream(String taskId, String streamId) {
         Task<?> t = mgmt().getExecutionManager().getTask(taskId);
         if (t == null)
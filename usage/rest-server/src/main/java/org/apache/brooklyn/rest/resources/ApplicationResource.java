@@ -23,6 +23,9 @@ import static javax.ws.rs.core.Response.created;
 import static javax.ws.rs.core.Response.status;
 import static javax.ws.rs.core.Response.Status.ACCEPTED;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Collection;
@@ -30,23 +33,35 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
+import javax.annotation.Nullable;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
-import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.core.StreamingOutput;
 
+import org.apache.brooklyn.api.effector.Effector;
 import org.apache.brooklyn.api.entity.Application;
 import org.apache.brooklyn.api.entity.Entity;
 import org.apache.brooklyn.api.entity.EntitySpec;
 import org.apache.brooklyn.api.entity.Group;
 import org.apache.brooklyn.api.location.Location;
 import org.apache.brooklyn.api.mgmt.Task;
+import org.apache.brooklyn.api.mgmt.entitlement.EntitlementContext;
+import org.apache.brooklyn.api.mgmt.entitlement.EntitlementManager;
+import org.apache.brooklyn.api.mgmt.rebind.RebindManager;
 import org.apache.brooklyn.api.objs.BrooklynObject;
 import org.apache.brooklyn.api.sensor.AttributeSensor;
 import org.apache.brooklyn.api.sensor.Sensor;
+import org.apache.brooklyn.config.ConfigKey;
 import org.apache.brooklyn.core.config.ConstraintViolationException;
 import org.apache.brooklyn.core.entity.Attributes;
+import org.apache.brooklyn.core.entity.Entities;
+import org.apache.brooklyn.core.entity.EntityInternal;
 import org.apache.brooklyn.core.entity.EntityPredicates;
 import org.apache.brooklyn.core.entity.lifecycle.Lifecycle;
 import org.apache.brooklyn.core.entity.trait.Startable;
@@ -56,10 +71,14 @@ import org.apache.brooklyn.core.mgmt.entitlement.EntitlementPredicates;
 import org.apache.brooklyn.core.mgmt.entitlement.Entitlements;
 import org.apache.brooklyn.core.mgmt.entitlement.Entitlements.EntityAndItem;
 import org.apache.brooklyn.core.mgmt.entitlement.Entitlements.StringAndArgument;
+import org.apache.brooklyn.core.mgmt.internal.EffectorUtils;
+import org.apache.brooklyn.core.mgmt.rebind.DormantApplicationSupport;
+import org.apache.brooklyn.core.mgmt.rebind.DormantApplicationSupport.DormantApplication;
 import org.apache.brooklyn.core.sensor.Sensors;
 import org.apache.brooklyn.core.typereg.RegisteredTypeLoadingContexts;
 import org.apache.brooklyn.core.typereg.RegisteredTypes;
 import org.apache.brooklyn.entity.group.AbstractGroup;
+import org.apache.brooklyn.rest.BrooklynWebConfig;
 import org.apache.brooklyn.rest.api.ApplicationApi;
 import org.apache.brooklyn.rest.domain.ApplicationSpec;
 import org.apache.brooklyn.rest.domain.ApplicationSummary;
@@ -70,152 +89,441 @@ import org.apache.brooklyn.rest.transform.ApplicationTransformer;
 import org.apache.brooklyn.rest.transform.EntityTransformer;
 import org.apache.brooklyn.rest.transform.TaskTransformer;
 import org.apache.brooklyn.rest.util.BrooklynRestResourceUtils;
+import org.apache.brooklyn.rest.util.BulkEffectorInvocation;
+import org.apache.brooklyn.rest.util.SensorEventStream;
 import org.apache.brooklyn.rest.util.WebResourceUtils;
+import org.apache.brooklyn.util.collections.MutableList;
 import org.apache.brooklyn.util.collections.MutableMap;
+import org.apache.brooklyn.util.collections.MutableSet;
 import org.apache.brooklyn.util.core.ResourceUtils;
 import org.apache.brooklyn.util.exceptions.Exceptions;
 import org.apache.brooklyn.util.exceptions.UserFacingException;
+import org.apache.brooklyn.util.guava.Maybe;
 import org.apache.brooklyn.util.javalang.JavaClassNames;
 import org.apache.brooklyn.util.text.Strings;
-import org.codehaus.jackson.JsonNode;
-import org.codehaus.jackson.node.ArrayNode;
-import org.codehaus.jackson.node.ObjectNode;
+import org.apache.brooklyn.util.time.Duration;
+import org.apache.brooklyn.util.time.Time;
+import org.codehaus.jackson.JsonGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.base.Predicate;
+import com.google.common.base.Splitter;
 import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.sun.jersey.spi.CloseableService;
 
 @HaHotStateRequired
 public class ApplicationResource extends AbstractBrooklynRestResource implements ApplicationApi {
 
     private static final Logger log = LoggerFactory.getLogger(ApplicationResource.class);
 
-    @Context
-    private UriInfo uriInfo;
+    @Context private CloseableService closeables;
 
     /** @deprecated since 0.6.0 use {@link #fetch(String)} (with slightly different, but better semantics) */
     @Deprecated
     @Override
-    public JsonNode applicationTree() {
-        ArrayNode apps = mapper().createArrayNode();
+    public Response applicationTree() {
+        return Response.ok(new EntityTreeOutput(MutableList.<Entity>copyOf(mgmt().getApplications()), true,
+                mgmt().getEntitlementManager(), Entitlements.getEntitlementContext())).build();
+    }
+
+    @Override
+    public Response fetch(String entityIds) {
+        EntitlementManager entitlements = mgmt().getEntitlementManager();
+        EntitlementContext user = Entitlements.getEntitlementContext();
+
+        // only the entities are collected here; each is written when it is its turn
+        Map<String, Entity> entitiesById = MutableMap.of();
         for (Application application : mgmt().getApplications())
-            apps.add(recursiveTreeFromEntity(application));
-        return apps;
+            entitiesById.put(application.getId(), application);
+        if (entityIds != null) {
+            for (String entityId: entityIds.split(",")) {
+                Entity entity = mgmt().getEntityManager().getEntity(entityId.trim());
+                while (entity != null && entity.getParent() != null) {
+                    if (entitlements.isEntitled(user, Entitlements.SEE_ENTITY, entity)) {
+                        entitiesById.put(entity.getId(), entity);
+                    }
+                    entity = entity.getParent();
+                }
+            }
+        }
+        return Response.ok(new EntityTreeOutput(MutableList.<Entity>copyOf(entitiesById.values()), false,
+                entitlements, user)).build();
+    }
+
+    @Override
+    public Response currentState(String entityIds, String application, String typeRegex, String tag,
+            String sensors, String config, Boolean raw) {
+        // look up the user once, and ask the entitlement manager directly, rather than finding the context for each check
+        EntitlementManager entitlements = mgmt().getEntitlementManager();
+        EntitlementContext user = Entitlements.getEntitlementContext();
+
+        EntityScope scope = entityScope(entityIds, application, typeRegex, tag);
+        List<Entity> selected = MutableList.of();
+        for (Entity entity: candidates(scope)) {
+            if (scope.apply(entity) && entitlements.isEntitled(user, Entitlements.SEE_ENTITY, entity)) {
+                selected.add(entity);
+            }
+        }
+        return Response.ok(new CurrentStateOutput(selected, selectedNames(sensors), selectedNames(config),
+                Boolean.TRUE.equals(raw), entitlements, user)).build();
+    }
+
+    @Override
+    public Response currentStateFromForm(String entityIds, String application, String typeRegex, String tag,
+            String sensors, String config, Boolean raw) {
+        return currentState(entityIds, application, typeRegex, tag, sensors, config, raw);
+    }
+
+    @Override
+    public Response sensorEvents(String entityIds, String application, String typeRegex, String tag,
+            String sensors, Boolean initial, String minPeriod) {
+        EntityScope scope = entityScope(entityIds, application, typeRegex, tag);
+        Duration period = mgmt().getConfig().getConfig(BrooklynWebConfig.SENSOR_EVENTS_MIN_PERIOD);
+        if (Strings.isNonBlank(minPeriod)) {
+            Duration requested;
+            try {
+                requested = Duration.parse(minPeriod);
+            } catch (Exception e) {
+                Exceptions.propagateIfFatal(e);
+                throw WebResourceUtils.badRequest("Invalid minPeriod '%s'", minPeriod);
+            }
+            period = Duration.max(period, requested);
+        }
+        int maxStreams = mgmt().getConfig().getConfig(BrooklynWebConfig.SENSOR_EVENTS_MAX_STREAMS);
+        Closeable slot = SensorEventStream.tryOpen(mgmt(), maxStreams);
+        if (slot==null) {
+            throw WebResourceUtils.throwWebApplicationException(Response.Status.SERVICE_UNAVAILABLE,
+                    "Too many sensor event streams open (maximum %s); try again later", maxStreams);
+        }
+        // released once the request has finished, whether or not the stream was written (e.g. not for HEAD)
+        closeables.add(slot);
+        return Response.ok(new SensorEventStream(mgmt(), mapper(), scope, selectedNames(sensors),
+                    Boolean.TRUE.equals(initial), period, Entitlements.getEntitlementContext()))
+                // not compressed, as the compressor would hold back events until it had enough data
+                .header(HttpHeaders.CONTENT_ENCODING, "identity")
+                .build();
     }
 
-    private ObjectNode entityBase(Entity entity) {
-        ObjectNode aRoot = mapper().createObjectNode();
-        aRoot.put("name", entity.getDisplayName());
-        aRoot.put("id", entity.getId());
-        aRoot.put("type", entity.getEntityType().getName());
+    @Override
+    public Response invokeOnEntities(String entityIds, String application, String typeRegex, String tag,
+            String effectorName, Integer maxConcurrent, String timeout, Map<String, Object> parameters) {
+        EntityScope scope = entityScope(entityIds, application, typeRegex, tag);
+        if (scope.isAll()) {
+            throw WebResourceUtils.badRequest("Entities or an application must be given, to select where to invoke effector '%s'", effectorName);
+        }
+        int max = mgmt().getConfig().getConfig(BrooklynWebConfig.BULK_EFFECTOR_MAX_CONCURRENT);
+        if (maxConcurrent!=null) {
+            if (maxConcurrent<=0) throw WebResourceUtils.badRequest("Invalid maxConcurrent '%s'; must be positive", maxConcurrent);
+            max = Math.min(max, maxConcurrent);
+        }
 
-        Boolean serviceUp = entity.getAttribute(Attributes.SERVICE_UP);
-        if (serviceUp!=null) aRoot.put("serviceUp", serviceUp);
+        EntitlementManager entitlements = mgmt().getEntitlementManager();
+        EntitlementContext user = Entitlements.getEntitlementContext();
+        Map<Entity, Effector<?>> invocations = MutableMap.of();
+        for (Entity entity: candidates(scope)) {
+            if (!scope.apply(entity)) continue;
+            Maybe<Effector<?>> effector = EffectorUtils.findEffectorDeclared(entity, effectorName);
+            if (effector.isAbsentOrNull()) continue;
+            if (!entitlements.isEntitled(user, Entitlements.INVOKE_EFFECTOR, EntityAndItem.of(entity, StringAndArgument.of(effectorName, null)))) continue;
+            invocations.put(entity, effector.get());
+        }
+        if (invocations.isEmpty()) {
+            throw WebResourceUtils.notFound("No selected entity has effector '%s' which user '%s' is entitled to invoke",
+                    effectorName, user==null ? null : user.user());
+        }
+        log.info("REST invocation of "+effectorName+" on "+invocations.size()+" entities (at most "+max+" at once) "+parameters);
+        Task<Map<String, Object>> task = BulkEffectorInvocation.newTask(effectorName, invocations,
+                parameters==null ? MutableMap.<String, Object>of() : parameters, max);
+        mgmt().getExecutionManager().submit(task);
 
-        Lifecycle serviceState = entity.getAttribute(Attributes.SERVICE_STATE_ACTUAL);
-        if (serviceState!=null) aRoot.put("serviceState", serviceState.toString());
+        try {
+            if ("never".equalsIgnoreCase(timeout)) {
+                return Response.ok(task.get()).build();
+            }
+            long timeoutMillis = Strings.isBlank(timeout) || "always".equalsIgnoreCase(timeout) ? 0 : Time.parseElapsedTime(timeout);
+            if (timeoutMillis > 0 && task.blockUntilEnded(Duration.millis(timeoutMillis))) {
+                return Response.ok(task.get()).build();
+            }
+            return Response.status(ACCEPTED).entity(TaskTransformer.taskSummary(task)).build();
+        } catch (Exception e) {
+            throw Exceptions.propagate(e);
+        }
+    }
 
-        String iconUrl = entity.getIconUrl();
-        if (iconUrl!=null) {
-            if (brooklyn().isUrlServerSideAndSafe(iconUrl))
-                // route to server if it is a server-side url
-                iconUrl = EntityTransformer.entityUri(entity)+"/icon";
-            aRoot.put("iconUrl", iconUrl);
+    /** the entities selected by ID or application, or all entities; these must then be filtered by the scope */
+    private Iterable<Entity> candidates(EntityScope scope) {
+        if (scope.isAll()) {
+            return mgmt().getEntityManager().getEntities();
+        }
+        Set<Entity> selectedByIdOrApp = MutableSet.of();
+        for (String entityId: scope.entityIds) {
+            Entity entity = mgmt().getEntityManager().getEntity(entityId);
+            if (entity!=null) selectedByIdOrApp.add(entity);
         }
+        if (scope.applicationId!=null) {
+            Iterables.addAll(selectedByIdOrApp, Entities.descendants(mgmt().getEntityManager().getEntity(scope.applicationId)));
+        }
+        return selectedByIdOrApp;
+    }
 
-        return aRoot;
+    private EntityScope entityScope(String entityIds, String application, String typeRegex, String tag) {
+        Set<String> ids = Strings.isBlank(entityIds) ? MutableSet.<String>of()
+                : MutableSet.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(entityIds));
+        String applicationId = Strings.isBlank(application) ? null : brooklyn().getApplication(application).getId();
+        Pattern type;
+        try {
+            type = Pattern.compile(Strings.isBlank(typeRegex) ? ".*" : typeRegex);
+        } catch (PatternSyntaxException e) {
+            throw WebResourceUtils.badRequest("Invalid typeRegex '%s'", typeRegex);
+        }
+        return new EntityScope(ids, applicationId, type, Strings.isBlank(tag) ? null : tag);
     }
 
-    private JsonNode recursiveTreeFromEntity(Entity entity) {
-        ObjectNode aRoot = entityBase(entity);
+    /**
+     * Entities selected by ID and/or application (including its descendants), or all entities if neither is given,
+     * which have the given type and tag. Entitlements are not checked here.
+     */
+    private static class EntityScope implements Predicate<Entity> {
+        final Set<String> entityIds;
+        final String applicationId;
+        final Pattern type;
+        final String tag;
+
+        EntityScope(Set<String> entityIds, String applicationId, Pattern type, String tag) {
+            this.entityIds = entityIds;
+            this.applicationId = applicationId;
+            this.type = type;
+            this.tag = tag;
+        }
 
-        if (!entity.getChildren().isEmpty())
-            aRoot.put("children", childEntitiesRecursiveAsArray(entity));
+        boolean isAll() {
+            return entityIds.isEmpty() && applicationId==null;
+        }
 
-        return aRoot;
+        @Override
+        public boolean apply(Entity entity) {
+            if (!isAll() && !entityIds.contains(entity.getId()) && !(applicationId!=null && applicationId.equals(entity.getApplicationId()))) {
+                return false;
+            }
+            if (!type.matcher(entity.getEntityType().getName()).matches()) return false;
+            return tag==null || entity.tags().containsTag(tag);
+        }
     }
 
-    // TODO when applicationTree can be removed, replace this with an extension to EntitySummary (without links)
-    private JsonNode fromEntity(Entity entity) {
-        ObjectNode aRoot = entityBase(entity);
+    /** the names in the given comma-separated list, or null (meaning all) for <code>*</code> */
+    private static Set<String> selectedNames(String names) {
+        if (names==null) return MutableSet.of();
+        if (names.trim().equals("*")) return null;
+        return MutableSet.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(names));
+    }
 
-        aRoot.put("applicationId", entity.getApplicationId());
+    /**
+     * Writes the entities for {@link #applicationTree()} (recursing through children) and {@link #fetch(String)}
+     * (with ids and names of children, groups and members), one at a time, so nothing is held in memory as a tree.
+     */
+    private class EntityTreeOutput implements StreamingOutput {
+        private final List<Entity> entities;
+        private final boolean recursive;
+        private final EntitlementManager entitlements;
+        private final EntitlementContext user;
+
+        EntityTreeOutput(List<Entity> entities, boolean recursive, EntitlementManager entitlements, EntitlementContext user) {
+            this.entities = entities;
+            this.recursive = recursive;
+            this.entitlements = entitlements;
+            this.user = user;
+        }
 
-        if (entity.getParent()!=null) {
-            aRoot.put("parentId", entity.getParent().getId());
+        @Override
+        public void write(OutputStream output) throws IOException {
+            JsonGenerator json = mapper().getJsonFactory().createJsonGenerator(output);
+            json.writeStartArray();
+            for (Entity entity: entities) {
+                if (recursive) writeTree(json, entity);
+                else writeEntity(json, entity);
+            }
+            json.writeEndArray();
+            json.flush();
         }
 
-        if (!entity.groups().isEmpty())
-            aRoot.put("groupIds", entitiesIdAsArray(entity.groups()));
+        private void writeBase(JsonGenerator json, Entity entity) throws IOException {
+            json.writeStringField("name", entity.getDisplayName());
+            json.writeStringField("id", entity.getId());
+            json.writeStringField("type", entity.getEntityType().getName());
 
-        if (!entity.getChildren().isEmpty())
-            aRoot.put("children", entitiesIdAndNameAsArray(entity.getChildren()));
+            Boolean serviceUp = entity.getAttribute(Attributes.SERVICE_UP);
+            if (serviceUp!=null) json.writeBooleanField("serviceUp", serviceUp);
 
-        if (entity instanceof Group) {
-            // use attribute instead of method in case it is read-only
-            Collection<Entity> members = entity.getAttribute(AbstractGroup.GROUP_MEMBERS);
-            if (members!=null && !members.isEmpty())
-                aRoot.put("members", entitiesIdAndNameAsArray(members));
+            Lifecycle serviceState = entity.getAttribute(Attributes.SERVICE_STATE_ACTUAL);
+            if (serviceState!=null) json.writeStringField("serviceState", serviceState.toString());
+
+            String iconUrl = entity.getIconUrl();
+            if (iconUrl!=null) {
+                if (brooklyn().isUrlServerSideAndSafe(iconUrl))
+                    // route to server if it is a server-side url
+                    iconUrl = EntityTransformer.entityUri(entity)+"/icon";
+                json.writeStringField("iconUrl", iconUrl);
+            }
         }
 
-        return aRoot;
-    }
+        private void writeTree(JsonGenerator json, Entity entity) throws IOException {
+            json.writeStartObject();
+            writeBase(json, entity);
+            if (!entity.getChildren().isEmpty()) {
+                json.writeArrayFieldStart("children");
+                for (Entity e : entity.getChildren()) {
+                    if (entitlements.isEntitled(user, Entitlements.SEE_ENTITY, entity)) {
+                        writeTree(json, e);
+                    }
+                }
+                json.writeEndArray();
+            }
+            json.writeEndObject();
+        }
+
+        // TODO when applicationTree can be removed, replace this with an extension to EntitySummary (without links)
+        private void writeEntity(JsonGenerator json, Entity entity) throws IOException {
+            json.writeStartObject();
+            writeBase(json, entity);
+
+            json.writeStringField("applicationId", entity.getApplicationId());
+
+            if (entity.getParent()!=null) {
+                json.writeStringField("parentId", entity.getParent().getId());
+            }
+
+            if (!entity.groups().isEmpty()) {
+                json.writeArrayFieldStart("groupIds");
+                for (Entity group : entity.groups()) {
+                    if (entitlements.isEntitled(user, Entitlements.SEE_ENTITY, group)) {
+                        json.writeString(group.getId());
+                    }
+                }
+                json.writeEndArray();
+            }
 
-    private ArrayNode childEntitiesRecursiveAsArray(Entity entity) {
-        ArrayNode node = mapper().createArrayNode();
-        for (Entity e : entity.getChildren()) {
-            if (Entitlements.isEntitled(mgmt().getEntitlementManager(), Entitlements.SEE_ENTITY, entity)) {
-                node.add(recursiveTreeFromEntity(e));
+            if (!entity.getChildren().isEmpty())
+                writeIdsAndNames(json, "children", entity.getChildren());
+
+            if (entity instanceof Group) {
+                // use attribute instead of method in case it is read-only
+                Collection<Entity> members = entity.getAttribute(AbstractGroup.GROUP_MEMBERS);
+                if (members!=null && !members.isEmpty())
+                    writeIdsAndNames(json, "members", members);
             }
+            json.writeEndObject();
         }
-        return node;
-    }
 
-    private ArrayNode entitiesIdAndNameAsArray(Collection<? extends Entity> entities) {
-        ArrayNode node = mapper().createArrayNode();
-        for (Entity entity : entities) {
-            if (Entitlements.isEntitled(mgmt().getEntitlementManager(), Entitlements.SEE_ENTITY, entity)) {
-                ObjectNode holder = mapper().createObjectNode();
-                holder.put("id", entity.getId());
-                holder.put("name", entity.getDisplayName());
-                node.add(holder);
+        private void writeIdsAndNames(JsonGenerator json, String field, Collection<? extends Entity> entities) throws IOException {
+            json.writeArrayFieldStart(field);
+            for (Entity entity : entities) {
+                if (entitlements.isEntitled(user, Entitlements.SEE_ENTITY, entity)) {
+                    json.writeStartObject();
+                    json.writeStringField("id", entity.getId());
+                    json.writeStringField("name", entity.getDisplayName());
+                    json.writeEndObject();
+                }
             }
+            json.writeEndArray();
         }
-        return node;
     }
 
-    private ArrayNode entitiesIdAsArray(Iterable<? extends Entity> entities) {
-        ArrayNode node = mapper().createArrayNode();
-        for (Entity entity : entities) {
-            if (Entitlements.isEntitled(mgmt().getEntitlementManager(), Entitlements.SEE_ENTITY, entity)) {
-                node.add(entity.getId());
+    /**
+     * Writes the values for {@link #currentState(String, String, String, String, String, String, Boolean)},
+     * reading each entity's values only when it is its turn to be written, so the response can be sent as it is computed.
+     */
+    private class CurrentStateOutput implements StreamingOutput {
+        private final List<Entity> entities;
+        private final Set<String> sensors;
+        private final Set<String> config;
+        private final boolean raw;
+        private final EntitlementManager entitlements;
+        private final EntitlementContext user;
+
+        CurrentStateOutput(List<Entity> entities, Set<String> sensors, Set<String> config, boolean raw,
+                EntitlementManager entitlements, EntitlementContext user) {
+            this.entities = entities;
+            this.sensors = sensors;
+            this.config = config;
+            this.raw = raw;
+            this.entitlements = entitlements;
+            this.user = user;
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException {
+            JsonGenerator json = mapper().getJsonFactory().createJsonGenerator(output);
+            json.writeStartObject();
+            for (Entity entity: entities) {
+                // may have been unmanaged since it was selected
+                if (!Entities.isManaged(entity)) continue;
+                json.writeObjectFieldStart(entity.getId());
+                if (sensors==null || !sensors.isEmpty()) {
+                    json.writeObjectFieldStart("sensors");
+                    writeSensors(json, entity);
+                    json.writeEndObject();
+                }
+                if (config==null || !config.isEmpty()) {
+                    json.writeObjectFieldStart("config");
+                    writeConfig(json, entity);
+                    json.writeEndObject();
+                }
+                json.writeEndObject();
             }
+            json.writeEndObject();
+            json.flush();
         }
-        return node;
-    }
 
-    @Override
-    public JsonNode fetch(String entityIds) {
-        Map<String, JsonNode> jsonEntitiesById = MutableMap.of();
-        for (Application application : mgmt().getApplications())
-            jsonEntitiesById.put(application.getId(), fromEntity(application));
-        if (entityIds != null) {
-            for (String entityId: entityIds.split(",")) {
-                Entity entity = mgmt().getEntityManager().getEntity(entityId.trim());
-                while (entity != null && entity.getParent() != null) {
-                    if (Entitlements.isEntitled(mgmt().getEntitlementManager(), Entitlements.SEE_ENTITY, entity)) {
-                        jsonEntitiesById.put(entity.getId(), fromEntity(entity));
-                    }
-                    entity = entity.getParent();
+        private void writeSensors(JsonGenerator json, Entity entity) throws IOException {
+            Collection<AttributeSensor<?>> selectedSensors = MutableList.of();
+            if (sensors==null) {
+                for (Sensor<?> sensor: entity.getEntityType().getSensors()) {
+                    if (sensor instanceof AttributeSensor) selectedSensors.add((AttributeSensor<?>) sensor);
+                }
+            } else {
+                for (String name: sensors) {
+                    Sensor<?> sensor = entity.getEntityType().getSensor(name);
+                    selectedSensors.add(sensor instanceof AttributeSensor ? (AttributeSensor<?>) sensor : Sensors.newSensor(Object.class, name));
                 }
             }
+            for (AttributeSensor<?> sensor: selectedSensors) {
+                if (!entitlements.isEntitled(user, Entitlements.SEE_SENSOR, EntityAndItem.of(entity, sensor.getName()))) continue;
+                Object value;
+                try {
+                    value = resolving(entity.getAttribute(sensor)).preferJson(true).asJerseyOutermostReturnValue(false)
+                        .raw(raw).context(entity).timeout(Duration.ZERO).renderAs(sensor).resolve();
+                } catch (Exception e) {
+                    // don't lose the rest of the document, which may already be partly sent
+                    Exceptions.propagateIfFatal(e);
+                    log.warn("Error retrieving sensor "+sensor+" for "+entity+" (omitting): "+e);
+                    continue;
+                }
+                json.writeObjectField(sensor.getName(), value);
+            }
         }
 
-        ArrayNode result = mapper().createArrayNode();
-        for (JsonNode n: jsonEntitiesById.values()) result.add(n);
-        return result;
+        private void writeConfig(JsonGenerator json, Entity entity) throws IOException {
+            Map<ConfigKey<?>, ?> source = ((EntityInternal) entity).config().getBag().getAllConfigAsConfigKeyMap();
+            for (Map.Entry<ConfigKey<?>, ?> entry: source.entrySet()) {
+                if (config!=null && !config.contains(entry.getKey().getName())) continue;
+                Object value;
+                try {
+                    value = resolving(entry.getValue()).preferJson(true).asJerseyOutermostReturnValue(false)
+                        .raw(raw).context(entity).timeout(Duration.ZERO).renderAs(entry.getKey()).resolve();
+                } catch (Exception e) {
+                    Exceptions.propagateIfFatal(e);
+                    log.warn("Error retrieving config "+entry.getKey()+" for "+entity+" (omitting): "+e);
+                    continue;
+                }
+                json.writeObjectField(entry.getKey().getName(), value);
+            }
+        }
     }
 
     @Override
@@ -223,12 +531,41 @@ public class ApplicationResource extends AbstractBrooklynRestResource implements
         if (Strings.isBlank(typeRegex)) {
             typeRegex = ".*";
         }
-        return FluentIterable
+        final Map<String, Application> apps = MutableMap.of();
+        for (Application app : FluentIterable
                 .from(mgmt().getApplications())
                 .filter(EntitlementPredicates.isEntitled(mgmt().getEntitlementManager(), Entitlements.SEE_ENTITY))
-                .filter(EntityPredicates.hasInterfaceMatching(typeRegex))
-                .transform(ApplicationTransformer.FROM_APPLICATION)
-                .toList();
+                .filter(EntityPredicates.hasInterfaceMatching(typeRegex))) {
+            apps.put(app.getId(), app);
+        }
+        // dormant applications are listed from their persisted state, as getting them would wake them
+        final Map<String, DormantApplication> dormantApps = MutableMap.of();
+        DormantApplicationSupport dormancy = getDormantApplicationSupport();
+        if (dormancy != null && Entitlements.isEntitled(mgmt().getEntitlementManager(), Entitlements.SEE_ALL_SERVER_INFO, null)) {
+            Pattern typePattern = Pattern.compile(typeRegex);
+            for (DormantApplication app : dormancy.getDormantApplications()) {
+                if (!apps.containsKey(app.getId()) && (app.getType() == null || typePattern.matcher(app.getType()).matches())) {
+                    dormantApps.put(app.getId(), app);
+                }
+            }
+        }
+        List<String> ids = MutableList.copyOf(apps.keySet()).appendAll(dormantApps.keySet());
+        // summaries are computed as they are written
+        return Lists.transform(page(ids, Functions.<String>identity()), new Function<String, ApplicationSummary>() {
+            @Override
+            public ApplicationSummary apply(String id) {
+                Application app = apps.get(id);
+                return app != null
+                        ? ApplicationTransformer.summaryFromApplication(app)
+                        : ApplicationTransformer.summaryFromDormantApplication(dormantApps.get(id));
+            }
+        });
+    }
+
+    @Nullable
+    private DormantApplicationSupport getDormantApplicationSupport() {
+        RebindManager rebindManager = mgmt().getRebindManager();
+        return rebindManager instanceof DormantApplicationSupport ? (DormantApplicationSupport) rebindManager : null;
     }
 
     @Override
@@ -236,6 +573,19 @@ public class ApplicationResource extends AbstractBrooklynRestResource implements
         return ApplicationTransformer.summaryFromApplication(brooklyn().getApplication(application));
     }
 
+    @Override
+    public ApplicationSummary wake(String application) {
+        DormantApplicationSupport dormancy = getDormantApplicationSupport();
+        if (dormancy != null && dormancy.isDormant(application)) {
+            if (!Entitlements.isEntitled(mgmt().getEntitlementManager(), Entitlements.WAKE_APPLICATION, application)) {
+                throw WebResourceUtils.unauthorized("User '%s' is not authorized to wake dormant application %s",
+                        Entitlements.getEntitlementContext().user(), application);
+            }
+            dormancy.wakeDormantApplication(application);
+        }
+        return get(application);
+    }
+
     public Response create(ApplicationSpec applicationSpec) {
         return createFromAppSpec(applicationSpec);
     }
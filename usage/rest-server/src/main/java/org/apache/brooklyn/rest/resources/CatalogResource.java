@@ -93,6 +93,14 @@ public class CatalogResource extends AbstractBrooklynRestResource implements Cat
         }
     };
 
+    @SuppressWarnings("rawtypes")
+    private static final Function<CatalogItem, String> CATALOG_ITEM_ID = new Function<CatalogItem, String>() {
+        @Override
+        public String apply(CatalogItem input) {
+            return input.getId();
+        }
+    };
+
     @Override
     @Consumes(MediaType.MULTIPART_FORM_DATA)
     public Response createFromMultipart(InputStream uploadedInputStream, FormDataContentDisposition fileDetail) {
@@ -390,11 +398,16 @@ public class CatalogResource extends AbstractBrooklynRestResource implements Cat
         
         filters.add(CatalogPredicates.entitledToSee(mgmt()));
 
+        if (brooklyn().getCatalog() instanceof BasicBrooklynCatalog) {
+            // avoids computing the list if unchanged
+            checkListNotModified(((BasicBrooklynCatalog)brooklyn().getCatalog()).getModificationTag());
+        }
         ImmutableList<CatalogItem<Object, Object>> sortedItems =
                 FluentIterable.from(brooklyn().getCatalog().getCatalogItems())
                     .filter(Predicates.and(filters))
                     .toSortedList(CatalogItemComparator.getInstance());
-        return Lists.transform(sortedItems, TO_CATALOG_ITEM_SUMMARY);
+        // page before transforming, so only the items returned are transformed
+        return Lists.transform(page(sortedItems, CATALOG_ITEM_ID), TO_CATALOG_ITEM_SUMMARY);
     }
 
     @Override
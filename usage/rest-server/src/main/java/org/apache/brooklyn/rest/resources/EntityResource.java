@@ -23,21 +23,19 @@ import static javax.ws.rs.core.Response.status;
 import static javax.ws.rs.core.Response.Status.ACCEPTED;
 
 import java.net.URI;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
-import javax.ws.rs.core.UriInfo;
 
 import org.apache.brooklyn.api.entity.Entity;
 import org.apache.brooklyn.api.location.Location;
 import org.apache.brooklyn.api.mgmt.Task;
+import org.apache.brooklyn.core.entity.EntityFunctions;
 import org.apache.brooklyn.core.mgmt.BrooklynTags;
 import org.apache.brooklyn.core.mgmt.BrooklynTags.NamedStringTag;
 import org.apache.brooklyn.core.mgmt.BrooklynTaskTags;
@@ -61,7 +59,6 @@ import org.apache.brooklyn.util.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.Collections2;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -72,16 +69,14 @@ public class EntityResource extends AbstractBrooklynRestResource implements Enti
 
     private static final Logger log = LoggerFactory.getLogger(EntityResource.class);
 
-    @Context
-    private UriInfo uriInfo;
-    
     @Override
     public List<EntitySummary> list(final String application) {
-        return FluentIterable
+        List<Entity> children = FluentIterable
                 .from(brooklyn().getApplication(application).getChildren())
                 .filter(EntitlementPredicates.isEntitled(mgmt().getEntitlementManager(), Entitlements.SEE_ENTITY))
-                .transform(EntityTransformer.FROM_ENTITY)
                 .toList();
+        // summaries are computed as they are written
+        return Lists.transform(page(children, EntityFunctions.id()), EntityTransformer.FROM_ENTITY);
     }
 
     @Override
@@ -96,11 +91,12 @@ public class EntityResource extends AbstractBrooklynRestResource implements Enti
 
     @Override
     public List<EntitySummary> getChildren(final String application, final String entity) {
-        return FluentIterable
+        List<Entity> children = FluentIterable
                 .from(brooklyn().getEntity(application, entity).getChildren())
                 .filter(EntitlementPredicates.isEntitled(mgmt().getEntitlementManager(), Entitlements.SEE_ENTITY))
-                .transform(EntityTransformer.FROM_ENTITY)
                 .toList();
+        // summaries are computed as they are written
+        return Lists.transform(page(children, EntityFunctions.id()), EntityTransformer.FROM_ENTITY);
     }
 
     @Override
@@ -137,7 +133,7 @@ public class EntityResource extends AbstractBrooklynRestResource implements Enti
     public List<TaskSummary> listTasks(String applicationId, String entityId) {
         Entity entity = brooklyn().getEntity(applicationId, entityId);
         Set<Task<?>> tasks = BrooklynTaskTags.getTasksInEntityContext(mgmt().getExecutionManager(), entity);
-        return new LinkedList<TaskSummary>(Collections2.transform(tasks, TaskTransformer.FROM_TASK));
+        return Lists.transform(MutableList.<Task<?>>copyOf(tasks), TaskTransformer.FROM_TASK);
     }
 
     @Override
@@ -18,10 +18,11 @@
  */
 package org.apache.brooklyn.rest.resources;
 
-import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.brooklyn.api.entity.Application;
 import org.apache.brooklyn.api.mgmt.ManagementContext;
@@ -80,6 +82,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.FluentIterable;
+import com.sun.jersey.spi.CloseableService;
 
 public class ServerResource extends AbstractBrooklynRestResource implements ServerApi {
 
@@ -93,6 +96,9 @@ public class ServerResource extends AbstractBrooklynRestResource implements Serv
     @Context
     private ShutdownHandler shutdownHandler;
 
+    @Context
+    private CloseableService closeables;
+
     @Override
     public void reloadBrooklynProperties() {
         brooklyn().reloadBrooklynProperties();
@@ -471,11 +477,23 @@ public class ServerResource extends AbstractBrooklynRestResource implements Serv
             Os.deleteOnExitEmptyParentsUpTo(dir.getParentFile(), dir.getParentFile());
             BrooklynPersistenceUtils.writeMemento(mgmt(), targetStore, preferredOrigin);            
             
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ArchiveBuilder.zip().addDirContentsAt( ((FileBasedObjectStore)targetStore).getBaseDir(), ((FileBasedObjectStore)targetStore).getBaseDir().getName() ).stream(baos);
-            Os.deleteRecursively(dir);
+            // zipped straight to the response, rather than into memory first, as the state can be large;
+            // the dir is deleted when the request finishes, whether or not it was written (e.g. not for HEAD, or if the client aborts)
+            final File stateDir = dir;
+            closeables.add(new Closeable() {
+                @Override
+                public void close() {
+                    Os.deleteRecursively(stateDir);
+                }
+            });
+            StreamingOutput zip = new StreamingOutput() {
+                @Override
+                public void write(OutputStream output) throws IOException {
+                    ArchiveBuilder.zip().addDirContentsAt(stateDir, stateDir.getName()).stream(output);
+                }
+            };
             String filename = "brooklyn-state-"+label+".zip";
-            return Response.ok(baos.toByteArray(), MediaType.APPLICATION_OCTET_STREAM_TYPE)
+            return Response.ok(zip, MediaType.APPLICATION_OCTET_STREAM_TYPE)
                 .header("Content-Disposition","attachment; filename = "+filename)
                 .build();
         } catch (Exception e) {
@@ -39,12 +39,14 @@ import org.apache.brooklyn.api.location.Location;
 import org.apache.brooklyn.core.entity.Attributes;
 import org.apache.brooklyn.core.entity.lifecycle.Lifecycle;
 import org.apache.brooklyn.core.entity.trait.Startable;
+import org.apache.brooklyn.core.mgmt.rebind.DormantApplicationSupport.DormantApplication;
 import org.apache.brooklyn.rest.domain.ApplicationSpec;
 import org.apache.brooklyn.rest.domain.ApplicationSummary;
 import org.apache.brooklyn.rest.domain.Status;
 
 import com.google.common.base.Function;
 import com.google.common.collect.Collections2;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 public class ApplicationTransformer {
@@ -113,4 +115,14 @@ public class ApplicationTransformer {
 
         return new ApplicationSummary(application.getId(), specFromApplication(application), statusFromApplication(application), links);
     }
+
+    /** summary of an application kept dormant on rebind, from its persisted state; locations are not known until it is woken */
+    public static ApplicationSummary summaryFromDormantApplication(DormantApplication application) {
+        Map<String, URI> links = ImmutableMap.of(
+                "self", URI.create("/v1/applications/" + application.getId()),
+                "wake", URI.create("/v1/applications/" + application.getId() + "/wake"));
+        ApplicationSpec spec = new ApplicationSpec(application.getDisplayName(), application.getType(),
+                null, ImmutableList.<String>of(), null);
+        return new ApplicationSummary(application.getId(), spec, Status.DORMANT, links);
+    }
 }
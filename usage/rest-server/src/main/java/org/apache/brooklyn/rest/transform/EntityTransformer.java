@@ -18,8 +18,6 @@
  */
 package org.apache.brooklyn.rest.transform;
 
-import static com.google.common.collect.Iterables.transform;
-
 import java.lang.reflect.Field;
 import java.net.URI;
 import java.util.List;
@@ -38,6 +36,7 @@ import org.apache.brooklyn.util.collections.MutableMap;
 import org.apache.brooklyn.util.net.URLParamEncoder;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -86,15 +85,13 @@ public class EntityTransformer {
         return new EntitySummary(entity.getId(), entity.getDisplayName(), type, entity.getCatalogItemId(), lb.build());
     }
 
+    /**
+     * Returns a view of summaries of the given entities, each computed as it is read
+     * (e.g. as the list is written to a response), so they need not all be in memory at once.
+     * The entities themselves are copied, so the view does not change if they do.
+     */
     public static List<EntitySummary> entitySummaries(Iterable<? extends Entity> entities) {
-        return Lists.newArrayList(transform(
-            entities,
-            new Function<Entity, EntitySummary>() {
-                @Override
-                public EntitySummary apply(Entity entity) {
-                    return EntityTransformer.entitySummary(entity);
-                }
-            }));
+        return Lists.transform(ImmutableList.<Entity>copyOf(entities), FROM_ENTITY);
     }
 
     protected static EntityConfigSummary entityConfigSummary(ConfigKey<?> config, String label, Double priority, Map<String, URI> links) {
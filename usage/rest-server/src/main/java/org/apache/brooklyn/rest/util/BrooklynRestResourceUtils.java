@@ -47,7 +47,6 @@ import org.apache.brooklyn.camp.brooklyn.BrooklynCampConstants;
 import org.apache.brooklyn.camp.brooklyn.spi.dsl.methods.DslComponent;
 import org.apache.brooklyn.camp.brooklyn.spi.dsl.methods.DslComponent.Scope;
 import org.apache.brooklyn.config.ConfigKey;
-import org.apache.brooklyn.core.catalog.CatalogPredicates;
 import org.apache.brooklyn.core.catalog.internal.CatalogItemComparator;
 import org.apache.brooklyn.core.catalog.internal.CatalogUtils;
 import org.apache.brooklyn.core.entity.Attributes;
@@ -76,7 +75,6 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
-import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Iterables;
@@ -268,7 +266,7 @@ public class BrooklynRestResourceUtils {
                 //is not specified explicitly. But could be the case that there is an item
                 //whose symbolicName is explicitly set to be different from the javaType.
                 //Note that in the XML the attribute is called registeredTypeName.
-                Iterable<CatalogItem<Object,Object>> resultL = mgmt.getCatalog().getCatalogItems(CatalogPredicates.javaType(Predicates.equalTo(typeName)));
+                Iterable<CatalogItem<Object,Object>> resultL = mgmt.getCatalog().<Object,Object>getCatalogItemsWithJavaType(typeName);
                 if (!Iterables.isEmpty(resultL)) {
                     //Push newer versions in front of the list (not that there should
                     //be more than one considering the items are coming from catalog.xml).
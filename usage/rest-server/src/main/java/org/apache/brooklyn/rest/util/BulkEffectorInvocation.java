@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.rest.util;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+import org.apache.brooklyn.api.effector.Effector;
+import org.apache.brooklyn.api.entity.Entity;
+import org.apache.brooklyn.api.mgmt.Task;
+import org.apache.brooklyn.core.entity.Entities;
+import org.apache.brooklyn.core.mgmt.BrooklynTaskTags;
+import org.apache.brooklyn.core.mgmt.entitlement.Entitlements;
+import org.apache.brooklyn.util.collections.MutableMap;
+import org.apache.brooklyn.util.core.task.TaskBuilder;
+import org.apache.brooklyn.util.core.task.Tasks;
+import org.apache.brooklyn.util.exceptions.Exceptions;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Invokes an effector on many entities, as the children of a single task, running at most a given number at once.
+ * <p>
+ * The task's result is a map of entity ID to the result of the effector on that entity,
+ * or to a map containing the <code>error</code> if it failed there; failures do not fail the task.
+ * Invocations are started in order as earlier ones finish, from the task's own thread,
+ * so no thread is held for an invocation waiting to start.
+ */
+@Beta
+public class BulkEffectorInvocation implements Callable<Map<String, Object>> {
+
+    /**
+     * Returns an unsubmitted task for the given invocations, which should be submitted to the execution manager.
+     * It is tagged with the current entitlement context, which then applies to the invocations.
+     *
+     * @param invocations the effector to invoke on each entity (which may differ by entity, e.g. if overridden)
+     */
+    public static Task<Map<String, Object>> newTask(String effectorName, Map<? extends Entity, ? extends Effector<?>> invocations,
+            Map<String, ?> parameters, int maxConcurrent) {
+        int count = invocations.size();
+        TaskBuilder<Map<String, Object>> builder = Tasks.<Map<String, Object>>builder()
+                .displayName(effectorName+" (bulk)")
+                .description("Invoking effector \""+effectorName+"\" on "+count+" entit"+(count==1 ? "y" : "ies")
+                        +", at most "+maxConcurrent+" at once")
+                .tag(BrooklynTaskTags.EFFECTOR_TAG)
+                .dynamic(true)
+                .body(new BulkEffectorInvocation(invocations, parameters, maxConcurrent));
+        if (Entitlements.getEntitlementContext() != null) {
+            builder.tag(BrooklynTaskTags.tagForEntitlement(Entitlements.getEntitlementContext()));
+        }
+        return builder.build();
+    }
+
+    private final Map<? extends Entity, ? extends Effector<?>> invocations;
+    private final Map<String, ?> parameters;
+    private final int maxConcurrent;
+
+    protected BulkEffectorInvocation(Map<? extends Entity, ? extends Effector<?>> invocations, Map<String, ?> parameters, int maxConcurrent) {
+        Preconditions.checkArgument(maxConcurrent > 0, "maxConcurrent must be positive");
+        this.invocations = invocations;
+        this.parameters = parameters;
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    @Override
+    public Map<String, Object> call() throws Exception {
+        final Semaphore permits = new Semaphore(maxConcurrent);
+        Runnable release = new Runnable() {
+            @Override
+            public void run() {
+                permits.release();
+            }
+        };
+
+        Map<String, Task<?>> tasks = MutableMap.of();
+        for (Map.Entry<? extends Entity, ? extends Effector<?>> invocation: invocations.entrySet()) {
+            Entity entity = invocation.getKey();
+            Effector<?> effector = invocation.getValue();
+            Tasks.setBlockingDetails("Waiting to invoke on "+entity+" ("+tasks.size()+" of "+invocations.size()+" started)");
+            permits.acquire();
+            Task<?> task;
+            try {
+                // queued as a child of this task, but marked inessential, so failures are reported rather than thrown
+                task = Entities.invokeEffector(entity, entity, effector, parameters);
+            } catch (Exception e) {
+                permits.release();
+                throw Exceptions.propagate(e);
+            }
+            task.addListener(release, MoreExecutors.sameThreadExecutor());
+            tasks.put(entity.getId(), task);
+        }
+        Tasks.resetBlockingDetails();
+
+        Map<String, Object> result = MutableMap.of();
+        for (Map.Entry<String, Task<?>> task: tasks.entrySet()) {
+            task.getValue().blockUntilEnded();
+            if (task.getValue().isError()) {
+                Throwable error = Tasks.getError(task.getValue());
+                result.put(task.getKey(), MutableMap.of("error", error==null ? "Failed" : Exceptions.collapseText(error)));
+            } else {
+                result.put(task.getKey(), task.getValue().getUnchecked());
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.rest.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.brooklyn.api.entity.Entity;
+import org.apache.brooklyn.api.mgmt.ManagementContext;
+import org.apache.brooklyn.api.mgmt.SubscriptionHandle;
+import org.apache.brooklyn.api.mgmt.entitlement.EntitlementContext;
+import org.apache.brooklyn.api.mgmt.entitlement.EntitlementManager;
+import org.apache.brooklyn.api.sensor.AttributeSensor;
+import org.apache.brooklyn.api.sensor.Sensor;
+import org.apache.brooklyn.api.sensor.SensorEvent;
+import org.apache.brooklyn.api.sensor.SensorEventListener;
+import org.apache.brooklyn.core.mgmt.entitlement.Entitlements;
+import org.apache.brooklyn.core.mgmt.entitlement.Entitlements.EntityAndItem;
+import org.apache.brooklyn.core.sensor.BasicSensorEvent;
+import org.apache.brooklyn.core.sensor.Sensors;
+import org.apache.brooklyn.rest.resources.AbstractBrooklynRestResource.RestValueResolver;
+import org.apache.brooklyn.util.collections.MutableList;
+import org.apache.brooklyn.util.collections.MutableMap;
+import org.apache.brooklyn.util.exceptions.Exceptions;
+import org.apache.brooklyn.util.time.Duration;
+import org.apache.brooklyn.util.time.Time;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
+import com.google.common.base.Predicate;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Writes changes to the sensors of a set of entities as
+ * <a href="http://www.w3.org/TR/eventsource/">server-sent events</a>, until the client disconnects.
+ * <p>
+ * Events come from a single subscription to all sensors of all entities, filtered (cheaply) as they are published.
+ * They are conflated while waiting to be written: if a sensor changes several times between writes,
+ * only its latest value is sent. Writes are at most once per <code>minPeriod</code>.
+ * Entitlements are checked for each event as it is written, so changes to them apply to open streams.
+ * <p>
+ * The thread writing the response is held for the life of the stream,
+ * so callers should limit how many are open, using {@link #tryOpen(ManagementContext, int)}.
+ */
+@Beta
+public class SensorEventStream implements StreamingOutput {
+
+    private static final Logger log = LoggerFactory.getLogger(SensorEventStream.class);
+
+    /** how often to write something when there are no events, so that a closed connection is noticed */
+    private static final Duration KEEP_ALIVE_PERIOD = Duration.seconds(30);
+
+    /** streams open for each management context (weak keys, so terminated contexts are not retained) */
+    private static final LoadingCache<ManagementContext, AtomicInteger> OPEN_STREAMS = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<ManagementContext, AtomicInteger>() {
+                @Override
+                public AtomicInteger load(ManagementContext mgmt) {
+                    return new AtomicInteger();
+                }
+            });
+
+    /**
+     * Reserves a stream for the given management context, returning null if the given maximum are already open there.
+     * <p>
+     * The reservation is released when the returned {@link Closeable} is closed (subsequent calls having no effect),
+     * which must happen however the request finishes: when the stream has been written,
+     * but also if it is never written (e.g. for a HEAD request, or if the request fails first),
+     * e.g. by registering it with Jersey's <code>CloseableService</code>.
+     */
+    @Nullable
+    public static Closeable tryOpen(ManagementContext mgmt, int max) {
+        final AtomicInteger open = OPEN_STREAMS.getUnchecked(mgmt);
+        if (open.incrementAndGet() > max) {
+            open.decrementAndGet();
+            return null;
+        }
+        return new Closeable() {
+            private final AtomicBoolean closed = new AtomicBoolean();
+            @Override
+            public void close() {
+                if (closed.compareAndSet(false, true)) open.decrementAndGet();
+            }
+        };
+    }
+
+    @VisibleForTesting
+    static int getOpenCount(ManagementContext mgmt) {
+        return OPEN_STREAMS.getUnchecked(mgmt).get();
+    }
+
+    private final ManagementContext mgmt;
+    private final ObjectMapper mapper;
+    private final Predicate<? super Entity> scope;
+    private final Set<String> sensors;
+    private final boolean initialValues;
+    private final Duration minPeriod;
+    private final EntitlementManager entitlements;
+    private final EntitlementContext user;
+
+    /** events waiting to be written, keyed by entity and sensor, so that only the latest is kept */
+    private final Map<String, SensorEvent<?>> pending = new LinkedHashMap<String, SensorEvent<?>>();
+
+    /**
+     * @param scope entities whose sensors are to be included
+     * @param sensors names of the sensors to include, or null for all
+     * @param initialValues whether to start by sending the current values of the (attribute) sensors
+     */
+    public SensorEventStream(ManagementContext mgmt, ObjectMapper mapper, Predicate<? super Entity> scope, @Nullable Set<String> sensors,
+            boolean initialValues, Duration minPeriod, EntitlementContext user) {
+        this.mgmt = mgmt;
+        this.mapper = mapper;
+        this.scope = scope;
+        this.sensors = sensors;
+        this.initialValues = initialValues;
+        this.minPeriod = minPeriod;
+        this.entitlements = mgmt.getEntitlementManager();
+        this.user = user;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        SubscriptionHandle subscription = null;
+        try {
+            Writer writer = new OutputStreamWriter(output, Charsets.UTF_8);
+            subscription = mgmt.getSubscriptionManager().<Object>subscribe(
+                    MutableMap.<String, Object>of("subscriber", this, "eventFilter", new EventFilter()),
+                    null, null, new SensorEventListener<Object>() {
+                        @Override
+                        public void onEvent(SensorEvent<Object> event) {
+                            offer(event, true);
+                        }
+                    });
+            if (initialValues) offerCurrentValues();
+
+            while (mgmt.isRunning()) {
+                List<SensorEvent<?>> events = take(KEEP_ALIVE_PERIOD);
+                if (events.isEmpty()) {
+                    writer.write(": keep-alive\n\n");
+                } else {
+                    for (SensorEvent<?> event: events) {
+                        writeEvent(writer, event);
+                    }
+                }
+                // fails once the client has disconnected
+                writer.flush();
+                // changes meanwhile are conflated
+                Time.sleep(minPeriod);
+            }
+        } finally {
+            if (subscription!=null) mgmt.getSubscriptionManager().unsubscribe(subscription);
+        }
+    }
+
+    private class EventFilter implements Predicate<SensorEvent<Object>> {
+        @Override
+        public boolean apply(SensorEvent<Object> event) {
+            return event.getSource()!=null && (sensors==null || sensors.contains(event.getSensor().getName()))
+                    && scope.apply(event.getSource());
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void offerCurrentValues() {
+        for (Entity entity: mgmt.getEntityManager().getEntities()) {
+            if (!scope.apply(entity)) continue;
+            List<AttributeSensor<?>> selected = MutableList.of();
+            if (sensors==null) {
+                for (Sensor<?> sensor: entity.getEntityType().getSensors()) {
+                    if (sensor instanceof AttributeSensor) selected.add((AttributeSensor<?>) sensor);
+                }
+            } else {
+                for (String name: sensors) {
+                    Sensor<?> sensor = entity.getEntityType().getSensor(name);
+                    selected.add(sensor instanceof AttributeSensor ? (AttributeSensor<?>) sensor : Sensors.newSensor(Object.class, name));
+                }
+            }
+            for (AttributeSensor<?> sensor: selected) {
+                Object value = entity.getAttribute(sensor);
+                if (value!=null) {
+                    // any change already received is newer
+                    offer(new BasicSensorEvent(sensor, entity, value), false);
+                }
+            }
+        }
+    }
+
+    private void offer(SensorEvent<?> event, boolean replace) {
+        String key = event.getSource().getId()+"/"+event.getSensor().getName();
+        synchronized (pending) {
+            if (!replace && pending.containsKey(key)) return;
+            pending.put(key, event);
+            pending.notifyAll();
+        }
+    }
+
+    /** returns the pending events, waiting up to the given time for there to be some */
+    private List<SensorEvent<?>> take(Duration timeout) {
+        synchronized (pending) {
+            try {
+                if (pending.isEmpty()) pending.wait(timeout.toMilliseconds());
+            } catch (InterruptedException e) {
+                throw Exceptions.propagate(e);
+            }
+            List<SensorEvent<?>> result = MutableList.copyOf(pending.values());
+            pending.clear();
+            return result;
+        }
+    }
+
+    private void writeEvent(Writer writer, SensorEvent<?> event) throws IOException {
+        Entity entity = event.getSource();
+        String sensorName = event.getSensor().getName();
+        if (!entitlements.isEntitled(user, Entitlements.SEE_ENTITY, entity)) return;
+        if (!entitlements.isEntitled(user, Entitlements.SEE_SENSOR, EntityAndItem.of(entity, sensorName))) return;
+
+        Object value;
+        try {
+            value = RestValueResolver.resolving(event.getValue()).mapper(mapper).preferJson(true).asJerseyOutermostReturnValue(false)
+                    .context(entity).timeout(Duration.ZERO).renderAs(event.getSensor()).resolve();
+        } catch (Exception e) {
+            Exceptions.propagateIfFatal(e);
+            log.warn("Error rendering sensor "+sensorName+" for "+entity+" (omitting from event stream): "+e);
+            return;
+        }
+        // JSON is written on one line, as required for the data of an event
+        writer.write("event: sensor\ndata: ");
+        writer.write(mapper.writeValueAsString(MutableMap.of(
+                "entity", entity.getId(), "sensor", sensorName, "value", value, "timestamp", event.getTimestamp())));
+        writer.write("\n\n");
+    }
+
+}
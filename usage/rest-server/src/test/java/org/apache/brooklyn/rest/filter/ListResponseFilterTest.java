@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.rest.filter;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import org.apache.brooklyn.rest.filter.ListResponseFilter.ListOutput;
+import org.apache.brooklyn.util.exceptions.Exceptions;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+public class ListResponseFilterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testWritesItemsAsComputed() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ListOutput(mapper, Lists.transform(ImmutableList.of(1, 2, 3), new Doubling(-1))).write(out);
+        assertEquals(new String(out.toByteArray(), Charsets.UTF_8), "[2,4,6]");
+    }
+
+    @Test
+    public void testFailingItemFailsResponseRatherThanSendingPartialList() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            new ListOutput(mapper, Lists.transform(ImmutableList.of(1, 2, 3), new Doubling(2))).write(out);
+            fail("should have failed; wrote "+new String(out.toByteArray(), Charsets.UTF_8));
+        } catch (Exception e) {
+            if (Exceptions.getFirstThrowableOfType(e, IllegalStateException.class)==null) throw e;
+        }
+        // the array is left open, so what was sent is not a valid (shorter) list
+        String written = new String(out.toByteArray(), Charsets.UTF_8);
+        assertFalse(written.endsWith("]"), "written="+written);
+        try {
+            List<?> parsed = mapper.readValue(written, List.class);
+            fail("partial output should not parse; got "+parsed);
+        } catch (Exception e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFailingItemFailsBytes() throws Exception {
+        try {
+            byte[] body = new ListOutput(mapper, Lists.transform(ImmutableList.of(1, 2, 3), new Doubling(3))).toBytes();
+            fail("should have failed; got "+new String(body, Charsets.UTF_8));
+        } catch (Exception e) {
+            if (Exceptions.getFirstThrowableOfType(e, IllegalStateException.class)==null) throw e;
+        }
+    }
+
+    private static class Doubling implements Function<Integer, Integer> {
+        private final int failOn;
+        Doubling(int failOn) {
+            this.failOn = failOn;
+        }
+        @Override
+        public Integer apply(Integer input) {
+            if (input==failOn) throw new IllegalStateException("Simulated failure computing "+input);
+            return input*2;
+        }
+    }
+
+}
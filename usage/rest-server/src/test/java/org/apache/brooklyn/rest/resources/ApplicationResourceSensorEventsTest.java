@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.rest.resources;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.apache.brooklyn.api.entity.EntitySpec;
+import org.apache.brooklyn.api.mgmt.entitlement.EntitlementClass;
+import org.apache.brooklyn.api.mgmt.entitlement.EntitlementContext;
+import org.apache.brooklyn.api.mgmt.entitlement.EntitlementManager;
+import org.apache.brooklyn.api.sensor.AttributeSensor;
+import org.apache.brooklyn.core.entity.factory.ApplicationBuilder;
+import org.apache.brooklyn.core.internal.BrooklynProperties;
+import org.apache.brooklyn.core.mgmt.entitlement.Entitlements;
+import org.apache.brooklyn.core.mgmt.entitlement.Entitlements.EntityAndItem;
+import org.apache.brooklyn.core.sensor.Sensors;
+import org.apache.brooklyn.core.test.entity.LocalManagementContextForTests;
+import org.apache.brooklyn.core.test.entity.TestApplication;
+import org.apache.brooklyn.core.test.entity.TestEntity;
+import org.apache.brooklyn.rest.BrooklynRestApiLauncher;
+import org.apache.brooklyn.rest.BrooklynRestApiLauncherTestFixture;
+import org.apache.brooklyn.rest.BrooklynWebConfig;
+import org.apache.brooklyn.rest.security.provider.AnyoneSecurityProvider;
+import org.apache.brooklyn.test.Asserts;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+
+/**
+ * Tests the sensor event stream over HTTP, as the in-memory container used by other resource tests
+ * does not return any of a response until it has all been written.
+ */
+public class ApplicationResourceSensorEventsTest extends BrooklynRestApiLauncherTestFixture {
+
+    private static final AttributeSensor<String> HIDDEN = Sensors.newStringSensor("hidden.value");
+
+    private TestEntity entity;
+
+    @BeforeMethod(alwaysRun=true)
+    public void setUp() throws Exception {
+        BrooklynProperties props = BrooklynProperties.Factory.newEmpty();
+        props.put(Entitlements.GLOBAL_ENTITLEMENT_MANAGER, HidingEntitlementManager.class.getName());
+        props.put(BrooklynWebConfig.SENSOR_EVENTS_MAX_STREAMS, 1);
+        LocalManagementContextForTests mgmt = new LocalManagementContextForTests(props);
+        TestApplication app = ApplicationBuilder.newManagedApp(EntitySpec.create(TestApplication.class), mgmt);
+        entity = app.createAndManageChild(EntitySpec.create(TestEntity.class));
+
+        useServerForTest(BrooklynRestApiLauncher.launcher()
+                .managementContext(mgmt)
+                .securityProvider(AnyoneSecurityProvider.class)
+                .start());
+    }
+
+    @Test
+    public void testOmitsEventsUserIsNotEntitledToSee() throws Exception {
+        entity.sensors().set(TestEntity.NAME, "visible-1");
+        entity.sensors().set(HIDDEN, "secret-1");
+
+        HttpURLConnection connection = open("GET");
+        try {
+            assertEquals(connection.getResponseCode(), 200);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), Charsets.UTF_8));
+            String text = readUntil(reader, "visible-1");
+
+            // checked as each event is written, not just for the initial values
+            entity.sensors().set(HIDDEN, "secret-2");
+            entity.sensors().set(TestEntity.NAME, "visible-2");
+            text += readUntil(reader, "visible-2");
+
+            assertFalse(text.contains("secret"), text);
+            assertFalse(text.contains(HIDDEN.getName()), text);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    public void testRefusesStreamsOverMaximumUntilOneCloses() throws Exception {
+        entity.sensors().set(TestEntity.NAME, "initial");
+        HttpURLConnection first = open("GET");
+        try {
+            assertEquals(first.getResponseCode(), 200);
+            readUntil(new BufferedReader(new InputStreamReader(first.getInputStream(), Charsets.UTF_8)), "initial");
+
+            HttpURLConnection second = open("GET");
+            assertEquals(second.getResponseCode(), 503);
+            second.disconnect();
+        } finally {
+            first.disconnect();
+        }
+
+        // the server notices the disconnect when it next writes, freeing the slot
+        Asserts.succeedsEventually(new Runnable() {
+            int i = 0;
+            @Override
+            public void run() {
+                entity.sensors().set(TestEntity.SEQUENCE, i++);
+                assertEquals(headStatus(), 200);
+            }
+        });
+        // requests which do not write the stream do not hold on to a slot
+        assertEquals(headStatus(), 200);
+        assertEquals(headStatus(), 200);
+    }
+
+    private HttpURLConnection open(String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(getBaseUri()
+                +"/v1/applications/sensor-events?entities="+entity.getId()).openConnection();
+        connection.setRequestMethod(method);
+        // longer than the keep-alive period, so that a stream with no changes is not mistaken for a failure
+        connection.setReadTimeout(60*1000);
+        return connection;
+    }
+
+    private int headStatus() {
+        try {
+            HttpURLConnection connection = open("HEAD");
+            try {
+                return connection.getResponseCode();
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** reads lines of the stream until one contains the given text, returning all that was read */
+    private static String readUntil(BufferedReader reader, String text) throws IOException {
+        StringBuilder result = new StringBuilder();
+        String line;
+        while ((line = reader.readLine())!=null) {
+            result.append(line).append("\n");
+            if (line.contains(text)) return result.toString();
+        }
+        throw new IOException("Stream ended before '"+text+"'; read: "+result);
+    }
+
+    /** allows everything except seeing sensors whose names start with "hidden." */
+    public static class HidingEntitlementManager implements EntitlementManager {
+        @Override
+        public <T> boolean isEntitled(EntitlementContext context, EntitlementClass<T> entitlementClass, T entitlementClassArgument) {
+            if (Entitlements.SEE_SENSOR.equals(entitlementClass)) {
+                return !((EntityAndItem<?>) entitlementClassArgument).getItem().toString().startsWith("hidden.");
+            }
+            return true;
+        }
+    }
+
+}
@@ -21,6 +21,7 @@ package org.apache.brooklyn.rest.resources;
 import static com.google.common.collect.Iterables.find;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
@@ -68,6 +69,7 @@ import org.apache.brooklyn.rest.testing.mocks.RestMockAppBuilder;
 import org.apache.brooklyn.rest.testing.mocks.RestMockSimpleEntity;
 import org.apache.brooklyn.test.Asserts;
 import org.apache.brooklyn.util.collections.CollectionFunctionals;
+import org.apache.brooklyn.util.collections.MutableSet;
 import org.apache.brooklyn.util.exceptions.Exceptions;
 import org.apache.brooklyn.util.http.HttpAsserts;
 import org.apache.brooklyn.util.time.Duration;
@@ -80,6 +82,7 @@ import org.testng.annotations.Test;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
@@ -314,6 +317,50 @@ public class ApplicationResourceTest extends BrooklynRestResourceTest {
         assertEquals(children.size(), 0);
     }
 
+    @Test(dependsOnMethods = "testDeployApplication")
+    public void testListEntitiesWithFieldsUnpaged() {
+        ClientResponse response = client().resource("/v1/applications/simple-app/entities")
+                .queryParam("fields", "name,id")
+                .get(ClientResponse.class);
+        assertEquals(response.getStatus(), 200);
+        assertNull(response.getHeaders().getFirst("Link"));
+        List<Map<String, Object>> items = response.getEntity(new GenericType<List<Map<String, Object>>>() {});
+        assertEquals(items.size(), 2);
+        Set<Object> names = MutableSet.of();
+        for (Map<String, Object> item : items) {
+            // only the fields asked for, in that order
+            assertEquals(ImmutableList.copyOf(item.keySet()), ImmutableList.of("name", "id"));
+            names.add(item.get("name"));
+        }
+        assertEquals(names, ImmutableSet.of("simple-ent", "simple-group"));
+    }
+
+    @Test(dependsOnMethods = "testDeployApplication")
+    public void testListEntitiesWithFieldsPaged() {
+        ClientResponse response = client().resource("/v1/applications/simple-app/entities")
+                .queryParam("limit", "1").queryParam("fields", "id")
+                .get(ClientResponse.class);
+        assertEquals(response.getStatus(), 200);
+        List<Map<String, Object>> page = response.getEntity(new GenericType<List<Map<String, Object>>>() {});
+        assertEquals(page.size(), 1);
+        assertEquals(page.get(0).keySet(), ImmutableSet.of("id"));
+        String link = response.getHeaders().getFirst("Link");
+        assertNotNull(link);
+        assertTrue(link.contains("after="+page.get(0).get("id")), "link="+link);
+        assertTrue(link.endsWith("rel=\"next\""), "link="+link);
+
+        ClientResponse response2 = client().resource("/v1/applications/simple-app/entities")
+                .queryParam("limit", "1").queryParam("fields", "id")
+                .queryParam("after", (String) page.get(0).get("id"))
+                .get(ClientResponse.class);
+        assertEquals(response2.getStatus(), 200);
+        assertNull(response2.getHeaders().getFirst("Link"));
+        List<Map<String, Object>> page2 = response2.getEntity(new GenericType<List<Map<String, Object>>>() {});
+        assertEquals(page2.size(), 1);
+        assertEquals(page2.get(0).keySet(), ImmutableSet.of("id"));
+        Assert.assertNotEquals(page2.get(0).get("id"), page.get(0).get("id"));
+    }
+
     @Test(dependsOnMethods = "testDeployApplication")
     public void testListApplications() {
         Set<ApplicationSummary> applications = client().resource("/v1/applications")
@@ -325,6 +372,26 @@ public class ApplicationResourceTest extends BrooklynRestResourceTest {
         Assert.fail("simple-app not found in list of applications: "+applications);
     }
 
+    @Test(dependsOnMethods = "testDeployApplication")
+    public void testListApplicationsPagedWithContentEtag() {
+        ClientResponse response = client().resource("/v1/applications")
+                .queryParam("limit", "1").queryParam("fields", "id")
+                .get(ClientResponse.class);
+        assertEquals(response.getStatus(), 200);
+        assertTrue(response.getType().isCompatible(MediaType.APPLICATION_JSON_TYPE), "type="+response.getType());
+        String etag = response.getHeaders().getFirst(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        List<Map<String, Object>> page = response.getEntity(new GenericType<List<Map<String, Object>>>() {});
+        assertEquals(page.size(), 1);
+        assertEquals(page.get(0).keySet(), ImmutableSet.of("id"));
+
+        ClientResponse response2 = client().resource("/v1/applications")
+                .queryParam("limit", "1").queryParam("fields", "id")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .get(ClientResponse.class);
+        assertEquals(response2.getStatus(), 304);
+    }
+
     @Test(dependsOnMethods = "testDeployApplication")
     public void testGetApplicationOnFire() {
         Application app = Iterables.find(manager.getApplications(), EntityPredicates.displayNameEqualTo(simpleSpec.getName()));
@@ -489,6 +556,69 @@ public class ApplicationResourceTest extends BrooklynRestResourceTest {
         assertEquals(sensors.get(RestMockSimpleEntity.SAMPLE_SENSOR.getName()), "foo4");
     }
 
+    @Test(dependsOnMethods = "testTriggerSampleEffector")
+    @SuppressWarnings("unchecked")
+    public void testCurrentStateOfManyEntities() {
+        String sensor = RestMockSimpleEntity.SAMPLE_SENSOR.getName();
+        Map<String, Map<String, Map<String, Object>>> state = client().resource("/v1/applications/current-state")
+                .queryParam("application", "simple-app")
+                .queryParam("typeRegex", ".*RestMockSimpleEntity")
+                .queryParam("sensors", sensor+",no.such.sensor")
+                .get(Map.class);
+        String entityId = Iterables.getOnlyElement(state.keySet());
+        assertEquals(getManagementContext().getEntityManager().getEntity(entityId).getDisplayName(), "simple-ent");
+        Map<String, Map<String, Object>> entityState = state.get(entityId);
+        assertEquals(entityState.keySet(), ImmutableSet.of("sensors"));
+        assertEquals(entityState.get("sensors").get(sensor), "foo4");
+        assertTrue(entityState.get("sensors").containsKey("no.such.sensor"), "sensors="+entityState.get("sensors"));
+
+        // by ID, with the selection form-encoded
+        MultivaluedMap<String, String> form = new MultivaluedMapImpl();
+        form.add("entities", entityId+",no-such-entity");
+        form.add("config", "*");
+        Map<String, Map<String, Map<String, Object>>> state2 = client().resource("/v1/applications/current-state")
+                .type(MediaType.APPLICATION_FORM_URLENCODED_TYPE)
+                .post(Map.class, form);
+        assertEquals(state2.keySet(), ImmutableSet.of(entityId));
+        assertEquals(state2.get(entityId).keySet(), ImmutableSet.of("config"));
+    }
+
+    @Test(dependsOnMethods = "testCurrentStateOfManyEntities")
+    @SuppressWarnings("unchecked")
+    public void testInvokeEffectorOnManyEntities() {
+        String effector = RestMockSimpleEntity.SAMPLE_EFFECTOR.getName();
+        ClientResponse response = client().resource("/v1/applications/effectors/"+effector)
+                .queryParam("application", "simple-app")
+                .queryParam("typeRegex", ".*RestMockSimpleEntity")
+                .queryParam("timeout", "never")
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .post(ClientResponse.class, ImmutableMap.of("param1", "foo", "param2", 4));
+        assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
+        Map<String, Object> results = response.getEntity(Map.class);
+        String entityId = Iterables.getOnlyElement(results.keySet());
+        assertEquals(getManagementContext().getEntityManager().getEntity(entityId).getDisplayName(), "simple-ent");
+        assertEquals(results.get(entityId), "foo4");
+
+        // by default, returns the task without waiting
+        response = client().resource("/v1/applications/effectors/"+effector)
+                .queryParam("entities", entityId)
+                .queryParam("maxConcurrent", "1")
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .post(ClientResponse.class, ImmutableMap.of("param1", "foo", "param2", 4));
+        assertEquals(response.getStatus(), Response.Status.ACCEPTED.getStatusCode());
+        TaskSummary task = response.getEntity(TaskSummary.class);
+        assertEquals(getManagementContext().getExecutionManager().getTask(task.getId()).getUnchecked(),
+                ImmutableMap.of(entityId, "foo4"));
+
+        // entities which do not have the effector are skipped, and it is an error if none do
+        response = client().resource("/v1/applications/effectors/"+effector)
+                .queryParam("application", "simple-app")
+                .queryParam("typeRegex", ".*NoSuchType")
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .post(ClientResponse.class, ImmutableMap.of());
+        assertEquals(response.getStatus(), Response.Status.NOT_FOUND.getStatusCode());
+    }
+
     @Test(dependsOnMethods = "testBatchSensorValues")
     public void testReadEachSensor() {
     Set<SensorSummary> sensors = client().resource("/v1/applications/simple-app/entities/simple-ent/sensors")
@@ -574,7 +704,7 @@ public class ApplicationResourceTest extends BrooklynRestResourceTest {
         assertEquals(details.get("leafEntityCount"), 2);
     }
 
-    @Test(dependsOnMethods = {"testListEffectors", "testFetchApplicationsAndEntity", "testTriggerSampleEffector", "testListApplications","testReadEachSensor","testPolicyWhichCapitalizes","testLocatedLocation"})
+    @Test(dependsOnMethods = {"testListEffectors", "testFetchApplicationsAndEntity", "testTriggerSampleEffector", "testListApplications","testListApplicationsPagedWithContentEtag","testReadEachSensor","testCurrentStateOfManyEntities","testInvokeEffectorOnManyEntities","testPolicyWhichCapitalizes","testLocatedLocation"})
     public void testDeleteApplication() throws TimeoutException, InterruptedException {
         waitForPageFoundResponse("/v1/applications/simple-app", ApplicationSummary.class);
         Collection<Application> apps = getManagementContext().getApplications();
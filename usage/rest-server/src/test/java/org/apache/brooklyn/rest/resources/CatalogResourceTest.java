@@ -56,6 +56,7 @@ import org.testng.annotations.Test;
 import org.testng.reporters.Files;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.GenericType;
@@ -208,6 +209,70 @@ public class CatalogResourceTest extends BrooklynRestResourceTest {
         assertEquals(entities4.size(), 0);
     }
 
+    @Test
+    public void testListEntitiesPagedWithFieldsAndEtag() {
+        List<CatalogEntitySummary> all = client().resource("/v1/catalog/entities")
+                .get(new GenericType<List<CatalogEntitySummary>>() {});
+        assertTrue(all.size() > 2, "entities="+all);
+
+        ClientResponse response = client().resource("/v1/catalog/entities")
+                .queryParam("limit", "2").queryParam("fields", "symbolicName")
+                .get(ClientResponse.class);
+        assertEquals(response.getStatus(), HttpStatus.OK_200);
+        List<Map<String, Object>> page = response.getEntity(new GenericType<List<Map<String, Object>>>() {});
+        assertEquals(page.size(), 2);
+        assertEquals(page.get(0).keySet(), ImmutableSet.of("symbolicName"));
+        assertEquals(page.get(1).get("symbolicName"), all.get(1).getSymbolicName());
+
+        String link = response.getHeaders().getFirst("Link");
+        assertTrue(link.startsWith("<") && link.endsWith(">; rel=\"next\""), "link="+link);
+        List<CatalogEntitySummary> next = client().resource(URI.create(link.substring(1, link.indexOf('>'))))
+                .get(new GenericType<List<CatalogEntitySummary>>() {});
+        assertEquals(next.size(), 2);
+        assertEquals(next.get(0), all.get(2));
+
+        // unchanged catalog gives 304, with no body computed
+        String etag = response.getHeaders().getFirst(HttpHeaders.ETAG);
+        Assert.assertNotNull(etag);
+        ClientResponse response2 = client().resource("/v1/catalog/entities")
+                .queryParam("limit", "2").queryParam("fields", "symbolicName")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .get(ClientResponse.class);
+        assertEquals(response2.getStatus(), HttpStatus.NOT_MODIFIED_304);
+
+        // the tag covers the query, so a different page or projection of the same catalog is sent in full
+        assertTrue(etag.startsWith("W/"), "etag="+etag);
+        ClientResponse response2b = client().resource("/v1/catalog/entities")
+                .queryParam("limit", "2").queryParam("fields", "symbolicName,version")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .get(ClientResponse.class);
+        assertEquals(response2b.getStatus(), HttpStatus.OK_200);
+        assertEquals(response2b.getEntity(new GenericType<List<Map<String, Object>>>() {}).get(0).keySet(), 
+                ImmutableSet.of("symbolicName", "version"));
+
+        // unknown cursor is rejected
+        ClientResponse response3 = client().resource("/v1/catalog/entities")
+                .queryParam("after", "no-such-item")
+                .get(ClientResponse.class);
+        assertEquals(response3.getStatus(), HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    public void testListEntitiesWithFieldsUnpaged() {
+        List<CatalogEntitySummary> all = client().resource("/v1/catalog/entities")
+                .get(new GenericType<List<CatalogEntitySummary>>() {});
+
+        // projected as written, as there is no limit
+        ClientResponse response = client().resource("/v1/catalog/entities")
+                .queryParam("fields", "symbolicName")
+                .get(ClientResponse.class);
+        assertEquals(response.getStatus(), HttpStatus.OK_200);
+        List<Map<String, Object>> items = response.getEntity(new GenericType<List<Map<String, Object>>>() {});
+        assertEquals(items.size(), all.size());
+        assertEquals(items.get(0).keySet(), ImmutableSet.of("symbolicName"));
+        assertEquals(items.get(all.size()-1).get("symbolicName"), all.get(all.size()-1).getSymbolicName());
+    }
+
     @Test
     @Deprecated
     // If we move to using a yaml catalog item, the details will be of the wrapping app,
@@ -34,6 +34,7 @@ import com.google.common.base.Preconditions;
 import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.WebResource;
 import com.sun.jersey.api.core.DefaultResourceConfig;
+import com.sun.jersey.api.core.ResourceConfig;
 import com.sun.jersey.test.framework.AppDescriptor;
 import com.sun.jersey.test.framework.JerseyTest;
 import com.sun.jersey.test.framework.LowLevelAppDescriptor;
@@ -43,6 +44,7 @@ import com.sun.jersey.test.framework.spi.container.inmemory.InMemoryTestContaine
 
 import org.apache.brooklyn.rest.BrooklynRestApi;
 import org.apache.brooklyn.rest.BrooklynRestApiLauncherTest;
+import org.apache.brooklyn.rest.filter.ListResponseFilter;
 import org.apache.brooklyn.rest.util.BrooklynRestResourceUtils;
 import org.apache.brooklyn.rest.util.NullHttpServletRequestProvider;
 import org.apache.brooklyn.rest.util.NullServletConfigProvider;
@@ -140,6 +142,7 @@ public abstract class BrooklynRestApiTest {
         addResource(new NullServletConfigProvider());
         addProvider(NullHttpServletRequestProvider.class);
         addResource(new ShutdownHandlerProvider(shutdownListener));
+        config.getProperties().put(ResourceConfig.PROPERTY_CONTAINER_RESPONSE_FILTERS, ListResponseFilter.class.getName());
     }
 
     protected final void setUpResources() {
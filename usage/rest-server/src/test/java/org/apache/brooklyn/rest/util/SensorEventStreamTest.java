@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.brooklyn.rest.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.brooklyn.api.entity.Entity;
+import org.apache.brooklyn.api.entity.EntitySpec;
+import org.apache.brooklyn.core.entity.Entities;
+import org.apache.brooklyn.core.entity.EntityPredicates;
+import org.apache.brooklyn.core.test.BrooklynAppUnitTestSupport;
+import org.apache.brooklyn.core.test.entity.LocalManagementContextForTests;
+import org.apache.brooklyn.core.test.entity.TestEntity;
+import org.apache.brooklyn.test.Asserts;
+import org.apache.brooklyn.util.collections.MutableSet;
+import org.apache.brooklyn.util.text.StringPredicates;
+import org.apache.brooklyn.util.time.Duration;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
+
+public class SensorEventStreamTest extends BrooklynAppUnitTestSupport {
+
+    private TestEntity entity;
+    private TestEntity other;
+    private ExecutorService executor;
+
+    @BeforeMethod(alwaysRun=true)
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        entity = app.createAndManageChild(EntitySpec.create(TestEntity.class));
+        other = app.createAndManageChild(EntitySpec.create(TestEntity.class));
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterMethod(alwaysRun=true)
+    @Override
+    public void tearDown() throws Exception {
+        if (executor!=null) executor.shutdownNow();
+        super.tearDown();
+    }
+
+    @Test
+    public void testStreamsConflatedChangesUntilClientDisconnects() throws Exception {
+        entity.sensors().set(TestEntity.NAME, "initial");
+        final ClientStream client = new ClientStream();
+        Predicate<Entity> scope = EntityPredicates.idEqualTo(entity.getId());
+        final SensorEventStream stream = new SensorEventStream(mgmt, new ObjectMapper(), scope,
+                MutableSet.of(TestEntity.NAME.getName(), TestEntity.SEQUENCE.getName()), true, Duration.millis(200), null);
+        Closeable slot = SensorEventStream.tryOpen(mgmt, 1);
+        assertNotNull(slot);
+        assertNull(SensorEventStream.tryOpen(mgmt, 1));
+
+        Future<?> writing = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                stream.write(client);
+                return null;
+            }
+        });
+        Asserts.eventually(client, StringPredicates.<String>containsLiteral("\"value\":\"initial\""));
+
+        for (int i=1; i<=100; i++) {
+            entity.sensors().set(TestEntity.SEQUENCE, i);
+        }
+        other.sensors().set(TestEntity.SEQUENCE, -1);
+        entity.sensors().set(TestEntity.NAME, "changed");
+        Asserts.eventually(client, StringPredicates.<String>containsLiteral("\"value\":100"));
+        Asserts.eventually(client, StringPredicates.<String>containsLiteral("\"value\":\"changed\""));
+
+        String text = client.get();
+        assertTrue(text.startsWith("event: sensor\ndata: {"), text);
+        assertFalse(text.contains(other.getId()), text);
+        // changes were conflated, so not every value was sent
+        assertTrue(text.split("\"sensor\":\"test.sequence\"").length - 1 < 100, text);
+
+        client.disconnect();
+        entity.sensors().set(TestEntity.SEQUENCE, 101);
+        try {
+            writing.get(10, TimeUnit.SECONDS);
+            fail("stream should have failed when written after the client disconnected");
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof IOException)) throw e;
+        }
+
+        // the slot is freed once, however many times it is closed
+        slot.close();
+        slot.close();
+        assertEquals(SensorEventStream.getOpenCount(mgmt), 0);
+    }
+
+    @Test
+    public void testSlotsLimitedPerManagementContext() throws Exception {
+        LocalManagementContextForTests otherMgmt = new LocalManagementContextForTests();
+        try {
+            Closeable slot = SensorEventStream.tryOpen(mgmt, 1);
+            assertNotNull(slot);
+            assertNull(SensorEventStream.tryOpen(mgmt, 1));
+            Closeable otherSlot = SensorEventStream.tryOpen(otherMgmt, 1);
+            assertNotNull(otherSlot);
+            slot.close();
+            otherSlot.close();
+            assertEquals(SensorEventStream.getOpenCount(mgmt), 0);
+            assertEquals(SensorEventStream.getOpenCount(otherMgmt), 0);
+        } finally {
+            Entities.destroyAll(otherMgmt);
+        }
+    }
+
+    /** collects what is written, as a client would, failing writes after {@link #disconnect()} */
+    private static class ClientStream extends ByteArrayOutputStream implements Supplier<String> {
+        private volatile boolean disconnected;
+
+        void disconnect() {
+            disconnected = true;
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            if (disconnected) throw new IOException("client disconnected");
+        }
+
+        @Override
+        public synchronized String get() {
+            return new String(toByteArray(), Charsets.UTF_8);
+        }
+    }
+
+}
@@ -700,44 +700,64 @@ public class Reflections {
             instance = clazzOrInstance;
         }
         
+        Optional<Method> m = findMethodMatchingArgs(clazz, method, args);
+        if (!m.isPresent()) return Optional.absent();
+        if (setAccessible) m.get().setAccessible(true);
+        return Optional.of(invokeMethodWithArgs(instance, m.get(), args));
+    }
+    
+    /** finds the method which {@link #invokeMethodWithArgs(Object, String, List)} would invoke on an instance of the given class;
+     * the result depends only on the class, the method name, and the types (and nullness) of the args,
+     * so callers invoking the same method repeatedly can cache it, and use {@link #invokeMethodWithArgs(Object, Method, List)} */
+    public static Optional<Method> findMethodMatchingArgs(Class<?> clazz, String method, List<?> args) {
+        Preconditions.checkNotNull(clazz, "clazz");
+        Preconditions.checkNotNull(method, "method");
+        Preconditions.checkNotNull(args, "args to "+method);
         Object[] argsArray = args.toArray();
 
         for (Method m: clazz.getMethods()) {
             if (method.equals(m.getName())) {
-                Class<?>[] parameterTypes = m.getParameterTypes();
-                if (m.isVarArgs()) {
-                    if (typesMatchUpTo(argsArray, parameterTypes, parameterTypes.length-1)) {
-                        Class<?> varargType = parameterTypes[parameterTypes.length-1].getComponentType();
-                        boolean varargsMatch = true;
-                        for (int i=parameterTypes.length-1; i<argsArray.length; i++) {
-                            if (!Boxing.boxedType(varargType).isInstance(argsArray[i]) ||
-                                    (varargType.isPrimitive() && argsArray[i]==null)) {
-                                varargsMatch = false;
-                                break;
-                            }
-                        }
-                        if (varargsMatch) {
-                            Object varargs = Array.newInstance(varargType, argsArray.length+1 - parameterTypes.length);
-                            for (int i=parameterTypes.length-1; i<argsArray.length; i++) {
-                                Boxing.setInArray(varargs, i+1-parameterTypes.length, argsArray[i], varargType);
-                            }
-                            Object[] newArgsArray = new Object[parameterTypes.length];
-                            System.arraycopy(argsArray, 0, newArgsArray, 0, parameterTypes.length-1);
-                            newArgsArray[parameterTypes.length-1] = varargs;
-                            if (setAccessible) m.setAccessible(true);
-                            return Optional.of(m.invoke(instance, newArgsArray));
-                        }
-                    }
-                }
-                if (typesMatch(argsArray, parameterTypes)) {
-                    if (setAccessible) m.setAccessible(true);
-                    return Optional.of(m.invoke(instance, argsArray));
+                if (varargsMatch(argsArray, m) || typesMatch(argsArray, m.getParameterTypes())) {
+                    return Optional.of(m);
                 }
             }
         }
         
         return Optional.absent();
     }
+    
+    /** invokes the given method (as returned by {@link #findMethodMatchingArgs(Class, String, List)}) with the given args,
+     * passing trailing args in an array if the method takes varargs and they match */
+    public static Object invokeMethodWithArgs(Object instance, Method m, List<?> args) throws IllegalArgumentException, IllegalAccessException, InvocationTargetException {
+        Object[] argsArray = args.toArray();
+        if (varargsMatch(argsArray, m)) {
+            Class<?>[] parameterTypes = m.getParameterTypes();
+            Class<?> varargType = parameterTypes[parameterTypes.length-1].getComponentType();
+            Object varargs = Array.newInstance(varargType, argsArray.length+1 - parameterTypes.length);
+            for (int i=parameterTypes.length-1; i<argsArray.length; i++) {
+                Boxing.setInArray(varargs, i+1-parameterTypes.length, argsArray[i], varargType);
+            }
+            Object[] newArgsArray = new Object[parameterTypes.length];
+            System.arraycopy(argsArray, 0, newArgsArray, 0, parameterTypes.length-1);
+            newArgsArray[parameterTypes.length-1] = varargs;
+            return m.invoke(instance, newArgsArray);
+        }
+        return m.invoke(instance, argsArray);
+    }
+
+    private static boolean varargsMatch(Object[] argsArray, Method m) {
+        if (!m.isVarArgs()) return false;
+        Class<?>[] parameterTypes = m.getParameterTypes();
+        if (!typesMatchUpTo(argsArray, parameterTypes, parameterTypes.length-1)) return false;
+        Class<?> varargType = parameterTypes[parameterTypes.length-1].getComponentType();
+        for (int i=parameterTypes.length-1; i<argsArray.length; i++) {
+            if (!Boxing.boxedType(varargType).isInstance(argsArray[i]) ||
+                    (varargType.isPrimitive() && argsArray[i]==null)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
     /** true iff all args match the corresponding types */
     public static boolean typesMatch(Object[] argsArray, Class<?>[] parameterTypes) {